@@ -5,12 +5,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pi.ms_properties.comparer.dto.PropertyDTOAI;
 import pi.ms_properties.comparer.service.AzureOpenAIService;
+import pi.ms_properties.comparer.service.ComparerExecutor;
 import pi.ms_properties.comparer.service.GeolocationService;
-import pi.ms_properties.dto.PropertyDTO;
 import pi.ms_properties.dto.PropertySimpleDTO;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+// las respuestas son asincronas: el hilo de Tomcat se libera mientras se espera a Google Maps y a la IA
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/compare")
@@ -20,29 +22,32 @@ public class ComparisonController {
 
     private final AzureOpenAIService azureOpenAIService;
 
+    private final ComparerExecutor comparerExecutor;
+
     @PostMapping
-    public ResponseEntity<String> comparer(@RequestBody List<PropertyDTOAI> properties) {
+    public CompletableFuture<ResponseEntity<String>> comparer(@RequestBody List<PropertyDTOAI> properties) {
         if (properties.size() < 2 || properties.size() > 3) {
-            return ResponseEntity.badRequest().body("Debe enviar 2 o 3 propiedades.");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Debe enviar 2 o 3 propiedades."));
         }
 
-        List<PropertyDTOAI> geolocated = properties.stream()
+        // las propiedades sin coordenadas se geolocalizan en paralelo
+        List<CompletableFuture<PropertyDTOAI>> geolocated = properties.stream()
                 .map(p -> {
                     if (p.getLatitude() != null && p.getLongitude() != null) {
-                        return p;
+                        return CompletableFuture.completedFuture(p);
                     }
-                    return geoService.geolocation(p);
+                    return comparerExecutor.submit(() -> geoService.geolocation(p));
                 })
                 .toList();
 
-        String result = azureOpenAIService.compareProperties(geolocated);
-
-        return ResponseEntity.ok(result);
+        return CompletableFuture.allOf(geolocated.toArray(CompletableFuture[]::new))
+                .thenCompose(done -> comparerExecutor.submit(() ->
+                        azureOpenAIService.compareProperties(geolocated.stream().map(CompletableFuture::join).toList())))
+                .thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<PropertySimpleDTO>> searchFull(@RequestParam String query) {
-        return azureOpenAIService.searchAndReturnProperties(query);
+    public CompletableFuture<ResponseEntity<List<PropertySimpleDTO>>> searchFull(@RequestParam String query) {
+        return comparerExecutor.submit(() -> azureOpenAIService.searchAndReturnProperties(query));
     }
 }
-
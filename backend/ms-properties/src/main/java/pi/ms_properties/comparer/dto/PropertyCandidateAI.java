@@ -0,0 +1,27 @@
+package pi.ms_properties.comparer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// proyeccion reducida de una propiedad para el prompt de busqueda, los campos nulos no se envian
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PropertyCandidateAI {
+    private Long id;
+    private String type;
+    private String neighborhood;
+    private String operation;
+    private Float rooms;
+    private Float bedrooms;
+    private Float bathrooms;
+    private BigDecimal price;
+    private String currency;
+    private List<String> amenities;
+}
@@ -0,0 +1,308 @@
+package pi.ms_properties.comparer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// punto unico de salida hacia Azure OpenAI: limita pedidos y tokens por minuto, une prompts identicos en curso
+// y reintenta los 429 y 5xx con espera exponencial o la que indique Retry-After; todas las esperas y reintentos
+// comparten un plazo total para no seguir gastando cupo cuando el cliente ya corto
+@Component
+public class AzureGateway {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // estimacion gruesa de tokens a partir del largo del cuerpo
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final ComparerExecutor comparerExecutor;
+
+    private final TokenBucket bucket;
+
+    private final int maxRetries;
+
+    private final Duration backoff;
+
+    private final Duration deadline;
+
+    private final Map<String, CompletableFuture<JsonNode>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Timer queueTimer;
+
+    private final Timer successTimer;
+
+    private final Timer errorTimer;
+
+    private final Counter retryCounter;
+
+    private final Counter coalescedCounter;
+
+    @Autowired
+    public AzureGateway(MeterRegistry meterRegistry, ComparerExecutor comparerExecutor,
+                        @Value("${comparer.gateway.requests-per-minute:60}") int requestsPerMinute,
+                        @Value("${comparer.gateway.tokens-per-minute:60000}") int tokensPerMinute,
+                        @Value("${comparer.gateway.max-retries:3}") int maxRetries,
+                        @Value("${comparer.gateway.backoff-millis:500}") long backoffMillis,
+                        @Value("${comparer.gateway.deadline-seconds:80}") long deadlineSeconds) {
+        this(meterRegistry, comparerExecutor, requestsPerMinute, tokensPerMinute, maxRetries,
+                Duration.ofMillis(backoffMillis), Duration.ofSeconds(deadlineSeconds));
+    }
+
+    public AzureGateway(MeterRegistry meterRegistry, ComparerExecutor comparerExecutor,
+                        int requestsPerMinute, int tokensPerMinute, int maxRetries,
+                        Duration backoff, Duration deadline) {
+        this.comparerExecutor = comparerExecutor;
+        this.bucket = new TokenBucket(requestsPerMinute, tokensPerMinute);
+        this.maxRetries = maxRetries;
+        this.backoff = backoff;
+        this.deadline = deadline;
+
+        Gauge.builder("azure.openai.queue.size", waiting, AtomicInteger::get)
+                .description("Pedidos esperando cupo para llamar a Azure")
+                .register(meterRegistry);
+        this.queueTimer = Timer.builder("azure.openai.queue.wait")
+                .description("Espera hasta obtener cupo en el limite de Azure")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.successTimer = latency(meterRegistry, "success");
+        this.errorTimer = latency(meterRegistry, "error");
+        this.retryCounter = meterRegistry.counter("azure.openai.retries");
+        this.coalescedCounter = meterRegistry.counter("azure.openai.coalesced");
+    }
+
+    private static Timer latency(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("azure.openai.latency")
+                .description("Duracion de las llamadas a Azure, con reintentos")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // body es el cuerpo que se envia: identifica el prompt y estima los tokens;
+    // request arma la llamada, se vuelve a invocar en cada reintento
+    public JsonNode execute(Map<String, Object> body, Supplier<Mono<JsonNode>> request) {
+        String serialized = serialize(body);
+        String key = hash(serialized);
+
+        CompletableFuture<JsonNode> pending = new CompletableFuture<>();
+        CompletableFuture<JsonNode> running = inFlight.putIfAbsent(key, pending);
+        if (running != null) {
+            coalescedCounter.increment();
+            return await(running);
+        }
+
+        try {
+            JsonNode response = send(tokens(serialized, body), request);
+            pending.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private JsonNode send(int tokens, Supplier<Mono<JsonNode>> request) {
+        long start = System.nanoTime();
+        long deadlineNanos = start + deadline.toNanos();
+        try {
+            for (int attempt = 0; ; attempt++) {
+                acquire(tokens, remaining(deadlineNanos));
+                try {
+                    Duration callTimeout = min(comparerExecutor.azureTimeout(), remaining(deadlineNanos));
+                    JsonNode response = comparerExecutor.callAzure(() -> request.get()
+                            .timeout(callTimeout)
+                            .block(), remaining(deadlineNanos));
+                    successTimer.record(Duration.ofNanos(System.nanoTime() - start));
+                    return response;
+                } catch (WebClientResponseException e) {
+                    if (attempt >= maxRetries || !retryable(e)) throw e;
+                    Duration wait = retryAfter(e).orElse(delay(attempt));
+                    // si la espera no entra en el plazo se corta ahora en vez de gastar otro intento
+                    if (wait.compareTo(remaining(deadlineNanos)) >= 0) throw e;
+                    retryCounter.increment();
+                    sleep(wait);
+                }
+            }
+        } catch (RuntimeException e) {
+            errorTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            throw e;
+        }
+    }
+
+    private void acquire(int tokens, Duration timeout) {
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if (!bucket.acquire(tokens, timeout)) {
+                throw new IllegalStateException("Se alcanzo el limite de consultas a la IA, intente nuevamente");
+            }
+        } finally {
+            waiting.decrementAndGet();
+            queueTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private static Duration remaining(long deadlineNanos) {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    // Azure manda retry-after-ms y Retry-After (segundos o fecha HTTP)
+    private static Optional<Duration> retryAfter(WebClientResponseException e) {
+        HttpHeaders headers = e.getHeaders();
+        try {
+            String millis = headers.getFirst("retry-after-ms");
+            if (millis != null) return Optional.of(Duration.ofMillis(Long.parseLong(millis.trim())));
+
+            String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+            if (value == null) return Optional.empty();
+            if (value.trim().chars().allMatch(Character::isDigit)) {
+                return Optional.of(Duration.ofSeconds(Long.parseLong(value.trim())));
+            }
+            ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration wait = Duration.between(ZonedDateTime.now(date.getZone()), date);
+            return Optional.of(wait.isNegative() ? Duration.ZERO : wait);
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private static boolean retryable(WebClientResponseException e) {
+        return e.getStatusCode().value() == 429 || e.getStatusCode().is5xxServerError();
+    }
+
+    // espera exponencial con variacion aleatoria para que los reintentos no salgan todos juntos
+    private Duration delay(int attempt) {
+        long base = backoff.toMillis() << Math.min(attempt, 10);
+        return Duration.ofMillis(base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta a la IA interrumpida", e);
+        }
+    }
+
+    private static int tokens(String serialized, Map<String, Object> body) {
+        Object completion = body.get("max_completion_tokens");
+        int expected = completion instanceof Number number ? number.intValue() : 0;
+        return serialized.length() / CHARS_PER_TOKEN + expected;
+    }
+
+    private static JsonNode await(CompletableFuture<JsonNode> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static String serialize(Map<String, Object> body) {
+        try {
+            return MAPPER.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // dos baldes que se recargan de forma continua: pedidos por minuto y tokens por minuto
+    private static final class TokenBucket {
+
+        private final double requestCapacity;
+
+        private final double tokenCapacity;
+
+        private double requests;
+
+        private double tokens;
+
+        private long refilledAt = System.nanoTime();
+
+        private TokenBucket(int requestsPerMinute, int tokensPerMinute) {
+            this.requestCapacity = requestsPerMinute;
+            this.tokenCapacity = tokensPerMinute;
+            this.requests = requestsPerMinute;
+            this.tokens = tokensPerMinute;
+        }
+
+        private boolean acquire(int wanted, Duration timeout) {
+            // un pedido mas grande que el balde solo puede esperar a tenerlo lleno
+            double needed = Math.min(wanted, tokenCapacity);
+            long deadline = System.nanoTime() + timeout.toNanos();
+
+            while (true) {
+                long waitNanos;
+                synchronized (this) {
+                    refill();
+                    if (requests >= 1 && tokens >= needed) {
+                        requests -= 1;
+                        tokens -= needed;
+                        return true;
+                    }
+                    double requestWait = requests >= 1 ? 0 : (1 - requests) / requestCapacity;
+                    double tokenWait = tokens >= needed ? 0 : (needed - tokens) / tokenCapacity;
+                    waitNanos = (long) (Math.max(requestWait, tokenWait) * 60_000_000_000L) + 1;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (waitNanos > remaining) return false;
+                sleep(Duration.ofNanos(waitNanos));
+            }
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            double minutes = (now - refilledAt) / 60_000_000_000d;
+            refilledAt = now;
+            requests = Math.min(requestCapacity, requests + minutes * requestCapacity);
+            tokens = Math.min(tokenCapacity, tokens + minutes * tokenCapacity);
+        }
+    }
+}
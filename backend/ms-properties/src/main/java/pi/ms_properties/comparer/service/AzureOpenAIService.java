@@ -4,25 +4,20 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import pi.ms_properties.comparer.dto.PropertyCandidateAI;
 import pi.ms_properties.comparer.dto.PropertyDTOAI;
 import pi.ms_properties.domain.Property;
 import pi.ms_properties.dto.PropertyDTO;
 import pi.ms_properties.dto.PropertyFilterDTO;
 import pi.ms_properties.dto.PropertySimpleDTO;
-import pi.ms_properties.repository.IAmenityRepository;
-import pi.ms_properties.repository.INeighborhoodRepository;
 import pi.ms_properties.repository.IPropertyRepository;
-import pi.ms_properties.repository.ITypeRepository;
 import pi.ms_properties.service.interf.IPropertyService;
 
 import java.util.List;
@@ -48,19 +43,37 @@ public class AzureOpenAIService {
 
     private final IPropertyRepository propertyRepository;
 
-    private final IAmenityRepository amenityRepository;
+    private final IPropertyService propertyService;
 
-    private final ITypeRepository typeRepository;
+    private final ComparisonCache comparisonCache;
 
-    private final INeighborhoodRepository neighborhoodRepository;
+    private final SearchCandidateSelector searchCandidateSelector;
 
-    private final IPropertyService propertyService;
+    private final FilterVocabulary filterVocabulary;
+
+    private final AzureGateway azureGateway;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
 
     private final WebClient webClient = WebClient.builder()
             .defaultHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
             .build();
 
     public String compareProperties(List<PropertyDTOAI> properties) {
+        // el orden en que llegan no cambia la comparacion, se ordenan para que el prompt sea el mismo para la clave
+        List<PropertyDTOAI> ordered = ComparisonCache.canonicalOrder(properties);
+
+        try {
+            String result = comparisonCache.get(ordered, () -> requestComparison(ordered));
+            return result == null ? "Azure no devolvió contenido" : result;
+
+        } catch (Exception e) {
+            return "Error al comunicarse con Azure: " + e.getMessage();
+        }
+    }
+
+    // null si Azure responde sin contenido, asi no queda guardado en la cache
+    private String requestComparison(List<PropertyDTOAI> properties) {
         String prompt = generatePrompt(properties);
 
         Map<String, Object> body = Map.of(
@@ -80,23 +93,17 @@ public class AzureOpenAIService {
                 endpoint, deployment, apiVersion
         );
 
-        try {
-            JsonNode response = webClient.post()
-                    .uri(url)
-                    .header("api-key", apiKey)
-                    .header("Accept", "application/json")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(body)
-                    .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .block();
-
-            String result = response.at("/choices/0/message/content").asText();
-            return result.isEmpty() ? "Azure no devolvió contenido" : result;
-
-        } catch (Exception e) {
-            return "Error al comunicarse con Azure: " + e.getMessage();
-        }
+        JsonNode response = azureGateway.execute(body, () -> webClient.post()
+                .uri(url)
+                .header("api-key", apiKey)
+                .header("Accept", "application/json")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(JsonNode.class));
+
+        String result = response.at("/choices/0/message/content").asText();
+        return result.isEmpty() ? null : result;
     }
 
     private String generatePrompt(List<PropertyDTOAI> properties) {
@@ -152,7 +159,6 @@ public class AzureOpenAIService {
         return sb.toString();
     }
 
-    @Transactional
     public ResponseEntity<List<PropertySimpleDTO>> searchAndReturnProperties(String userQuery) {
         try {
             PropertyFilterDTO filters = extractFilters(userQuery);
@@ -161,23 +167,25 @@ public class AzureOpenAIService {
 
             base = filterAmenities(base, filters);
 
-            base = base.stream().toList();
-
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new JavaTimeModule());
-            mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-            List<Map<String, Object>> propsForAI = base.stream()
-                    .map(p -> mapper.convertValue(p, new TypeReference<Map<String, Object>>() {}))
-                    .toList();
+            // solo las mejores candidatas locales, con los campos justos, llegan al prompt
+            List<PropertyCandidateAI> candidates = searchCandidateSelector.select(userQuery, filters, base);
+            if (candidates.isEmpty()) {
+                return ResponseEntity.ok(List.of());
+            }
 
-            String iaResponse = searchProperties(userQuery, propsForAI);
+            String iaResponse = searchProperties(userQuery, candidates);
 
-            List<Map<String, Object>> iaResult = mapper.readValue(
+            List<Map<String, Object>> iaResult = MAPPER.readValue(
                     iaResponse,
                     new TypeReference<List<Map<String, Object>>>() {}
             );
 
+            // se descartan los ids que la IA no recibio
+            Set<Long> candidateIds = candidates.stream().map(PropertyCandidateAI::getId).collect(Collectors.toSet());
+            iaResult = iaResult.stream()
+                    .filter(m -> m.get("id") != null && candidateIds.contains(Long.valueOf(m.get("id").toString())))
+                    .toList();
+
             return propertyService.getPropertiesByIAResult(iaResult);
         } catch (Exception e) {
             e.printStackTrace();
@@ -186,22 +194,21 @@ public class AzureOpenAIService {
         }
     }
 
-    public String searchProperties(String userQuery, List<Map<String, Object>> filteredProperties) {
+    public String searchProperties(String userQuery, List<PropertyCandidateAI> candidates) {
         try {
-            Map<String, Object> body = getPromptSearch(userQuery, filteredProperties);
+            Map<String, Object> body = getPromptSearch(userQuery, candidates);
 
             String url = String.format(
                     "%s/openai/deployments/%s/chat/completions?api-version=%s",
                     endpoint, deployment, apiVersion
             );
 
-            JsonNode response = webClient.post()
+            JsonNode response = azureGateway.execute(body, () -> webClient.post()
                     .uri(url)
                     .header("api-key", apiKey)
                     .bodyValue(body)
                     .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .block();
+                    .bodyToMono(JsonNode.class));
 
             return response.at("/choices/0/message/content").asText();
 
@@ -231,26 +238,7 @@ public class AzureOpenAIService {
 
     public PropertyFilterDTO extractFilters(String userQuery) {
         try {
-            List<String> amenities = amenityRepository.findAll()
-                    .stream()
-                    .map(a -> a.getName().toLowerCase())
-                    .toList();
-
-            String amenitiesJson = new ObjectMapper().writeValueAsString(amenities);
-
-            List<String> types = typeRepository.findAll()
-                    .stream()
-                    .map(t -> t.getName().toLowerCase())
-                    .toList();
-
-            String typesJson = new ObjectMapper().writeValueAsString(types);
-
-            List<String> neighborhoods = neighborhoodRepository.findAll()
-                    .stream()
-                    .map(n -> n.getName().toLowerCase())
-                    .toList();
-
-            String neighborhoodsJson = new ObjectMapper().writeValueAsString(neighborhoods);
+            FilterVocabulary.Snapshot vocabulary = filterVocabulary.snapshot();
 
             String prompt = """
             Extraé filtros inmobiliarios del texto: "%s".
@@ -271,27 +259,26 @@ public class AzureOpenAIService {
             - "hasta X"→price=X
             - rooms = ambientes, cantidad de lugares; bedrooms = dormitorios, donde se duerme.
             - Si falta un dato → null.
-            """.formatted(userQuery, typesJson, neighborhoodsJson, amenitiesJson);
+            """.formatted(userQuery, vocabulary.types(), vocabulary.neighborhoods(), vocabulary.amenities());
+
+            Map<String, Object> body = Map.of(
+                    "messages", List.of(
+                            Map.of("role", "system", "content", "Sos un extractor de filtros inmobiliarios."),
+                            Map.of("role", "user", "content", prompt)
+                    ),
+                    "max_completion_tokens", 1000
+            );
 
-            JsonNode response = webClient.post()
+            JsonNode response = azureGateway.execute(body, () -> webClient.post()
                     .uri(endpoint + "/openai/deployments/" + deployment + "/chat/completions?api-version=" + apiVersion)
                     .header("api-key", apiKey)
-                    .bodyValue(Map.of(
-                            "messages", List.of(
-                                    Map.of("role", "system", "content", "Sos un extractor de filtros inmobiliarios."),
-                                    Map.of("role", "user", "content", prompt)
-                            ),
-                            "max_completion_tokens", 1000
-                    ))
+                    .bodyValue(body)
                     .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .block();
+                    .bodyToMono(JsonNode.class));
 
             String json = response.get("choices").get(0).get("message").get("content").asText();
 
-            ObjectMapper mapper = new ObjectMapper();
-
-            return mapper.readValue(json, PropertyFilterDTO.class);
+            return MAPPER.readValue(json, PropertyFilterDTO.class);
         } catch (JsonProcessingException ex) {
             ex.printStackTrace();
             return new PropertyFilterDTO();
@@ -304,11 +291,11 @@ public class AzureOpenAIService {
         }
     }
 
-    private static Map<String, Object> getPromptSearch(String userQuery, List<Map<String, Object>> properties) {
+    private static Map<String, Object> getPromptSearch(String userQuery, List<PropertyCandidateAI> properties) {
         String systemPrompt = """
         Devolvé un JSON con coincidencias entre la consulta del usuario y la lista de propiedades.
-        Cada propiedad tiene: id, type, neighborhood, address, rooms, bedrooms, bathrooms,
-        operation, currency, price, amenities.
+        Cada propiedad tiene: id, type, neighborhood, operation, rooms, bedrooms, bathrooms,
+        price, currency, amenities. Los campos que faltan no tienen dato.
         Respondé así:
         [
           { "id": number, "score": number }
@@ -316,11 +303,9 @@ public class AzureOpenAIService {
         No inventes propiedades. Ordená por score.
         """;
 
-        ObjectMapper mapper = new ObjectMapper();
-
         String userPromptJson;
         try {
-            userPromptJson = mapper.writeValueAsString(
+            userPromptJson = MAPPER.writeValueAsString(
                     Map.of(
                             "query", userQuery,
                             "properties", properties
@@ -0,0 +1,73 @@
+package pi.ms_properties.comparer.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// ejecuta las consultas del comparador fuera de los hilos de Tomcat, en hilos virtuales,
+// y limita cuantas llamadas a Azure puede haber en curso al mismo tiempo
+@Component
+public class ComparerExecutor {
+
+    private final ExecutorService executor;
+
+    private final Semaphore azurePermits;
+
+    private final Duration azureTimeout;
+
+    @Autowired
+    public ComparerExecutor(@Value("${comparer.azure.max-concurrent:8}") int maxConcurrent,
+                            @Value("${comparer.azure.timeout-seconds:30}") long timeoutSeconds) {
+        this(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("comparer-", 0).factory()),
+                maxConcurrent, Duration.ofSeconds(timeoutSeconds));
+    }
+
+    public ComparerExecutor(ExecutorService executor, int maxConcurrent, Duration azureTimeout) {
+        // propaga el contexto de seguridad a las tareas
+        this.executor = new DelegatingSecurityContextExecutorService(executor);
+        this.azurePermits = new Semaphore(maxConcurrent, true);
+        this.azureTimeout = azureTimeout;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    // espera un lugar como mucho el mismo tiempo que se le da a la llamada
+    public <T> T callAzure(Supplier<T> call) {
+        return callAzure(call, azureTimeout);
+    }
+
+    // maxWait acota la espera de un lugar, por ejemplo al tiempo que le queda al pedido
+    public <T> T callAzure(Supplier<T> call, Duration maxWait) {
+        try {
+            if (!azurePermits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Demasiadas consultas a la IA en curso, intente nuevamente");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta a la IA interrumpida", e);
+        }
+
+        try {
+            return call.get();
+        } finally {
+            azurePermits.release();
+        }
+    }
+
+    public Duration azureTimeout() {
+        return azureTimeout;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
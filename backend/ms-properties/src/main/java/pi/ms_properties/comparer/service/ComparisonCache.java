@@ -0,0 +1,221 @@
+package pi.ms_properties.comparer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pi.ms_properties.comparer.dto.PropertyDTOAI;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// cache de comparaciones generadas por la IA: el mismo conjunto de propiedades, en cualquier orden, reutiliza la respuesta
+@Component
+public class ComparisonCache {
+
+    private record Entry(String response, Set<String> names, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries;
+
+    // comparaciones en curso: los pedidos iguales que llegan mientras tanto esperan la misma respuesta
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final Clock clock;
+
+    private final long ttlMillis;
+
+    // se incrementa en cada invalidacion, una comparacion que empezo antes no puede guardar su resultado
+    private long generation;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final Counter sharedCounter;
+
+    private final Counter evictionCounter;
+
+    @Autowired
+    public ComparisonCache(MeterRegistry meterRegistry,
+                           @Value("${comparer.cache.max-entries:200}") int maxEntries,
+                           @Value("${comparer.cache.ttl-seconds:86400}") long ttlSeconds) {
+        this(meterRegistry, maxEntries, ttlSeconds, Clock.systemUTC());
+    }
+
+    public ComparisonCache(MeterRegistry meterRegistry, int maxEntries, long ttlSeconds, Clock clock) {
+        this.clock = clock;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictionCounter.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        Gauge.builder("comparer.cache.size", this, ComparisonCache::size)
+                .description("Comparaciones de propiedades en cache")
+                .register(meterRegistry);
+        this.hitCounter = meterRegistry.counter("comparer.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("comparer.cache", "result", "miss");
+        this.sharedCounter = meterRegistry.counter("comparer.cache", "result", "shared");
+        this.evictionCounter = meterRegistry.counter("comparer.cache.evictions");
+    }
+
+    // orden estable de las propiedades: el prompt que se arma con este orden es el mismo para toda la clave
+    public static List<PropertyDTOAI> canonicalOrder(List<PropertyDTOAI> properties) {
+        return properties.stream()
+                .sorted(Comparator.comparing(ComparisonCache::canonical))
+                .toList();
+    }
+
+    // sha-256 de las propiedades serializadas campo por campo y ordenadas
+    public static String key(List<PropertyDTOAI> properties) {
+        String joined = String.join("\n", properties.stream().map(ComparisonCache::canonical).sorted().toList());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(joined.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String canonical(PropertyDTOAI property) {
+        List<String> amenities = property.getAmenities() == null ? List.of() : property.getAmenities().stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .sorted()
+                .toList();
+
+        return String.join("|",
+                String.valueOf(property.getName()), String.valueOf(property.getAddress()),
+                String.valueOf(property.getLatitude()), String.valueOf(property.getLongitude()),
+                String.valueOf(property.getRooms()), String.valueOf(property.getBathrooms()),
+                String.valueOf(property.getBedrooms()), String.valueOf(property.getArea()),
+                String.valueOf(property.getCoveredArea()), String.valueOf(property.getPrice()),
+                String.valueOf(property.getOperation()), String.valueOf(property.getType()),
+                String.join(",", amenities));
+    }
+
+    // devuelve la respuesta guardada o la genera una sola vez aunque haya pedidos concurrentes;
+    // las respuestas null y los errores no se guardan
+    public String get(List<PropertyDTOAI> properties, Supplier<String> loader) {
+        String key = key(properties);
+
+        long startedAt;
+        synchronized (this) {
+            String cached = cached(key);
+            if (cached != null) {
+                hitCounter.increment();
+                return cached;
+            }
+            startedAt = generation;
+        }
+
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, pending);
+        if (running != null) {
+            sharedCounter.increment();
+            return await(running);
+        }
+
+        try {
+            // otro pedido pudo haber terminado y guardado la respuesta entre la consulta y el registro
+            String cached = cached(key);
+            if (cached != null) {
+                pending.complete(cached);
+                return cached;
+            }
+
+            missCounter.increment();
+            String response = loader.get();
+            if (response != null) {
+                store(key, response, names(properties), startedAt);
+            }
+            pending.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    // descarta las comparaciones que incluyen la propiedad con ese titulo; dentro de una transaccion
+    // se descartan otra vez al confirmarla, por si una comparacion leyo la fila antes del commit
+    public void invalidate(String name) {
+        if (name == null) return;
+
+        remove(name);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(name);
+                }
+            });
+        }
+    }
+
+    private synchronized void remove(String name) {
+        generation++;
+        String normalized = normalize(name);
+        entries.values().removeIf(entry -> entry.names().contains(normalized));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized String cached(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.expiresAt() <= clock.millis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.response();
+    }
+
+    private synchronized void store(String key, String response, Set<String> names, long startedAt) {
+        if (startedAt != generation) return;
+        entries.put(key, new Entry(response, names, clock.millis() + ttlMillis));
+    }
+
+    private static String await(CompletableFuture<String> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static Set<String> names(List<PropertyDTOAI> properties) {
+        Set<String> names = new HashSet<>();
+        for (PropertyDTOAI property : properties) {
+            if (property.getName() != null) names.add(normalize(property.getName()));
+        }
+        return names;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,86 @@
+package pi.ms_properties.comparer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pi.ms_properties.domain.Amenity;
+import pi.ms_properties.domain.Neighborhood;
+import pi.ms_properties.domain.Type;
+import pi.ms_properties.repository.IAmenityRepository;
+import pi.ms_properties.repository.INeighborhoodRepository;
+import pi.ms_properties.repository.ITypeRepository;
+
+import java.util.List;
+
+// valores validos para la extraccion de filtros, ya serializados; se recalculan solo cuando cambia alguno
+@Component
+@RequiredArgsConstructor
+public class FilterVocabulary {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public record Snapshot(String amenities, String types, String neighborhoods) {
+    }
+
+    private final IAmenityRepository amenityRepository;
+
+    private final ITypeRepository typeRepository;
+
+    private final INeighborhoodRepository neighborhoodRepository;
+
+    private volatile Snapshot snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        snapshot = new Snapshot(amenities(), types(), neighborhoods());
+    }
+
+    // si todavia no se armo, se arma en la primera consulta
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) return current;
+
+        synchronized (this) {
+            if (snapshot == null) rebuild();
+            return snapshot;
+        }
+    }
+
+    public synchronized void refreshAmenities() {
+        if (snapshot == null) return;
+        snapshot = new Snapshot(amenities(), snapshot.types(), snapshot.neighborhoods());
+    }
+
+    public synchronized void refreshTypes() {
+        if (snapshot == null) return;
+        snapshot = new Snapshot(snapshot.amenities(), types(), snapshot.neighborhoods());
+    }
+
+    public synchronized void refreshNeighborhoods() {
+        if (snapshot == null) return;
+        snapshot = new Snapshot(snapshot.amenities(), snapshot.types(), neighborhoods());
+    }
+
+    private String amenities() {
+        return json(amenityRepository.findAll().stream().map(Amenity::getName).toList());
+    }
+
+    private String types() {
+        return json(typeRepository.findAll().stream().map(Type::getName).toList());
+    }
+
+    private String neighborhoods() {
+        return json(neighborhoodRepository.findAll().stream().map(Neighborhood::getName).toList());
+    }
+
+    private static String json(List<String> names) {
+        try {
+            return MAPPER.writeValueAsString(names.stream().map(String::toLowerCase).toList());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
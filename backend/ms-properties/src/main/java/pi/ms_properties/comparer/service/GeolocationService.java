@@ -5,42 +5,50 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import pi.ms_properties.comparer.dto.PropertyDTOAI;
+import pi.ms_properties.service.impl.GeocodeCache;
+import pi.ms_properties.service.impl.GeocodingNeighborhoodService;
+
+import java.time.Duration;
+import java.util.Optional;
 
 @Service
 public class GeolocationService {
 
     private final WebClient webClient;
     private final String googleMapsApiKey;
+    private final Duration timeout;
+    private final GeocodeCache geocodeCache;
 
     public GeolocationService(WebClient.Builder webClientBuilder,
-                              @Value("${google.maps.api-key}") String googleMapsApiKey) {
+                              @Value("${google.maps.api-key}") String googleMapsApiKey,
+                              @Value("${comparer.geolocation.timeout-seconds:5}") long timeoutSeconds,
+                              GeocodeCache geocodeCache) {
         this.webClient = webClientBuilder
                 .baseUrl("https://maps.googleapis.com")
                 .build();
         this.googleMapsApiKey = googleMapsApiKey;
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.geocodeCache = geocodeCache;
     }
 
     public PropertyDTOAI geolocation(PropertyDTOAI property) {
         try {
-            JsonNode result = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/maps/api/geocode/json")
-                            .queryParam("address", property.getAddress())
-                            .queryParam("key", googleMapsApiKey)
-                            .build())
-                    .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .block();
-
-            JsonNode results = result != null ? result.get("results") : null;
-            if (results != null && results.isArray() && !results.isEmpty()) {
-                JsonNode location = results.get(0).path("geometry").path("location");
-                if (location.has("lat") && location.has("lng")) {
-                    property.setLatitude(location.get("lat").asDouble());
-                    property.setLongitude(location.get("lng").asDouble());
-                }
-            }
-
+            Optional<GeocodingNeighborhoodService.Coordinates> coordinates =
+                    geocodeCache.get(property.getAddress(), () -> webClient.get()
+                            .uri(uriBuilder -> uriBuilder
+                                    .path("/maps/api/geocode/json")
+                                    .queryParam("address", property.getAddress())
+                                    .queryParam("key", googleMapsApiKey)
+                                    .build())
+                            .retrieve()
+                            .bodyToMono(JsonNode.class)
+                            .timeout(timeout)
+                            .block());
+
+            coordinates.ifPresent(c -> {
+                property.setLatitude(c.latitude());
+                property.setLongitude(c.longitude());
+            });
         } catch (Exception e) {
             System.out.println("Error geolocalizando: " + e.getMessage());
         }
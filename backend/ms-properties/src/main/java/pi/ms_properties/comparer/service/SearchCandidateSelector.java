@@ -0,0 +1,85 @@
+package pi.ms_properties.comparer.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pi.ms_properties.comparer.dto.PropertyCandidateAI;
+import pi.ms_properties.domain.Amenity;
+import pi.ms_properties.domain.Property;
+import pi.ms_properties.dto.PropertyFilterDTO;
+import pi.ms_properties.service.impl.PropertyTextIndex;
+
+import java.util.*;
+
+// primera etapa de la busqueda con IA: puntua localmente las propiedades filtradas
+// y solo las mejores llegan al prompt, asi su tamaño no depende del catalogo
+@Component
+public class SearchCandidateSelector {
+
+    private record Scored(Property property, float score) {
+    }
+
+    private static final Comparator<Scored> RANKING = Comparator.comparingDouble(Scored::score)
+            .thenComparing(scored -> Boolean.TRUE.equals(scored.property().getOutstanding()))
+            .thenComparing(scored -> scored.property().getId(), Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final PropertyTextIndex propertyTextIndex;
+
+    private final int maxCandidates;
+
+    public SearchCandidateSelector(PropertyTextIndex propertyTextIndex,
+                                   @Value("${comparer.search.max-candidates:30}") int maxCandidates) {
+        this.propertyTextIndex = propertyTextIndex;
+        this.maxCandidates = maxCandidates;
+    }
+
+    public List<PropertyCandidateAI> select(String query, PropertyFilterDTO filters, List<Property> properties) {
+        // el texto se puntua con el indice, sin volver a tokenizar cada propiedad
+        Map<Long, Float> text = propertyTextIndex.score(query,
+                properties.stream().map(Property::getId).filter(Objects::nonNull).toList());
+
+        // min-heap de tamaño K: el peor de los elegidos queda arriba para reemplazarlo
+        PriorityQueue<Scored> best = new PriorityQueue<>(RANKING);
+        for (Property property : properties) {
+            float score = structured(property, filters) + text.getOrDefault(property.getId(), 0f);
+
+            best.offer(new Scored(property, score));
+            if (best.size() > maxCandidates) best.poll();
+        }
+
+        List<Scored> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING.reversed());
+        return ranked.stream().map(scored -> project(scored.property())).toList();
+    }
+
+    public static PropertyCandidateAI project(Property property) {
+        List<String> amenities = property.getAmenities() == null ? null : property.getAmenities().stream()
+                .map(Amenity::getName)
+                .sorted()
+                .toList();
+
+        return new PropertyCandidateAI(
+                property.getId(),
+                property.getType() == null ? null : property.getType().getName(),
+                property.getNeighborhood() == null ? null : property.getNeighborhood().getName(),
+                property.getOperation() == null ? null : property.getOperation().name(),
+                property.getRooms(),
+                property.getBedrooms(),
+                property.getBathrooms(),
+                property.getPrice(),
+                property.getCurrency() == null ? null : property.getCurrency().name(),
+                amenities == null || amenities.isEmpty() ? null : amenities);
+    }
+
+    // los filtros ya vienen aplicados como minimos, se premia a la que mas se acerca a lo pedido
+    private static float structured(Property property, PropertyFilterDTO filters) {
+        if (filters == null) return 0f;
+        return closeness(filters.getRooms(), property.getRooms())
+                + closeness(filters.getBedrooms(), property.getBedrooms())
+                + closeness(filters.getBathrooms(), property.getBathrooms());
+    }
+
+    private static float closeness(Float requested, Float actual) {
+        if (requested == null || actual == null) return 0f;
+        return 1f / (1f + Math.abs(actual - requested));
+    }
+}
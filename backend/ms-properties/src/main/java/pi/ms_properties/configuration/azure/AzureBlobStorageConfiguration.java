@@ -8,7 +8,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
-@Profile("!test")
+// con el perfil filesystem-storage las imagenes se guardan en disco y no se conecta a Azure
+@Profile("!test & !filesystem-storage")
 @Configuration
 public class AzureBlobStorageConfiguration {
 
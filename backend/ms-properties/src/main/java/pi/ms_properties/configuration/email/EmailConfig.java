@@ -26,6 +26,10 @@ public class EmailConfig {
         properties.put("mail.smtp.host", "smtp.gmail.com");
         properties.put("mail.smtp.port", "587");
         properties.put("mail.smtp.ssl.trust", "smtp.gmail.com");
+        // un servidor lento no debe dejar bloqueados a los workers de EmailOutboxDispatcher
+        properties.put("mail.smtp.connectiontimeout", "10000");
+        properties.put("mail.smtp.timeout", "10000");
+        properties.put("mail.smtp.writetimeout", "10000");
         return properties;
     }
 
@@ -0,0 +1,23 @@
+package pi.ms_properties.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import pi.ms_properties.dto.DashboardSnapshotDTO;
+import pi.ms_properties.service.interf.IDashboardService;
+
+@RestController
+@RequestMapping("/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final IDashboardService dashboardService;
+
+    @PreAuthorize("hasRole('admin')")
+    @GetMapping("/snapshot")
+    public ResponseEntity<DashboardSnapshotDTO> getSnapshot(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return dashboardService.getSnapshot(ifNoneMatch);
+    }
+}
@@ -1,6 +1,7 @@
 package pi.ms_properties.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -48,4 +49,10 @@ public class ImageController {
         String url = imageService.getNoticeImageURL(imageName);
         return ResponseEntity.ok(url);
     }
+
+    // sirve el archivo guardado, usado por el almacenamiento en disco (perfil filesystem-storage)
+    @GetMapping("/raw/{name}")
+    public ResponseEntity<Resource> getRaw(@PathVariable String name) {
+        return imageService.getRawImage(name);
+    }
 }
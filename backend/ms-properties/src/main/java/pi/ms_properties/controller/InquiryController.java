@@ -1,6 +1,7 @@
 package pi.ms_properties.controller;
 
 import jakarta.mail.MessagingException;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -9,8 +10,10 @@ import pi.ms_properties.domain.Inquiry;
 import pi.ms_properties.domain.InquiryStatus;
 import pi.ms_properties.dto.InquiryGetDTO;
 import pi.ms_properties.dto.InquirySaveDTO;
+import pi.ms_properties.service.interf.IExportService;
 import pi.ms_properties.service.interf.IInquiryService;
 
+import java.io.IOException;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +25,8 @@ public class InquiryController {
 
     private final IInquiryService inquiryService;
 
+    private final IExportService exportService;
+
     @PostMapping("/create")
     public ResponseEntity<String> create(@RequestBody InquirySaveDTO inquirySaveDTO) {
         return inquiryService.create(inquirySaveDTO);
@@ -98,5 +103,11 @@ public class InquiryController {
     public ResponseEntity<Map<String, Long>> getMostConsultedProperties() {
         return inquiryService.getMostConsultedProperties();
     }
+
+    @PreAuthorize("hasRole('admin')")
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+        exportService.exportInquiries(format, response);
+    }
 }
 
@@ -8,6 +8,8 @@ import org.springframework.web.multipart.MultipartFile;
 import pi.ms_properties.domain.Currency;
 import pi.ms_properties.domain.Status;
 import pi.ms_properties.dto.PropertyDTO;
+import pi.ms_properties.dto.PropertyFacetsDTO;
+import pi.ms_properties.dto.PropertyPageDTO;
 import pi.ms_properties.dto.PropertySaveDTO;
 import pi.ms_properties.dto.PropertySimpleDTO;
 import pi.ms_properties.dto.PropertyUpdateDTO;
@@ -71,6 +73,16 @@ public class PropertyController {
         return propertyService.getAllUsers();
     }
 
+    @GetMapping(value = "/getAll", params = "size")
+    public ResponseEntity<PropertyPageDTO> getAllPage(@RequestParam int size, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "date") String sort, @RequestParam(defaultValue = "desc") String direction) {
+        return propertyService.getAllPage(cursor, size, sort, direction);
+    }
+
+    @GetMapping(value = "/get", params = "size")
+    public ResponseEntity<PropertyPageDTO> getAllUsersPage(@RequestParam int size, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "date") String sort, @RequestParam(defaultValue = "desc") String direction) {
+        return propertyService.getAllUsersPage(cursor, size, sort, direction);
+    }
+
     @GetMapping("/getById/{id}")
     public ResponseEntity<PropertyDTO> getById(@PathVariable Long id) {
         return propertyService.getById(id);
@@ -82,8 +94,13 @@ public class PropertyController {
         return propertyService.getByStatus(status);
     }
 
-    @GetMapping("/search") public ResponseEntity<List<PropertyDTO>> searchProperties(@RequestParam(defaultValue = "0") BigDecimal priceFrom, @RequestParam(defaultValue = "0") BigDecimal priceTo, @RequestParam(defaultValue = "0") float areaFrom, @RequestParam(defaultValue = "0") float areaTo, @RequestParam(defaultValue = "0") float coveredAreaFrom, @RequestParam(defaultValue = "0") float coveredAreaTo, @RequestParam(required = false) List<Float> rooms, @RequestParam(defaultValue = "") String operation, @RequestParam(required = false) List<String> types, @RequestParam(required = false) List<String> amenities, @RequestParam(required = false) List<String> cities, @RequestParam(required = false) List<String> neighborhoods, @RequestParam(required = false) List<String> neighborhoodTypes, @RequestParam(required = false) Boolean credit, @RequestParam(required = false) Boolean financing, @RequestParam(required = false) Currency currency, @RequestParam(required = false) Status status) {
-        return propertyService.findBy(priceFrom, priceTo, areaFrom, areaTo, coveredAreaFrom, coveredAreaTo, rooms, operation, types, amenities, cities, neighborhoods, neighborhoodTypes, credit, financing, currency, status);
+    @GetMapping("/search") public ResponseEntity<List<PropertyDTO>> searchProperties(@RequestParam(defaultValue = "0") BigDecimal priceFrom, @RequestParam(defaultValue = "0") BigDecimal priceTo, @RequestParam(defaultValue = "0") float areaFrom, @RequestParam(defaultValue = "0") float areaTo, @RequestParam(defaultValue = "0") float coveredAreaFrom, @RequestParam(defaultValue = "0") float coveredAreaTo, @RequestParam(required = false) List<Float> rooms, @RequestParam(defaultValue = "") String operation, @RequestParam(required = false) List<String> types, @RequestParam(required = false) List<String> amenities, @RequestParam(required = false) List<String> cities, @RequestParam(required = false) List<String> neighborhoods, @RequestParam(required = false) List<String> neighborhoodTypes, @RequestParam(required = false) Boolean credit, @RequestParam(required = false) Boolean financing, @RequestParam(required = false) Currency currency, @RequestParam(required = false) Status status, @RequestParam(required = false) Double latitude, @RequestParam(required = false) Double longitude, @RequestParam(required = false) Double radiusKm) {
+        return propertyService.findBy(priceFrom, priceTo, areaFrom, areaTo, coveredAreaFrom, coveredAreaTo, rooms, operation, types, amenities, cities, neighborhoods, neighborhoodTypes, credit, financing, currency, status, latitude, longitude, radiusKm);
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<PropertyFacetsDTO> getFacets(@RequestParam(required = false) List<String> types, @RequestParam(required = false) List<String> neighborhoods, @RequestParam(required = false) List<String> cities, @RequestParam(required = false) List<String> amenities, @RequestParam(required = false) List<Float> rooms, @RequestParam(required = false) List<String> operations, @RequestParam(required = false) List<Currency> currencies) {
+        return propertyService.getFacets(types, neighborhoods, cities, amenities, rooms, operations, currencies);
     }
 
     @GetMapping("/text")
@@ -1,12 +1,15 @@
 package pi.ms_properties.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import pi.ms_properties.dto.SurveyDTO;
+import pi.ms_properties.service.interf.IExportService;
 import pi.ms_properties.service.interf.ISurveyService;
 
+import java.io.IOException;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +21,8 @@ public class SurveyController {
 
     private final ISurveyService surveyService;
 
+    private final IExportService exportService;
+
     @PostMapping("/create")
     public ResponseEntity<String> createSurvey(@RequestBody SurveyDTO surveyDTO, @RequestParam String token) {
         return surveyService.create(surveyDTO, token);
@@ -58,5 +63,11 @@ public class SurveyController {
     public ResponseEntity<Map<YearMonth, Double>> getMonthlyAverageScore() {
         return surveyService.getMonthlyAverageScore();
     }
+
+    @PreAuthorize("hasRole('admin')")
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+        exportService.exportSurveys(format, response);
+    }
 }
 
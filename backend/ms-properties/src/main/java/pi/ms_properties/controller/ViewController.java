@@ -1,13 +1,17 @@
 package pi.ms_properties.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import pi.ms_properties.service.interf.IExportService;
 import pi.ms_properties.service.interf.IViewService;
 
+import java.io.IOException;
 import java.util.Map;
 
 @RequiredArgsConstructor
@@ -17,6 +21,8 @@ public class ViewController {
 
     private final IViewService viewService;
 
+    private final IExportService exportService;
+
     @PreAuthorize("hasRole('admin')")
     @GetMapping("/property")
     public ResponseEntity<Map<String, Long>> getByProperty() {
@@ -82,4 +88,10 @@ public class ViewController {
     public ResponseEntity<Map<String, Long>> getByAmenity() {
         return viewService.getViewsByAmenity();
     }
+
+    @PreAuthorize("hasRole('admin')")
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+        exportService.exportViews(format, response);
+    }
 }
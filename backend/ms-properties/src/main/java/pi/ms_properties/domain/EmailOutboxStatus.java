@@ -0,0 +1,8 @@
+package pi.ms_properties.domain;
+
+public enum EmailOutboxStatus {
+    PENDIENTE,
+    ENVIADO,
+    // se agotaron los reintentos
+    FALLIDO
+}
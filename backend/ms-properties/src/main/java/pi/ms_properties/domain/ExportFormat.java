@@ -0,0 +1,33 @@
+package pi.ms_properties.domain;
+
+import org.springframework.http.MediaType;
+
+public enum ExportFormat {
+    CSV("csv", "text/csv;charset=UTF-8"),
+    NDJSON("ndjson", MediaType.APPLICATION_NDJSON_VALUE);
+
+    private final String extension;
+
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ExportFormat fromString(String value) {
+        try {
+            return ExportFormat.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato de exportacion invalido: " + value);
+        }
+    }
+}
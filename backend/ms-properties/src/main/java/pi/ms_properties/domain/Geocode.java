@@ -0,0 +1,30 @@
+package pi.ms_properties.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "Geocode")
+public class Geocode {
+    // direccion normalizada tal como se consulta a Google
+    @Id
+    @Column(name = "address", length = 500)
+    private String address;
+
+    // null en ambas cuando Google no encontro la direccion
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
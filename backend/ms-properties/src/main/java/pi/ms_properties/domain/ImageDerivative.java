@@ -0,0 +1,26 @@
+package pi.ms_properties.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// versiones reducidas que se llegaron a subir de cada imagen; se guarda por nombre del blob original
+// porque la principal no tiene fila en Image y la version puede terminar antes de que exista esa fila
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "Image_Derivative", uniqueConstraints = @UniqueConstraint(columnNames = {"name", "variant"}))
+public class ImageDerivative {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "variant", nullable = false)
+    private ImageVariant variant;
+}
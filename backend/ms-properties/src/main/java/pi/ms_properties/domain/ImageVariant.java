@@ -0,0 +1,36 @@
+package pi.ms_properties.domain;
+
+// versiones reducidas que se generan de cada imagen subida, se guardan junto al original en Blob Storage
+public enum ImageVariant {
+    THUMBNAIL("thumb", 320, 0.75f),
+    CARD("card", 800, 0.8f),
+    FULL("full", 1600, 0.85f);
+
+    private final String suffix;
+
+    // lado mayor en pixeles, las imagenes mas chicas no se agrandan
+    private final int maxSize;
+
+    private final float quality;
+
+    ImageVariant(String suffix, int maxSize, float quality) {
+        this.suffix = suffix;
+        this.maxSize = maxSize;
+        this.quality = quality;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public float getQuality() {
+        return quality;
+    }
+
+    // abc.png -> abc_thumb.jpg
+    public String path(String original) {
+        int dot = original.lastIndexOf('.');
+        String base = dot > original.lastIndexOf('/') ? original.substring(0, dot) : original;
+        return base + "_" + suffix + ".jpg";
+    }
+}
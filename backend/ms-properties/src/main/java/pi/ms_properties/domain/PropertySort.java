@@ -0,0 +1,31 @@
+package pi.ms_properties.domain;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public enum PropertySort {
+    DATE("date"),
+    PRICE("price"),
+    ID("id");
+
+    private final String attribute;
+
+    PropertySort(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public static PropertySort fromString(String value) {
+        try {
+            return PropertySort.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Orden inválido: " + value
+            );
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package pi.ms_properties.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "View_Count", uniqueConstraints = @UniqueConstraint(columnNames = {"property_id", "bucket"}))
+public class ViewCount {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // inicio de la hora que agrupa las vistas
+    @Column(name = "bucket", nullable = false)
+    private LocalDateTime bucket;
+
+    @Column(name = "total", nullable = false)
+    private Long total;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "property_id", nullable = false)
+    @JsonIgnore
+    private Property property;
+}
@@ -0,0 +1,50 @@
+package pi.ms_properties.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+
+// todas las estadisticas del panel de administracion calculadas juntas; no se modifica una vez armado
+@Value
+public class DashboardSnapshotDTO {
+    // ultima vez que cambiaron los datos
+    LocalDateTime updatedAt;
+    Views views;
+    Inquiries inquiries;
+    Surveys surveys;
+
+    @Value
+    public static class Views {
+        Map<String, Long> byProperty;
+        Map<String, Long> byPropertyType;
+        Map<String, Long> byDay;
+        Map<String, Long> byMonth;
+        Map<String, Long> byNeighborhood;
+        Map<String, Long> byNeighborhoodType;
+        Map<String, Long> byStatus;
+        Map<String, Map<String, Long>> byStatusAndType;
+        Map<String, Long> byOperation;
+        Map<Float, Long> byRooms;
+        Map<String, Long> byAmenity;
+    }
+
+    @Value
+    public static class Inquiries {
+        Map<String, Long> byStatus;
+        String averageResponseTime;
+        Map<String, Long> byDayOfWeek;
+        Map<String, Long> byTimeRange;
+        Map<YearMonth, Long> byMonth;
+        Map<String, Long> mostConsultedProperties;
+    }
+
+    @Value
+    public static class Surveys {
+        Float averageScore;
+        Map<Integer, Long> scoreDistribution;
+        Map<String, Double> dailyAverageScore;
+        Map<YearMonth, Double> monthlyAverageScore;
+    }
+}
@@ -0,0 +1,14 @@
+package pi.ms_properties.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageVariantsDTO {
+    private String thumbnail;
+    private String card;
+    private String full;
+}
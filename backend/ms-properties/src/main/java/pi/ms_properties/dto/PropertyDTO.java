@@ -9,6 +9,7 @@ import pi.ms_properties.domain.Type;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Set;
 
 @Data
@@ -36,6 +37,7 @@ public class PropertyDTO {
     private String description;
     private LocalDateTime date;
     private String mainImage;
+    private ImageVariantsDTO mainImageVariants;
     private String status;
     private String operation;
     private String currency;
@@ -43,4 +45,6 @@ public class PropertyDTO {
     private Type type;
     private Set<Amenity> amenities;
     private Set<Image> images;
+    // versiones reducidas de cada imagen, por id de imagen
+    private Map<Long, ImageVariantsDTO> imageVariants;
 }
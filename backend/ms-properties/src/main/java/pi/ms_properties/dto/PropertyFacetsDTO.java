@@ -0,0 +1,16 @@
+package pi.ms_properties.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertyFacetsDTO {
+    private List<Long> ids;
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,16 @@
+package pi.ms_properties.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertyPageDTO {
+    private List<PropertyDTO> content;
+    private String nextCursor;
+    private Boolean hasNext;
+}
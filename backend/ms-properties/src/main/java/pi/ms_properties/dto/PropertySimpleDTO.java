@@ -17,6 +17,7 @@ public class PropertySimpleDTO {
     private String description;
     private LocalDateTime date;
     private String mainImage;
+    private ImageVariantsDTO mainImageVariants;
     private String status;
     private String operation;
     private String currency;
@@ -0,0 +1,15 @@
+package pi.ms_properties.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ViewEventDTO {
+    private Long propertyId;
+    private LocalDateTime date;
+}
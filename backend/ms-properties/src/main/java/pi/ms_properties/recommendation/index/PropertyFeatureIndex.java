@@ -0,0 +1,235 @@
+package pi.ms_properties.recommendation.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pi.ms_properties.domain.Neighborhood;
+import pi.ms_properties.domain.Operation;
+import pi.ms_properties.domain.Property;
+import pi.ms_properties.recommendation.utils.GeoGrid;
+import pi.ms_properties.repository.IPropertyRepository;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// indice en memoria con los atributos que usa el recomendador por contenido, guardados en arrays primitivos
+@Component
+@RequiredArgsConstructor
+public class PropertyFeatureIndex {
+
+    // ~11 km de lado
+    private static final double CELL_DEGREES = 0.1;
+
+    private final IPropertyRepository propertyRepository;
+
+    // las lecturas no bloquean: cada escritura publica una copia nueva
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0).seal(0);
+
+        private final Map<Long, Integer> slots;
+        final long[] ids;
+        final long[] neighborhoodIds;
+        public final double[] latRad;
+        public final double[] lonRad;
+        public final double[] cosLat;
+        public final long[] typeIds;
+        public final int[] operations;
+        public final long[] priceCents;
+        // ubicacion de la propiedad para busquedas por radio, si no tiene se usa la del barrio
+        final double[] latitudes;
+        final double[] longitudes;
+        final boolean[] ownLocation;
+        final int size;
+        private final GeoGrid grid;
+
+        private Snapshot(int capacity) {
+            this(new HashMap<>(), new long[capacity], new long[capacity], new double[capacity], new double[capacity],
+                    new double[capacity], new long[capacity], new int[capacity], new long[capacity],
+                    new double[capacity], new double[capacity], new boolean[capacity], 0, null);
+        }
+
+        private Snapshot(Map<Long, Integer> slots, long[] ids, long[] neighborhoodIds, double[] latRad, double[] lonRad,
+                         double[] cosLat, long[] typeIds, int[] operations, long[] priceCents,
+                         double[] latitudes, double[] longitudes, boolean[] ownLocation, int size, GeoGrid grid) {
+            this.slots = slots;
+            this.ids = ids;
+            this.neighborhoodIds = neighborhoodIds;
+            this.latRad = latRad;
+            this.lonRad = lonRad;
+            this.cosLat = cosLat;
+            this.typeIds = typeIds;
+            this.operations = operations;
+            this.priceCents = priceCents;
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.ownLocation = ownLocation;
+            this.size = size;
+            this.grid = grid;
+        }
+
+        public int slotOf(Long propertyId) {
+            Integer slot = slots.get(propertyId);
+            return slot == null ? -1 : slot;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private Snapshot copy(int capacity) {
+            return new Snapshot(new HashMap<>(slots), Arrays.copyOf(ids, capacity), Arrays.copyOf(neighborhoodIds, capacity),
+                    Arrays.copyOf(latRad, capacity), Arrays.copyOf(lonRad, capacity), Arrays.copyOf(cosLat, capacity),
+                    Arrays.copyOf(typeIds, capacity), Arrays.copyOf(operations, capacity), Arrays.copyOf(priceCents, capacity),
+                    Arrays.copyOf(latitudes, capacity), Arrays.copyOf(longitudes, capacity),
+                    Arrays.copyOf(ownLocation, capacity), size, null);
+        }
+
+        // fija el tamaño y arma la grilla, despues de esto la copia no se modifica mas
+        private Snapshot seal(int newSize) {
+            return new Snapshot(slots, ids, neighborhoodIds, latRad, lonRad, cosLat, typeIds, operations, priceCents,
+                    latitudes, longitudes, ownLocation, newSize, GeoGrid.build(latitudes, longitudes, newSize, CELL_DEGREES));
+        }
+
+        private void set(int slot, long id, long neighborhoodId, double latitude, double longitude,
+                         long typeId, int operation, long cents, Double propertyLatitude, Double propertyLongitude) {
+            ids[slot] = id;
+            neighborhoodIds[slot] = neighborhoodId;
+            typeIds[slot] = typeId;
+            operations[slot] = operation;
+            priceCents[slot] = cents;
+            ownLocation[slot] = propertyLatitude != null && propertyLongitude != null;
+            if (ownLocation[slot]) {
+                latitudes[slot] = propertyLatitude;
+                longitudes[slot] = propertyLongitude;
+            }
+            setNeighborhoodLocation(slot, latitude, longitude);
+            slots.put(id, slot);
+        }
+
+        private void setNeighborhoodLocation(int slot, double latitude, double longitude) {
+            latRad[slot] = Math.toRadians(latitude);
+            lonRad[slot] = Math.toRadians(longitude);
+            cosLat[slot] = Math.cos(latRad[slot]);
+            if (!ownLocation[slot]) {
+                latitudes[slot] = latitude;
+                longitudes[slot] = longitude;
+            }
+        }
+
+        private void move(int from, int to) {
+            ids[to] = ids[from];
+            neighborhoodIds[to] = neighborhoodIds[from];
+            latRad[to] = latRad[from];
+            lonRad[to] = lonRad[from];
+            cosLat[to] = cosLat[from];
+            typeIds[to] = typeIds[from];
+            operations[to] = operations[from];
+            priceCents[to] = priceCents[from];
+            latitudes[to] = latitudes[from];
+            longitudes[to] = longitudes[from];
+            ownLocation[to] = ownLocation[from];
+            slots.put(ids[to], to);
+        }
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Object[]> rows = propertyRepository.findFeatureRows();
+        Snapshot next = new Snapshot(rows.size());
+        int size = 0;
+        for (Object[] row : rows) {
+            next.set(size++, (Long) row[0], (Long) row[1], (Double) row[2], (Double) row[3],
+                    (Long) row[4], ((Operation) row[5]).ordinal(), toCents((BigDecimal) row[6]),
+                    (Double) row[7], (Double) row[8]);
+        }
+        snapshot = next.seal(size);
+    }
+
+    public synchronized void put(Property property) {
+        Neighborhood neighborhood = property.getNeighborhood();
+        if (property.getId() == null || neighborhood == null || neighborhood.getId() == null
+                || neighborhood.getLatitude() == null || neighborhood.getLongitude() == null
+                || property.getType() == null || property.getOperation() == null || property.getPrice() == null) {
+            return;
+        }
+
+        Snapshot current = snapshot;
+        int slot = current.slotOf(property.getId());
+        int size = current.size;
+        if (slot < 0) {
+            slot = size++;
+        }
+
+        Snapshot next = current.copy(Math.max(size, current.ids.length));
+        next.set(slot, property.getId(), neighborhood.getId(), neighborhood.getLatitude(), neighborhood.getLongitude(),
+                property.getType().getId(), property.getOperation().ordinal(), toCents(property.getPrice()),
+                property.getLatitude(), property.getLongitude());
+        snapshot = next.seal(size);
+    }
+
+    // dentro de una transaccion se quita recien al confirmarla: si se revierte, la propiedad sigue en la base
+    public void remove(Long propertyId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeNow(propertyId);
+                }
+            });
+        } else {
+            removeNow(propertyId);
+        }
+    }
+
+    private synchronized void removeNow(Long propertyId) {
+        Snapshot current = snapshot;
+        int slot = current.slotOf(propertyId);
+        if (slot < 0) return;
+
+        Snapshot next = current.copy(current.ids.length);
+        int last = current.size - 1;
+        next.slots.remove(propertyId);
+        if (slot != last) {
+            // se mueve el ultimo al hueco para mantener los arrays compactos
+            next.move(last, slot);
+        }
+        snapshot = next.seal(last);
+    }
+
+    // al mover un barrio cambian las coordenadas de todas sus propiedades
+    public synchronized void updateNeighborhood(Long neighborhoodId, double latitude, double longitude) {
+        Snapshot current = snapshot;
+        Snapshot next = current.copy(current.ids.length);
+        for (int i = 0; i < current.size; i++) {
+            if (next.neighborhoodIds[i] == neighborhoodId) {
+                next.setNeighborhoodLocation(i, latitude, longitude);
+            }
+        }
+        snapshot = next.seal(current.size);
+    }
+
+    // ids de las propiedades a menos de radiusKm del punto, de la mas cercana a la mas lejana
+    public List<Long> findWithin(double latitude, double longitude, double radiusKm) {
+        Snapshot current = snapshot;
+        return Arrays.stream(current.grid.within(latitude, longitude, radiusKm))
+                .mapToObj(slot -> current.ids[slot])
+                .toList();
+    }
+
+    public static long toCents(BigDecimal price) {
+        return price.movePointRight(2).longValue();
+    }
+}
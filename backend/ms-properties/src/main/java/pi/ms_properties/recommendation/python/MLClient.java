@@ -1,11 +1,16 @@
 package pi.ms_properties.recommendation.python;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.util.Map;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
 
 @Component
 public class MLClient {
@@ -13,7 +18,34 @@ public class MLClient {
     @Value("${ml.api.url}")
     private String mlApiUrl;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${ml.api.batch-size:500}")
+    private int batchSize;
+
+    // con false se vuelve a una llamada a /predict por par, para APIs que no exponen /predict/batch
+    @Value("${ml.api.batch-enabled:true}")
+    private boolean batchEnabled;
+
+    private final RestTemplate restTemplate;
+
+    // el HttpClient del JDK reutiliza las conexiones, los timeouts evitan que una caida de la API bloquee los hilos
+    public MLClient(@Value("${ml.api.connect-timeout-ms:2000}") long connectTimeoutMs,
+                    @Value("${ml.api.read-timeout-ms:5000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    record Prediction(@JsonProperty("user_id") String userId,
+                      @JsonProperty("property_id") Long propertyId,
+                      Double prediction) {
+    }
+
+    record BatchResponse(List<Prediction> predictions) {
+    }
 
     public double predict(String userId, Long propertyId) {
         try {
@@ -34,5 +66,53 @@ public class MLClient {
             return 0.0;
         }
     }
-}
 
+    // muchos usuarios contra una propiedad
+    public Map<String, Double> predictUsers(Collection<String> userIds, Long propertyId) {
+        if (!batchEnabled) {
+            Map<String, Double> result = new HashMap<>();
+            userIds.forEach(userId -> result.put(userId, predict(userId, propertyId)));
+            return result;
+        }
+        return predictBatch(List.copyOf(userIds), List.of(propertyId), true, Prediction::userId);
+    }
+
+    // muchas propiedades para un usuario
+    public Map<Long, Double> predictProperties(String userId, Collection<Long> propertyIds) {
+        if (!batchEnabled) {
+            Map<Long, Double> result = new HashMap<>();
+            propertyIds.forEach(propertyId -> result.put(propertyId, predict(userId, propertyId)));
+            return result;
+        }
+        return predictBatch(List.of(userId), List.copyOf(propertyIds), false, Prediction::propertyId);
+    }
+
+    // byUser indica que lista se parte en lotes de batchSize, la otra se manda completa en cada pedido
+    private <K> Map<K, Double> predictBatch(List<String> userIds, List<Long> propertyIds, boolean byUser,
+                                            Function<Prediction, K> key) {
+        Map<K, Double> result = new HashMap<>();
+        int total = byUser ? userIds.size() : propertyIds.size();
+
+        for (int from = 0; from < total; from += batchSize) {
+            int to = Math.min(from + batchSize, total);
+            Map<String, Object> body = Map.of(
+                    "user_ids", byUser ? userIds.subList(from, to) : userIds,
+                    "property_ids", byUser ? propertyIds : propertyIds.subList(from, to));
+
+            try {
+                BatchResponse response = restTemplate.postForObject(mlApiUrl + "/predict/batch", body, BatchResponse.class);
+                if (response == null || response.predictions() == null) continue;
+
+                for (Prediction prediction : response.predictions()) {
+                    if (prediction.prediction() != null) {
+                        result.put(key.apply(prediction), prediction.prediction());
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("Error al llamar a ML API: " + e.getMessage());
+            }
+        }
+
+        return result;
+    }
+}
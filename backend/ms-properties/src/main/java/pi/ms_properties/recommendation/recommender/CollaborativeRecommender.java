@@ -4,6 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import pi.ms_properties.recommendation.python.MLClient;
 
+import java.util.Collection;
+import java.util.Map;
+
 @Component
 @RequiredArgsConstructor
 public class CollaborativeRecommender {
@@ -13,5 +16,9 @@ public class CollaborativeRecommender {
     public double predictInterest(String userId, Long propertyId) {
         return mlClient.predict(userId, propertyId);
     }
+
+    public Map<String, Double> predictInterests(Collection<String> userIds, Long propertyId) {
+        return mlClient.predictUsers(userIds, propertyId);
+    }
 }
 
@@ -2,60 +2,58 @@ package pi.ms_properties.recommendation.recommender;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import pi.ms_properties.domain.Neighborhood;
 import pi.ms_properties.domain.Property;
 import pi.ms_properties.dto.feign.FavoriteDTO;
+import pi.ms_properties.recommendation.index.PropertyFeatureIndex;
 import pi.ms_properties.recommendation.utils.GeoUtils;
-import pi.ms_properties.repository.INeighborhoodRepository;
-import pi.ms_properties.repository.IPropertyRepository;
 
-import java.math.BigDecimal;
 import java.util.List;
-import java.util.Objects;
 
 @Component
 @RequiredArgsConstructor
 public class ContentBasedRecommender {
 
-    private final IPropertyRepository propertyRepository;
+    private final PropertyFeatureIndex featureIndex;
 
-    private final INeighborhoodRepository neighborhoodRepository;
+    // se fija una version del indice para que todos los usuarios se puntuen contra los mismos datos
+    public record Context(Property nueva, PropertyFeatureIndex.Snapshot features, int slot) {
+    }
+
+    public Context prepare(Property nueva) {
+        PropertyFeatureIndex.Snapshot features = featureIndex.snapshot();
+        return new Context(nueva, features, features.slotOf(nueva.getId()));
+    }
 
     public double calculate(Property nueva, List<FavoriteDTO> favs) {
-        Neighborhood nuevaN = neighborhoodRepository.findById(nueva.getNeighborhood().getId()).orElse(null);
-        if (nuevaN == null) return 0.0;
+        return calculate(prepare(nueva), favs);
+    }
 
+    public double calculate(Context context, List<FavoriteDTO> favs) {
+        int n = context.slot();
+        if (n < 0) return 0.0;
+
+        PropertyFeatureIndex.Snapshot s = context.features();
         double best = 0.0;
 
         for (FavoriteDTO f : favs) {
-            Property fav = propertyRepository.findById(f.getPropertyId()).orElse(null);
-            if (fav == null) continue;
-
-            Neighborhood favN = neighborhoodRepository.findById(fav.getNeighborhood().getId()).orElse(null);
-            if (favN == null) continue;
+            int fav = s.slotOf(f.getPropertyId());
+            if (fav < 0) continue;
 
             double score = 0;
 
-            double distance = GeoUtils.haversine(
-                    nuevaN.getLatitude(), nuevaN.getLongitude(),
-                    favN.getLatitude(), favN.getLongitude()
-            );
-
-            if (distance <= 15.0) {
+            if (GeoUtils.withinDistance(s.latRad[n], s.lonRad[n], s.cosLat[n],
+                    s.latRad[fav], s.lonRad[fav], s.cosLat[fav], 15.0)) {
                 score += 0.5;
             }
 
-            if (Objects.equals(fav.getType().getId(), nueva.getType().getId()) &&
-                    fav.getOperation().equals(nueva.getOperation())) {
+            if (s.typeIds[fav] == s.typeIds[n] && s.operations[fav] == s.operations[n]) {
                 score += 0.2;
             }
 
-            BigDecimal p = fav.getPrice(), np = nueva.getPrice();
-
-            BigDecimal lowerBound = p.multiply(BigDecimal.valueOf(0.8));
-            BigDecimal upperBound = p.multiply(BigDecimal.valueOf(1.2));
+            // precio nuevo dentro de +-20% del favorito, en centavos para no usar BigDecimal
+            long p = s.priceCents[fav], np = s.priceCents[n];
 
-            if (np.compareTo(lowerBound) >= 0 && np.compareTo(upperBound) <= 0) {
+            if (np * 10 >= p * 8 && np * 10 <= p * 12) {
                 score += 0.3;
             }
 
@@ -1,7 +1,12 @@
 package pi.ms_properties.recommendation.service;
 
-import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Async;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Service;
 import pi.ms_properties.domain.Property;
 import pi.ms_properties.dto.feign.FavoriteDTO;
@@ -11,14 +16,15 @@ import pi.ms_properties.recommendation.recommender.ContentBasedRecommender;
 import pi.ms_properties.repository.feign.FavoriteRepository;
 import pi.ms_properties.repository.feign.NotificationRepository;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.*;
 
 @Service
-@RequiredArgsConstructor
 public class RecommendationService {
 
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
     private final ContentBasedRecommender contentRecommender;
 
     private final CollaborativeRecommender collaborativeRecommender;
@@ -27,40 +33,98 @@ public class RecommendationService {
 
     private final FavoriteRepository favoriteRepository;
 
+    private final Executor evaluationExecutor;
+
+    private final Executor scoringExecutor;
+
+    @Autowired
+    public RecommendationService(ContentBasedRecommender contentRecommender,
+                                 CollaborativeRecommender collaborativeRecommender,
+                                 NotificationRepository notificationRepository,
+                                 FavoriteRepository favoriteRepository,
+                                 @Value("${recommendation.parallelism:8}") int parallelism,
+                                 @Value("${recommendation.queue-capacity:100}") int queueCapacity) {
+        this(contentRecommender, collaborativeRecommender, notificationRepository, favoriteRepository,
+                executor("recommendation-", 1, new ArrayBlockingQueue<>(queueCapacity)),
+                executor("recommendation-scoring-", parallelism, new LinkedBlockingQueue<>()));
+    }
+
+    public RecommendationService(ContentBasedRecommender contentRecommender,
+                                 CollaborativeRecommender collaborativeRecommender,
+                                 NotificationRepository notificationRepository,
+                                 FavoriteRepository favoriteRepository,
+                                 Executor evaluationExecutor,
+                                 Executor scoringExecutor) {
+        this.contentRecommender = contentRecommender;
+        this.collaborativeRecommender = collaborativeRecommender;
+        this.notificationRepository = notificationRepository;
+        this.favoriteRepository = favoriteRepository;
+        this.evaluationExecutor = evaluationExecutor;
+        this.scoringExecutor = scoringExecutor;
+    }
+
+    // pool acotado que propaga el contexto de seguridad, asi las llamadas feign siguen llevando el token
+    private static ExecutorService executor(String prefix, int threads, BlockingQueue<Runnable> queue) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                queue, new CustomizableThreadFactory(prefix));
+        return new DelegatingSecurityContextExecutorService(pool);
+    }
+
+    // se ejecuta fuera del hilo de la peticion, la creacion de la propiedad no espera la evaluacion
     public void evaluateNewProperty(Property newProperty) {
-        List<String> userIds = favoriteRepository.findAllUserIds();
-        Set<String> notifiedUsers = new HashSet<>();
+        evaluationExecutor.execute(() -> {
+            try {
+                evaluate(newProperty);
+            } catch (Exception e) {
+                log.error("Error al evaluar recomendaciones de la propiedad {}", newProperty.getId(), e);
+            }
+        });
+    }
 
-        for (String userId : userIds) {
-            if (!notifiedUsers.contains(userId)) {
-                List<FavoriteDTO> favs = favoriteRepository.getFavorites(userId);
+    public void evaluate(Property newProperty) {
+        Map<String, List<FavoriteDTO>> favoritesByUser = favoriteRepository.getAllFavoritesByUser();
+        if (favoritesByUser.isEmpty()) return;
 
-                if (favs.isEmpty()) {
-                    double mlScore = collaborativeRecommender.predictInterest(userId, newProperty.getId());
-                    if (mlScore >= 0.7) {
-                        System.out.println("📬 Notificando a " + userId + " por score ML alto (" + mlScore + ")");
-                        notificationRepository.createPropertyInterest(userId, NotificationType.PROPIEDADINTERES, newProperty.getId());
-                        notifiedUsers.add(userId);
-                    }
-                    continue;
-                }
+        ContentBasedRecommender.Context context = contentRecommender.prepare(newProperty);
 
-                double contentScore = contentRecommender.calculate(newProperty, favs);
-                double mlScore = collaborativeRecommender.predictInterest(userId, newProperty.getId());
+        // una sola llamada a la API de ML para todos los usuarios
+        Map<String, Double> mlScores = collaborativeRecommender.predictInterests(favoritesByUser.keySet(), newProperty.getId());
 
-                if (Double.isNaN(mlScore) || mlScore < 0) mlScore = 0.0;
+        List<CompletableFuture<Void>> tasks = favoritesByUser.entrySet().stream()
+                .map(entry -> CompletableFuture.runAsync(
+                        () -> evaluateUser(entry.getKey(), entry.getValue(), context, mlScores), scoringExecutor))
+                .toList();
 
-                double contentWeight = 0.6;
-                double collaborativeWeight = 0.4;
+        // se puntuan todos los usuarios aunque alguno falle, el primer error se propaga al final
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+    }
 
-                double finalScore = contentScore * contentWeight + mlScore * collaborativeWeight;
+    private void evaluateUser(String userId, List<FavoriteDTO> favs, ContentBasedRecommender.Context context,
+                              Map<String, Double> mlScores) {
+        Long propertyId = context.nueva().getId();
 
-                if (finalScore >= 0.7) {
-                    notificationRepository.createPropertyInterest(userId, NotificationType.PROPIEDADINTERES, newProperty.getId());
-                    notifiedUsers.add(userId);
-                }
-            }
+        double contentScore = contentRecommender.calculate(context, favs);
+        double mlScore = mlScores.getOrDefault(userId, 0.0);
+
+        if (Double.isNaN(mlScore) || mlScore < 0) mlScore = 0.0;
+
+        double contentWeight = 0.6;
+        double collaborativeWeight = 0.4;
+
+        double finalScore = contentScore * contentWeight + mlScore * collaborativeWeight;
+
+        if (finalScore >= 0.7) {
+            notificationRepository.createPropertyInterest(userId, NotificationType.PROPIEDADINTERES, propertyId);
         }
     }
-}
 
+    @PreDestroy
+    public void shutdown() {
+        if (evaluationExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+        if (scoringExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package pi.ms_properties.recommendation.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// grilla fija de celdas lat/lon: una busqueda por radio solo revisa las celdas que tocan el area y despues aplica haversine
+public final class GeoGrid {
+
+    private static final double KM_PER_DEGREE = 6371 * Math.PI / 180;
+
+    private final double cellDegrees;
+
+    private final double[] latitudes;
+
+    private final double[] longitudes;
+
+    private final Map<Long, int[]> cells;
+
+    private GeoGrid(double cellDegrees, double[] latitudes, double[] longitudes, Map<Long, int[]> cells) {
+        this.cellDegrees = cellDegrees;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.cells = cells;
+    }
+
+    // indexa las posiciones 0..size-1 de los arrays, que no deben modificarse despues
+    public static GeoGrid build(double[] latitudes, double[] longitudes, int size, double cellDegrees) {
+        Map<Long, int[]> cells = new HashMap<>();
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            counts.merge(key(row(latitudes[i], cellDegrees), col(longitudes[i], cellDegrees)), 1, Integer::sum);
+        }
+        for (int i = 0; i < size; i++) {
+            long key = key(row(latitudes[i], cellDegrees), col(longitudes[i], cellDegrees));
+            int[] slots = cells.computeIfAbsent(key, k -> new int[counts.get(k) + 1]);
+            // la ultima posicion lleva cuantos slots se cargaron
+            slots[slots[slots.length - 1]++] = i;
+        }
+        cells.replaceAll((key, slots) -> Arrays.copyOf(slots, slots.length - 1));
+        return new GeoGrid(cellDegrees, latitudes, longitudes, cells);
+    }
+
+    // posiciones a menos de radiusKm del punto, ordenadas por distancia
+    public int[] within(double latitude, double longitude, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double cos = Math.cos(Math.toRadians(latitude));
+        double dLon = cos < 1e-6 ? 180 : Math.min(180, dLat / cos);
+
+        int minRow = row(latitude - dLat, cellDegrees), maxRow = row(latitude + dLat, cellDegrees);
+        int minCol = col(longitude - dLon, cellDegrees), maxCol = col(longitude + dLon, cellDegrees);
+
+        Matches matches = new Matches(latitude, longitude, radiusKm);
+        long boxCells = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+
+        if (boxCells <= cells.size()) {
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minCol; c <= maxCol; c++) {
+                    matches.check(cells.get(key(r, c)));
+                }
+            }
+        } else {
+            // con radios grandes es mas barato recorrer solo las celdas ocupadas
+            for (Map.Entry<Long, int[]> cell : cells.entrySet()) {
+                int r = (int) (cell.getKey() >> 32), c = (int) (long) cell.getKey();
+                if (r >= minRow && r <= maxRow && c >= minCol && c <= maxCol) {
+                    matches.check(cell.getValue());
+                }
+            }
+        }
+
+        return matches.sorted();
+    }
+
+    private final class Matches {
+        private final double latitude;
+        private final double longitude;
+        private final double radiusKm;
+        private int[] slots = new int[16];
+        private double[] distances = new double[16];
+        private int count;
+
+        private Matches(double latitude, double longitude, double radiusKm) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radiusKm = radiusKm;
+        }
+
+        private void check(int[] cell) {
+            if (cell == null) return;
+            for (int slot : cell) {
+                double distance = GeoUtils.haversine(latitude, longitude, latitudes[slot], longitudes[slot]);
+                if (distance > radiusKm) continue;
+
+                if (count == slots.length) {
+                    slots = Arrays.copyOf(slots, count * 2);
+                    distances = Arrays.copyOf(distances, count * 2);
+                }
+                slots[count] = slot;
+                distances[count++] = distance;
+            }
+        }
+
+        private int[] sorted() {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(distances[a], distances[b]));
+
+            int[] result = new int[count];
+            for (int i = 0; i < count; i++) result[i] = slots[order[i]];
+            return result;
+        }
+    }
+
+    public int cellCount() {
+        return cells.size();
+    }
+
+    private static int row(double latitude, double cellDegrees) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private static int col(double longitude, double cellDegrees) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
@@ -2,8 +2,9 @@ package pi.ms_properties.recommendation.utils;
 
 // se usa para calcular la distancia entre los barrios
 public class GeoUtils {
+    private static final int R = 6371;
+
     public static double haversine(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371;
         double dLat = Math.toRadians(lat2 - lat1);
         double dLon = Math.toRadians(lon2 - lon1);
         double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
@@ -12,4 +13,14 @@ public class GeoUtils {
         double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
         return R * c;
     }
+
+    // equivale a haversine(...) <= maxKm pero con coordenadas ya en radianes y sin atan2 ni sqrt
+    public static boolean withinDistance(double lat1Rad, double lon1Rad, double cosLat1,
+                                         double lat2Rad, double lon2Rad, double cosLat2, double maxKm) {
+        double sinDLat = Math.sin((lat2Rad - lat1Rad) / 2);
+        double sinDLon = Math.sin((lon2Rad - lon1Rad) / 2);
+        double a = sinDLat * sinDLat + cosLat1 * cosLat2 * sinDLon * sinDLon;
+        double limit = Math.sin(maxKm / (2.0 * R));
+        return a <= limit * limit;
+    }
 }
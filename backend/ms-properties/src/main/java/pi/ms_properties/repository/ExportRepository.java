@@ -0,0 +1,54 @@
+package pi.ms_properties.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+// consultas de las exportaciones. Con MySQL el fetch size Integer.MIN_VALUE hace que solo estos statements
+// entreguen las filas de a una en lugar de cargar todo el resultado; el resto del pool no cambia.
+// H2 no acepta ese valor, por eso se configura con export.fetch-size. Los streams deben consumirse
+// dentro de una transaccion y cerrarse
+@Repository
+public class ExportRepository {
+
+    private static final String VIEWS =
+            "SELECT v.id, v.date, p.id, p.title FROM View v JOIN v.property p ORDER BY v.id";
+
+    private static final String INQUIRIES =
+            "SELECT i.id, i.date, i.status, i.dateClose, i.userId, i.firstName, i.lastName, i.email, i.phone, " +
+            "i.title, i.description FROM Inquiry i ORDER BY i.id";
+
+    private static final String SURVEYS =
+            "SELECT s.id, s.score, s.comment, i.id, i.date FROM Survey s JOIN s.inquiry i ORDER BY s.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int fetchSize;
+
+    public ExportRepository(@Value("${export.fetch-size:" + Integer.MIN_VALUE + "}") int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public Stream<Object[]> streamViews() {
+        return stream(VIEWS);
+    }
+
+    public Stream<Object[]> streamInquiries() {
+        return stream(INQUIRIES);
+    }
+
+    public Stream<Object[]> streamSurveys() {
+        return stream(SURVEYS);
+    }
+
+    private Stream<Object[]> stream(String jpql) {
+        return entityManager.createQuery(jpql, Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,19 @@
+package pi.ms_properties.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import pi.ms_properties.domain.EmailOutbox;
+import pi.ms_properties.domain.EmailOutboxStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface IEmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status = ?1 AND e.nextAttemptAt <= ?2 ORDER BY e.nextAttemptAt, e.id")
+    List<EmailOutbox> findDue(EmailOutboxStatus status, LocalDateTime now, Pageable pageable);
+
+    long countByStatus(EmailOutboxStatus status);
+}
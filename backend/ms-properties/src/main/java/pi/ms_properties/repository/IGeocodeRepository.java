@@ -0,0 +1,9 @@
+package pi.ms_properties.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pi.ms_properties.domain.Geocode;
+
+@Repository
+public interface IGeocodeRepository extends JpaRepository<Geocode, String> {
+}
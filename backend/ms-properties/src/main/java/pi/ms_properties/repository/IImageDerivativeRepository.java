@@ -0,0 +1,22 @@
+package pi.ms_properties.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import pi.ms_properties.domain.ImageDerivative;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IImageDerivativeRepository extends JpaRepository<ImageDerivative, Long> {
+    List<ImageDerivative> findByNameIn(Collection<String> names);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ImageDerivative d WHERE d.name = :name")
+    void deleteByName(@Param("name") String name);
+}
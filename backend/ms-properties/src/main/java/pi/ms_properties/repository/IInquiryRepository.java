@@ -27,6 +27,17 @@ public interface IInquiryRepository extends JpaRepository<Inquiry, Long> {
     @Query("SELECT p.title, COUNT(p) FROM Inquiry i JOIN i.properties p GROUP BY p.title ORDER BY COUNT(p) DESC")
     List<Object[]> countMostConsultedProperties();
 
+    // dia de la semana de 1 (domingo) a 7 (sabado)
+    @Query("SELECT EXTRACT(DAY OF WEEK FROM i.date), COUNT(i) FROM Inquiry i GROUP BY EXTRACT(DAY OF WEEK FROM i.date)")
+    List<Object[]> countByDayOfWeek();
+
+    @Query("SELECT EXTRACT(HOUR FROM i.date), COUNT(i) FROM Inquiry i GROUP BY EXTRACT(HOUR FROM i.date)")
+    List<Object[]> countByHour();
+
+    // cantidad de consultas cerradas y la suma de sus tiempos de respuesta en segundos
+    @Query("SELECT COUNT(i), SUM((i.dateClose - i.date) BY SECOND) FROM Inquiry i WHERE i.status = ?1 AND i.dateClose IS NOT NULL")
+    List<Object[]> sumResponseSeconds(InquiryStatus status);
+
     @Query("SELECT i FROM Inquiry i LEFT JOIN FETCH i.properties WHERE i.id = :id")
     Optional<Inquiry> findByIdWithProperties(@Param("id") Long id);
 
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,6 +13,7 @@ import pi.ms_properties.domain.Property;
 import pi.ms_properties.domain.Status;
 import pi.ms_properties.dto.PropertyFilterDTO;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,10 +33,48 @@ public interface IPropertyRepository extends JpaRepository<Property, Long>, JpaS
     @EntityGraph(attributePaths = {"neighborhood", "type", "amenities", "images", "inquiries", "comments", "maintenances"})
     List<Property> findAll(@Nullable Specification<Property> specification);
 
+    @Query("select p from Property p where p.id in ?1")
+    @EntityGraph(attributePaths = {"neighborhood", "type", "amenities", "images"})
+    List<Property> findListingByIdIn(Collection<Long> ids);
+
+    @Query("select distinct p from Property p")
+    @EntityGraph(attributePaths = {"neighborhood", "type", "amenities"})
+    List<Property> findAllForTextIndex();
+
+    @Query("select distinct p from Property p where p.status = ?1")
+    @EntityGraph(attributePaths = {"neighborhood", "type", "amenities"})
+    List<Property> findSearchableByStatus(Status status);
+
+    @Query("SELECT p.id, n.id, n.latitude, n.longitude, t.id, p.operation, p.price, p.latitude, p.longitude FROM Property p JOIN p.neighborhood n JOIN p.type t WHERE p.price IS NOT NULL")
+    List<Object[]> findFeatureRows();
+
+    // solo los datos que responde el chat, sin cargar imagenes, consultas ni comentarios
+    @Query("SELECT p.price, p.currency, p.showPrice, p.expenses, p.area, p.coveredArea, p.rooms, p.bedrooms, p.bathrooms, p.operation, n.city, n.name, n.type, p.financing, p.credit FROM Property p JOIN p.neighborhood n WHERE p.id = ?1")
+    List<Object[]> findChatFactsById(Long id);
+
+    @Query("SELECT a.name FROM Property p JOIN p.amenities a WHERE p.id = ?1 ORDER BY a.name")
+    List<String> findAmenityNamesById(Long id);
+
+    // id y titulo de las propiedades de una consulta; los ids que falten en el resultado no existen
+    @Query("SELECT p.id, p.title FROM Property p WHERE p.id IN :ids")
+    List<Object[]> findTitlesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Property es el lado duenio de la relacion; se insertan las filas de la tabla intermedia sin cargar
+    // cada propiedad ni su coleccion de consultas
+    @Modifying
+    @Query(value = "INSERT INTO Property_Inquiry (property_id, inquiry_id) SELECT id, :inquiryId FROM Property WHERE id IN :propertyIds", nativeQuery = true)
+    void linkInquiry(@Param("inquiryId") Long inquiryId, @Param("propertyIds") Collection<Long> propertyIds);
+
     @Query("select p from Property p where p.owner.id = ?1")
     @EntityGraph(attributePaths = {"neighborhood", "type", "amenities", "images", "inquiries", "comments", "maintenances"})
     List<Property> findByOwner(Long ownerId);
 
+    @Query("SELECT p.status, COUNT(p) FROM Property p GROUP BY p.status")
+    List<Object[]> countByStatus();
+
+    @Query("SELECT p.status, t.name, COUNT(p) FROM Property p JOIN p.type t GROUP BY p.status, t.name")
+    List<Object[]> countByStatusAndType();
+
     @Query("""
         SELECT p FROM Property p
         WHERE p.status = 'DISPONIBLE'
@@ -67,5 +107,6 @@ public interface IPropertyRepository extends JpaRepository<Property, Long>, JpaS
         AND (:#{#f.financing} IS NULL 
             OR p.financing = :#{#f.financing})
     """)
+    @EntityGraph(attributePaths = {"neighborhood", "type", "amenities"})
     List<Property> searchByFilters(@Param("f") PropertyFilterDTO f);
 }
\ No newline at end of file
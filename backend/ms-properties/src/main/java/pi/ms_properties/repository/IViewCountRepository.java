@@ -0,0 +1,41 @@
+package pi.ms_properties.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pi.ms_properties.domain.ViewCount;
+
+import java.util.List;
+
+@Repository
+public interface IViewCountRepository extends JpaRepository<ViewCount, Long> {
+    @Modifying
+    @Query("DELETE FROM ViewCount c WHERE c.property.id = ?1")
+    void deleteAllByPropertyId(@Param("propertyId") Long propertyId);
+
+    @Query("SELECT c.bucket, SUM(c.total) FROM ViewCount c GROUP BY c.bucket")
+    List<Object[]> sumByBucket();
+
+    @Query("SELECT p.title, SUM(c.total) FROM ViewCount c JOIN c.property p GROUP BY p.title")
+    List<Object[]> sumByPropertyTitle();
+
+    @Query("SELECT t.name, SUM(c.total) FROM ViewCount c JOIN c.property p JOIN p.type t GROUP BY t.name")
+    List<Object[]> sumByPropertyType();
+
+    @Query("SELECT n.name, SUM(c.total) FROM ViewCount c JOIN c.property p JOIN p.neighborhood n GROUP BY n.name")
+    List<Object[]> sumByNeighborhood();
+
+    @Query("SELECT n.type, SUM(c.total) FROM ViewCount c JOIN c.property p JOIN p.neighborhood n GROUP BY n.type")
+    List<Object[]> sumByNeighborhoodType();
+
+    @Query("SELECT p.operation, SUM(c.total) FROM ViewCount c JOIN c.property p GROUP BY p.operation")
+    List<Object[]> sumByOperation();
+
+    @Query("SELECT p.rooms, SUM(c.total) FROM ViewCount c JOIN c.property p GROUP BY p.rooms")
+    List<Object[]> sumByRooms();
+
+    @Query("SELECT a.name, SUM(c.total) FROM ViewCount c JOIN c.property p JOIN p.amenities a GROUP BY a.name")
+    List<Object[]> sumByAmenity();
+}
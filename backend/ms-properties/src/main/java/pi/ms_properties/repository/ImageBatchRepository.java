@@ -0,0 +1,31 @@
+package pi.ms_properties.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Image usa IDENTITY, por lo que Hibernate no agrupa los inserts; aca se escriben con JDBC batch
+// y sin cargar la propiedad, alcanza con su id
+@Repository
+@RequiredArgsConstructor
+public class ImageBatchRepository {
+
+    private static final String INSERT_IMAGE = "INSERT INTO Image (property_id, url) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void saveAll(Long propertyId, List<String> urls) {
+        if (urls.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_IMAGE, urls, urls.size(), (ps, url) -> {
+            ps.setLong(1, propertyId);
+            ps.setString(2, url);
+        });
+    }
+}
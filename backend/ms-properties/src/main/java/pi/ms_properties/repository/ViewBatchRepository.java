@@ -0,0 +1,57 @@
+package pi.ms_properties.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import pi.ms_properties.dto.ViewEventDTO;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// View usa IDENTITY, por lo que Hibernate no agrupa los inserts; aca se escriben con JDBC batch
+@Repository
+@RequiredArgsConstructor
+public class ViewBatchRepository {
+
+    // el SELECT sobre Property descarta vistas de propiedades eliminadas mientras estaban en el buffer
+    private static final String INSERT_VIEW =
+            "INSERT INTO View (property_id, date) SELECT id, ? FROM Property WHERE id = ?";
+
+    private static final String UPSERT_VIEW_COUNT =
+            "INSERT INTO View_Count (property_id, bucket, total) SELECT id, ?, ? FROM Property WHERE id = ? " +
+            "ON DUPLICATE KEY UPDATE total = View_Count.total + ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void saveAll(List<ViewEventDTO> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_VIEW, events, events.size(), (ps, event) -> {
+            ps.setObject(1, event.getDate());
+            ps.setLong(2, event.getPropertyId());
+        });
+
+        Map<Long, Map<LocalDateTime, Long>> buckets = events.stream()
+                .collect(Collectors.groupingBy(
+                        ViewEventDTO::getPropertyId,
+                        Collectors.groupingBy(
+                                event -> event.getDate().truncatedTo(ChronoUnit.HOURS),
+                                Collectors.counting()
+                        )
+                ));
+
+        List<Object[]> rows = new ArrayList<>();
+        buckets.forEach((propertyId, byHour) -> byHour.forEach((bucket, total) ->
+                rows.add(new Object[]{bucket, total, propertyId, total})));
+
+        jdbcTemplate.batchUpdate(UPSERT_VIEW_COUNT, rows);
+    }
+}
@@ -4,7 +4,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import pi.ms_properties.dto.feign.FavoriteDTO;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
@@ -19,4 +22,10 @@ public class FavoriteRepository {
     public List<String> findAllUserIds() {
         return userRepository.getAllUsers();
     }
+
+    // todos los favoritos en una sola llamada, agrupados por usuario
+    public Map<String, List<FavoriteDTO>> getAllFavoritesByUser() {
+        return userRepository.getAllFavorites().stream()
+                .collect(Collectors.groupingBy(FavoriteDTO::getUserId, LinkedHashMap::new, Collectors.toList()));
+    }
 }
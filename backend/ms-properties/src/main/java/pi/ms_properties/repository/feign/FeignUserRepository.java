@@ -33,6 +33,9 @@ public interface FeignUserRepository {
     @RequestMapping(method = RequestMethod.GET, value = "/favorites/internal/allUser")
     List<String> getAllUsers();
 
+    @RequestMapping(method = RequestMethod.GET, value = "/favorites/internal/all")
+    List<FavoriteDTO> getAllFavorites();
+
     @RequestMapping(method = RequestMethod.GET, value = "/agentChat/getEnabledTrue")
     List<AgentChatDTO> getUsersEnabled();
 }
@@ -31,12 +31,14 @@ public class WebSecurityConfig {
                                 "/property/getByTitle",
                                 "/property/search",
                                 "/property/text",
+                                "/property/facets",
                                 "/property/getSimple/**",
                                 "/amenity/getAll",
                                 "/amenity/getById/**",
                                 "/amenity/getByName",
                                 "/image/getByProperty/**",
                                 "image/notice/getImage",
+                                "/image/raw/**",
                                 "/neighborhood/getAll",
                                 "/neighborhood/getById/**",
                                 "/type/getAll",
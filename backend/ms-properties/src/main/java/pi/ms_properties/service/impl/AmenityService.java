@@ -6,6 +6,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import pi.ms_properties.comparer.service.FilterVocabulary;
 import pi.ms_properties.domain.Amenity;
 import pi.ms_properties.repository.IAmenityRepository;
 import pi.ms_properties.service.interf.IAmenityService;
@@ -19,6 +20,14 @@ public class AmenityService implements IAmenityService {
 
     private final IAmenityRepository amenityRepository;
 
+    private final PropertyTextIndex propertyTextIndex;
+
+    private final PropertyFacetIndex propertyFacetIndex;
+
+    private final FilterVocabulary filterVocabulary;
+
+    private final ChatFactsCache chatFactsCache;
+
     @Override
     public ResponseEntity<String> createAmenity(String name) {
         if (name == null || name.isBlank()) {
@@ -32,6 +41,7 @@ public class AmenityService implements IAmenityService {
         Amenity amenity = new Amenity();
         amenity.setName(name);
         amenityRepository.save(amenity);
+        filterVocabulary.refreshAmenities();
 
         return ResponseEntity.ok("Se ha guardado correctamente el servicio: " + name);
     }
@@ -42,6 +52,8 @@ public class AmenityService implements IAmenityService {
                 .orElseThrow(() -> new EntityNotFoundException("No se encontró el servicio con ID " + id));
 
         amenityRepository.deleteById(id);
+        filterVocabulary.refreshAmenities();
+        chatFactsCache.invalidateAll();
         return ResponseEntity.ok("Se ha eliminado el servicio correctamente");
     }
 
@@ -52,6 +64,10 @@ public class AmenityService implements IAmenityService {
         }
 
         Amenity updated = amenityRepository.save(amenity);
+        propertyTextIndex.updateAmenity(updated.getId(), updated.getName());
+        propertyFacetIndex.rebuild();
+        filterVocabulary.refreshAmenities();
+        chatFactsCache.invalidateAll();
         return ResponseEntity.ok(updated);
     }
 
@@ -1,11 +1,18 @@
 package pi.ms_properties.service.impl;
 
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 
 import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRequestConditions;
 import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import pi.ms_properties.domain.Storage;
 import pi.ms_properties.service.interf.IAzureBlobStorage;
@@ -14,6 +21,7 @@ import pi.ms_properties.service.interf.IAzureBlobStorage;
 // el servicio de image se va a comunicar con este
 // guarda la logica para interacturar con blob
 @Service
+@Profile("!filesystem-storage")
 @RequiredArgsConstructor
 public class AzureBlobStorage implements IAzureBlobStorage {
 
@@ -26,13 +34,14 @@ public class AzureBlobStorage implements IAzureBlobStorage {
         String path = storage.getPath();
         BlobClient blobClient = blobContainerClient.getBlobClient(path);
         try {
-            if (blobClient.exists()) {
-                throw new RuntimeException("Ya existe el nombre de la imagen");
-            }
+            // una sola llamada: sube el stream, fija el content-type y falla si ya existe el nombre
             BlobHttpHeaders headers = new BlobHttpHeaders();
             headers.setContentType(storage.getContentType());
-            blobClient.upload(storage.getInputStream(), storage.getSize(), false);
-            blobClient.setHttpHeaders(headers);
+            BlobParallelUploadOptions options =
+                    new BlobParallelUploadOptions(BinaryData.fromStream(storage.getInputStream(), storage.getSize()))
+                            .setHeaders(headers)
+                            .setRequestConditions(new BlobRequestConditions().setIfNoneMatch("*"));
+            blobClient.uploadWithResponse(options, null, Context.NONE);
             // tenemos la url publica de blob
             return blobClient.getBlobUrl();
         } catch (Exception e) {
@@ -60,4 +69,30 @@ public class AzureBlobStorage implements IAzureBlobStorage {
     public String getImageUrl(String imageName) {
         return STORAGE_BASE_URL + imageName;
     }
-}
\ No newline at end of file
+
+    @Override
+    public String getImagePath(String url) {
+        return url.replace(blobContainerClient.getBlobContainerUrl() + "/", "");
+    }
+
+    @Override
+    public Storage read(String path) {
+        BlobClient client = blobContainerClient.getBlobClient(path);
+
+        try {
+            BlobProperties properties = client.getProperties();
+            Storage storage = new Storage();
+            storage.setPath(path);
+            storage.setFileName(path);
+            storage.setInputStream(client.openInputStream());
+            storage.setSize(properties.getBlobSize());
+            storage.setContentType(properties.getContentType());
+            return storage;
+        } catch (BlobStorageException e) {
+            if (e.getStatusCode() == 404) {
+                throw new EntityNotFoundException("Imagen no encontrada");
+            }
+            throw new RuntimeException("Error al leer el blob", e);
+        }
+    }
+}
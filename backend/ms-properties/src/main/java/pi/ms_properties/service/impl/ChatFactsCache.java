@@ -0,0 +1,144 @@
+package pi.ms_properties.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pi.ms_properties.domain.Currency;
+import pi.ms_properties.domain.NeighborhoodType;
+import pi.ms_properties.domain.Operation;
+import pi.ms_properties.repository.IPropertyRepository;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// datos de cada propiedad que usa el chat, leidos con dos consultas livianas en lugar de la propiedad completa;
+// se invalidan al editar o borrar la propiedad y al cambiar barrios o servicios
+@Component
+public class ChatFactsCache {
+
+    public record ChatFacts(BigDecimal price, Currency currency, Boolean showPrice, BigDecimal expenses,
+                            Float area, Float coveredArea, Float rooms, Float bedrooms, Float bathrooms,
+                            Operation operation, String city, String neighborhood, NeighborhoodType neighborhoodType,
+                            Boolean financing, Boolean credit, List<String> amenities) {
+    }
+
+    private final IPropertyRepository propertyRepository;
+
+    private final Map<Long, ChatFacts> entries;
+
+    // se incrementa en cada invalidacion, una lectura que empezo antes no puede guardar su resultado
+    private long generation;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final Counter evictionCounter;
+
+    @Autowired
+    public ChatFactsCache(IPropertyRepository propertyRepository, MeterRegistry meterRegistry,
+                          @Value("${chat.facts-cache.max-entries:1000}") int maxEntries) {
+        this.propertyRepository = propertyRepository;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ChatFacts> eldest) {
+                if (size() > maxEntries) {
+                    evictionCounter.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        Gauge.builder("chat.facts.cache.size", this, ChatFactsCache::size)
+                .description("Propiedades con datos de chat en cache")
+                .register(meterRegistry);
+        this.hitCounter = meterRegistry.counter("chat.facts.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("chat.facts.cache", "result", "miss");
+        this.evictionCounter = meterRegistry.counter("chat.facts.cache.evictions");
+    }
+
+    public ChatFacts get(Long propertyId) {
+        synchronized (this) {
+            ChatFacts cached = entries.get(propertyId);
+            if (cached != null) {
+                hitCounter.increment();
+                return cached;
+            }
+        }
+
+        missCounter.increment();
+        long started = generation();
+        ChatFacts facts = load(propertyId);
+        synchronized (this) {
+            if (started == generation) {
+                entries.put(propertyId, facts);
+            }
+        }
+        return facts;
+    }
+
+    private ChatFacts load(Long propertyId) {
+        List<Object[]> rows = propertyRepository.findChatFactsById(propertyId);
+        if (rows.isEmpty()) {
+            throw new EntityNotFoundException("No se ha encontrado la propiedad.");
+        }
+        Object[] row = rows.getFirst();
+
+        return new ChatFacts(
+                (BigDecimal) row[0], (Currency) row[1], (Boolean) row[2], (BigDecimal) row[3],
+                (Float) row[4], (Float) row[5], (Float) row[6], (Float) row[7], (Float) row[8],
+                (Operation) row[9], (String) row[10], (String) row[11], (NeighborhoodType) row[12],
+                (Boolean) row[13], (Boolean) row[14],
+                List.copyOf(propertyRepository.findAmenityNamesById(propertyId)));
+    }
+
+    public void invalidate(Long propertyId) {
+        remove(propertyId);
+        afterCommit(() -> remove(propertyId));
+    }
+
+    // cambios de barrio o servicio afectan a varias propiedades
+    public void invalidateAll() {
+        clear();
+        afterCommit(this::clear);
+    }
+
+    // dentro de una transaccion se limpia otra vez al confirmarla para no quedarse con datos leidos antes del commit
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private synchronized void remove(Long propertyId) {
+        generation++;
+        entries.remove(propertyId);
+    }
+
+    private synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
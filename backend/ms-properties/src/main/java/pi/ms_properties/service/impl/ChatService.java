@@ -2,12 +2,13 @@ package pi.ms_properties.service.impl;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import pi.ms_properties.domain.*;
 import pi.ms_properties.dto.feign.AgentChatDTO;
 import pi.ms_properties.repository.IAgentAssignmentRepository;
 import pi.ms_properties.repository.IChatSessionRepository;
-import pi.ms_properties.repository.IPropertyRepository;
 import pi.ms_properties.repository.feign.AgentChatRepository;
 import pi.ms_properties.service.interf.*;
 
@@ -16,13 +17,12 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ChatService implements IChatService {
 
-    private final IPropertyRepository propertyRepository;
+    private final ChatFactsCache chatFactsCache;
 
     private final IChatDerivationService chatDerivationService;
 
@@ -38,83 +38,90 @@ public class ChatService implements IChatService {
 
     private final IEmailService emailService;
 
+    // derivar y cerrar guardan la sesion y encolan el resumen en Email_Outbox en la misma transaccion
+    @Transactional
     public String responseToUserMessage(ChatOption chatOption, Long propertyId, Long sessionId) {
-        Property property = propertyRepository.findById(propertyId)
-                .orElseThrow(() -> new EntityNotFoundException("No se ha encontrado la propiedad."));
+        ChatFactsCache.ChatFacts property = chatFactsCache.get(propertyId);
 
-        ChatSession chatSession = chatSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new EntityNotFoundException("No se ha encontrado la sesion."));
+        // solo derivar y cerrar modifican la sesion; para el resto alcanza con la referencia al insertar el mensaje
+        boolean closesSession = chatOption == ChatOption.DERIVAR || chatOption == ChatOption.CERRAR;
+        ChatSession chatSession = closesSession
+                ? chatSessionRepository.findById(sessionId)
+                        .orElseThrow(() -> new EntityNotFoundException("No se ha encontrado la sesion."))
+                : chatSessionRepository.getReferenceById(sessionId);
 
         ChatMessage chatMessage = new ChatMessage();
         chatMessage.setChatOption(chatOption);
         chatMessage.setChatSession(chatSession);
-        chatMessageService.create(chatMessage);
+        try {
+            chatMessageService.create(chatMessage);
+        } catch (DataIntegrityViolationException e) {
+            // la referencia apunta a una sesion que no existe
+            throw new EntityNotFoundException("No se ha encontrado la sesion.");
+        }
 
         switch (chatOption) {
             case VER_PRECIO:
-                if (property.getShowPrice()) {
-                    if (property.getExpenses() != null && property.getExpenses().compareTo(BigDecimal.ZERO) > 0) {
-                        return "El precio de la propiedad es " + property.getPrice() + " " + property.getCurrency() +
-                                ". Las expensas se encuentran en " + property.getExpenses() + " pesos.";
+                if (property.showPrice()) {
+                    if (property.expenses() != null && property.expenses().compareTo(BigDecimal.ZERO) > 0) {
+                        return "El precio de la propiedad es " + property.price() + " " + property.currency() +
+                                ". Las expensas se encuentran en " + property.expenses() + " pesos.";
                     } else {
-                        return "El precio de la propiedad es " + property.getPrice() + " " + property.getCurrency() + ".";
+                        return "El precio de la propiedad es " + property.price() + " " + property.currency() + ".";
                     }
                 } else {
                     return "Para conocer el precio de esta propiedad, por favor comuníquese con uno de nuestros asesores.";
                 }
 
             case VER_AREA:
-                if (property.getCoveredArea() != null && property.getCoveredArea() > 0) {
-                    return "La superficie total es de " + property.getArea() + " m². La superficie cubierta es de " + property.getCoveredArea() + " m².";
+                if (property.coveredArea() != null && property.coveredArea() > 0) {
+                    return "La superficie total es de " + property.area() + " m². La superficie cubierta es de " + property.coveredArea() + " m².";
                 } else {
-                    return "La superficie total es de " + property.getArea() + " m².";
+                    return "La superficie total es de " + property.area() + " m².";
                 }
 
             case VER_HABITACIONES:
-                String rooms = formattedNumber(property.getRooms());
-                String bedrooms = formattedNumber(property.getBedrooms());
-                String bathrooms = formattedNumber(property.getBathrooms());
+                String rooms = formattedNumber(property.rooms());
+                String bedrooms = formattedNumber(property.bedrooms());
+                String bathrooms = formattedNumber(property.bathrooms());
 
-                if (property.getBedrooms() > 1 && property.getBathrooms() > 1) {
+                if (property.bedrooms() > 1 && property.bathrooms() > 1) {
                     return "La propiedad posee " + rooms + " ambientes, incluyendo " + bedrooms + " dormitorios y " + bathrooms + " baños.";
-                } else if (property.getBedrooms() > 1 && property.getBathrooms() == 1) {
+                } else if (property.bedrooms() > 1 && property.bathrooms() == 1) {
                     return "La propiedad posee " + rooms + " ambientes, incluyendo " + bedrooms + " dormitorios y un baño.";
-                } else if (property.getBedrooms() == 1 && property.getBathrooms() == 1) {
+                } else if (property.bedrooms() == 1 && property.bathrooms() == 1) {
                     return "La propiedad posee " + rooms + " ambientes, incluyendo un dormitorio y un baño.";
-                } else if (property.getBedrooms() == 1 && property.getBathrooms() > 1) {
+                } else if (property.bedrooms() == 1 && property.bathrooms() > 1) {
                     return "La propiedad posee " + rooms + " ambientes, incluyendo un dormitorio y " + bathrooms + " baños.";
                 } else {
                     return "No hay información registrada sobre habitaciones en esta propiedad.";
                 }
 
             case VER_OPERACION:
-                return "La propiedad se encuentra disponible para su " + property.getOperation().toString().toLowerCase();
+                return "La propiedad se encuentra disponible para su " + property.operation().toString().toLowerCase();
 
             case VER_UBICACION:
-                return "La propiedad se encuentra en " + property.getNeighborhood().getCity() +
-                        ", en el barrio " + property.getNeighborhood().getName() +
-                        ", de tipo " + property.getNeighborhood().getType().toString().toLowerCase() + ".";
+                return "La propiedad se encuentra en " + property.city() +
+                        ", en el barrio " + property.neighborhood() +
+                        ", de tipo " + property.neighborhoodType().toString().toLowerCase() + ".";
 
             case VER_FINANCIACION:
-                if (property.getFinancing()) {
+                if (property.financing()) {
                     return "Esta propiedad ofrece posibilidad de financiación.";
                 } else {
                     return "Esta propiedad no ofrece financiación.";
                 }
 
             case VER_CREDITO:
-                if (property.getCredit()) {
+                if (property.credit()) {
                     return "Esta propiedad es apta para crédito hipotecario.";
                 } else {
                     return "Esta propiedad no es apta para crédito hipotecario.";
                 }
 
             case VER_CARACTERISTICAS:
-                if (property.getAmenities() != null && !property.getAmenities().isEmpty()) {
-                    String amenitiesList = property.getAmenities()
-                            .stream()
-                            .map(Amenity::getName)
-                            .collect(Collectors.joining(", "));
+                if (!property.amenities().isEmpty()) {
+                    String amenitiesList = String.join(", ", property.amenities());
                     return "Esta propiedad cuenta con las siguientes características: " + amenitiesList + ".";
                 } else {
                     return "Esta propiedad no tiene características adicionales registradas.";
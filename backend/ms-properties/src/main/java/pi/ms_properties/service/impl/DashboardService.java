@@ -0,0 +1,150 @@
+package pi.ms_properties.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import pi.ms_properties.dto.DashboardSnapshotDTO;
+import pi.ms_properties.service.interf.IDashboardService;
+import pi.ms_properties.service.interf.IInquiryService;
+import pi.ms_properties.service.interf.ISurveyService;
+import pi.ms_properties.service.interf.IViewService;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// el panel lee una sola foto de las estadisticas guardada en memoria; una tarea programada la recalcula
+// cada dashboard.refresh-interval-ms, asi el costo en la base no depende de cuantas veces se abra el panel
+@Service
+@RequiredArgsConstructor
+public class DashboardService implements IDashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    private record Snapshot(DashboardSnapshotDTO body, String etag) {
+    }
+
+    private final IViewService viewService;
+
+    private final IInquiryService inquiryService;
+
+    private final ISurveyService surveyService;
+
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    @Override
+    public ResponseEntity<DashboardSnapshotDTO> getSnapshot(String ifNoneMatch) {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            snapshot = initialize();
+        }
+
+        if (matches(ifNoneMatch, snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(snapshot.body());
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.refresh-interval-ms:300000}",
+            initialDelayString = "${dashboard.initial-delay-ms:30000}")
+    @Override
+    public void refresh() {
+        try {
+            current.set(build(current.get()));
+        } catch (RuntimeException e) {
+            // se sigue sirviendo la foto anterior
+            log.warn("No se pudo actualizar el panel de estadisticas: {}", e.getMessage());
+        }
+    }
+
+    // el primer pedido antes de la tarea programada calcula la foto una sola vez
+    private synchronized Snapshot initialize() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            snapshot = build(null);
+            current.set(snapshot);
+        }
+        return snapshot;
+    }
+
+    private Snapshot build(Snapshot previous) {
+        DashboardSnapshotDTO.Views views = new DashboardSnapshotDTO.Views(
+                copy(viewService.getViewsByProperty()),
+                copy(viewService.getViewsByPropertyType()),
+                copy(viewService.getViewsByDay()),
+                copy(viewService.getViewsByMonth()),
+                copy(viewService.getViewsByNeighborhood()),
+                copy(viewService.getViewsByNeighborhoodType()),
+                copy(viewService.getViewsByStatus()),
+                copy(viewService.getViewsByStatusAndType()),
+                copy(viewService.getViewsByOperation()),
+                copy(viewService.getViewsByRooms()),
+                copy(viewService.getViewsByAmenity()));
+
+        DashboardSnapshotDTO.Inquiries inquiries = new DashboardSnapshotDTO.Inquiries(
+                copy(inquiryService.getInquiryStatusDistribution()),
+                inquiryService.getAverageInquiryResponseTime().getBody(),
+                copy(inquiryService.getInquiriesGroupedByDayOfWeek()),
+                copy(inquiryService.getInquiriesGroupedByTimeRange()),
+                copy(inquiryService.getInquiriesPerMonth()),
+                copy(inquiryService.getMostConsultedProperties()));
+
+        DashboardSnapshotDTO.Surveys surveys = new DashboardSnapshotDTO.Surveys(
+                surveyService.getAverageScore().getBody(),
+                copy(surveyService.getScoreDistribution()),
+                copy(surveyService.getDailyAverageScore()),
+                copy(surveyService.getMonthlyAverageScore()));
+
+        String etag = etag(views, inquiries, surveys);
+        // si los datos no cambiaron se conserva la foto anterior y los clientes siguen recibiendo 304
+        if (previous != null && previous.etag().equals(etag)) {
+            return previous;
+        }
+
+        DashboardSnapshotDTO body = new DashboardSnapshotDTO(
+                LocalDateTime.now(ZoneId.of("America/Argentina/Buenos_Aires")), views, inquiries, surveys);
+        return new Snapshot(body, etag);
+    }
+
+    private String etag(Object... parts) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(List.of(parts))) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el panel de estadisticas", e);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) value = value.substring(2);
+            if (value.equals("*") || value.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    // conserva el orden de cada estadistica y evita que se modifique la foto ya publicada
+    private static <K, V> Map<K, V> copy(ResponseEntity<Map<K, V>> response) {
+        Map<K, V> body = response.getBody();
+        return body == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(body));
+    }
+}
@@ -0,0 +1,266 @@
+package pi.ms_properties.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import pi.ms_properties.domain.EmailOutbox;
+import pi.ms_properties.domain.EmailOutboxStatus;
+import pi.ms_properties.repository.IEmailOutboxRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// vacia Email_Outbox en segundo plano: cada worker manda su lote por una sola conexion SMTP
+// y los envios fallidos se reintentan con espera exponencial, salvo que la direccion sea invalida
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final IEmailOutboxRepository emailOutboxRepository;
+
+    private final JavaMailSender javaMailSender;
+
+    private final ExecutorService executor;
+
+    private final int workers;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private final Clock clock;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    // emails entregados a un worker que todavia no se guardaron
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Timer sendTimer;
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter failedCounter;
+
+    @Autowired
+    public EmailOutboxDispatcher(IEmailOutboxRepository emailOutboxRepository,
+                                 JavaMailSender javaMailSender,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${email.outbox.workers:2}") int workers,
+                                 @Value("${email.outbox.batch-size:50}") int batchSize,
+                                 @Value("${email.outbox.max-attempts:6}") int maxAttempts,
+                                 @Value("${email.outbox.initial-backoff-ms:30000}") long initialBackoffMs,
+                                 @Value("${email.outbox.max-backoff-ms:3600000}") long maxBackoffMs) {
+        this(emailOutboxRepository, javaMailSender, meterRegistry,
+                new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(), new CustomizableThreadFactory("email-outbox-")),
+                workers, batchSize, maxAttempts, Duration.ofMillis(initialBackoffMs), Duration.ofMillis(maxBackoffMs),
+                Clock.system(ZoneId.of("America/Argentina/Buenos_Aires")));
+    }
+
+    public EmailOutboxDispatcher(IEmailOutboxRepository emailOutboxRepository, JavaMailSender javaMailSender,
+                                 MeterRegistry meterRegistry, ExecutorService executor, int workers, int batchSize,
+                                 int maxAttempts, Duration initialBackoff, Duration maxBackoff, Clock clock) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.javaMailSender = javaMailSender;
+        this.executor = executor;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.clock = clock;
+
+        Gauge.builder("email.outbox.pending", pending, AtomicLong::get)
+                .description("Emails pendientes de envio en Email_Outbox")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("email.outbox.send")
+                .description("Duracion del envio SMTP de cada lote")
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("email.outbox.messages", "result", "sent");
+        this.retriedCounter = meterRegistry.counter("email.outbox.messages", "result", "retried");
+        this.failedCounter = meterRegistry.counter("email.outbox.messages", "result", "failed");
+    }
+
+    // el hilo del scheduler solo reparte los lotes; no espera a los workers
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:5000}")
+    public void dispatch() {
+        List<EmailOutbox> due = emailOutboxRepository.findDue(
+                EmailOutboxStatus.PENDIENTE, LocalDateTime.now(clock), PageRequest.of(0, batchSize));
+
+        // los que siguen en manos de un worker no se vuelven a tomar
+        List<EmailOutbox> claimed = due.stream()
+                .filter(email -> inFlight.add(email.getId()))
+                .toList();
+
+        if (!claimed.isEmpty()) {
+            List<List<EmailOutbox>> chunks = new ArrayList<>();
+            for (int i = 0; i < Math.min(workers, claimed.size()); i++) {
+                chunks.add(new ArrayList<>());
+            }
+            for (int i = 0; i < claimed.size(); i++) {
+                chunks.get(i % chunks.size()).add(claimed.get(i));
+            }
+
+            for (List<EmailOutbox> chunk : chunks) {
+                try {
+                    executor.execute(() -> {
+                        try {
+                            send(chunk);
+                        } catch (RuntimeException e) {
+                            log.error("Error al enviar emails pendientes: {}", e.getMessage());
+                        } finally {
+                            release(chunk);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    release(chunk);
+                    log.warn("No se pudieron encolar {} emails pendientes: {}", chunk.size(), e.getMessage());
+                }
+            }
+        }
+
+        pending.set(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDIENTE));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void release(List<EmailOutbox> chunk) {
+        chunk.forEach(email -> inFlight.remove(email.getId()));
+    }
+
+    private void send(List<EmailOutbox> chunk) {
+        Map<MimeMessage, EmailOutbox> messages = new LinkedHashMap<>();
+        Map<EmailOutbox, Exception> failures = new IdentityHashMap<>();
+
+        for (EmailOutbox email : chunk) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException | MailException e) {
+                failures.put(email, e);
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                // JavaMailSender abre una sola conexion para todos los mensajes del arreglo
+                sendTimer.record(() -> javaMailSender.send(messages.keySet().toArray(new MimeMessage[0])));
+            } catch (MailSendException e) {
+                Map<Object, Exception> failed = e.getFailedMessages();
+                messages.forEach((message, email) -> {
+                    if (failed.containsKey(message)) {
+                        failures.put(email, failed.get(message));
+                    }
+                });
+                // sin detalle por mensaje se reintenta todo el lote
+                if (failed.isEmpty()) {
+                    messages.values().forEach(email -> failures.put(email, e));
+                }
+            } catch (MailException e) {
+                messages.values().forEach(email -> failures.put(email, e));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (EmailOutbox email : chunk) {
+            Exception error = failures.get(email);
+            if (error == null) {
+                markSent(email, now);
+            } else {
+                markFailed(email, error, now);
+            }
+        }
+        emailOutboxRepository.saveAll(chunk);
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox email) throws MessagingException {
+        MimeMessage message = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), true);
+        return message;
+    }
+
+    private void markSent(EmailOutbox email, LocalDateTime now) {
+        email.setStatus(EmailOutboxStatus.ENVIADO);
+        email.setAttempts(email.getAttempts() + 1);
+        email.setSentAt(now);
+        email.setLastError(null);
+        sentCounter.increment();
+    }
+
+    private void markFailed(EmailOutbox email, Exception error, LocalDateTime now) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(truncate(String.valueOf(error.getMessage())));
+
+        // una direccion invalida no se arregla reintentando
+        if (attempts >= maxAttempts || isPermanent(error)) {
+            email.setStatus(EmailOutboxStatus.FALLIDO);
+            failedCounter.increment();
+            log.error("No se pudo enviar el email {} a {} despues de {} intentos: {}",
+                    email.getId(), email.getRecipient(), attempts, error.getMessage());
+            return;
+        }
+
+        email.setNextAttemptAt(now.plus(backoff(attempts)));
+        retriedCounter.increment();
+        log.warn("Fallo el envio del email {} (intento {}), se reintenta: {}", email.getId(), attempts, error.getMessage());
+    }
+
+    private static boolean isPermanent(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AddressException) {
+                return true;
+            }
+            if (cause instanceof SendFailedException sendFailed
+                    && sendFailed.getInvalidAddresses() != null && sendFailed.getInvalidAddresses().length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 30s, 1m, 2m, 4m... hasta maxBackoff
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -1,18 +1,18 @@
 package pi.ms_properties.service.impl;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
-import jakarta.mail.internet.MimeMessage;
 import pi.ms_properties.configuration.components.AppProperties;
 import pi.ms_properties.domain.ChatMessage;
 import pi.ms_properties.domain.ChatOption;
 import pi.ms_properties.domain.ChatSession;
+import pi.ms_properties.domain.EmailOutbox;
+import pi.ms_properties.domain.EmailOutboxStatus;
 import pi.ms_properties.dto.EmailChatDTO;
 import pi.ms_properties.dto.EmailDTO;
+import pi.ms_properties.repository.IEmailOutboxRepository;
 import pi.ms_properties.service.interf.IChatMessageService;
 import pi.ms_properties.service.interf.IEmailService;
 
@@ -23,11 +23,14 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Locale;
 
+// los emails se renderizan en el request y se guardan en Email_Outbox; EmailOutboxDispatcher los envia por SMTP
 @Service
 @RequiredArgsConstructor
 public class EmailService implements IEmailService {
 
-    private final JavaMailSender javaMailSender;
+    private static final String ADMIN_EMAIL = "desarrolloinmobertibusso@gmail.com";
+
+    private final IEmailOutboxRepository emailOutboxRepository;
 
     private final TemplateEngine templateEngine;
 
@@ -46,6 +49,21 @@ public class EmailService implements IEmailService {
         return argentinaTime.format(formatter);
     }
 
+    // se une a la transaccion del llamador: si el request falla, el email no se envia
+    private void enqueue(String recipient, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("America/Argentina/Buenos_Aires"));
+
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(recipient);
+        email.setSubject(subject);
+        email.setBody(body);
+        email.setStatus(EmailOutboxStatus.PENDIENTE);
+        email.setAttempts(0);
+        email.setCreatedAt(now);
+        email.setNextAttemptAt(now);
+        emailOutboxRepository.save(email);
+    }
+
     private EmailChatDTO buildEmailChatDTO(ChatSession chatSession, boolean derived, String agentName) {
         EmailChatDTO dto = new EmailChatDTO();
         dto.setFirstName(chatSession.getFirstName());
@@ -93,22 +111,18 @@ public class EmailService implements IEmailService {
             context.setVariable("description", emailDTO.getDescription());
             context.setVariable("date", formatDate(emailDTO.getDate()));
 
-            MimeMessage message = javaMailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setTo("desarrolloinmobertibusso@gmail.com");
-
+            String subject;
             String content;
             if (emailDTO.getPropertiesTitle() == null || emailDTO.getPropertiesTitle().isEmpty()) {
-                helper.setSubject("Nueva consulta");
+                subject = "Nueva consulta";
                 content = templateEngine.process("email_inquiry_without_property", context);
             } else {
-                helper.setSubject("Nueva consulta de propiedad");
+                subject = "Nueva consulta de propiedad";
                 context.setVariable("propertiesTitle", emailDTO.getPropertiesTitle());
                 content = templateEngine.process("email_inquiry", context);
             }
 
-            helper.setText(content, true);
-            javaMailSender.send(message);
+            enqueue(ADMIN_EMAIL, subject, content);
         } catch (Exception e) {
             throw new RuntimeException("Error al enviar la consulta de propiedad: " + e.getMessage(), e);
         }
@@ -121,15 +135,8 @@ public class EmailService implements IEmailService {
             String surveyLink = appProperties.getFrontendBaseUrl() + "/survey/" + inquiryId + "/" + token;
             context.setVariable("surveyLink", surveyLink);
 
-            MimeMessage message = javaMailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setTo(emailTo);
-            helper.setSubject("¡Gracias por tu consulta!");
-
             String content = templateEngine.process("email_survey", context);
-            helper.setText(content, true);
-
-            javaMailSender.send(message);
+            enqueue(emailTo, "¡Gracias por tu consulta!", content);
         } catch (Exception e) {
             throw new RuntimeException("Error al enviar el email de encuesta: " + e.getMessage(), e);
         }
@@ -149,13 +156,8 @@ public class EmailService implements IEmailService {
             context.setVariable("derived", derived);
             context.setVariable("agentName", emailDTO.getAgentName());
 
-            MimeMessage message = javaMailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setTo("desarrolloinmobertibusso@gmail.com");
-            helper.setSubject("Resumen de consulta por chat");
             String content = templateEngine.process("email_chat_summary", context);
-            helper.setText(content, true);
-            javaMailSender.send(message);
+            enqueue(ADMIN_EMAIL, "Resumen de consulta por chat", content);
         } catch (Exception e) {
             throw new RuntimeException("Error al enviar resumen del chat: " + e.getMessage(), e);
         }
@@ -0,0 +1,145 @@
+package pi.ms_properties.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pi.ms_properties.domain.ExportFormat;
+import pi.ms_properties.repository.ExportRepository;
+import pi.ms_properties.service.interf.IExportService;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.TemporalAccessor;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// las exportaciones recorren un cursor de la base y escriben cada fila directo en la respuesta,
+// asi la memoria usada no depende del tamaño de la tabla
+@Service
+@RequiredArgsConstructor
+public class ExportService implements IExportService {
+
+    // cada cuantas filas se vacia el buffer hacia el cliente; si se desconecto, la escritura falla y se corta el cursor
+    private static final int FLUSH_EVERY = 500;
+
+    private static final String[] VIEW_COLUMNS = {"id", "date", "propertyId", "propertyTitle"};
+
+    private static final String[] INQUIRY_COLUMNS = {"id", "date", "status", "dateClose", "userId", "firstName",
+            "lastName", "email", "phone", "title", "description"};
+
+    private static final String[] SURVEY_COLUMNS = {"id", "score", "comment", "inquiryId", "inquiryDate"};
+
+    private final ExportRepository exportRepository;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportViews(String format, HttpServletResponse response) throws IOException {
+        export("views", VIEW_COLUMNS, exportRepository::streamViews, format, response);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportInquiries(String format, HttpServletResponse response) throws IOException {
+        export("inquiries", INQUIRY_COLUMNS, exportRepository::streamInquiries, format, response);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportSurveys(String format, HttpServletResponse response) throws IOException {
+        export("surveys", SURVEY_COLUMNS, exportRepository::streamSurveys, format, response);
+    }
+
+    private void export(String name, String[] columns, Supplier<Stream<Object[]>> source,
+                        String format, HttpServletResponse response) throws IOException {
+        // el formato se valida antes de abrir el cursor y de escribir la respuesta
+        ExportFormat exportFormat = ExportFormat.fromString(format);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(name + "." + exportFormat.getExtension())
+                .build()
+                .toString());
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        try (Stream<Object[]> rows = source.get()) {
+            if (exportFormat == ExportFormat.CSV) {
+                writeCsv(columns, rows.iterator(), writer);
+            } else {
+                writeNdjson(columns, rows.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(String[] columns, Iterator<Object[]> rows, Writer writer) throws IOException {
+        writer.write(String.join(",", columns));
+        writer.write("\r\n");
+
+        int count = 0;
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) writer.write(',');
+                writer.write(csvField(row[i]));
+            }
+            writer.write("\r\n");
+            if (++count % FLUSH_EVERY == 0) writer.flush();
+        }
+    }
+
+    private void writeNdjson(String[] columns, Iterator<Object[]> rows, Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        int count = 0;
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = normalize(row[i]);
+                generator.writeFieldName(columns[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Number) {
+                    generator.writeNumber(value.toString());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            if (++count % FLUSH_EVERY == 0) generator.flush();
+        }
+        generator.flush();
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Enum<?> e) return e.name();
+        if (value instanceof TemporalAccessor) return value.toString();
+        return value;
+    }
+
+    private static String csvField(Object raw) {
+        Object value = normalize(raw);
+        if (value == null) return "";
+        String text = value.toString();
+        if (value instanceof Number) return text;
+
+        // los textos cargados por usuarios no deben interpretarse como formulas al abrir el archivo en una planilla
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            text = "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,183 @@
+package pi.ms_properties.service.impl;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import pi.ms_properties.domain.Storage;
+import pi.ms_properties.service.interf.IAzureBlobStorage;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.util.regex.Pattern;
+
+// guarda las imagenes en disco en lugar de Azure, para desarrollo local o servidores sin Blob Storage;
+// las urls apuntan a /image/raw/{name}, que las sirve desde este mismo servicio
+@Service
+@Profile("filesystem-storage")
+public class FileSystemBlobStorage implements IAzureBlobStorage {
+
+    // los nombres los genera el servicio (uuid + extension y sus versiones), no se aceptan rutas
+    private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private final Path root;
+
+    private final String baseUrl;
+
+    public FileSystemBlobStorage(@Value("${storage.filesystem.root:${java.io.tmpdir}/ms-properties-images}") String root,
+                                 @Value("${storage.filesystem.base-url:/image/raw/}") String baseUrl) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl;
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de imagenes " + this.root, e);
+        }
+    }
+
+    @Override
+    public String create(Storage storage) {
+        Path target = resolve(storage.getPath());
+        Path temp = null;
+        try {
+            // se escribe en un temporal del mismo directorio y se mueve al final: nunca se sirve un archivo a medias
+            temp = Files.createTempFile(root, ".upload-", ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 ReadableByteChannel in = channel(storage.getInputStream())) {
+                transfer(in, out, storage.getSize());
+            }
+            // sin REPLACE_EXISTING falla si ya existe el nombre, igual que la subida a Azure
+            Files.move(temp, target);
+            return baseUrl + storage.getPath();
+        } catch (Exception e) {
+            deleteQuietly(temp);
+            throw new RuntimeException("Error al cargar la imagen: ", e);
+        }
+    }
+
+    @Override
+    public void delete(Storage storage) {
+        Path path = resolve(storage.getPath());
+        try {
+            if (!Files.deleteIfExists(path)) {
+                System.out.println("El archivo no existe: " + storage.getPath());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al eliminar el archivo", e);
+        }
+    }
+
+    @Override
+    public String getImageUrl(String imageName) {
+        return baseUrl + imageName;
+    }
+
+    @Override
+    public String getImagePath(String url) {
+        return url.startsWith(baseUrl) ? url.substring(baseUrl.length()) : url;
+    }
+
+    @Override
+    public Storage read(String path) {
+        Path file = resolve(path);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // el mapeo sigue valido despues de cerrar el canal y evita copiar el archivo al heap
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            Storage storage = new Storage();
+            storage.setPath(path);
+            storage.setFileName(path);
+            storage.setInputStream(new BufferInputStream(buffer));
+            storage.setSize(buffer.capacity());
+            storage.setContentType(MediaTypeFactory.getMediaType(path)
+                    .map(Object::toString)
+                    .orElse("application/octet-stream"));
+            return storage;
+        } catch (NoSuchFileException e) {
+            throw new EntityNotFoundException("Imagen no encontrada");
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el archivo", e);
+        }
+    }
+
+    private Path resolve(String name) {
+        if (name == null || !VALID_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Nombre de imagen invalido: " + name);
+        }
+        Path path = root.resolve(name).normalize();
+        if (!path.getParent().equals(root)) {
+            throw new IllegalArgumentException("Nombre de imagen invalido: " + name);
+        }
+        return path;
+    }
+
+    // si el origen es un archivo (multipart guardado en disco) se usa su canal para que la copia la haga el sistema
+    private static ReadableByteChannel channel(InputStream inputStream) {
+        if (inputStream instanceof FileInputStream fileInputStream) {
+            return fileInputStream.getChannel();
+        }
+        return Channels.newChannel(inputStream);
+    }
+
+    private static void transfer(ReadableByteChannel in, FileChannel out, long size) throws IOException {
+        long position = 0;
+        if (in instanceof FileChannel source) {
+            long remaining = source.size() - source.position();
+            while (position < remaining) {
+                position += source.transferTo(source.position() + position, remaining - position, out);
+            }
+            return;
+        }
+        // con tamaño desconocido se transfiere por bloques hasta el fin del stream
+        long chunk = size > 0 ? size : 1 << 20;
+        long transferred;
+        while ((transferred = out.transferFrom(in, position, chunk)) > 0) {
+            position += transferred;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    // lee el archivo mapeado sin copiarlo antes a un arreglo
+    private static class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
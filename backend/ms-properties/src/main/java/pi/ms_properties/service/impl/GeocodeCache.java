@@ -0,0 +1,240 @@
+package pi.ms_properties.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import pi.ms_properties.domain.Geocode;
+import pi.ms_properties.repository.IGeocodeRepository;
+
+import java.text.Normalizer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// cache de geocodificacion en dos niveles: memoria (LRU) y la tabla Geocode, por direccion normalizada;
+// tambien guarda las direcciones que Google no encontro, por menos tiempo
+@Component
+public class GeocodeCache {
+
+    private static final Logger log = LoggerFactory.getLogger(GeocodeCache.class);
+
+    private record Entry(Optional<GeocodingNeighborhoodService.Coordinates> coordinates, long expiresAt) {
+    }
+
+    private final IGeocodeRepository geocodeRepository;
+
+    private final Map<String, Entry> entries;
+
+    // consultas a Google en curso: las direcciones iguales que llegan mientras tanto esperan la misma respuesta
+    private final Map<String, CompletableFuture<Optional<GeocodingNeighborhoodService.Coordinates>>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private final Clock clock;
+
+    private final Duration ttl;
+
+    private final Duration negativeTtl;
+
+    private final Counter memoryCounter;
+
+    private final Counter databaseCounter;
+
+    private final Counter missCounter;
+
+    private final Counter sharedCounter;
+
+    private final Counter evictionCounter;
+
+    @Autowired
+    public GeocodeCache(IGeocodeRepository geocodeRepository, MeterRegistry meterRegistry,
+                        @Value("${geocoding.cache.max-entries:2000}") int maxEntries,
+                        @Value("${geocoding.cache.ttl-days:180}") long ttlDays,
+                        @Value("${geocoding.cache.negative-ttl-hours:24}") long negativeTtlHours) {
+        this(geocodeRepository, meterRegistry, maxEntries, Duration.ofDays(ttlDays),
+                Duration.ofHours(negativeTtlHours), Clock.systemUTC());
+    }
+
+    public GeocodeCache(IGeocodeRepository geocodeRepository, MeterRegistry meterRegistry, int maxEntries,
+                        Duration ttl, Duration negativeTtl, Clock clock) {
+        this.geocodeRepository = geocodeRepository;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictionCounter.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        Gauge.builder("geocoding.cache.size", this, GeocodeCache::size)
+                .description("Direcciones geocodificadas en memoria")
+                .register(meterRegistry);
+        this.memoryCounter = meterRegistry.counter("geocoding.cache", "result", "memory");
+        this.databaseCounter = meterRegistry.counter("geocoding.cache", "result", "database");
+        this.missCounter = meterRegistry.counter("geocoding.cache", "result", "miss");
+        this.sharedCounter = meterRegistry.counter("geocoding.cache", "result", "shared");
+        this.evictionCounter = meterRegistry.counter("geocoding.cache.evictions");
+    }
+
+    // minusculas, sin tildes y con espacios y comas uniformes
+    public static String normalize(String address) {
+        if (address == null) return "";
+        String plain = Normalizer.normalize(address, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return plain.toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .replaceAll("\\s*,\\s*", ", ")
+                .trim();
+    }
+
+    // request es la llamada a la Geocoding API, solo se hace si la direccion no esta en memoria ni en la base;
+    // los errores y las respuestas sin estado definitivo no se guardan
+    public Optional<GeocodingNeighborhoodService.Coordinates> get(String address, Supplier<JsonNode> request) {
+        String key = normalize(address);
+
+        Entry entry = cached(key);
+        if (entry != null) {
+            memoryCounter.increment();
+            return entry.coordinates();
+        }
+
+        CompletableFuture<Optional<GeocodingNeighborhoodService.Coordinates>> pending = new CompletableFuture<>();
+        CompletableFuture<Optional<GeocodingNeighborhoodService.Coordinates>> running = inFlight.putIfAbsent(key, pending);
+        if (running != null) {
+            sharedCounter.increment();
+            return await(running);
+        }
+
+        try {
+            Optional<GeocodingNeighborhoodService.Coordinates> coordinates = load(key, request);
+            pending.complete(coordinates);
+            return coordinates;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private Optional<GeocodingNeighborhoodService.Coordinates> load(String key, Supplier<JsonNode> request) {
+        Entry stored = fromDatabase(key);
+        if (stored != null) {
+            databaseCounter.increment();
+            remember(key, stored);
+            return stored.coordinates();
+        }
+
+        missCounter.increment();
+        JsonNode response = request.get();
+        Optional<GeocodingNeighborhoodService.Coordinates> coordinates = parse(response);
+        if (coordinates.isPresent() || isZeroResults(response)) {
+            LocalDateTime now = LocalDateTime.now(clock);
+            remember(key, new Entry(coordinates, expiresAt(now, coordinates)));
+            save(key, coordinates, now);
+        }
+        return coordinates;
+    }
+
+    private Entry fromDatabase(String key) {
+        try {
+            return geocodeRepository.findById(key)
+                    .map(geocode -> {
+                        Optional<GeocodingNeighborhoodService.Coordinates> coordinates =
+                                geocode.getLatitude() == null || geocode.getLongitude() == null
+                                        ? Optional.empty()
+                                        : Optional.of(new GeocodingNeighborhoodService.Coordinates(
+                                                geocode.getLatitude(), geocode.getLongitude()));
+                        return new Entry(coordinates, expiresAt(geocode.getUpdatedAt(), coordinates));
+                    })
+                    .filter(entry -> entry.expiresAt() > clock.millis())
+                    .orElse(null);
+        } catch (DataAccessException e) {
+            // sin base se sigue con la cache en memoria y la API
+            log.warn("No se pudo leer la geocodificacion guardada de '{}': {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void save(String key, Optional<GeocodingNeighborhoodService.Coordinates> coordinates, LocalDateTime now) {
+        try {
+            geocodeRepository.save(new Geocode(key,
+                    coordinates.map(GeocodingNeighborhoodService.Coordinates::latitude).orElse(null),
+                    coordinates.map(GeocodingNeighborhoodService.Coordinates::longitude).orElse(null),
+                    now));
+        } catch (DataAccessException e) {
+            log.warn("No se pudo guardar la geocodificacion de '{}': {}", key, e.getMessage());
+        }
+    }
+
+    private long expiresAt(LocalDateTime updatedAt, Optional<GeocodingNeighborhoodService.Coordinates> coordinates) {
+        Duration lifetime = coordinates.isPresent() ? ttl : negativeTtl;
+        return updatedAt.plus(lifetime).atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized Entry cached(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.expiresAt() <= clock.millis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void remember(String key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    // primer resultado de la respuesta de Google, vacio si no trae coordenadas
+    private static Optional<GeocodingNeighborhoodService.Coordinates> parse(JsonNode json) {
+        JsonNode results = json != null ? json.get("results") : null;
+        if (results == null || !results.isArray() || results.isEmpty()) {
+            return Optional.empty();
+        }
+        JsonNode location = results.get(0).path("geometry").path("location");
+        if (!location.has("lat") || !location.has("lng")) {
+            return Optional.empty();
+        }
+        return Optional.of(new GeocodingNeighborhoodService.Coordinates(
+                location.get("lat").asDouble(), location.get("lng").asDouble()));
+    }
+
+    // solo ZERO_RESULTS indica que la direccion no existe; OVER_QUERY_LIMIT, REQUEST_DENIED, etc. se reintentan
+    private static boolean isZeroResults(JsonNode json) {
+        return json != null && "ZERO_RESULTS".equals(json.path("status").asText());
+    }
+
+    private static Optional<GeocodingNeighborhoodService.Coordinates> await(
+            CompletableFuture<Optional<GeocodingNeighborhoodService.Coordinates>> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
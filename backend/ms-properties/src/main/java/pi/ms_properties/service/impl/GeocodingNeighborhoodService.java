@@ -12,19 +12,22 @@ public class GeocodingNeighborhoodService {
 
     private final WebClient webClient;
     private final String googleMapsApiKey;
+    private final GeocodeCache geocodeCache;
 
     public GeocodingNeighborhoodService(WebClient.Builder webClientBuilder,
-                                        @Value("${google.maps.api-key}") String googleMapsApiKey) {
+                                        @Value("${google.maps.api-key}") String googleMapsApiKey,
+                                        GeocodeCache geocodeCache) {
         this.webClient = webClientBuilder
                 .baseUrl("https://maps.googleapis.com")
                 .build();
         this.googleMapsApiKey = googleMapsApiKey;
+        this.geocodeCache = geocodeCache;
     }
 
     public Optional<Coordinates> getCoordinates(String neighborhoodName, String city) {
         String address = neighborhoodName + ", " + city + ", Argentina";
 
-        JsonNode json = webClient.get()
+        return geocodeCache.get(address, () -> webClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/maps/api/geocode/json")
                         .queryParam("address", address)
@@ -32,20 +35,7 @@ public class GeocodingNeighborhoodService {
                         .build())
                 .retrieve()
                 .bodyToMono(JsonNode.class)
-                .block();
-
-        JsonNode results = json != null ? json.get("results") : null;
-        if (results != null && results.isArray() && !results.isEmpty()) {
-            JsonNode location = results.get(0).path("geometry").path("location");
-            if (!location.has("lat") || !location.has("lng")) {
-                return Optional.empty();
-            }
-            double lat = location.get("lat").asDouble();
-            double lon = location.get("lng").asDouble();
-            return Optional.of(new Coordinates(lat, lon));
-        }
-
-        return Optional.empty();
+                .block());
     }
 
     public record Coordinates(double latitude, double longitude) {}
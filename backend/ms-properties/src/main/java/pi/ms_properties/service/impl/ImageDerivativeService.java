@@ -0,0 +1,181 @@
+package pi.ms_properties.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import pi.ms_properties.domain.ImageDerivative;
+import pi.ms_properties.domain.ImageVariant;
+import pi.ms_properties.domain.Storage;
+import pi.ms_properties.repository.IImageDerivativeRepository;
+import pi.ms_properties.service.interf.IAzureBlobStorage;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.*;
+
+// genera las versiones reducidas (thumbnail, card, full) de cada imagen en JPEG comprimido;
+// el redimensionado corre en segundo plano en un pool acotado, la subida no lo espera.
+// Cada version subida queda registrada en Image_Derivative; las que faltan se sirven con el original
+@Component
+public class ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private final IAzureBlobStorage azureBlobStorage;
+
+    private final IImageDerivativeRepository imageDerivativeRepository;
+
+    private final ExecutorService executor;
+
+    @Autowired
+    public ImageDerivativeService(IAzureBlobStorage azureBlobStorage,
+                                  IImageDerivativeRepository imageDerivativeRepository,
+                                  @Value("${image.derivatives.parallelism:2}") int parallelism,
+                                  @Value("${image.derivatives.queue-capacity:50}") int queueCapacity) {
+        // con la cola llena se descartan las versiones de la imagen, no se frena la subida
+        this(azureBlobStorage, imageDerivativeRepository, new ThreadPoolExecutor(parallelism, parallelism,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("image-derivative-"), new ThreadPoolExecutor.AbortPolicy()));
+    }
+
+    public ImageDerivativeService(IAzureBlobStorage azureBlobStorage,
+                                  IImageDerivativeRepository imageDerivativeRepository,
+                                  ExecutorService executor) {
+        this.azureBlobStorage = azureBlobStorage;
+        this.imageDerivativeRepository = imageDerivativeRepository;
+        this.executor = executor;
+    }
+
+    // encola las versiones de la imagen y vuelve enseguida; el contenido se lee antes porque el
+    // archivo temporal del multipart se borra al terminar el request
+    public void generate(String name, MultipartFile file) {
+        try {
+            byte[] content = file.getBytes();
+            executor.execute(() -> {
+                try {
+                    write(name, content);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("No se pudieron generar las versiones de la imagen {}: {}", name, e.getMessage());
+                }
+            });
+        } catch (IOException | RejectedExecutionException e) {
+            log.warn("No se pudieron generar las versiones de la imagen {}: {}", name, e.getMessage());
+        }
+    }
+
+    // versiones subidas de cada imagen, en una sola consulta
+    public Map<String, Set<ImageVariant>> findGenerated(Collection<String> names) {
+        List<String> present = names.stream().filter(Objects::nonNull).distinct().toList();
+        if (present.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Set<ImageVariant>> generated = new HashMap<>();
+        for (ImageDerivative derivative : imageDerivativeRepository.findByNameIn(present)) {
+            generated.computeIfAbsent(derivative.getName(), name -> EnumSet.noneOf(ImageVariant.class))
+                    .add(derivative.getVariant());
+        }
+        return generated;
+    }
+
+    public void delete(String name) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            Storage storage = new Storage();
+            storage.setPath(variant.path(name));
+            azureBlobStorage.delete(storage);
+        }
+        imageDerivativeRepository.deleteByName(name);
+    }
+
+    private void write(String name, byte[] content) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(content));
+        if (source == null) {
+            // formato que ImageIO no reconoce, se sirve solo el original
+            return;
+        }
+
+        for (ImageVariant variant : ImageVariant.values()) {
+            byte[] encoded = encode(resize(source, variant.getMaxSize()), variant.getQuality());
+
+            Storage storage = new Storage();
+            storage.setPath(variant.path(name));
+            storage.setFileName(variant.path(name));
+            storage.setInputStream(new ByteArrayInputStream(encoded));
+            storage.setSize(encoded.length);
+            storage.setContentType("image/jpeg");
+            azureBlobStorage.create(storage);
+
+            imageDerivativeRepository.save(new ImageDerivative(null, name, variant));
+        }
+    }
+
+    // reduce a la mitad mientras sobre mas del doble y termina con un paso bilineal, mantiene la proporcion
+    private static BufferedImage resize(BufferedImage source, int maxSize) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, width, height);
+    }
+
+    // siempre a RGB con fondo blanco: JPEG no tiene transparencia
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,9 +1,12 @@
 package pi.ms_properties.service.impl;
 
-import com.azure.storage.blob.*;
 import com.azure.storage.blob.models.*;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,12 +15,19 @@ import pi.ms_properties.domain.Property;
 import pi.ms_properties.domain.Storage;
 import pi.ms_properties.repository.IImageRepository;
 import pi.ms_properties.repository.IPropertyRepository;
+import pi.ms_properties.repository.ImageBatchRepository;
 import pi.ms_properties.service.interf.IAzureBlobStorage;
 import pi.ms_properties.service.interf.IImageService;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
@@ -29,7 +39,11 @@ public class ImageService implements IImageService {
 
     private final IPropertyRepository propertyRepository;
 
-    private final BlobContainerClient blobContainerClient;
+    private final ImageBatchRepository imageBatchRepository;
+
+    private final ImageUploadExecutor imageUploadExecutor;
+
+    private final ImageDerivativeService imageDerivativeService;
 
     // como lo guardamos con un nombre random a la imagen, necesito que guarde la extension del archivo
     private String getExtension(String filename) {
@@ -68,6 +82,8 @@ public class ImageService implements IImageService {
                 imageRepository.save(image);
             }
 
+            imageDerivativeService.generate(uniqueFileName, file);
+
             return uniqueFileName;
 
         } catch (BlobStorageException e) {
@@ -79,19 +95,100 @@ public class ImageService implements IImageService {
         }
     }
 
+    // al crear una propiedad: sube la principal y las adicionales en paralelo y guarda las adicionales en un
+    // solo batch; si algo falla se borran los blobs que ya se habian subido. Las versiones reducidas se
+    // encolan recien cuando todo salio bien y no se esperan. Devuelve el nombre de la imagen principal
+    @Override
+    public String uploadPropertyImages(Long propertyId, MultipartFile mainImage, List<MultipartFile> images) {
+        List<MultipartFile> files = new ArrayList<>();
+        files.add(mainImage);
+        if (images != null) {
+            images.stream().filter(Objects::nonNull).forEach(files::add);
+        }
+
+        List<String> names = files.stream()
+                .map(file -> UUID.randomUUID() + getExtension(file.getOriginalFilename()))
+                .toList();
+
+        List<CompletableFuture<String>> uploads = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String name = names.get(i);
+            uploads.add(imageUploadExecutor.submit(() -> upload(file, name)));
+        }
+
+        List<String> uploaded = new ArrayList<>();
+        RuntimeException failure = null;
+        for (CompletableFuture<String> upload : uploads) {
+            try {
+                uploaded.add(upload.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+
+        if (failure != null) {
+            discard(uploaded);
+            throw new RuntimeException("No se han podido subir las imagenes de la propiedad", failure);
+        }
+
+        try {
+            imageBatchRepository.saveAll(propertyId, names.subList(1, names.size()));
+        } catch (RuntimeException e) {
+            discard(uploaded);
+            throw e;
+        }
+
+        for (int i = 0; i < files.size(); i++) {
+            imageDerivativeService.generate(names.get(i), files.get(i));
+        }
+
+        return names.getFirst();
+    }
+
+    // el stream del archivo se pasa directo a Blob Storage y se cierra al terminar
+    private String upload(MultipartFile file, String uniqueFileName) {
+        try (InputStream inputStream = file.getInputStream()) {
+            Storage storage = new Storage();
+            storage.setPath(uniqueFileName);
+            storage.setFileName(file.getOriginalFilename());
+            storage.setInputStream(inputStream);
+            storage.setSize(file.getSize());
+            storage.setContentType(file.getContentType());
+
+            azureBlobStorage.create(storage);
+            return uniqueFileName;
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer el archivo", e);
+        }
+    }
+
+    // compensacion: un error al borrar no debe ocultar el error original
+    private void discard(List<String> uploaded) {
+        for (String name : uploaded) {
+            try {
+                deleteImageByName(name);
+            } catch (RuntimeException e) {
+                System.out.println("No se pudo eliminar la imagen " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
     @Override
     public ResponseEntity<String> deleteImage(Long id) {
         Image image = imageRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Imagen no encontrada"));
 
         String blobUrl = image.getUrl();
-        String containerUrl = blobContainerClient.getBlobContainerUrl();
-        String path = blobUrl.replace(containerUrl + "/", "");
+        String path = azureBlobStorage.getImagePath(blobUrl);
 
         Storage storage = new Storage();
         storage.setPath(path);
 
         azureBlobStorage.delete(storage);
+        imageDerivativeService.delete(path);
         imageRepository.delete(image);
 
         return ResponseEntity.ok("Imagen eliminada correctamente");
@@ -102,6 +199,7 @@ public class ImageService implements IImageService {
         Storage storage = new Storage();
         storage.setPath(url);
         azureBlobStorage.delete(storage);
+        imageDerivativeService.delete(url);
     }
 
     @Override
@@ -142,4 +240,20 @@ public class ImageService implements IImageService {
     public String getNoticeImageURL(String imageName) {
         return azureBlobStorage.getImageUrl(imageName);
     }
-}
\ No newline at end of file
+
+    // los nombres son unicos (uuid), el contenido de un nombre no cambia y se puede cachear sin revalidar
+    @Override
+    public ResponseEntity<Resource> getRawImage(String name) {
+        Storage storage = azureBlobStorage.read(name);
+
+        MediaType contentType = storage.getContentType() != null
+                ? MediaType.parseMediaType(storage.getContentType())
+                : MediaType.APPLICATION_OCTET_STREAM;
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .contentLength(storage.getSize())
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .body(new InputStreamResource(storage.getInputStream()));
+    }
+}
@@ -0,0 +1,37 @@
+package pi.ms_properties.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// pool acotado para subir las imagenes de una propiedad en paralelo sin saturar Blob Storage
+@Component
+public class ImageUploadExecutor {
+
+    private final ExecutorService executor;
+
+    @Autowired
+    public ImageUploadExecutor(@Value("${image.upload.parallelism:6}") int parallelism) {
+        this(new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("image-upload-")));
+    }
+
+    public ImageUploadExecutor(ExecutorService executor) {
+        this.executor = new DelegatingSecurityContextExecutorService(executor);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -46,35 +46,44 @@ public class InquiryService implements IInquiryService {
 
     private final ObjectMapper objectMapper;
 
+    // resuelve todas las propiedades de la consulta con una sola proyeccion de id y titulo
+    private Map<Long, String> findPropertyTitles(List<Long> propertyIds) {
+        if (propertyIds == null || propertyIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(propertyIds);
+        Map<Long, String> found = new HashMap<>();
+        for (Object[] row : propertyRepository.findTitlesByIdIn(ids)) {
+            found.put((Long) row[0], (String) row[1]);
+        }
+
+        Map<Long, String> titles = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (!found.containsKey(id)) {
+                throw new IllegalArgumentException("No se ha encontrado la propiedad con id " + id);
+            }
+            titles.put(id, found.get(id));
+        }
+        return titles;
+    }
+
     private Inquiry saveInquiry(InquirySaveDTO inquirySaveDTO) {
         Inquiry inquiry = new Inquiry();
         inquiry.setDate(LocalDateTime.now(ZoneId.of("America/Argentina/Buenos_Aires")));
         inquiry.setTitle(inquirySaveDTO.getTitle());
         inquiry.setDescription(inquirySaveDTO.getDescription());
         inquiry.setStatus(InquiryStatus.ABIERTA);
-
-        if (inquirySaveDTO.getPropertyIds() != null && !inquirySaveDTO.getPropertyIds().isEmpty()) {
-            List<Long> propertyIds = inquirySaveDTO.getPropertyIds();
-            for (Long propertyIdFind : propertyIds) {
-                Optional<Property> property = propertyRepository.findById(propertyIdFind);
-                if (property.isEmpty()) {
-                    throw new IllegalArgumentException("No se ha encontrado la propiedad con id " + propertyIdFind);
-                }
-            }
-
-            List<Property> properties = propertyRepository.findAllById(propertyIds);
-            inquiry.setProperties(properties);
-            for (Property property : properties) {
-                property.getInquiries().add(inquiry);
-            }
-        }
-
         return inquiry;
     }
 
-    private ResponseEntity<String> saveAndSendEmail(InquirySaveDTO inquirySaveDTO, Inquiry inquiry) {
+    private ResponseEntity<String> saveAndSendEmail(Inquiry inquiry, Map<Long, String> propertyTitles) {
         inquiryRepository.save(inquiry);
 
+        if (!propertyTitles.isEmpty()) {
+            propertyRepository.linkInquiry(inquiry.getId(), propertyTitles.keySet());
+        }
+
         EmailDTO emailDTO = new EmailDTO();
         emailDTO.setFirstName(inquiry.getFirstName());
         emailDTO.setLastName(inquiry.getLastName());
@@ -83,11 +92,8 @@ public class InquiryService implements IInquiryService {
         emailDTO.setDescription(inquiry.getDescription());
         emailDTO.setDate(inquiry.getDate());
 
-        if (inquirySaveDTO.getPropertyIds() != null && !inquirySaveDTO.getPropertyIds().isEmpty()) {
-            List<Long> propertyIds = inquirySaveDTO.getPropertyIds();
-            List<Property> properties = propertyRepository.findAllById(propertyIds);
-            List<String> titles = properties.stream().map(Property::getTitle).collect(Collectors.toList());
-            emailDTO.setPropertiesTitle(titles);
+        if (!propertyTitles.isEmpty()) {
+            emailDTO.setPropertiesTitle(new ArrayList<>(propertyTitles.values()));
         }
 
         emailService.sendEmailInquiry(emailDTO);
@@ -119,6 +125,7 @@ public class InquiryService implements IInquiryService {
             throw new AccessDeniedException("No tiene el permiso para realizar esta acción.");
         }
 
+        Map<Long, String> propertyTitles = findPropertyTitles(inquirySaveDTO.getPropertyIds());
         Inquiry inquiry = saveInquiry(inquirySaveDTO);
 
         if (inquirySaveDTO.getUserId() != null) {
@@ -139,10 +146,11 @@ public class InquiryService implements IInquiryService {
             inquiry.setLastName(inquirySaveDTO.getLastName());
         }
 
-        return saveAndSendEmail(inquirySaveDTO, inquiry);
+        return saveAndSendEmail(inquiry, propertyTitles);
     }
 
     @Override
+    @Transactional
     public ResponseEntity<String> updateStatus(Long id) throws MessagingException {
         Inquiry inquiry = inquiryRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("No se ha encontrado la consulta"));
@@ -226,17 +234,13 @@ public class InquiryService implements IInquiryService {
 
     @Override
     public ResponseEntity<String> getAverageInquiryResponseTime() {
-        List<Duration> durations = inquiryRepository.getByStatus(InquiryStatus.CERRADA).stream()
-                .filter(i -> i.getDateClose() != null)
-                .map(i -> Duration.between(
-                        i.getDate().atZone(ZoneId.systemDefault()).toInstant(),
-                        i.getDateClose().atZone(ZoneId.systemDefault()).toInstant()
-                ))
-                .toList();
+        // la base devuelve solo la cantidad y la suma, no las consultas cerradas
+        Object[] totals = inquiryRepository.sumResponseSeconds(InquiryStatus.CERRADA).getFirst();
+        long count = ((Number) totals[0]).longValue();
 
-        if (durations.isEmpty()) return ResponseEntity.ok("0 segundos");
+        if (count == 0 || totals[1] == null) return ResponseEntity.ok("0 segundos");
 
-        long avgSeconds = durations.stream().mapToLong(Duration::getSeconds).sum() / durations.size();
+        long avgSeconds = ((Number) totals[1]).longValue() / count;
         Duration avgDuration = Duration.ofSeconds(avgSeconds);
 
         String readable = String.format("%d días, %d horas, %d minutos, %d segundos",
@@ -251,32 +255,29 @@ public class InquiryService implements IInquiryService {
 
     @Override
     public ResponseEntity<Map<String, Long>> getInquiriesGroupedByDayOfWeek() {
-        List<Inquiry> all = inquiryRepository.findAll();
-        Map<DayOfWeek, Long> grouped = all.stream()
-                .collect(Collectors.groupingBy(
-                        i -> i.getDate().toLocalDate().getDayOfWeek(),
-                        Collectors.counting()
-                ));
-        Map<String, Long> result = grouped.entrySet().stream()
+        List<Object[]> data = inquiryRepository.countByDayOfWeek();
+        Map<String, Long> result = data.stream()
                 .collect(Collectors.toMap(
-                        e -> e.getKey().getDisplayName(TextStyle.FULL, Locale.forLanguageTag("es-ES")),
-                        Map.Entry::getValue
+                        // la base cuenta desde el domingo (1), DayOfWeek desde el lunes
+                        row -> DayOfWeek.of((((Number) row[0]).intValue() + 5) % 7 + 1)
+                                .getDisplayName(TextStyle.FULL, Locale.forLanguageTag("es-ES")),
+                        row -> ((Number) row[1]).longValue()
                 ));
         return ResponseEntity.ok(result);
     }
 
     @Override
     public ResponseEntity<Map<String, Long>> getInquiriesGroupedByTimeRange() {
-        List<Inquiry> all = inquiryRepository.findAll();
-        Map<String, Long> result = all.stream()
+        List<Object[]> data = inquiryRepository.countByHour();
+        Map<String, Long> result = data.stream()
                 .collect(Collectors.groupingBy(
-                        i -> {
-                            int hour = i.getDate().getHour();
+                        row -> {
+                            int hour = ((Number) row[0]).intValue();
                             if (hour < 12) return "Mañana";
                             if (hour < 18) return "Tarde";
                             return "Noche";
                         },
-                        Collectors.counting()
+                        Collectors.summingLong(row -> ((Number) row[1]).longValue())
                 ));
         return ResponseEntity.ok(result);
     }
@@ -7,10 +7,12 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import pi.ms_properties.comparer.service.FilterVocabulary;
 import pi.ms_properties.domain.Neighborhood;
 import pi.ms_properties.domain.NeighborhoodType;
 import pi.ms_properties.dto.NeighborhoodDTO;
 import pi.ms_properties.dto.NeighborhoodGetDTO;
+import pi.ms_properties.recommendation.index.PropertyFeatureIndex;
 import pi.ms_properties.repository.INeighborhoodRepository;
 import pi.ms_properties.service.interf.INeighborhoodService;
 import pi.ms_properties.specification.NeighborhoodSpecification;
@@ -29,11 +31,28 @@ public class NeighborhoodService implements INeighborhoodService {
 
     private final GeocodingNeighborhoodService geocodingNeighborhoodService;
 
+    private final PropertyFeatureIndex propertyFeatureIndex;
+
+    private final PropertyTextIndex propertyTextIndex;
+
+    private final PropertyFacetIndex propertyFacetIndex;
+
+    private final FilterVocabulary filterVocabulary;
+
+    private final ChatFactsCache chatFactsCache;
+
     private void saveNeighborhood(NeighborhoodDTO neighborhoodDTO, Neighborhood neighborhood) {
+        // si no cambia la ubicacion se conservan las coordenadas sin volver a geocodificar
+        boolean sameLocation = neighborhood.getLatitude() != null && neighborhood.getLongitude() != null
+                && neighborhoodDTO.getName() != null && neighborhoodDTO.getName().equalsIgnoreCase(neighborhood.getName())
+                && neighborhoodDTO.getCity() != null && neighborhoodDTO.getCity().equalsIgnoreCase(neighborhood.getCity());
+
         neighborhood.setName(neighborhoodDTO.getName());
         neighborhood.setType(NeighborhoodType.fromString(neighborhoodDTO.getType()));
         neighborhood.setCity(neighborhoodDTO.getCity());
 
+        if (sameLocation) return;
+
         Optional<GeocodingNeighborhoodService.Coordinates> coordinates =
                 geocodingNeighborhoodService.getCoordinates(neighborhoodDTO.getName(), neighborhoodDTO.getCity());
 
@@ -61,6 +80,7 @@ public class NeighborhoodService implements INeighborhoodService {
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("El barrio '" + neighborhoodDTO.getName() + "' ya existe");
         }
+        filterVocabulary.refreshNeighborhoods();
 
         return ResponseEntity.ok("Se ha guardado el barrio: " + neighborhoodDTO.getName());
     }
@@ -71,6 +91,7 @@ public class NeighborhoodService implements INeighborhoodService {
                 .orElseThrow(() -> new EntityNotFoundException("No existe el barrio con ID: " + id));
 
         neighborhoodRepository.deleteById(id);
+        filterVocabulary.refreshNeighborhoods();
         return ResponseEntity.ok("Se ha eliminado el barrio");
     }
 
@@ -82,6 +103,11 @@ public class NeighborhoodService implements INeighborhoodService {
         saveNeighborhood(neighborhoodDTO, neighborhood);
 
         Neighborhood update = neighborhoodRepository.save(neighborhood);
+        propertyFeatureIndex.updateNeighborhood(id, neighborhood.getLatitude(), neighborhood.getLongitude());
+        propertyTextIndex.updateNeighborhood(id, neighborhood.getName(), neighborhood.getCity());
+        propertyFacetIndex.rebuild();
+        filterVocabulary.refreshNeighborhoods();
+        chatFactsCache.invalidateAll();
         NeighborhoodGetDTO updateDTO = mapper.convertValue(update, NeighborhoodGetDTO.class);
 
         return ResponseEntity.ok(updateDTO);
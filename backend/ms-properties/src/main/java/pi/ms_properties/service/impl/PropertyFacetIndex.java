@@ -0,0 +1,257 @@
+package pi.ms_properties.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pi.ms_properties.domain.Amenity;
+import pi.ms_properties.domain.Property;
+import pi.ms_properties.domain.Status;
+import pi.ms_properties.repository.IPropertyRepository;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// bitsets por valor de cada faceta sobre las propiedades disponibles: filtrar es un AND de bits y contar un cardinality
+@Component
+@RequiredArgsConstructor
+public class PropertyFacetIndex {
+
+    public static final String TYPES = "types";
+    public static final String NEIGHBORHOODS = "neighborhoods";
+    public static final String CITIES = "cities";
+    public static final String AMENITIES = "amenities";
+    public static final String ROOMS = "rooms";
+    public static final String OPERATIONS = "operations";
+    public static final String CURRENCIES = "currencies";
+
+    private static final List<String> FACETS = List.of(TYPES, NEIGHBORHOODS, CITIES, AMENITIES, ROOMS, OPERATIONS, CURRENCIES);
+
+    public record Result(List<Long> ids, Map<String, Map<String, Integer>> counts) {
+    }
+
+    private static final class Value {
+        private final String label;
+        private final BitSet bits = new BitSet();
+
+        private Value(String label) {
+            this.label = label;
+        }
+    }
+
+    private final IPropertyRepository propertyRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // cada propiedad ocupa una posicion fija en los bitsets, las posiciones libres se reutilizan
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    private long[] ids = new long[64];
+
+    private final BitSet live = new BitSet();
+
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    // faceta -> valor normalizado -> propiedades
+    private final Map<String, Map<String, Value>> facets = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Property> properties = propertyRepository.findSearchableByStatus(Status.DISPONIBLE);
+
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            live.clear();
+            freeOrdinals.clear();
+            facets.clear();
+            ids = new long[Math.max(64, properties.size())];
+            for (Property property : properties) {
+                add(property);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // solo las disponibles entran en las facetas, un cambio de estado saca o vuelve a meter la propiedad
+    public void put(Property property) {
+        if (property.getId() == null) return;
+
+        lock.writeLock().lock();
+        try {
+            clear(property.getId());
+            if (property.getStatus() == Status.DISPONIBLE) {
+                add(property);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // para escrituras que no traen las relaciones cargadas, como el cambio de estado
+    public void refresh(Long propertyId) {
+        propertyRepository.findListingByIdIn(List.of(propertyId)).stream()
+                .findFirst()
+                .ifPresentOrElse(this::put, () -> remove(propertyId));
+    }
+
+    // dentro de una transaccion se quita al confirmarla para que un borrado revertido no deje los conteos cortos
+    public void remove(Long propertyId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeNow(propertyId);
+                }
+            });
+        } else {
+            removeNow(propertyId);
+        }
+    }
+
+    private void removeNow(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            clear(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // dentro de una faceta los valores se combinan con OR, salvo los servicios que tienen que estar todos;
+    // cada faceta se cuenta aplicando los filtros de las demas para mostrar cuantas quedarian al cambiarla
+    public Result search(Map<String, ? extends Collection<String>> selected) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> filters = new HashMap<>();
+            for (String facet : FACETS) {
+                Collection<String> values = selected.get(facet);
+                if (values != null && !values.isEmpty()) {
+                    filters.put(facet, select(facet, values));
+                }
+            }
+
+            BitSet matches = (BitSet) live.clone();
+            filters.values().forEach(matches::and);
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet base = (BitSet) live.clone();
+                filters.forEach((other, bits) -> {
+                    if (!other.equals(facet) || facet.equals(AMENITIES)) base.and(bits);
+                });
+                counts.put(facet, count(facet, base));
+            }
+
+            List<Long> result = new ArrayList<>(matches.cardinality());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                result.add(ids[i]);
+            }
+            result.sort(null);
+
+            return new Result(result, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static String roomsLabel(Float rooms) {
+        return new BigDecimal(Float.toString(rooms)).stripTrailingZeros().toPlainString();
+    }
+
+    private BitSet select(String facet, Collection<String> values) {
+        Map<String, Value> byValue = facets.getOrDefault(facet, Map.of());
+        boolean all = facet.equals(AMENITIES);
+
+        BitSet result = all ? (BitSet) live.clone() : new BitSet();
+        for (String value : values) {
+            Value match = value == null ? null : byValue.get(key(value));
+            BitSet bits = match == null ? new BitSet() : match.bits;
+            if (all) {
+                result.and(bits);
+            } else {
+                result.or(bits);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Integer> count(String facet, BitSet base) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (Value value : facets.getOrDefault(facet, Map.of()).values()) {
+            BitSet bits = (BitSet) value.bits.clone();
+            bits.and(base);
+            int count = bits.cardinality();
+            if (count > 0) entries.add(Map.entry(value.label, count));
+        }
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        entries.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    private void add(Property property) {
+        Integer free = freeOrdinals.poll();
+        int ordinal = free != null ? free : ordinals.size();
+        if (ordinal >= ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[ordinal] = property.getId();
+        ordinals.put(property.getId(), ordinal);
+        live.set(ordinal);
+
+        if (property.getType() != null) set(TYPES, property.getType().getName(), ordinal);
+        if (property.getNeighborhood() != null) {
+            set(NEIGHBORHOODS, property.getNeighborhood().getName(), ordinal);
+            set(CITIES, property.getNeighborhood().getCity(), ordinal);
+        }
+        if (property.getAmenities() != null) {
+            for (Amenity amenity : property.getAmenities()) {
+                set(AMENITIES, amenity.getName(), ordinal);
+            }
+        }
+        if (property.getRooms() != null) set(ROOMS, roomsLabel(property.getRooms()), ordinal);
+        if (property.getOperation() != null) set(OPERATIONS, property.getOperation().name(), ordinal);
+        if (property.getCurrency() != null) set(CURRENCIES, property.getCurrency().name(), ordinal);
+    }
+
+    private void set(String facet, String label, int ordinal) {
+        if (label == null || label.isBlank()) return;
+        facets.computeIfAbsent(facet, f -> new HashMap<>())
+                .computeIfAbsent(key(label), k -> new Value(label.trim()))
+                .bits.set(ordinal);
+    }
+
+    private void clear(Long propertyId) {
+        Integer ordinal = ordinals.remove(propertyId);
+        if (ordinal == null) return;
+
+        live.clear(ordinal);
+        freeOrdinals.push(ordinal);
+        for (Map<String, Value> values : facets.values()) {
+            values.values().removeIf(value -> {
+                value.bits.clear(ordinal);
+                return value.bits.isEmpty();
+            });
+        }
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,159 @@
+package pi.ms_properties.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pi.ms_properties.domain.Currency;
+import pi.ms_properties.domain.Status;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.*;
+
+// cache de busquedas de propiedades: guarda solo los ids que devolvio cada combinacion de filtros
+@Component
+public class PropertySearchCache {
+
+    // filtros normalizados: dos busquedas equivalentes producen la misma clave
+    public record Key(String priceFrom, String priceTo,
+                      float areaFrom, float areaTo, float coveredAreaFrom, float coveredAreaTo,
+                      List<Float> rooms, String operation, List<String> types, List<String> amenities,
+                      List<String> cities, List<String> neighborhoods, List<String> neighborhoodTypes,
+                      Boolean credit, Boolean financing, Currency currency, Status status) {
+    }
+
+    private record Entry(List<Long> ids, long expiresAt) {
+    }
+
+    private final Map<Key, Entry> entries;
+
+    private final Clock clock;
+
+    private final long ttlMillis;
+
+    // se incrementa en cada invalidacion, una busqueda que empezo antes no puede guardar su resultado
+    private long generation;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final Counter evictionCounter;
+
+    private final Counter invalidationCounter;
+
+    @Autowired
+    public PropertySearchCache(MeterRegistry meterRegistry,
+                               @Value("${property.search-cache.max-entries:500}") int maxEntries,
+                               @Value("${property.search-cache.ttl-seconds:300}") long ttlSeconds) {
+        this(meterRegistry, maxEntries, ttlSeconds, Clock.systemUTC());
+    }
+
+    public PropertySearchCache(MeterRegistry meterRegistry, int maxEntries, long ttlSeconds, Clock clock) {
+        this.clock = clock;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictionCounter.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        Gauge.builder("property.search.cache.size", this, PropertySearchCache::size)
+                .description("Busquedas de propiedades en cache")
+                .register(meterRegistry);
+        this.hitCounter = meterRegistry.counter("property.search.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("property.search.cache", "result", "miss");
+        this.evictionCounter = meterRegistry.counter("property.search.cache.evictions");
+        this.invalidationCounter = meterRegistry.counter("property.search.cache.invalidations");
+    }
+
+    public static Key key(BigDecimal priceFrom, BigDecimal priceTo,
+                          float areaFrom, float areaTo, float coveredAreaFrom, float coveredAreaTo,
+                          List<Float> rooms, String operation, List<String> types, List<String> amenities,
+                          List<String> cities, List<String> neighborhoods, List<String> neighborhoodTypes,
+                          Boolean credit, Boolean financing, Currency currency, Status status) {
+        // los null y 0 en ambientes se ignoran igual que en PropertySpecification.hasRooms
+        List<Float> normalizedRooms = rooms == null ? List.of() : rooms.stream()
+                .filter(r -> r != null && r != 0)
+                .sorted()
+                .toList();
+
+        return new Key(price(priceFrom), price(priceTo), areaFrom, areaTo, coveredAreaFrom, coveredAreaTo,
+                normalizedRooms, operation == null ? null : operation.toLowerCase(),
+                lower(types, false), lower(amenities, false), lower(cities, false), lower(neighborhoods, false),
+                lower(neighborhoodTypes, true), credit, financing, currency, status);
+    }
+
+    private static String price(BigDecimal price) {
+        return price == null ? null : price.stripTrailingZeros().toPlainString();
+    }
+
+    // los filtros de texto comparan en minusculas y el orden de la lista no cambia el resultado
+    private static List<String> lower(List<String> values, boolean trim) {
+        if (values == null) return List.of();
+        return values.stream()
+                .map(value -> value == null ? "" : trim ? value.toLowerCase().trim() : value.toLowerCase())
+                .sorted()
+                .toList();
+    }
+
+    public synchronized Optional<List<Long>> get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() <= clock.millis()) {
+            entries.remove(key);
+            entry = null;
+        }
+
+        if (entry == null) {
+            missCounter.increment();
+            return Optional.empty();
+        }
+
+        hitCounter.increment();
+        return Optional.of(entry.ids());
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // se descarta si hubo una escritura desde que empezo la consulta
+    public synchronized void put(Key key, List<Long> ids, long generation) {
+        if (generation != this.generation) return;
+        entries.put(key, new Entry(List.copyOf(ids), clock.millis() + ttlMillis));
+    }
+
+    // se limpia ahora y, dentro de una transaccion, otra vez al confirmarla
+    // para no quedarse con resultados leidos antes del commit
+    public void invalidate() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        }
+    }
+
+    private synchronized void clear() {
+        generation++;
+        entries.clear();
+        invalidationCounter.increment();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -3,6 +3,9 @@ package pi.ms_properties.service.impl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,16 +13,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import pi.ms_properties.comparer.service.ComparisonCache;
 import pi.ms_properties.domain.*;
 import pi.ms_properties.domain.Currency;
 import pi.ms_properties.dto.*;
 import pi.ms_properties.dto.feign.ContractDTO;
 import pi.ms_properties.dto.feign.NotificationDTO;
 import pi.ms_properties.dto.feign.NotificationType;
+import pi.ms_properties.recommendation.index.PropertyFeatureIndex;
 import pi.ms_properties.recommendation.service.RecommendationService;
 import pi.ms_properties.repository.*;
 import pi.ms_properties.repository.feign.ContractRepository;
 import pi.ms_properties.repository.feign.NotificationRepository;
+import pi.ms_properties.service.interf.IAzureBlobStorage;
 import pi.ms_properties.service.interf.IImageService;
 import pi.ms_properties.service.interf.IPropertyService;
 import pi.ms_properties.service.interf.IViewService;
@@ -27,6 +33,7 @@ import pi.ms_properties.security.SecurityUtils;
 import pi.ms_properties.specification.PropertySpecification;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
@@ -54,7 +61,7 @@ public class PropertyService implements IPropertyService {
 
     private final NotificationRepository notificationRepository;
 
-    private final AzureBlobStorage azureBlobStorage;
+    private final IAzureBlobStorage azureBlobStorage;
 
     private final RecommendationService recommendationService;
 
@@ -68,6 +75,24 @@ public class PropertyService implements IPropertyService {
 
     private final IViewRepository viewRepository;
 
+    private final IViewCountRepository viewCountRepository;
+
+    private final PropertyFeatureIndex propertyFeatureIndex;
+
+    private final PropertySearchCache propertySearchCache;
+
+    private final PropertyTextIndex propertyTextIndex;
+
+    private final PropertyFacetIndex propertyFacetIndex;
+
+    private final ComparisonCache comparisonCache;
+
+    private final ChatFactsCache chatFactsCache;
+
+    private final ImageDerivativeService imageDerivativeService;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     private Property SaveProperty(PropertyUpdateDTO propertyDTO) {
         Property property = mapper.convertValue(propertyDTO, Property.class);
 
@@ -93,7 +118,48 @@ public class PropertyService implements IPropertyService {
         return property;
     }
 
+    // las versiones que no se llegaron a generar (imagenes viejas, formatos que ImageIO no lee, errores)
+    // se reemplazan por el original
+    private ImageVariantsDTO variants(String image, Map<String, Set<ImageVariant>> generated) {
+        if (image == null) {
+            return null;
+        }
+        Set<ImageVariant> written = generated.getOrDefault(image, Set.of());
+        String original = azureBlobStorage.getImageUrl(image);
+        return new ImageVariantsDTO(
+                variantUrl(image, ImageVariant.THUMBNAIL, written, original),
+                variantUrl(image, ImageVariant.CARD, written, original),
+                variantUrl(image, ImageVariant.FULL, written, original));
+    }
+
+    private String variantUrl(String image, ImageVariant variant, Set<ImageVariant> written, String original) {
+        return written.contains(variant) ? azureBlobStorage.getImageUrl(variant.path(image)) : original;
+    }
+
+    // nombres de la principal y las adicionales, para buscar sus versiones en una sola consulta
+    private static List<String> imageNames(List<Property> properties) {
+        List<String> names = new ArrayList<>();
+        for (Property property : properties) {
+            names.add(property.getMainImage());
+            if (property.getImages() != null) {
+                property.getImages().forEach(image -> names.add(image.getUrl()));
+            }
+        }
+        return names;
+    }
+
+    private List<PropertyDTO> mapToDTOs(List<Property> properties) {
+        Map<String, Set<ImageVariant>> generated = imageDerivativeService.findGenerated(imageNames(properties));
+        return properties.stream()
+                .map(property -> toDTO(property, generated))
+                .toList();
+    }
+
     private PropertyDTO toDTO(Property property) {
+        return toDTO(property, imageDerivativeService.findGenerated(imageNames(List.of(property))));
+    }
+
+    private PropertyDTO toDTO(Property property, Map<String, Set<ImageVariant>> generated) {
         PropertyDTO response = new PropertyDTO();
         response.setId(property.getId());
         response.setTitle(property.getTitle());
@@ -116,6 +182,7 @@ public class PropertyService implements IPropertyService {
         response.setDescription(property.getDescription());
         response.setDate(property.getDate());
         response.setMainImage(azureBlobStorage.getImageUrl(property.getMainImage()));
+        response.setMainImageVariants(variants(property.getMainImage(), generated));
 
         NeighborhoodDTO neighborhoodDTO = mapper.convertValue(property.getNeighborhood(), NeighborhoodDTO.class);
 
@@ -123,6 +190,11 @@ public class PropertyService implements IPropertyService {
         response.setType(property.getType());
         response.setAmenities(property.getAmenities());
         response.setImages(property.getImages());
+        if (property.getImages() != null) {
+            Map<Long, ImageVariantsDTO> imageVariants = new HashMap<>();
+            property.getImages().forEach(image -> imageVariants.put(image.getId(), variants(image.getUrl(), generated)));
+            response.setImageVariants(imageVariants);
+        }
         response.setStatus(property.getStatus().toString());
         response.setOperation(property.getOperation().toString());
         response.setCurrency(property.getCurrency().toString());
@@ -138,17 +210,14 @@ public class PropertyService implements IPropertyService {
 
         propertyRepository.save(property);
 
-        String path = imageService.uploadImageToProperty(propertyDTO.getMainImage(), property.getId(), true);
+        String path = imageService.uploadPropertyImages(property.getId(), propertyDTO.getMainImage(), propertyDTO.getImages());
         property.setMainImage(path);
 
-        List<MultipartFile> images = propertyDTO.getImages();
-        if (images != null && !images.isEmpty()) {
-            for (MultipartFile image : images) {
-                imageService.uploadImageToProperty(image, property.getId(), false);
-            }
-        }
-
         propertyRepository.save(property);
+        propertyFeatureIndex.put(property);
+        propertyTextIndex.put(property);
+        propertyFacetIndex.put(property);
+        propertySearchCache.invalidate();
 
         boolean notificationFailed = false;
         boolean recommendationFailed = false;
@@ -198,8 +267,15 @@ public class PropertyService implements IPropertyService {
         }
 
         viewRepository.deleteAllByPropertyId(id);
+        viewCountRepository.deleteAllByPropertyId(id);
         chatSessionRepository.deleteAllByPropertyId(id);
         propertyRepository.delete(property);
+        propertyFeatureIndex.remove(id);
+        propertyTextIndex.remove(id);
+        propertyFacetIndex.remove(id);
+        propertySearchCache.invalidate();
+        comparisonCache.invalidate(property.getTitle());
+        chatFactsCache.invalidate(id);
 
         return ResponseEntity.ok("Se ha eliminado la propiedad");
     }
@@ -227,6 +303,14 @@ public class PropertyService implements IPropertyService {
         updated.setComments(current.getComments());
         updated.setMaintenances(current.getMaintenances());
         propertyRepository.save(updated);
+        propertyFeatureIndex.put(updated);
+        propertyTextIndex.put(updated);
+        propertyFacetIndex.put(updated);
+        propertySearchCache.invalidate();
+        // las comparaciones se identifican por titulo, se descartan las del titulo anterior y las del nuevo
+        comparisonCache.invalidate(current.getTitle());
+        comparisonCache.invalidate(updated.getTitle());
+        chatFactsCache.invalidate(id);
 
         return ResponseEntity.ok(toDTO(updated));
     }
@@ -238,6 +322,8 @@ public class PropertyService implements IPropertyService {
 
         property.setStatus(status);
         propertyRepository.save(property);
+        propertyFacetIndex.refresh(id);
+        propertySearchCache.invalidate();
 
         return ResponseEntity.ok(property.getStatus().toString());
     }
@@ -249,6 +335,7 @@ public class PropertyService implements IPropertyService {
 
         property.setOutstanding(outstanding);
         propertyRepository.save(property);
+        propertySearchCache.invalidate();
 
         return ResponseEntity.ok("Se ha actualizado la prioridad de la propiedad.");
     }
@@ -261,9 +348,7 @@ public class PropertyService implements IPropertyService {
             return ResponseEntity.noContent().build();
         }
 
-        List<PropertyDTO> propertyDTOS = properties.stream()
-                .map(this::toDTO)
-                .toList();
+        List<PropertyDTO> propertyDTOS = mapToDTOs(properties);
 
         return ResponseEntity.ok(propertyDTOS);
     }
@@ -272,13 +357,111 @@ public class PropertyService implements IPropertyService {
     public ResponseEntity<List<PropertyDTO>> getAllUsers() {
         List<Property> properties = propertyRepository.findByStatus(Status.valueOf("DISPONIBLE"));
 
-        List<PropertyDTO> propertyDTOS = properties.stream()
-                .map(this::toDTO)
-                .toList();
+        List<PropertyDTO> propertyDTOS = mapToDTOs(properties);
 
         return ResponseEntity.ok(propertyDTOS);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<PropertyPageDTO> getAllPage(String cursor, int size, String sort, String direction) {
+        return ResponseEntity.ok(findPage(Specification.where(null), cursor, size, sort, direction));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<PropertyPageDTO> getAllUsersPage(String cursor, int size, String sort, String direction) {
+        return ResponseEntity.ok(findPage(PropertySpecification.hasStatus(Status.DISPONIBLE), cursor, size, sort, direction));
+    }
+
+    // paginado por keyset: primero se busca la ventana ordenada de propiedades,
+    // despues se cargan barrio, tipo, amenities e imagenes unicamente para los ids de la pagina
+    private PropertyPageDTO findPage(Specification<Property> specification, String cursor, int size, String sort, String direction) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        PropertySort propertySort;
+        Sort.Direction sortDirection;
+        ScrollPosition position;
+
+        if (cursor == null || cursor.isBlank()) {
+            propertySort = PropertySort.fromString(sort);
+            sortDirection = Sort.Direction.fromString(direction);
+            position = ScrollPosition.keyset();
+        } else {
+            String[] parts = decodeCursor(cursor);
+            propertySort = PropertySort.fromString(parts[0]);
+            sortDirection = Sort.Direction.fromString(parts[1]);
+            position = ScrollPosition.forward(cursorKeys(propertySort, parts[2], parts[3]));
+        }
+
+        Sort order = propertySort == PropertySort.ID
+                ? Sort.by(sortDirection, "id")
+                : Sort.by(sortDirection, propertySort.getAttribute()).and(Sort.by(sortDirection, "id"));
+
+        Window<Property> window = propertyRepository.findBy(specification, query -> query
+                .sortBy(order)
+                .limit(pageSize)
+                .scroll(position));
+
+        List<Long> ids = window.getContent().stream()
+                .map(Property::getId)
+                .toList();
+
+        Map<Long, Property> loaded = ids.isEmpty()
+                ? Map.of()
+                : propertyRepository.findListingByIdIn(ids).stream()
+                .collect(Collectors.toMap(Property::getId, p -> p, (a, b) -> a));
+
+        List<PropertyDTO> content = mapToDTOs(ids.stream()
+                .map(loaded::get)
+                .filter(Objects::nonNull)
+                .toList());
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            Property last = window.getContent().getLast();
+            nextCursor = encodeCursor(propertySort, sortDirection, last);
+        }
+
+        return new PropertyPageDTO(content, nextCursor, window.hasNext());
+    }
+
+    private String encodeCursor(PropertySort sort, Sort.Direction direction, Property last) {
+        String value = switch (sort) {
+            case DATE -> last.getDate().toString();
+            case PRICE -> last.getPrice().toPlainString();
+            case ID -> last.getId().toString();
+        };
+        String raw = String.join("|", sort.name(), direction.name(), value, last.getId().toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("formato inesperado");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+        }
+    }
+
+    private Map<String, Object> cursorKeys(PropertySort sort, String value, String id) {
+        try {
+            Long lastId = Long.valueOf(id);
+            return switch (sort) {
+                case DATE -> Map.of("date", LocalDateTime.parse(value), "id", lastId);
+                case PRICE -> Map.of("price", new BigDecimal(value), "id", lastId);
+                case ID -> Map.of("id", lastId);
+            };
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+        }
+    }
+
     @Override
     public ResponseEntity<PropertyDTO> getById(Long id) {
         Property property = propertyRepository.findById(id)
@@ -293,9 +476,7 @@ public class PropertyService implements IPropertyService {
     public ResponseEntity<List<PropertyDTO>> getByStatus(Status status) {
         List<Property> properties = propertyRepository.findByStatus(status);
 
-        List<PropertyDTO> propertyDTOS = properties.stream()
-                .map(this::toDTO)
-                .toList();
+        List<PropertyDTO> propertyDTOS = mapToDTOs(properties);
 
         return ResponseEntity.ok(propertyDTOS);
     }
@@ -308,11 +489,38 @@ public class PropertyService implements IPropertyService {
             List<Float> rooms, String operation, List<String> types,
             List<String> amenities, List<String> cities, List<String> neighborhoods, List<String> neighborhoodTypes,
             Boolean credit, Boolean financing,
-            Currency currency, Status status) {
+            Currency currency, Status status,
+            Double latitude, Double longitude, Double radiusKm) {
         if (status != null && !SecurityUtils.isAdmin()) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Solo los administradores puede filtrar por estado.");
         }
 
+        // la cercania se resuelve con la grilla del indice en memoria y despues se combina con el resto de filtros
+        List<Long> nearIds = null;
+        if (latitude != null || longitude != null || radiusKm != null) {
+            if (latitude == null || longitude == null || radiusKm == null) {
+                throw new IllegalArgumentException("La búsqueda por cercanía requiere latitud, longitud y radio.");
+            }
+            if (radiusKm <= 0) {
+                throw new IllegalArgumentException("El radio de búsqueda debe ser mayor a cero.");
+            }
+            nearIds = propertyFeatureIndex.findWithin(latitude, longitude, radiusKm);
+        }
+
+        // las busquedas por cercania casi nunca repiten coordenadas, no se cachean
+        PropertySearchCache.Key key = nearIds == null
+                ? PropertySearchCache.key(priceFrom, priceTo, areaFrom, areaTo, coveredAreaFrom, coveredAreaTo, rooms,
+                operation, types, amenities, cities, neighborhoods, neighborhoodTypes, credit, financing, currency, status)
+                : null;
+
+        if (key != null) {
+            Optional<List<Long>> cached = propertySearchCache.get(key);
+            if (cached.isPresent()) {
+                return ResponseEntity.ok(toDTOs(cached.get()));
+            }
+        }
+        long generation = propertySearchCache.generation();
+
         Specification<Property> spec = Specification
                 .where(PropertySpecification.hasPriceFrom(priceFrom))
                 .and(PropertySpecification.hasPriceTo(priceTo))
@@ -330,28 +538,74 @@ public class PropertyService implements IPropertyService {
                 .and(PropertySpecification.hasCredit(credit))
                 .and(PropertySpecification.hasFinancing(financing))
                 .and(PropertySpecification.hasCurrency(currency))
-                .and(PropertySpecification.hasStatus(status));
+                .and(PropertySpecification.hasStatus(status))
+                .and(PropertySpecification.hasIdIn(nearIds));
 
         List<Property> properties = propertyRepository.findAll(spec);
 
-        List<PropertyDTO> propertyDTOS = properties.stream()
-                .map(this::toDTO)
-                .toList();
+        if (nearIds != null) {
+            // se devuelven de la mas cercana a la mas lejana
+            Map<Long, Integer> order = new HashMap<>();
+            for (int i = 0; i < nearIds.size(); i++) order.put(nearIds.get(i), i);
+            properties = properties.stream()
+                    .sorted(Comparator.comparing(property -> order.get(property.getId())))
+                    .toList();
+        }
+
+        if (key != null) {
+            propertySearchCache.put(key, properties.stream().map(Property::getId).toList(), generation);
+        }
+
+        List<PropertyDTO> propertyDTOS = mapToDTOs(properties);
 
         return ResponseEntity.ok(propertyDTOS);
     }
 
     @Override
-    public ResponseEntity<List<PropertyDTO>> findByTitleDescription(String value) {
-        Specification<Property> specification = PropertySpecification.textSearch(value);
+    public ResponseEntity<PropertyFacetsDTO> getFacets(List<String> types, List<String> neighborhoods, List<String> cities,
+                                                       List<String> amenities, List<Float> rooms, List<String> operations,
+                                                       List<Currency> currencies) {
+        Map<String, List<String>> selected = new HashMap<>();
+        selected.put(PropertyFacetIndex.TYPES, types);
+        selected.put(PropertyFacetIndex.NEIGHBORHOODS, neighborhoods);
+        selected.put(PropertyFacetIndex.CITIES, cities);
+        selected.put(PropertyFacetIndex.AMENITIES, amenities);
+        selected.put(PropertyFacetIndex.ROOMS, rooms == null ? null : rooms.stream()
+                .filter(Objects::nonNull)
+                .map(PropertyFacetIndex::roomsLabel)
+                .toList());
+        selected.put(PropertyFacetIndex.OPERATIONS, operations);
+        selected.put(PropertyFacetIndex.CURRENCIES, currencies == null ? null : currencies.stream()
+                .filter(Objects::nonNull)
+                .map(Currency::name)
+                .toList());
 
-        List<Property> properties = propertyRepository.findAll(specification);
+        PropertyFacetIndex.Result result = propertyFacetIndex.search(selected);
 
-        List<PropertyDTO> propertyDTOS = properties.stream()
-                .map(this::toDTO)
-                .toList();
+        return ResponseEntity.ok(new PropertyFacetsDTO(result.ids(), result.counts()));
+    }
 
-        return ResponseEntity.ok(propertyDTOS);
+    // arma los DTO respetando el orden (y las repeticiones) de la consulta original
+    private List<PropertyDTO> toDTOs(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, Property> byId = propertyRepository.findListingByIdIn(ids).stream()
+                .collect(Collectors.toMap(Property::getId, property -> property, (a, b) -> a));
+
+        return mapToDTOs(ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    @Override
+    public ResponseEntity<List<PropertyDTO>> findByTitleDescription(String value) {
+        // sin texto se devuelven todas, como hacia la busqueda con LIKE
+        if (value == null || value.isBlank()) {
+            return ResponseEntity.ok(mapToDTOs(propertyRepository.findAll()));
+        }
+
+        return ResponseEntity.ok(toDTOs(propertyTextIndex.search(value)));
     }
 
     @Override
@@ -366,6 +620,8 @@ public class PropertyService implements IPropertyService {
         dto.setDescription(property.getDescription());
         dto.setDate(property.getDate());
         dto.setMainImage(azureBlobStorage.getImageUrl(property.getMainImage()));
+        dto.setMainImageVariants(variants(property.getMainImage(),
+                imageDerivativeService.findGenerated(Collections.singletonList(property.getMainImage()))));
         dto.setStatus(property.getStatus().toString());
         dto.setOperation(property.getOperation().name());
         dto.setCurrency(property.getCurrency().name());
@@ -386,11 +642,13 @@ public class PropertyService implements IPropertyService {
                 .toList();
 
         List<Property> properties = propertyRepository.findAllById(idsOrdered);
+        Map<String, Set<ImageVariant>> generated = imageDerivativeService.findGenerated(
+                properties.stream().map(Property::getMainImage).toList());
 
         Map<Long, PropertySimpleDTO> dtoMap = properties.stream()
                 .collect(Collectors.toMap(
                         Property::getId,
-                        this::toSimpleDTO
+                        property -> toSimpleDTO(property, generated)
                 ));
 
         List<PropertySimpleDTO> ordered = idsOrdered.stream()
@@ -401,7 +659,7 @@ public class PropertyService implements IPropertyService {
         return ResponseEntity.ok(ordered);
     }
 
-    private PropertySimpleDTO toSimpleDTO(Property property) {
+    private PropertySimpleDTO toSimpleDTO(Property property, Map<String, Set<ImageVariant>> generated) {
         PropertySimpleDTO dto = new PropertySimpleDTO();
         dto.setId(property.getId());
         dto.setTitle(property.getTitle());
@@ -414,6 +672,7 @@ public class PropertyService implements IPropertyService {
         dto.setNeighborhood(property.getNeighborhood().getName());
         dto.setType(property.getType().getName());
         dto.setMainImage(azureBlobStorage.getImageUrl(property.getMainImage()));
+        dto.setMainImageVariants(variants(property.getMainImage(), generated));
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,309 @@
+package pi.ms_properties.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pi.ms_properties.domain.Amenity;
+import pi.ms_properties.domain.Neighborhood;
+import pi.ms_properties.domain.Property;
+import pi.ms_properties.repository.IPropertyRepository;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+// indice invertido en memoria para la busqueda por texto de propiedades
+@Component
+@RequiredArgsConstructor
+public class PropertyTextIndex {
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float NEIGHBORHOOD_WEIGHT = 2f;
+    private static final float TYPE_WEIGHT = 2f;
+    private static final float AMENITY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // un termino que solo coincide por prefijo pesa menos que uno exacto
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "es", "la", "las", "lo", "los",
+            "o", "para", "por", "que", "se", "su", "sus", "un", "una", "y");
+
+    private final IPropertyRepository propertyRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // termino -> propiedad -> peso
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    // se guarda el texto de origen para poder reindexar cuando se renombra un barrio, tipo o servicio
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private record Document(String title, String description,
+                            Long neighborhoodId, String neighborhood,
+                            Long typeId, String type,
+                            Map<Long, String> amenities,
+                            Map<String, Float> terms) {
+    }
+
+    // minusculas, sin tildes ni ñ, sin palabras vacias
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return List.of();
+
+        String normalized = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        return Arrays.stream(SEPARATORS.split(normalized))
+                .filter(token -> !token.isEmpty() && !STOPWORDS.contains(token))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Property> properties = propertyRepository.findAllForTextIndex();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            for (Property property : properties) {
+                index(property.getId(), document(property));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Property property) {
+        if (property.getId() == null) return;
+
+        Document document = document(property);
+        lock.writeLock().lock();
+        try {
+            unindex(property.getId());
+            index(property.getId(), document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // dentro de una transaccion se quita al confirmarla: si se revierte, la propiedad tiene que seguir apareciendo en la busqueda
+    public void remove(Long propertyId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeNow(propertyId);
+                }
+            });
+        } else {
+            removeNow(propertyId);
+        }
+    }
+
+    private void removeNow(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            unindex(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateNeighborhood(Long neighborhoodId, String name, String city) {
+        String text = join(name, city);
+        reindex(document -> Objects.equals(document.neighborhoodId(), neighborhoodId),
+                document -> new Document(document.title(), document.description(), neighborhoodId, text,
+                        document.typeId(), document.type(), document.amenities(), null));
+    }
+
+    public void updateType(Long typeId, String name) {
+        reindex(document -> Objects.equals(document.typeId(), typeId),
+                document -> new Document(document.title(), document.description(), document.neighborhoodId(),
+                        document.neighborhood(), typeId, name, document.amenities(), null));
+    }
+
+    public void updateAmenity(Long amenityId, String name) {
+        reindex(document -> document.amenities().containsKey(amenityId),
+                document -> {
+                    Map<Long, String> amenities = new HashMap<>(document.amenities());
+                    amenities.put(amenityId, name);
+                    return new Document(document.title(), document.description(), document.neighborhoodId(),
+                            document.neighborhood(), document.typeId(), document.type(), amenities, null);
+                });
+    }
+
+    // ids ordenados por relevancia: cada palabra buscada tiene que coincidir, exacta o como prefijo
+    public List<Long> search(String query) {
+        List<String> tokens = tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String token : tokens) {
+                Map<Long, Float> matches = matches(token);
+                if (matches.isEmpty()) return List.of();
+
+                // las palabras poco frecuentes aportan mas
+                float idf = (float) Math.log(1 + (double) documents.size() / matches.size());
+                if (scores == null) {
+                    scores = new HashMap<>();
+                    for (Map.Entry<Long, Float> match : matches.entrySet()) {
+                        scores.put(match.getKey(), match.getValue() * idf);
+                    }
+                } else {
+                    Map<Long, Float> next = new HashMap<>();
+                    for (Map.Entry<Long, Float> score : scores.entrySet()) {
+                        Float weight = matches.get(score.getKey());
+                        if (weight != null) next.put(score.getKey(), score.getValue() + weight * idf);
+                    }
+                    scores = next;
+                }
+                if (scores.isEmpty()) return List.of();
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // puntaje de texto de cada propiedad pedida; a diferencia de search no hace falta que coincidan
+    // todas las palabras y las que no suman nada quedan fuera del mapa
+    public Map<Long, Float> score(String query, Collection<Long> ids) {
+        List<String> tokens = tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty() || ids.isEmpty()) return Map.of();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = new HashMap<>();
+            for (String token : tokens) {
+                Map<Long, Float> matches = matches(token);
+                if (matches.isEmpty()) continue;
+
+                float idf = (float) Math.log(1 + (double) documents.size() / matches.size());
+                for (Long id : ids) {
+                    Float weight = matches.get(id);
+                    if (weight != null) scores.merge(id, weight * idf, Float::sum);
+                }
+            }
+            return scores;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // mejor peso de cada propiedad entre el termino exacto y los que empiezan con el
+    private Map<Long, Float> matches(String token) {
+        Map<Long, Float> result = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Float>> term
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            float factor = term.getKey().equals(token) ? 1f : PREFIX_FACTOR;
+            for (Map.Entry<Long, Float> posting : term.getValue().entrySet()) {
+                result.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+            }
+        }
+        return result;
+    }
+
+    private void reindex(Predicate<Document> affected, UnaryOperator<Document> change) {
+        lock.writeLock().lock();
+        try {
+            List<Map.Entry<Long, Document>> targets = documents.entrySet().stream()
+                    .filter(entry -> affected.test(entry.getValue()))
+                    .toList();
+            for (Map.Entry<Long, Document> target : targets) {
+                Long id = target.getKey();
+                Document changed = change.apply(target.getValue());
+                unindex(id);
+                index(id, changed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Long id, Document source) {
+        Map<String, Float> terms = new HashMap<>();
+        // cada campo suma una sola vez por termino, repetir una palabra en la descripcion no infla el puntaje
+        addField(terms, source.title(), TITLE_WEIGHT);
+        addField(terms, source.description(), DESCRIPTION_WEIGHT);
+        addField(terms, source.neighborhood(), NEIGHBORHOOD_WEIGHT);
+        addField(terms, source.type(), TYPE_WEIGHT);
+        addField(terms, String.join(" ", source.amenities().values()), AMENITY_WEIGHT);
+
+        Document document = new Document(source.title(), source.description(), source.neighborhoodId(),
+                source.neighborhood(), source.typeId(), source.type(), source.amenities(), terms);
+        documents.put(id, document);
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new HashMap<>()).put(id, term.getValue());
+        }
+    }
+
+    private void unindex(Long id) {
+        Document previous = documents.remove(id);
+        if (previous == null) return;
+
+        for (String term : previous.terms().keySet()) {
+            Map<Long, Float> ids = postings.get(term);
+            if (ids == null) continue;
+            ids.remove(id);
+            if (ids.isEmpty()) postings.remove(term);
+        }
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String token : new HashSet<>(tokenize(text))) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    private static Document document(Property property) {
+        Neighborhood neighborhood = property.getNeighborhood();
+        Map<Long, String> amenities = new HashMap<>();
+        if (property.getAmenities() != null) {
+            for (Amenity amenity : property.getAmenities()) {
+                amenities.put(amenity.getId(), amenity.getName());
+            }
+        }
+
+        return new Document(property.getTitle(), property.getDescription(),
+                neighborhood == null ? null : neighborhood.getId(),
+                neighborhood == null ? null : join(neighborhood.getName(), neighborhood.getCity()),
+                property.getType() == null ? null : property.getType().getId(),
+                property.getType() == null ? null : property.getType().getName(),
+                amenities, null);
+    }
+
+    private static String join(String... values) {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (String value : values) {
+            if (value != null) joiner.add(value);
+        }
+        return joiner.toString();
+    }
+}
@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import pi.ms_properties.comparer.service.FilterVocabulary;
 import pi.ms_properties.domain.Type;
 import pi.ms_properties.repository.ITypeRepository;
 import pi.ms_properties.service.interf.ITypeService;
@@ -18,6 +19,12 @@ public class TypeService implements ITypeService {
 
     private final ITypeRepository typeRepository;
 
+    private final PropertyTextIndex propertyTextIndex;
+
+    private final PropertyFacetIndex propertyFacetIndex;
+
+    private final FilterVocabulary filterVocabulary;
+
     @Override
     public ResponseEntity<String> createType(Type type) {
         if (type.getName() == null || type.getName().isBlank()) {
@@ -25,6 +32,7 @@ public class TypeService implements ITypeService {
         }
 
         typeRepository.save(type);
+        filterVocabulary.refreshTypes();
         return ResponseEntity.ok("Se ha guardado el tipo de propiedad: " + type.getName());
     }
 
@@ -34,6 +42,7 @@ public class TypeService implements ITypeService {
                 .orElseThrow(() -> new EntityNotFoundException("No existe ese tipo de propiedad"));
 
         typeRepository.delete(type);
+        filterVocabulary.refreshTypes();
         return ResponseEntity.ok("Se ha eliminado el tipo de propiedad");
     }
 
@@ -43,6 +52,9 @@ public class TypeService implements ITypeService {
                 .orElseThrow(() -> new EntityNotFoundException("No se encontró el tipo con ID: " + type.getId()));
 
         Type updated = typeRepository.save(type);
+        propertyTextIndex.updateType(updated.getId(), updated.getName());
+        propertyFacetIndex.rebuild();
+        filterVocabulary.refreshTypes();
         return ResponseEntity.ok(updated);
     }
 
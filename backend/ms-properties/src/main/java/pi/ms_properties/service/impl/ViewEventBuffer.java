@@ -0,0 +1,135 @@
+package pi.ms_properties.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pi.ms_properties.dto.ViewEventDTO;
+import pi.ms_properties.repository.ViewBatchRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// buffer acotado de vistas: el hilo del request solo encola y un job programado
+// las persiste por lotes
+@Component
+public class ViewEventBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewEventBuffer.class);
+
+    public enum OverflowPolicy {
+        // se descarta la vista cuando el buffer esta lleno
+        DROP,
+        // el hilo que registra la vista la escribe directamente (backpressure)
+        CALLER_RUNS
+    }
+
+    private final ViewBatchRepository viewBatchRepository;
+
+    private final BlockingQueue<ViewEventDTO> queue;
+
+    private final int batchSize;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final Timer flushTimer;
+
+    private final Counter writtenCounter;
+
+    private final Counter droppedCounter;
+
+    private final Counter failedCounter;
+
+    public ViewEventBuffer(ViewBatchRepository viewBatchRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${views.buffer.capacity:10000}") int capacity,
+                           @Value("${views.buffer.batch-size:500}") int batchSize,
+                           @Value("${views.buffer.overflow-policy:DROP}") OverflowPolicy overflowPolicy) {
+        this.viewBatchRepository = viewBatchRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+
+        Gauge.builder("views.buffer.depth", queue, BlockingQueue::size)
+                .description("Vistas pendientes de persistir")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("views.buffer.flush")
+                .description("Duracion de cada escritura por lotes de vistas")
+                .register(meterRegistry);
+        this.writtenCounter = meterRegistry.counter("views.buffer.events", "result", "written");
+        this.droppedCounter = meterRegistry.counter("views.buffer.events", "result", "dropped");
+        this.failedCounter = meterRegistry.counter("views.buffer.events", "result", "failed");
+    }
+
+    public void enqueue(Long propertyId, LocalDateTime date) {
+        ViewEventDTO event = new ViewEventDTO(propertyId, date);
+
+        if (queue.offer(event)) {
+            return;
+        }
+
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+            if (!write(List.of(event))) {
+                requeue(List.of(event));
+            }
+        } else {
+            droppedCounter.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${views.buffer.flush-interval-ms:1000}")
+    public void flush() {
+        List<ViewEventDTO> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            if (!write(batch)) {
+                // con la base caida se devuelve el lote al buffer y se reintenta en el proximo flush
+                requeue(batch);
+                return;
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private boolean write(List<ViewEventDTO> batch) {
+        try {
+            flushTimer.record(() -> viewBatchRepository.saveAll(batch));
+            writtenCounter.increment(batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron guardar {} vistas, se reintentan: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    // solo se descartan las vistas que ya no entran en el buffer
+    private void requeue(List<ViewEventDTO> batch) {
+        int lost = 0;
+        for (ViewEventDTO event : batch) {
+            if (!queue.offer(event)) {
+                lost++;
+            }
+        }
+        if (lost > 0) {
+            failedCounter.increment(lost);
+            log.error("Se descartaron {} vistas que no se pudieron guardar", lost);
+        }
+    }
+}
@@ -3,12 +3,9 @@ package pi.ms_properties.service.impl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import pi.ms_properties.domain.Amenity;
 import pi.ms_properties.domain.Property;
-import pi.ms_properties.domain.View;
 import pi.ms_properties.repository.IPropertyRepository;
-import pi.ms_properties.repository.IViewRepository;
+import pi.ms_properties.repository.IViewCountRepository;
 import pi.ms_properties.service.interf.IViewService;
 
 import java.time.LocalDateTime;
@@ -16,127 +13,89 @@ import java.time.format.TextStyle;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ViewService implements IViewService {
 
-    private final IViewRepository viewRepository;
+    private final ViewEventBuffer viewEventBuffer;
+
+    private final IViewCountRepository viewCountRepository;
 
     private final IPropertyRepository propertyRepository;
 
+    // las estadisticas se leen de los acumulados por propiedad y hora (View_Count),
+    // que se incrementan al persistir cada lote de vistas
+    private <K> Map<K, Long> sumRows(List<Object[]> rows, Function<Object, K> key) {
+        return rows.stream()
+                .collect(Collectors.groupingBy(
+                        row -> key.apply(row[0]),
+                        Collectors.summingLong(row -> ((Number) row[1]).longValue())
+                ));
+    }
+
+    // la vista y su acumulado se escriben en segundo plano por ViewEventBuffer
     @Override
     public void createView(Property property, LocalDateTime date) {
-        View view = new View();
-        view.setDate(date);
-        view.setProperty(property);
-        viewRepository.save(view);
+        viewEventBuffer.enqueue(property.getId(), date);
     }
 
     @Override
     public ResponseEntity<Map<String, Long>> getViewsByProperty() {
-        List<View> views = viewRepository.findAll();
-
-        Map<String, Long> result = views.stream()
-                .collect(Collectors.groupingBy(
-                        v -> v.getProperty().getTitle(),
-                        Collectors.counting()
-                ));
-
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(sumRows(viewCountRepository.sumByPropertyTitle(), String::valueOf));
     }
 
     @Override
     public ResponseEntity<Map<String, Long>> getViewsByPropertyType() {
-        List<View> views = viewRepository.findAll();
-
-        Map<String, Long> result = views.stream()
-                .collect(Collectors.groupingBy(
-                        v -> v.getProperty().getType().getName(),
-                        Collectors.counting()
-                ));
-
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(sumRows(viewCountRepository.sumByPropertyType(), String::valueOf));
     }
 
     @Override
     public ResponseEntity<Map<String, Long>> getViewsByDay() {
-        List<View> views = viewRepository.findAll();
-
-        Map<String, Long> result = views.stream()
-                .collect(Collectors.groupingBy(
-                        v -> v.getDate().getDayOfWeek()
-                                .getDisplayName(TextStyle.FULL, Locale.forLanguageTag("es")),
-                        Collectors.counting()
-                ));
+        Map<String, Long> result = sumRows(viewCountRepository.sumByBucket(),
+                bucket -> ((LocalDateTime) bucket).getDayOfWeek()
+                        .getDisplayName(TextStyle.FULL, Locale.forLanguageTag("es")));
 
         return ResponseEntity.ok(result);
     }
 
     @Override
     public ResponseEntity<Map<String, Long>> getViewsByMonth() {
-        List<View> views = viewRepository.findAll();
-
-        Map<String, Long> result = views.stream()
-                .collect(Collectors.groupingBy(
-                        v -> v.getDate().getMonth()
-                                .getDisplayName(TextStyle.FULL, Locale.forLanguageTag("es")),
-                        Collectors.counting()
-                ));
+        Map<String, Long> result = sumRows(viewCountRepository.sumByBucket(),
+                bucket -> ((LocalDateTime) bucket).getMonth()
+                        .getDisplayName(TextStyle.FULL, Locale.forLanguageTag("es")));
 
         return ResponseEntity.ok(result);
     }
 
     @Override
     public ResponseEntity<Map<String, Long>> getViewsByNeighborhood() {
-        List<View> views = viewRepository.findAll();
-
-        Map<String, Long> result = views.stream()
-                .collect(Collectors.groupingBy(
-                        v -> v.getProperty().getNeighborhood().getName(),
-                        Collectors.counting()
-                ));
-
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(sumRows(viewCountRepository.sumByNeighborhood(), String::valueOf));
     }
 
     @Override
     public ResponseEntity<Map<String, Long>> getViewsByNeighborhoodType() {
-        List<View> views = viewRepository.findAll();
-
-        Map<String, Long> result = views.stream()
-                .collect(Collectors.groupingBy(
-                        v -> v.getProperty().getNeighborhood().getType().toString(),
-                        Collectors.counting()
-                ));
-
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(sumRows(viewCountRepository.sumByNeighborhoodType(), String::valueOf));
     }
 
     @Override
     public ResponseEntity<Map<String, Long>> getViewsByStatus() {
-        List<Property> properties = propertyRepository.findAll();
-
-        Map<String, Long> result = properties.stream()
-                .collect(Collectors.groupingBy(
-                        p -> p.getStatus().name(),
-                        Collectors.counting()
-                ));
-
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(sumRows(propertyRepository.countByStatus(), String::valueOf));
     }
 
     @Override
     public ResponseEntity<Map<String, Map<String, Long>>> getViewsByStatusAndType() {
-        List<Property> properties = propertyRepository.findAll();
+        List<Object[]> rows = propertyRepository.countByStatusAndType();
 
-        Map<String, Map<String, Long>> result = properties.stream()
+        Map<String, Map<String, Long>> result = rows.stream()
                 .collect(Collectors.groupingBy(
-                        property -> property.getStatus().name(),
-                        Collectors.groupingBy(
-                                property -> property.getType().getName(),
-                                Collectors.counting()
+                        row -> String.valueOf(row[0]),
+                        Collectors.toMap(
+                                row -> String.valueOf(row[1]),
+                                row -> ((Number) row[2]).longValue(),
+                                Long::sum
                         )
                 ));
 
@@ -145,42 +104,16 @@ public class ViewService implements IViewService {
 
     @Override
     public ResponseEntity<Map<String, Long>> getViewsByOperation() {
-        List<View> views = viewRepository.findAll();
-
-        Map<String, Long> result = views.stream()
-                .collect(Collectors.groupingBy(
-                        v -> v.getProperty().getOperation().toString(),
-                        Collectors.counting()
-                ));
-
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(sumRows(viewCountRepository.sumByOperation(), String::valueOf));
     }
 
     @Override
     public ResponseEntity<Map<Float, Long>> getViewsByRooms() {
-        List<View> views = viewRepository.findAll();
-
-        Map<Float, Long> result = views.stream()
-                .collect(Collectors.groupingBy(
-                        v -> v.getProperty().getRooms(),
-                        Collectors.counting()
-                ));
-
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(sumRows(viewCountRepository.sumByRooms(), rooms -> ((Number) rooms).floatValue()));
     }
 
     @Override
-    @Transactional
     public ResponseEntity<Map<String, Long>> getViewsByAmenity() {
-        List<View> views = viewRepository.findAll();
-
-        Map<String, Long> result = views.stream()
-                .flatMap(view -> view.getProperty().getAmenities().stream())
-                .collect(Collectors.groupingBy(
-                        Amenity::getName,
-                        Collectors.counting()
-                ));
-
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(sumRows(viewCountRepository.sumByAmenity(), String::valueOf));
     }
-}
\ No newline at end of file
+}
@@ -8,4 +8,10 @@ public interface IAzureBlobStorage {
     void delete(Storage storage);
 
     String getImageUrl(String imageName);
+
+    // nombre del archivo a partir de la url completa guardada
+    String getImagePath(String url);
+
+    // devuelve el stream, el tamaño y el content-type del archivo, el stream lo cierra quien lo lee
+    Storage read(String path);
 }
@@ -0,0 +1,10 @@
+package pi.ms_properties.service.interf;
+
+import org.springframework.http.ResponseEntity;
+import pi.ms_properties.dto.DashboardSnapshotDTO;
+
+public interface IDashboardService {
+    ResponseEntity<DashboardSnapshotDTO> getSnapshot(String ifNoneMatch);
+
+    void refresh();
+}
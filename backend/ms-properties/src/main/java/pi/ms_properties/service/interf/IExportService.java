@@ -0,0 +1,13 @@
+package pi.ms_properties.service.interf;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+public interface IExportService {
+    void exportViews(String format, HttpServletResponse response) throws IOException;
+
+    void exportInquiries(String format, HttpServletResponse response) throws IOException;
+
+    void exportSurveys(String format, HttpServletResponse response) throws IOException;
+}
@@ -1,5 +1,6 @@
 package pi.ms_properties.service.interf;
 
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
 import pi.ms_properties.domain.Image;
@@ -9,6 +10,8 @@ import java.util.List;
 public interface IImageService {
     String uploadImageToProperty(MultipartFile file, Long propertyId, Boolean type);
 
+    String uploadPropertyImages(Long propertyId, MultipartFile mainImage, List<MultipartFile> images);
+
     ResponseEntity<String> deleteImage(Long id);
 
     void deleteImageByName(String url);
@@ -18,4 +21,6 @@ public interface IImageService {
     String uploadNoticeImage(MultipartFile file);
 
     String getNoticeImageURL(String imageName);
+
+    ResponseEntity<Resource> getRawImage(String name);
 }
@@ -4,6 +4,8 @@ import org.springframework.http.ResponseEntity;
 import pi.ms_properties.domain.Currency;
 import pi.ms_properties.domain.Status;
 import pi.ms_properties.dto.PropertyDTO;
+import pi.ms_properties.dto.PropertyFacetsDTO;
+import pi.ms_properties.dto.PropertyPageDTO;
 import pi.ms_properties.dto.PropertySaveDTO;
 import pi.ms_properties.dto.PropertySimpleDTO;
 import pi.ms_properties.dto.PropertyUpdateDTO;
@@ -27,14 +29,20 @@ public interface IPropertyService {
 
     ResponseEntity<List<PropertyDTO>> getAllUsers();
 
+    ResponseEntity<PropertyPageDTO> getAllPage(String cursor, int size, String sort, String direction);
+
+    ResponseEntity<PropertyPageDTO> getAllUsersPage(String cursor, int size, String sort, String direction);
+
     ResponseEntity<PropertyDTO> getById(Long id);
 
     ResponseEntity<List<PropertyDTO>> getByStatus(Status status);
 
-    ResponseEntity<List<PropertyDTO>> findBy(BigDecimal priceFrom, BigDecimal priceTo, float areaFrom, float areaTo, float coveredAreaFrom, float coveredAreaTo, List<Float> rooms, String operation, List<String> types, List<String> amenities, List<String> cities, List<String> neighborhoods, List<String> neighborhoodTypes, Boolean credit, Boolean financing, Currency currency, Status status);
+    ResponseEntity<List<PropertyDTO>> findBy(BigDecimal priceFrom, BigDecimal priceTo, float areaFrom, float areaTo, float coveredAreaFrom, float coveredAreaTo, List<Float> rooms, String operation, List<String> types, List<String> amenities, List<String> cities, List<String> neighborhoods, List<String> neighborhoodTypes, Boolean credit, Boolean financing, Currency currency, Status status, Double latitude, Double longitude, Double radiusKm);
 
     ResponseEntity<List<PropertyDTO>> findByTitleDescription(String value);
 
+    ResponseEntity<PropertyFacetsDTO> getFacets(List<String> types, List<String> neighborhoods, List<String> cities, List<String> amenities, List<Float> rooms, List<String> operations, List<Currency> currencies);
+
     ResponseEntity<List<PropertySimpleDTO>> getPropertiesByIAResult(List<Map<String, Object>> iaResult);
 
     // feign
@@ -9,6 +9,7 @@ import pi.ms_properties.domain.Property;
 import pi.ms_properties.domain.Status;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @SuppressWarnings("unused")
@@ -211,18 +212,16 @@ public class PropertySpecification {
         };
     }
 
-    public static Specification<Property> textSearch(String value) {
-        return (root, query, builder) -> {
-            if (value == null || value.isBlank()) {
-                return null;
+    // ids que ya vienen filtrados de antemano, por ejemplo por la busqueda por cercania
+    public static Specification<Property> hasIdIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> {
+            if (ids == null) {
+                return criteriaBuilder.conjunction();
             }
-
-            String likePattern = "%" + value.toLowerCase() + "%";
-
-            return builder.or(
-                    builder.like(builder.lower(root.get("title")), likePattern),
-                    builder.like(builder.lower(root.get("description")), likePattern)
-            );
+            if (ids.isEmpty()) {
+                return criteriaBuilder.disjunction();
+            }
+            return root.get("id").in(ids);
         };
     }
 }
@@ -5,21 +5,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import pi.ms_properties.comparer.controller.ComparisonController;
 import pi.ms_properties.comparer.dto.PropertyDTOAI;
 import pi.ms_properties.comparer.service.AzureOpenAIService;
+import pi.ms_properties.comparer.service.ComparerExecutor;
 import pi.ms_properties.comparer.service.GeolocationService;
-import pi.ms_properties.dto.PropertyDTO;
 import pi.ms_properties.dto.PropertySimpleDTO;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ComparisonControllerTest {
@@ -30,6 +34,9 @@ class ComparisonControllerTest {
     @Mock
     private AzureOpenAIService azureOpenAIService;
 
+    @Spy
+    private ComparerExecutor comparerExecutor = new ComparerExecutor(Executors.newVirtualThreadPerTaskExecutor(), 4, Duration.ofSeconds(5));
+
     @InjectMocks
     private ComparisonController controller;
 
@@ -54,7 +61,7 @@ class ComparisonControllerTest {
         when(azureOpenAIService.compareProperties(List.of(geo1, geo2)))
                 .thenReturn("Comparación realizada correctamente");
 
-        ResponseEntity<String> response = controller.comparer(List.of(prop1, prop2));
+        ResponseEntity<String> response = controller.comparer(List.of(prop1, prop2)).join();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Comparación realizada correctamente", response.getBody());
@@ -68,17 +75,52 @@ class ComparisonControllerTest {
                 .thenReturn(ResponseEntity.ok(mockList));
 
         ResponseEntity<List<PropertySimpleDTO>> response =
-                controller.searchFull("casa con pileta");
+                controller.searchFull("casa con pileta").join();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
     }
 
+    @Test
+    void shouldNotHoldRequestThreads_whileAIIsSlow() throws Exception {
+        prop1.setLatitude(-31.4);
+        prop1.setLongitude(-64.18);
+        prop2.setLatitude(-31.42);
+        prop2.setLongitude(-64.17);
+        when(azureOpenAIService.compareProperties(any())).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return "Comparación lenta";
+        });
+
+        // cuatro hilos como los de Tomcat atienden cien pedidos; bloqueando tardarian 100 * 300ms / 4
+        ExecutorService requestThreads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CompletableFuture<ResponseEntity<String>>>> accepted = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                accepted.add(requestThreads.submit(() -> controller.comparer(List.of(prop1, prop2))));
+            }
+
+            long start = System.nanoTime();
+            List<CompletableFuture<ResponseEntity<String>>> responses = new ArrayList<>();
+            for (Future<CompletableFuture<ResponseEntity<String>>> request : accepted) {
+                responses.add(request.get(1, TimeUnit.SECONDS));
+            }
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toSeconds() < 5);
+            assertTrue(responses.stream().allMatch(r -> "Comparación lenta".equals(r.join().getBody())));
+            verify(azureOpenAIService, times(100)).compareProperties(any());
+            verifyNoInteractions(geoService);
+        } finally {
+            requestThreads.shutdownNow();
+        }
+    }
+
     // casos de error
 
     @Test
     void shouldReturnBadRequest_whenLessThan2Properties() {
-        ResponseEntity<String> response = controller.comparer(List.of(prop1));
+        ResponseEntity<String> response = controller.comparer(List.of(prop1)).join();
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Debe enviar 2 o 3 propiedades.", response.getBody());
@@ -86,7 +128,7 @@ class ComparisonControllerTest {
 
     @Test
     void shouldReturnBadRequest_whenMoreThan3Properties() {
-        ResponseEntity<String> response = controller.comparer(List.of(prop1, prop2, prop1, prop2));
+        ResponseEntity<String> response = controller.comparer(List.of(prop1, prop2, prop1, prop2)).join();
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Debe enviar 2 o 3 propiedades.", response.getBody());
@@ -98,7 +140,7 @@ class ComparisonControllerTest {
                 .thenThrow(new RuntimeException("IA error"));
 
         assertThrows(RuntimeException.class,
-                () -> controller.searchFull("algo"));
+                () -> controller.searchFull("algo").join());
     }
 
     @Test
@@ -106,7 +148,7 @@ class ComparisonControllerTest {
         when(azureOpenAIService.searchAndReturnProperties(any()))
                 .thenReturn(ResponseEntity.ok(List.of()));
 
-        ResponseEntity<List<PropertySimpleDTO>> response = controller.searchFull("dep");
+        ResponseEntity<List<PropertySimpleDTO>> response = controller.searchFull("dep").join();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
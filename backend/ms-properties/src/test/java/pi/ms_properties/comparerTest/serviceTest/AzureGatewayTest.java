@@ -0,0 +1,212 @@
+package pi.ms_properties.comparerTest.serviceTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import pi.ms_properties.comparer.service.AzureGateway;
+import pi.ms_properties.comparer.service.ComparerExecutor;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// servidor local que imita a Azure OpenAI para probar limites, reintentos y union de pedidos
+class AzureGatewayTest {
+
+    private static final String OK = "{\"choices\":[{\"message\":{\"content\":\"respuesta\"}}]}";
+
+    private MockWebServer server;
+
+    private MeterRegistry meterRegistry;
+
+    private ComparerExecutor comparerExecutor;
+
+    private final WebClient webClient = WebClient.create();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+        comparerExecutor = new ComparerExecutor(Executors.newVirtualThreadPerTaskExecutor(), 4, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        comparerExecutor.shutdown();
+        server.shutdown();
+    }
+
+    private AzureGateway gateway(int requestsPerMinute, int tokensPerMinute, Duration deadline) {
+        return new AzureGateway(meterRegistry, comparerExecutor, requestsPerMinute, tokensPerMinute, 3,
+                Duration.ofMillis(5), deadline);
+    }
+
+    private static Map<String, Object> body(String prompt) {
+        return body(prompt, 100);
+    }
+
+    private static Map<String, Object> body(String prompt, int maxTokens) {
+        return Map.of("messages", List.of(Map.of("role", "user", "content", prompt)), "max_completion_tokens", maxTokens);
+    }
+
+    private Supplier<Mono<JsonNode>> request(Map<String, Object> body) {
+        return () -> webClient.post()
+                .uri(server.url("/openai/deployments/test/chat/completions").toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+
+    // casos de exito
+
+    @Test
+    void execute_shouldRetryThrottledAndServerErrors() {
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(json(OK));
+        AzureGateway gateway = gateway(600, 600000, Duration.ofSeconds(5));
+
+        JsonNode response = gateway.execute(body("comparar"), request(body("comparar")));
+
+        assertEquals("respuesta", response.at("/choices/0/message/content").asText());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, meterRegistry.get("azure.openai.retries").counter().count());
+        assertEquals(1, meterRegistry.get("azure.openai.latency").tag("result", "success").timer().count());
+        assertEquals(3, meterRegistry.get("azure.openai.queue.wait").timer().count());
+    }
+
+    @Test
+    void execute_shouldCoalesceIdenticalPromptsInFlight() throws Exception {
+        server.enqueue(json(OK).setBodyDelay(300, TimeUnit.MILLISECONDS));
+        AzureGateway gateway = gateway(600, 600000, Duration.ofSeconds(5));
+
+        CompletableFuture<JsonNode> first = comparerExecutor.submit(() -> gateway.execute(body("igual"), request(body("igual"))));
+        server.takeRequest(5, TimeUnit.SECONDS);
+        CompletableFuture<JsonNode> second = comparerExecutor.submit(() -> gateway.execute(body("igual"), request(body("igual"))));
+
+        assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, meterRegistry.get("azure.openai.coalesced").counter().count());
+    }
+
+    @Test
+    void execute_shouldWaitForTokensToRefill() {
+        server.enqueue(json(OK));
+        server.enqueue(json(OK));
+        // el primer pedido vacia el balde de 60000 tokens por minuto, el segundo espera la recarga de 2000
+        AzureGateway gateway = gateway(600, 60000, Duration.ofSeconds(5));
+        gateway.execute(body("uno", 60000), request(body("uno", 60000)));
+
+        long start = System.nanoTime();
+        gateway.execute(body("dos", 2000), request(body("dos", 2000)));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 100);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void execute_shouldWaitRetryAfter_insteadOfBackoff() {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "1"));
+        server.enqueue(json(OK));
+        AzureGateway gateway = gateway(600, 600000, Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        gateway.execute(body("esperar"), request(body("esperar")));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 1000);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    // casos de error
+
+    @Test
+    void execute_shouldNotRetryClientErrors() {
+        server.enqueue(new MockResponse().setResponseCode(400));
+        AzureGateway gateway = gateway(600, 600000, Duration.ofSeconds(5));
+
+        WebClientResponseException ex = assertThrows(WebClientResponseException.class,
+                () -> gateway.execute(body("mal"), request(body("mal"))));
+
+        assertEquals(400, ex.getStatusCode().value());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, meterRegistry.get("azure.openai.latency").tag("result", "error").timer().count());
+    }
+
+    @Test
+    void execute_shouldGiveUp_afterMaxRetries() {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+        AzureGateway gateway = gateway(600, 600000, Duration.ofSeconds(5));
+
+        assertThrows(WebClientResponseException.class, () -> gateway.execute(body("caido"), request(body("caido"))));
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    void execute_shouldFail_whenRateLimitIsExhausted() {
+        server.enqueue(json(OK));
+        // con un pedido por minuto el segundo no consigue cupo dentro del plazo
+        AzureGateway gateway = gateway(1, 600000, Duration.ofSeconds(5));
+        gateway.execute(body("uno"), request(body("uno")));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> gateway.execute(body("dos"), request(body("dos"))));
+
+        assertEquals("Se alcanzo el limite de consultas a la IA, intente nuevamente", ex.getMessage());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void execute_shouldStopRetrying_whenRetryAfterExceedsDeadline() {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("retry-after-ms", "10000"));
+        server.enqueue(json(OK));
+        AzureGateway gateway = gateway(600, 600000, Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        WebClientResponseException ex = assertThrows(WebClientResponseException.class,
+                () -> gateway.execute(body("lento"), request(body("lento"))));
+
+        assertEquals(429, ex.getStatusCode().value());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5000);
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, meterRegistry.get("azure.openai.retries").counter().count());
+    }
+
+    @Test
+    void execute_shouldBoundRetriesByDeadline() {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "1"));
+        }
+        AzureGateway gateway = gateway(600, 600000, Duration.ofMillis(2500));
+
+        long start = System.nanoTime();
+        assertThrows(WebClientResponseException.class, () -> gateway.execute(body("plazo"), request(body("plazo"))));
+
+        // sin plazo serian 4 pedidos y 3s de espera
+        assertTrue(server.getRequestCount() < 4);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2500);
+    }
+}
@@ -2,11 +2,13 @@ package pi.ms_properties.comparerTest.serviceTest;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -14,17 +16,27 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import pi.ms_properties.comparer.dto.PropertyDTOAI;
+import pi.ms_properties.comparer.service.AzureGateway;
 import pi.ms_properties.comparer.service.AzureOpenAIService;
+import pi.ms_properties.comparer.service.ComparerExecutor;
+import pi.ms_properties.comparer.service.ComparisonCache;
+import pi.ms_properties.comparer.service.FilterVocabulary;
+import pi.ms_properties.comparer.service.SearchCandidateSelector;
+import pi.ms_properties.domain.Property;
 import pi.ms_properties.dto.PropertyDTO;
+import pi.ms_properties.dto.PropertyFilterDTO;
 import pi.ms_properties.dto.PropertySimpleDTO;
 import pi.ms_properties.repository.IPropertyRepository;
+import pi.ms_properties.service.impl.PropertyTextIndex;
 import pi.ms_properties.service.interf.IPropertyService;
 import reactor.core.publisher.Mono;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -54,6 +66,21 @@ class AzureOpenAIServiceTest {
     @Mock
     private IPropertyService propertyService;
 
+    @Spy
+    private ComparisonCache comparisonCache = new ComparisonCache(new SimpleMeterRegistry(), 10, 60);
+
+    @Spy
+    private SearchCandidateSelector searchCandidateSelector = new SearchCandidateSelector(
+            new PropertyTextIndex(mock(IPropertyRepository.class)), 30);
+
+    @Mock
+    private FilterVocabulary filterVocabulary;
+
+    @Spy
+    private AzureGateway azureGateway = new AzureGateway(new SimpleMeterRegistry(),
+            new ComparerExecutor(Executors.newVirtualThreadPerTaskExecutor(), 2, Duration.ofSeconds(5)),
+            600, 600000, 0, Duration.ofMillis(1), Duration.ofSeconds(5));
+
     @InjectMocks
     private AzureOpenAIService service;
 
@@ -108,6 +135,84 @@ class AzureOpenAIServiceTest {
         assertEquals("Comparación generada correctamente.", result);
     }
 
+    @Test
+    void shouldReuseComparison_whenSamePropertiesInAnyOrder() throws Exception {
+        JsonNode mockResponse = mapper.readTree("""
+            { "choices": [ { "message": { "content": "Comparación guardada." } } ] }
+        """);
+
+        when(mockWebClient.post()).thenReturn(mockRequestBodyUriSpec);
+        when(mockRequestBodyUriSpec.uri(anyString())).thenReturn(mockRequestBodySpec);
+        when(mockRequestBodySpec.header(anyString(), anyString())).thenReturn(mockRequestBodySpec);
+        when(mockRequestBodySpec.bodyValue(any())).thenReturn(mockRequestHeadersSpec);
+        when(mockRequestHeadersSpec.retrieve()).thenReturn(mockResponseSpec);
+        when(mockResponseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(mockResponse));
+        when(mockRequestBodySpec.contentType(MediaType.APPLICATION_JSON))
+                .thenReturn(mockRequestBodySpec);
+
+        PropertyDTOAI p1 = new PropertyDTOAI("Depto Centro", "Córdoba", -31.4, -64.18d, 3f, 1f, 1f, 80f, 70f, 100000f, "VENTA", "Departamento", Set.of("Pileta"));
+        PropertyDTOAI p2 = new PropertyDTOAI("Casa GPaz", "General Paz", -31.42, -64.17d, 5f, 2f, 3f, 150f, 120f, 250000f, "VENTA", "Casa", Set.of("Cochera"));
+
+        assertEquals("Comparación guardada.", service.compareProperties(List.of(p1, p2)));
+        assertEquals("Comparación guardada.", service.compareProperties(List.of(p2, p1)));
+
+        verify(mockWebClient, times(1)).post();
+    }
+
+    @Test
+    void shouldSendCompactCandidates_andDropUnknownIds() throws Exception {
+        Property property = new Property();
+        property.setId(1L);
+        property.setTitle("Casa con pileta");
+        property.setDescription("Una descripcion larga que no tiene que llegar al prompt");
+        property.setRooms(3f);
+        when(propertyRepository.searchByFilters(any())).thenReturn(List.of(property));
+
+        JsonNode mockResponse = mapper.readTree("""
+            { "choices": [ { "message": { "content": "[{\\"id\\":1,\\"score\\":0.9},{\\"id\\":99,\\"score\\":0.5}]" } } ] }
+        """);
+        when(mockWebClient.post()).thenReturn(mockRequestBodyUriSpec);
+        when(mockRequestBodyUriSpec.uri(anyString())).thenReturn(mockRequestBodySpec);
+        when(mockRequestBodySpec.header(anyString(), anyString())).thenReturn(mockRequestBodySpec);
+        when(mockRequestBodySpec.bodyValue(any())).thenReturn(mockRequestHeadersSpec);
+        when(mockRequestHeadersSpec.retrieve()).thenReturn(mockResponseSpec);
+        when(mockResponseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(mockResponse));
+        when(propertyService.getPropertiesByIAResult(anyList())).thenReturn(ResponseEntity.ok(List.of()));
+
+        ResponseEntity<List<PropertySimpleDTO>> response = service.searchAndReturnProperties("casa con pileta");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(propertyService).getPropertiesByIAResult(argThat(result ->
+                result.size() == 1 && "1".equals(result.get(0).get("id").toString())));
+        verify(mockRequestBodySpec).bodyValue(argThat(body -> {
+            String prompt = body.toString();
+            return prompt.contains("\"id\":1") && prompt.contains("\"rooms\":3.0") && !prompt.contains("descripcion");
+        }));
+    }
+
+    @Test
+    void extractFilters_shouldUseVocabularySnapshot() throws Exception {
+        when(filterVocabulary.snapshot()).thenReturn(
+                new FilterVocabulary.Snapshot("[\"pileta\"]", "[\"casa\"]", "[\"centro\"]"));
+
+        JsonNode mockResponse = mapper.readTree("""
+            { "choices": [ { "message": { "content": "{\\"type\\":\\"casa\\",\\"neighborhood\\":\\"centro\\"}" } } ] }
+        """);
+        when(mockWebClient.post()).thenReturn(mockRequestBodyUriSpec);
+        when(mockRequestBodyUriSpec.uri(anyString())).thenReturn(mockRequestBodySpec);
+        when(mockRequestBodySpec.header(anyString(), anyString())).thenReturn(mockRequestBodySpec);
+        when(mockRequestBodySpec.bodyValue(any())).thenReturn(mockRequestHeadersSpec);
+        when(mockRequestHeadersSpec.retrieve()).thenReturn(mockResponseSpec);
+        when(mockResponseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(mockResponse));
+
+        PropertyFilterDTO filters = service.extractFilters("casa en el centro");
+
+        assertEquals("casa", filters.getType());
+        assertEquals("centro", filters.getNeighborhood());
+        verify(mockRequestBodySpec).bodyValue(argThat(body -> body.toString().contains("Tipos válidos: [\"casa\"]")));
+        verifyNoInteractions(propertyRepository);
+    }
+
     @Test
     void shouldGeneratePromptWithAllFields() {
         PropertyDTOAI p = new PropertyDTOAI(
@@ -175,10 +280,14 @@ class AzureOpenAIServiceTest {
         String result = service.compareProperties(List.of(new PropertyDTOAI()));
 
         assertEquals("Azure no devolvió contenido", result);
+        assertEquals(0, comparisonCache.size());
     }
 
     @Test
     void shouldReturn500_whenIAThrowsError() {
+        Property property = new Property();
+        property.setId(1L);
+        when(propertyRepository.searchByFilters(any())).thenReturn(List.of(property));
         when(mockWebClient.post()).thenThrow(new RuntimeException("IA error"));
 
         ResponseEntity<List<PropertySimpleDTO>> response =
@@ -186,4 +295,16 @@ class AzureOpenAIServiceTest {
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldSkipIA_whenNoPropertyMatchesFilters() {
+        when(propertyRepository.searchByFilters(any())).thenReturn(List.of());
+
+        ResponseEntity<List<PropertySimpleDTO>> response = service.searchAndReturnProperties("algo");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().isEmpty());
+        verify(mockWebClient, never()).post();
+        verifyNoInteractions(propertyService);
+    }
+}
@@ -0,0 +1,101 @@
+package pi.ms_properties.comparerTest.serviceTest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pi.ms_properties.comparer.service.ComparerExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComparerExecutorTest {
+
+    private final ComparerExecutor executor =
+            new ComparerExecutor(Executors.newVirtualThreadPerTaskExecutor(), 2, Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    // casos de exito
+
+    @Test
+    void submit_shouldRunOutsideCallerThread() {
+        Thread caller = Thread.currentThread();
+
+        Thread worker = executor.submit(Thread::currentThread).join();
+
+        assertNotSame(caller, worker);
+        assertTrue(worker.isVirtual());
+    }
+
+    @Test
+    void callAzure_shouldBoundConcurrentCalls() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> calls = IntStream.range(0, 20)
+                .mapToObj(i -> executor.submit(() -> executor.callAzure(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return i;
+                })))
+                .toList();
+
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    // casos de error
+
+    @Test
+    void callAzure_shouldFail_whenNoPermitFreesInTime() throws Exception {
+        ComparerExecutor limited = new ComparerExecutor(Executors.newVirtualThreadPerTaskExecutor(), 1, Duration.ofMillis(50));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> slow = limited.submit(() -> limited.callAzure(() -> {
+            holding.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> limited.callAzure(() -> true));
+        assertEquals("Demasiadas consultas a la IA en curso, intente nuevamente", ex.getMessage());
+
+        release.countDown();
+        assertTrue(slow.join());
+        assertTrue(limited.callAzure(() -> true));
+        limited.shutdown();
+    }
+
+    @Test
+    void callAzure_shouldReleasePermit_whenCallFails() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalArgumentException.class, () -> executor.callAzure(() -> {
+                throw new IllegalArgumentException("fallo");
+            }));
+        }
+
+        assertEquals("ok", executor.callAzure(() -> "ok"));
+    }
+}
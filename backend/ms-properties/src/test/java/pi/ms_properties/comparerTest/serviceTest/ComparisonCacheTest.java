@@ -0,0 +1,219 @@
+package pi.ms_properties.comparerTest.serviceTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pi.ms_properties.comparer.dto.PropertyDTOAI;
+import pi.ms_properties.comparer.service.ComparisonCache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComparisonCacheTest {
+
+    private MeterRegistry meterRegistry;
+
+    private MutableClock clock;
+
+    private ComparisonCache cache;
+
+    private final PropertyDTOAI centro = property("Depto Centro", 100000f, Set.of("Pileta", "Cochera"));
+
+    private final PropertyDTOAI gpaz = property("Casa GPaz", 250000f, Set.of("Patio"));
+
+    private final PropertyDTOAI nueva = property("Casa Nueva", 300000f, Set.of());
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-05-19T10:00:00Z");
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        cache = new ComparisonCache(meterRegistry, 2, 60, clock);
+    }
+
+    private static PropertyDTOAI property(String name, Float price, Set<String> amenities) {
+        return new PropertyDTOAI(name, "Córdoba", -31.4, -64.18, 3f, 1f, 2f, 80f, 70f, price, "VENTA", "Casa", amenities);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("comparer.cache").tag("result", result).counter().count();
+    }
+
+    // casos de exito
+
+    @Test
+    void key_shouldIgnoreOrderOfPropertiesAndAmenities() {
+        PropertyDTOAI sameCentro = property("Depto Centro", 100000f, Set.of("Cochera", "Pileta"));
+
+        assertEquals(ComparisonCache.key(List.of(centro, gpaz)), ComparisonCache.key(List.of(gpaz, sameCentro)));
+        assertEquals(ComparisonCache.canonicalOrder(List.of(centro, gpaz)), ComparisonCache.canonicalOrder(List.of(gpaz, centro)));
+    }
+
+    @Test
+    void key_shouldChange_whenAnyFieldChanges() {
+        PropertyDTOAI cheaper = property("Depto Centro", 90000f, Set.of("Pileta", "Cochera"));
+
+        assertNotEquals(ComparisonCache.key(List.of(centro, gpaz)), ComparisonCache.key(List.of(cheaper, gpaz)));
+    }
+
+    @Test
+    void get_shouldReuseResponse() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("respuesta", cache.get(List.of(centro, gpaz), () -> {
+            calls.incrementAndGet();
+            return "respuesta";
+        }));
+        assertEquals("respuesta", cache.get(List.of(gpaz, centro), () -> {
+            calls.incrementAndGet();
+            return "otra";
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, count("hit"));
+        assertEquals(1, count("miss"));
+    }
+
+    @Test
+    void get_shouldShareConcurrentIdenticalRequests() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get(List.of(centro, gpaz), () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "respuesta";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get(List.of(gpaz, centro), () -> {
+            calls.incrementAndGet();
+            return "duplicada";
+        }));
+        while (count("shared") == 0 && !second.isDone()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals("respuesta", first.get(5, TimeUnit.SECONDS));
+        assertEquals("respuesta", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsed() {
+        cache.get(List.of(centro, gpaz), () -> "a");
+        cache.get(List.of(centro, nueva), () -> "b");
+        cache.get(List.of(centro, gpaz), () -> "no se usa");
+        cache.get(List.of(gpaz, nueva), () -> "c");
+
+        assertEquals(2, cache.size());
+        assertEquals("a", cache.get(List.of(centro, gpaz), () -> "nueva"));
+        assertEquals("nueva", cache.get(List.of(centro, nueva), () -> "nueva"));
+        assertEquals(2, meterRegistry.get("comparer.cache.evictions").counter().count());
+    }
+
+    @Test
+    void invalidate_shouldDropComparisonsWithThatProperty() {
+        cache.get(List.of(centro, gpaz), () -> "a");
+        cache.get(List.of(centro, nueva), () -> "b");
+
+        cache.invalidate(" casa gpaz ");
+
+        assertEquals(1, cache.size());
+        assertEquals("b", cache.get(List.of(nueva, centro), () -> "no se usa"));
+    }
+
+    @Test
+    void invalidate_shouldDropAgainAfterCommit() {
+        cache.get(List.of(centro, gpaz), () -> "a");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate("Casa GPaz");
+            // una comparacion concurrente que leyo la fila antes del commit
+            cache.get(List.of(centro, gpaz), () -> "vieja");
+            assertEquals(1, cache.size());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, cache.size());
+        assertEquals("nueva", cache.get(List.of(centro, gpaz), () -> "nueva"));
+    }
+
+    // casos de error
+
+    @Test
+    void get_shouldExpireAfterTtl() {
+        cache.get(List.of(centro, gpaz), () -> "a");
+
+        clock.advance(Duration.ofSeconds(61));
+
+        assertEquals("b", cache.get(List.of(centro, gpaz), () -> "b"));
+    }
+
+    @Test
+    void get_shouldNotStoreEmptyResponsesOrErrors() {
+        assertNull(cache.get(List.of(centro, gpaz), () -> null));
+        assertThrows(IllegalStateException.class, () -> cache.get(List.of(centro, gpaz), () -> {
+            throw new IllegalStateException("Azure caido");
+        }));
+
+        assertEquals(0, cache.size());
+        assertEquals("a", cache.get(List.of(centro, gpaz), () -> "a"));
+    }
+
+    @Test
+    void get_shouldNotStoreResponseStartedBeforeInvalidation() {
+        String result = cache.get(List.of(centro, gpaz), () -> {
+            cache.invalidate("Depto Centro");
+            return "vieja";
+        });
+
+        assertEquals("vieja", result);
+        assertEquals(0, cache.size());
+    }
+}
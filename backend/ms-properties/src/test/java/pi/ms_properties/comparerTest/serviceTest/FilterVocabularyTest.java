@@ -0,0 +1,103 @@
+package pi.ms_properties.comparerTest.serviceTest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pi.ms_properties.comparer.service.FilterVocabulary;
+import pi.ms_properties.domain.Amenity;
+import pi.ms_properties.domain.Neighborhood;
+import pi.ms_properties.domain.NeighborhoodType;
+import pi.ms_properties.domain.Type;
+import pi.ms_properties.repository.IAmenityRepository;
+import pi.ms_properties.repository.INeighborhoodRepository;
+import pi.ms_properties.repository.ITypeRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FilterVocabularyTest {
+
+    @Mock
+    private IAmenityRepository amenityRepository;
+
+    @Mock
+    private ITypeRepository typeRepository;
+
+    @Mock
+    private INeighborhoodRepository neighborhoodRepository;
+
+    @InjectMocks
+    private FilterVocabulary vocabulary;
+
+    private void stubAll() {
+        when(amenityRepository.findAll()).thenReturn(List.of(new Amenity(1L, "Pileta", new ArrayList<>())));
+        when(typeRepository.findAll()).thenReturn(List.of(new Type(1L, "Casa", true, true, true, true)));
+        when(neighborhoodRepository.findAll()).thenReturn(List.of(
+                new Neighborhood(1L, "Nueva Córdoba", NeighborhoodType.ABIERTO, "Córdoba", -31.4, -64.18)));
+    }
+
+    // casos de exito
+
+    @Test
+    void snapshot_shouldBuildLowercaseJsonOnce() {
+        stubAll();
+
+        FilterVocabulary.Snapshot snapshot = vocabulary.snapshot();
+        vocabulary.snapshot();
+
+        assertEquals("[\"pileta\"]", snapshot.amenities());
+        assertEquals("[\"casa\"]", snapshot.types());
+        assertEquals("[\"nueva córdoba\"]", snapshot.neighborhoods());
+        verify(amenityRepository, times(1)).findAll();
+        verify(typeRepository, times(1)).findAll();
+        verify(neighborhoodRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refreshTypes_shouldReloadOnlyTypes() {
+        stubAll();
+        vocabulary.rebuild();
+        when(typeRepository.findAll()).thenReturn(List.of(
+                new Type(1L, "Casa", true, true, true, true),
+                new Type(2L, "Quinta", true, true, true, true)));
+
+        vocabulary.refreshTypes();
+
+        assertEquals("[\"casa\",\"quinta\"]", vocabulary.snapshot().types());
+        assertEquals("[\"pileta\"]", vocabulary.snapshot().amenities());
+        verify(amenityRepository, times(1)).findAll();
+        verify(neighborhoodRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refreshAmenitiesAndNeighborhoods_shouldReplaceTheirFragment() {
+        stubAll();
+        vocabulary.rebuild();
+        when(amenityRepository.findAll()).thenReturn(List.of());
+        when(neighborhoodRepository.findAll()).thenReturn(List.of());
+
+        vocabulary.refreshAmenities();
+        vocabulary.refreshNeighborhoods();
+
+        assertEquals("[]", vocabulary.snapshot().amenities());
+        assertEquals("[]", vocabulary.snapshot().neighborhoods());
+        assertEquals("[\"casa\"]", vocabulary.snapshot().types());
+    }
+
+    // casos de error
+
+    @Test
+    void refresh_shouldNotQuery_whenSnapshotWasNeverBuilt() {
+        vocabulary.refreshAmenities();
+        vocabulary.refreshTypes();
+        vocabulary.refreshNeighborhoods();
+
+        verifyNoInteractions(amenityRepository, typeRepository, neighborhoodRepository);
+    }
+}
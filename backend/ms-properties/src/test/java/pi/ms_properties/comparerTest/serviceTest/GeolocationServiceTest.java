@@ -2,6 +2,7 @@ package pi.ms_properties.comparerTest.serviceTest;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,17 +11,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.reactive.function.client.WebClient;
 import pi.ms_properties.comparer.dto.PropertyDTOAI;
 import pi.ms_properties.comparer.service.GeolocationService;
+import pi.ms_properties.repository.IGeocodeRepository;
+import pi.ms_properties.service.impl.GeocodeCache;
 import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.lenient;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class GeolocationServiceTest {
@@ -42,13 +46,18 @@ class GeolocationServiceTest {
     @Mock
     private WebClient.ResponseSpec responseSpec;
 
+    @Mock
+    private IGeocodeRepository geocodeRepository;
+
     private GeolocationService geolocationService;
 
     @BeforeEach
     void setup() {
         when(webClientBuilder.baseUrl(anyString())).thenReturn(webClientBuilder);
         when(webClientBuilder.build()).thenReturn(webClient);
-        geolocationService = new GeolocationService(webClientBuilder, "test-api-key");
+        geolocationService = new GeolocationService(webClientBuilder, "test-api-key", 5,
+                new GeocodeCache(geocodeRepository, new SimpleMeterRegistry(), 100,
+                        Duration.ofDays(180), Duration.ofHours(24), Clock.systemUTC()));
     }
 
     // casos de exito
@@ -156,6 +165,29 @@ class GeolocationServiceTest {
         assertNull(result.getLongitude());
     }
 
+    @Test
+    void testGeolocation_repeatedAddress_shouldUseCache() throws Exception {
+        JsonNode node = new ObjectMapper().readTree(
+                "{\"results\":[{\"geometry\":{\"location\":{\"lat\":-31.4167,\"lng\":-64.1833}}}],\"status\":\"OK\"}");
+
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(node));
+
+        PropertyDTOAI first = new PropertyDTOAI();
+        first.setAddress("Córdoba, Argentina");
+        PropertyDTOAI second = new PropertyDTOAI();
+        second.setAddress("cordoba ,  argentina");
+
+        geolocationService.geolocation(first);
+        PropertyDTOAI result = geolocationService.geolocation(second);
+
+        assertEquals(-31.4167, result.getLatitude());
+        assertEquals(-64.1833, result.getLongitude());
+        verify(webClient, times(1)).get();
+    }
+
     // casos de error
 
     @Test
@@ -173,5 +205,22 @@ class GeolocationServiceTest {
         assertNull(result.getLatitude());
         assertNull(result.getLongitude());
     }
+
+    @Test
+    void testGeolocalizate_error_shouldNotBeCached() {
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(JsonNode.class)).thenThrow(new RuntimeException("Falla en API"));
+
+        PropertyDTOAI property = new PropertyDTOAI();
+        property.setAddress("Córdoba, Argentina");
+
+        geolocationService.geolocation(property);
+        geolocationService.geolocation(property);
+
+        verify(webClient, times(2)).get();
+        verify(geocodeRepository, never()).save(any());
+    }
 }
 
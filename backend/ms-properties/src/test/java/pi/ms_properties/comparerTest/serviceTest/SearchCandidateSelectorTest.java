@@ -0,0 +1,129 @@
+package pi.ms_properties.comparerTest.serviceTest;
+
+import org.junit.jupiter.api.Test;
+import pi.ms_properties.comparer.dto.PropertyCandidateAI;
+import pi.ms_properties.comparer.service.SearchCandidateSelector;
+import pi.ms_properties.domain.*;
+import pi.ms_properties.domain.Currency;
+import pi.ms_properties.dto.PropertyFilterDTO;
+import pi.ms_properties.repository.IPropertyRepository;
+import pi.ms_properties.service.impl.PropertyTextIndex;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SearchCandidateSelectorTest {
+
+    private final PropertyTextIndex propertyTextIndex = new PropertyTextIndex(mock(IPropertyRepository.class));
+
+    private final SearchCandidateSelector selector = new SearchCandidateSelector(propertyTextIndex, 2);
+
+    private final Neighborhood palermo = new Neighborhood(1L, "Palermo", NeighborhoodType.ABIERTO, "CABA", -34.58, -58.42);
+
+    private final Type casa = new Type(1L, "Casa", true, true, true, true);
+
+    private final Amenity pileta = new Amenity(1L, "Pileta", new ArrayList<>());
+
+    private final Amenity cochera = new Amenity(2L, "Cochera", new ArrayList<>());
+
+    private Property property(Long id, String title, Float rooms, Set<Amenity> amenities) {
+        Property property = new Property();
+        property.setId(id);
+        property.setTitle(title);
+        property.setDescription("Descripcion extensa de la propiedad " + id);
+        property.setRooms(rooms);
+        property.setNeighborhood(palermo);
+        property.setType(casa);
+        property.setOperation(Operation.VENTA);
+        property.setCurrency(Currency.USD);
+        property.setPrice(new BigDecimal("100000"));
+        property.setAmenities(amenities);
+        propertyTextIndex.put(property);
+        return property;
+    }
+
+    // casos de exito
+
+    @Test
+    void select_shouldKeepTopCandidatesByText() {
+        List<Property> properties = List.of(
+                property(1L, "Casa luminosa", 3f, Set.of()),
+                property(2L, "Casa con pileta", 3f, Set.of(pileta)),
+                property(3L, "Casa", 3f, Set.of(cochera)),
+                property(4L, "Casa con pileta y cochera", 3f, Set.of(pileta, cochera)));
+
+        List<PropertyCandidateAI> result = selector.select("pileta y cochera", new PropertyFilterDTO(), properties);
+
+        assertEquals(List.of(4L, 2L), result.stream().map(PropertyCandidateAI::getId).toList());
+    }
+
+    @Test
+    void select_shouldPreferClosestToRequestedRooms() {
+        PropertyFilterDTO filters = new PropertyFilterDTO();
+        filters.setRooms(2f);
+
+        List<PropertyCandidateAI> result = selector.select("casa", filters, List.of(
+                property(1L, "Casa", 5f, Set.of()),
+                property(2L, "Casa", 2f, Set.of()),
+                property(3L, "Casa", 3f, Set.of())));
+
+        assertEquals(List.of(2L, 3L), result.stream().map(PropertyCandidateAI::getId).toList());
+    }
+
+    @Test
+    void select_shouldCapCandidatesRegardlessOfCatalogSize() {
+        List<Property> properties = IntStream.rangeClosed(1, 500)
+                .mapToObj(i -> property((long) i, "Casa", 3f, Set.of()))
+                .toList();
+
+        List<PropertyCandidateAI> result = selector.select("", new PropertyFilterDTO(), properties);
+
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    void project_shouldKeepOnlyCompactFields() {
+        PropertyCandidateAI candidate = SearchCandidateSelector.project(property(1L, "Casa", 3f, Set.of(pileta, cochera)));
+
+        assertEquals(1L, candidate.getId());
+        assertEquals("Casa", candidate.getType());
+        assertEquals("Palermo", candidate.getNeighborhood());
+        assertEquals("VENTA", candidate.getOperation());
+        assertEquals("USD", candidate.getCurrency());
+        assertEquals(List.of("Cochera", "Pileta"), candidate.getAmenities());
+    }
+
+    @Test
+    void select_shouldOnlyScoreFilteredProperties() {
+        // la mejor coincidencia del catalogo no paso los filtros
+        property(9L, "Casa con pileta", 3f, Set.of(pileta));
+
+        List<PropertyCandidateAI> result = selector.select("pileta", null, List.of(
+                property(1L, "Casa", 3f, Set.of()),
+                property(2L, "Casa con pileta", 3f, Set.of())));
+
+        assertEquals(List.of(2L, 1L), result.stream().map(PropertyCandidateAI::getId).toList());
+    }
+
+    // casos de error
+
+    @Test
+    void select_shouldReturnEmpty_whenNoProperties() {
+        assertTrue(selector.select("casa", null, List.of()).isEmpty());
+    }
+
+    @Test
+    void select_shouldIgnoreWordsWithoutMatches() {
+        List<PropertyCandidateAI> result = selector.select("xyz", null, List.of(
+                property(1L, "Casa", 3f, Set.of()),
+                property(2L, "Casa", 3f, Set.of())));
+
+        assertEquals(List.of(2L, 1L), result.stream().map(PropertyCandidateAI::getId).toList());
+    }
+}
@@ -0,0 +1,87 @@
+package pi.ms_properties.controllerTest;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import pi.ms_properties.controller.DashboardController;
+import pi.ms_properties.dto.DashboardSnapshotDTO;
+import pi.ms_properties.security.WebSecurityConfig;
+import pi.ms_properties.service.interf.IDashboardService;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DashboardController.class)
+@Import({DashboardControllerTest.Config.class, WebSecurityConfig.class})
+class DashboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IDashboardService dashboardService;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        public IDashboardService dashboardService() {
+            return Mockito.mock(IDashboardService.class);
+        }
+    }
+
+    // casos de exito
+
+    @Test
+    @WithMockUser(roles = "admin")
+    void getSnapshot_success() throws Exception {
+        DashboardSnapshotDTO snapshot = new DashboardSnapshotDTO(
+                LocalDateTime.of(2026, 1, 1, 10, 0),
+                null,
+                new DashboardSnapshotDTO.Inquiries(Map.of("ABIERTA", 2L), "0 segundos", Map.of(), Map.of(), Map.of(), Map.of()),
+                null);
+        when(dashboardService.getSnapshot(null)).thenReturn(ResponseEntity.ok().eTag("\"abc\"").body(snapshot));
+
+        mockMvc.perform(get("/dashboard/snapshot"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(jsonPath("$.inquiries.byStatus.ABIERTA").value(2));
+    }
+
+    @Test
+    @WithMockUser(roles = "admin")
+    void getSnapshot_shouldPassIfNoneMatch() throws Exception {
+        when(dashboardService.getSnapshot("\"abc\""))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"abc\"").build());
+
+        mockMvc.perform(get("/dashboard/snapshot").header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified());
+    }
+
+    // casos de error
+
+    @Test
+    void getSnapshot_unauthorized() throws Exception {
+        mockMvc.perform(get("/dashboard/snapshot"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(roles = "user")
+    void getSnapshot_forbidden() throws Exception {
+        mockMvc.perform(get("/dashboard/snapshot"))
+                .andExpect(status().isForbidden());
+    }
+}
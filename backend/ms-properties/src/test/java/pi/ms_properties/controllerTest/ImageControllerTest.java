@@ -8,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
@@ -115,6 +116,19 @@ class ImageControllerTest {
                 .andExpect(content().string("https://storage.example.com/image123.jpg"));
     }
 
+    @Test
+    void getRaw_success_shouldStreamWithoutAuthentication() throws Exception {
+        Mockito.when(imageService.getRawImage("foto.png"))
+                .thenReturn(ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_PNG)
+                        .body(new ByteArrayResource("imagen".getBytes())));
+
+        mockMvc.perform(get("/image/raw/foto.png"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes("imagen".getBytes()));
+    }
+
     // casos de error
 
     @Test
@@ -1,6 +1,7 @@
 package pi.ms_properties.controllerTest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -20,6 +21,7 @@ import pi.ms_properties.domain.InquiryStatus;
 import pi.ms_properties.dto.InquiryGetDTO;
 import pi.ms_properties.dto.InquirySaveDTO;
 import pi.ms_properties.security.WebSecurityConfig;
+import pi.ms_properties.service.interf.IExportService;
 import pi.ms_properties.service.interf.IInquiryService;
 
 import java.time.LocalDateTime;
@@ -42,6 +44,9 @@ class InquiryControllerTest {
     @Autowired
     private IInquiryService inquiryService;
 
+    @Autowired
+    private IExportService exportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -54,6 +59,11 @@ class InquiryControllerTest {
         public IInquiryService inquiryService() {
             return Mockito.mock(IInquiryService.class);
         }
+
+        @Bean
+        public IExportService exportService() {
+            return Mockito.mock(IExportService.class);
+        }
     }
 
     @BeforeEach
@@ -293,6 +303,21 @@ class InquiryControllerTest {
                 .andExpect(jsonPath("$[0].firstName").value(dto.getFirstName()));
     }
 
+    @Test
+    @WithMockUser(roles = "admin")
+    void testExportSuccess() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            HttpServletResponse response = invocation.getArgument(1);
+            response.setContentType("text/csv;charset=UTF-8");
+            response.getWriter().write("id\r\n1\r\n");
+            return null;
+        }).when(exportService).exportInquiries(Mockito.eq("csv"), Mockito.any(HttpServletResponse.class));
+
+        mockMvc.perform(get("/inquiries/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id\r\n1\r\n"));
+    }
+
     // casos de error
 
     @Test
@@ -364,4 +389,11 @@ class InquiryControllerTest {
         mockMvc.perform(get("/inquiries/property/1"))
                 .andExpect(status().isUnauthorized());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "user")
+    void testExport_shouldReturnForbidden() throws Exception {
+        mockMvc.perform(get("/inquiries/export"))
+                .andExpect(status().isForbidden());
+    }
+}
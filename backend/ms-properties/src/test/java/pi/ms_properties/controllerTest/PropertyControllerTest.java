@@ -19,6 +19,8 @@ import pi.ms_properties.controller.PropertyController;
 import pi.ms_properties.domain.Currency;
 import pi.ms_properties.domain.Status;
 import pi.ms_properties.dto.PropertyDTO;
+import pi.ms_properties.dto.PropertyFacetsDTO;
+import pi.ms_properties.dto.PropertyPageDTO;
 import pi.ms_properties.dto.PropertySaveDTO;
 import pi.ms_properties.dto.PropertySimpleDTO;
 import pi.ms_properties.dto.PropertyUpdateDTO;
@@ -28,6 +30,7 @@ import pi.ms_properties.service.impl.PropertyService;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -35,6 +38,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(PropertyController.class)
@@ -158,8 +162,8 @@ class PropertyControllerTest {
 
     @Test
     void testSearchProperties() {
-        when(propertyService.findBy(any(BigDecimal.class), any(BigDecimal.class), anyFloat(), anyFloat(), anyFloat(), anyFloat(), anyList(), anyString(), anyList(), anyList(), anyList(), anyList(), anyList(), anyBoolean(), anyBoolean(), any(Currency.class), any())).thenReturn(ResponseEntity.ok(List.of(new PropertyDTO())));
-        ResponseEntity<List<PropertyDTO>> response = propertyController.searchProperties(BigDecimal.valueOf(0), BigDecimal.valueOf(100000), 0, 300, 0, 200, List.of(3f), "venta", List.of("casa"), List.of("pileta"), List.of("cordoba"), List.of("centro"), List.of("urbano"), true, false, Currency.ARS, null);
+        when(propertyService.findBy(any(BigDecimal.class), any(BigDecimal.class), anyFloat(), anyFloat(), anyFloat(), anyFloat(), anyList(), anyString(), anyList(), anyList(), anyList(), anyList(), anyList(), anyBoolean(), anyBoolean(), any(Currency.class), any(), any(), any(), any())).thenReturn(ResponseEntity.ok(List.of(new PropertyDTO())));
+        ResponseEntity<List<PropertyDTO>> response = propertyController.searchProperties(BigDecimal.valueOf(0), BigDecimal.valueOf(100000), 0, 300, 0, 200, List.of(3f), "venta", List.of("casa"), List.of("pileta"), List.of("cordoba"), List.of("centro"), List.of("urbano"), true, false, Currency.ARS, null, null, null, null);
         assertEquals(1, response.getBody().size());
     }
 
@@ -197,17 +201,58 @@ class PropertyControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testGetAllUsersPage_routesBySizeParam() throws Exception {
+        when(propertyService.getAllUsersPage(null, 10, "date", "desc"))
+                .thenReturn(ResponseEntity.ok(new PropertyPageDTO(List.of(), null, false)));
+
+        mockMvc.perform(get("/property/get").param("size", "10"))
+                .andExpect(status().isOk());
+
+        verify(propertyService).getAllUsersPage(null, 10, "date", "desc");
+    }
+
+    @Test
+    void testGetAllPage_withCursor() throws Exception {
+        when(propertyService.getAllPage("abc", 5, "price", "asc"))
+                .thenReturn(ResponseEntity.ok(new PropertyPageDTO(List.of(), null, false)));
+
+        mockMvc.perform(get("/property/getAll")
+                        .param("size", "5")
+                        .param("cursor", "abc")
+                        .param("sort", "price")
+                        .param("direction", "asc"))
+                .andExpect(status().isOk());
+
+        verify(propertyService).getAllPage("abc", 5, "price", "asc");
+    }
+
     @Test
     void testSearchProperties_withDefaults() throws Exception {
         when(propertyService.findBy(any(), any(), anyFloat(), anyFloat(), anyFloat(), anyFloat(),
                 anyList(), anyString(), anyList(), anyList(), anyList(), anyList(),
-                anyList(), any(), any(), any(), any()))
+                anyList(), any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(ResponseEntity.ok(List.of()));
 
         mockMvc.perform(get("/property/search"))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testGetFacets() throws Exception {
+        when(propertyService.getFacets(List.of("Casa"), null, null, List.of("Pileta", "Quincho"), List.of(3f), null, List.of(Currency.USD)))
+                .thenReturn(ResponseEntity.ok(new PropertyFacetsDTO(List.of(1L), Map.of("types", Map.of("Casa", 1)))));
+
+        mockMvc.perform(get("/property/facets")
+                        .param("types", "Casa")
+                        .param("amenities", "Pileta", "Quincho")
+                        .param("rooms", "3")
+                        .param("currencies", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ids[0]").value(1))
+                .andExpect(jsonPath("$.facets.types.Casa").value(1));
+    }
+
     // casos de error
 
     @Test
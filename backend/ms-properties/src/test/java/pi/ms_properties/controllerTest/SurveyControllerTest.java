@@ -1,6 +1,7 @@
 package pi.ms_properties.controllerTest;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -17,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import pi.ms_properties.controller.SurveyController;
 import pi.ms_properties.dto.SurveyDTO;
 import pi.ms_properties.security.WebSecurityConfig;
+import pi.ms_properties.service.interf.IExportService;
 import pi.ms_properties.service.interf.ISurveyService;
 
 import java.time.YearMonth;
@@ -37,6 +39,9 @@ class SurveyControllerTest {
     @Autowired
     private ISurveyService surveyService;
 
+    @Autowired
+    private IExportService exportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -48,6 +53,11 @@ class SurveyControllerTest {
         public ISurveyService surveyService() {
             return Mockito.mock(ISurveyService.class);
         }
+
+        @Bean
+        public IExportService exportService() {
+            return Mockito.mock(IExportService.class);
+        }
     }
 
     @BeforeEach
@@ -134,6 +144,21 @@ class SurveyControllerTest {
                 .andExpect(jsonPath("$.['2024-05']").value(4.7));
     }
 
+    @Test
+    @WithMockUser(roles = "admin")
+    void testExportSuccess() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            HttpServletResponse response = invocation.getArgument(1);
+            response.setContentType("application/x-ndjson");
+            response.getWriter().write("{\"id\":1,\"score\":5}\n");
+            return null;
+        }).when(exportService).exportSurveys(Mockito.eq("ndjson"), Mockito.any(HttpServletResponse.class));
+
+        mockMvc.perform(get("/survey/export").param("format", "ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"id\":1,\"score\":5}\n"));
+    }
+
     // casos de error
 
     @Test
@@ -196,4 +221,11 @@ class SurveyControllerTest {
                         .param("token", token))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @WithMockUser(roles = "user")
+    void testExport_shouldReturnForbidden() throws Exception {
+        mockMvc.perform(get("/survey/export"))
+                .andExpect(status().isForbidden());
+    }
 }
@@ -1,5 +1,6 @@
 package pi.ms_properties.controllerTest;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +13,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import pi.ms_properties.controller.ViewController;
 import pi.ms_properties.security.WebSecurityConfig;
+import pi.ms_properties.service.interf.IExportService;
 import pi.ms_properties.service.impl.ViewService;
 
 import java.util.Map;
@@ -29,12 +31,20 @@ class ViewControllerTest {
     @Autowired
     private ViewService viewService;
 
+    @Autowired
+    private IExportService exportService;
+
     @TestConfiguration
     static class Config {
         @Bean
         public ViewService viewService() {
             return Mockito.mock(ViewService.class);
         }
+
+        @Bean
+        public IExportService exportService() {
+            return Mockito.mock(IExportService.class);
+        }
     }
 
     // casos de exito
@@ -161,6 +171,21 @@ class ViewControllerTest {
                 .andExpect(jsonPath("$.Pool").value(7));
     }
 
+    @Test
+    @WithMockUser(roles = "admin")
+    void testExportSuccess() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            HttpServletResponse response = invocation.getArgument(1);
+            response.setContentType("text/csv;charset=UTF-8");
+            response.getWriter().write("id\r\n1\r\n");
+            return null;
+        }).when(exportService).exportViews(Mockito.eq("csv"), Mockito.any(HttpServletResponse.class));
+
+        mockMvc.perform(get("/view/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id\r\n1\r\n"));
+    }
+
     // casos de error
 
     @Test
@@ -228,5 +253,11 @@ class ViewControllerTest {
         mockMvc.perform(get("/view/amenity"))
                 .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    void testExportWithoutAuth_shouldReturnUnauthorized() throws Exception {
+        mockMvc.perform(get("/view/export"))
+                .andExpect(status().isUnauthorized());
+    }
 }
 
@@ -10,6 +10,7 @@ import pi.ms_properties.repository.feign.FavoriteRepository;
 import pi.ms_properties.repository.feign.FeignUserRepository;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -56,6 +57,21 @@ class FavoriteRepositoryTest {
         verify(feignUserRepository, times(1)).getAllUsers();
     }
 
+    @Test
+    void getAllFavoritesByUser_shouldGroupSingleFeignCallByUser() {
+        when(feignUserRepository.getAllFavorites()).thenReturn(List.of(
+                new FavoriteDTO(1L, "user1", 10L),
+                new FavoriteDTO(2L, "user2", 10L),
+                new FavoriteDTO(3L, "user1", 11L)));
+
+        Map<String, List<FavoriteDTO>> result = favoriteRepository.getAllFavoritesByUser();
+
+        assertEquals(List.of("user1", "user2"), List.copyOf(result.keySet()));
+        assertEquals(2, result.get("user1").size());
+        assertEquals(1, result.get("user2").size());
+        verify(feignUserRepository, times(1)).getAllFavorites();
+    }
+
     // casos de error
 
     @Test
@@ -0,0 +1,211 @@
+package pi.ms_properties.recommendationTest.indexTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pi.ms_properties.domain.Neighborhood;
+import pi.ms_properties.domain.Operation;
+import pi.ms_properties.domain.Property;
+import pi.ms_properties.domain.Type;
+import pi.ms_properties.recommendation.index.PropertyFeatureIndex;
+import pi.ms_properties.repository.IPropertyRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyFeatureIndexTest {
+
+    @Mock
+    private IPropertyRepository propertyRepository;
+
+    private PropertyFeatureIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertyFeatureIndex(propertyRepository);
+    }
+
+    private Property property(Long id, Long neighborhoodId, double price) {
+        Neighborhood neighborhood = new Neighborhood();
+        neighborhood.setId(neighborhoodId);
+        neighborhood.setLatitude(-34.6);
+        neighborhood.setLongitude(-58.4);
+
+        Type type = new Type();
+        type.setId(3L);
+
+        Property property = new Property();
+        property.setId(id);
+        property.setNeighborhood(neighborhood);
+        property.setType(type);
+        property.setOperation(Operation.ALQUILER);
+        property.setPrice(BigDecimal.valueOf(price));
+        return property;
+    }
+
+    // casos de exito
+
+    @Test
+    void rebuild_shouldLoadRowsIntoArrays() {
+        when(propertyRepository.findFeatureRows()).thenReturn(List.of(
+                new Object[]{1L, 5L, -34.6, -58.4, 3L, Operation.VENTA, new BigDecimal("1500.50"), null, null},
+                new Object[]{2L, 6L, 0.0, 0.0, 4L, Operation.ALQUILER, new BigDecimal("99"), 0.5, 0.5}));
+
+        index.rebuild();
+
+        PropertyFeatureIndex.Snapshot snapshot = index.snapshot();
+        assertEquals(2, snapshot.size());
+        int slot = snapshot.slotOf(1L);
+        assertEquals(150050L, snapshot.priceCents[slot]);
+        assertEquals(3L, snapshot.typeIds[slot]);
+        assertEquals(Operation.VENTA.ordinal(), snapshot.operations[slot]);
+        assertEquals(Math.toRadians(-34.6), snapshot.latRad[slot], 1e-12);
+        assertEquals(Math.cos(Math.toRadians(-34.6)), snapshot.cosLat[slot], 1e-12);
+        assertEquals(9900L, snapshot.priceCents[snapshot.slotOf(2L)]);
+    }
+
+    @Test
+    void put_shouldInsertAndReplace() {
+        index.put(property(1L, 5L, 100));
+        index.put(property(1L, 5L, 200));
+
+        PropertyFeatureIndex.Snapshot snapshot = index.snapshot();
+        assertEquals(1, snapshot.size());
+        assertEquals(20000L, snapshot.priceCents[snapshot.slotOf(1L)]);
+    }
+
+    @Test
+    void remove_shouldKeepArraysCompact() {
+        index.put(property(1L, 5L, 100));
+        index.put(property(2L, 5L, 200));
+        index.put(property(3L, 5L, 300));
+
+        index.remove(1L);
+
+        PropertyFeatureIndex.Snapshot snapshot = index.snapshot();
+        assertEquals(2, snapshot.size());
+        assertEquals(-1, snapshot.slotOf(1L));
+        assertEquals(0, snapshot.slotOf(3L));
+        assertEquals(30000L, snapshot.priceCents[0]);
+        assertEquals(20000L, snapshot.priceCents[snapshot.slotOf(2L)]);
+    }
+
+    @Test
+    void remove_shouldWaitForCommit() {
+        index.put(property(1L, 5L, 100));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(1L);
+            assertEquals(0, index.snapshot().slotOf(1L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(-1, index.snapshot().slotOf(1L));
+    }
+
+    @Test
+    void writes_shouldNotAffectPreviousSnapshot() {
+        index.put(property(1L, 5L, 100));
+        PropertyFeatureIndex.Snapshot before = index.snapshot();
+
+        index.put(property(1L, 5L, 500));
+        index.updateNeighborhood(5L, 10.0, 10.0);
+        index.remove(1L);
+
+        assertEquals(10000L, before.priceCents[before.slotOf(1L)]);
+        assertEquals(Math.toRadians(-34.6), before.latRad[before.slotOf(1L)], 1e-12);
+    }
+
+    @Test
+    void updateNeighborhood_shouldOnlyMoveItsProperties() {
+        index.put(property(1L, 5L, 100));
+        index.put(property(2L, 6L, 100));
+
+        index.updateNeighborhood(5L, 10.0, 20.0);
+
+        PropertyFeatureIndex.Snapshot snapshot = index.snapshot();
+        assertEquals(Math.toRadians(10.0), snapshot.latRad[snapshot.slotOf(1L)], 1e-12);
+        assertEquals(Math.toRadians(20.0), snapshot.lonRad[snapshot.slotOf(1L)], 1e-12);
+        assertEquals(Math.toRadians(-34.6), snapshot.latRad[snapshot.slotOf(2L)], 1e-12);
+    }
+
+    @Test
+    void findWithin_shouldUsePropertyLocationBeforeNeighborhood() {
+        Property own = property(1L, 5L, 100);
+        own.setLatitude(-34.7);
+        own.setLongitude(-58.4);
+        index.put(own);
+        index.put(property(2L, 5L, 100));
+        index.put(property(3L, 6L, 100));
+        index.updateNeighborhood(6L, -31.4, -64.18);
+
+        // ~11 km entre -34.6 y -34.7, la propiedad 3 quedo en Cordoba
+        assertEquals(List.of(2L, 1L), index.findWithin(-34.6, -58.4, 12));
+        assertEquals(List.of(2L), index.findWithin(-34.6, -58.4, 5));
+        assertEquals(List.of(3L), index.findWithin(-31.4, -64.18, 1));
+    }
+
+    @Test
+    void findWithin_shouldFollowRemovals() {
+        index.put(property(1L, 5L, 100));
+        index.put(property(2L, 5L, 100));
+
+        index.remove(1L);
+
+        assertEquals(List.of(2L), index.findWithin(-34.6, -58.4, 1));
+    }
+
+    // casos de error
+
+    @Test
+    void put_shouldIgnoreIncompleteProperty() {
+        Property property = property(1L, 5L, 100);
+        property.setPrice(null);
+
+        index.put(property);
+
+        assertEquals(0, index.snapshot().size());
+    }
+
+    @Test
+    void findWithin_shouldReturnEmpty_whenIndexIsEmpty() {
+        assertTrue(index.findWithin(-34.6, -58.4, 50).isEmpty());
+    }
+
+    @Test
+    void remove_shouldKeepProperty_whenTransactionRollsBack() {
+        index.put(property(1L, 5L, 100));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(1L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, index.snapshot().size());
+        assertEquals(0, index.snapshot().slotOf(1L));
+    }
+
+    @Test
+    void remove_shouldIgnoreUnknownId() {
+        index.put(property(1L, 5L, 100));
+
+        index.remove(99L);
+
+        assertEquals(1, index.snapshot().size());
+    }
+}
@@ -0,0 +1,180 @@
+package pi.ms_properties.recommendationTest.pythonTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import pi.ms_properties.recommendation.python.MLClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// levanta un servidor local que imita la API de ML para comparar el modo por par contra el modo batch
+class MLClientStubServerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MockWebServer server;
+
+    private MLClient mlClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request);
+            }
+        });
+        server.start();
+
+        mlClient = new MLClient(1000, 1000);
+        ReflectionTestUtils.setField(mlClient, "mlApiUrl", server.url("/").toString().replaceAll("/$", ""));
+        ReflectionTestUtils.setField(mlClient, "batchSize", 25);
+        ReflectionTestUtils.setField(mlClient, "batchEnabled", true);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        try {
+            String path = request.getPath();
+            if (path.startsWith("/predict/batch")) {
+                JsonNode body = objectMapper.readTree(request.getBody().readUtf8());
+                List<Map<String, Object>> predictions = new ArrayList<>();
+                for (JsonNode user : body.get("user_ids")) {
+                    for (JsonNode property : body.get("property_ids")) {
+                        predictions.add(Map.of("user_id", user.asText(), "property_id", property.asLong(),
+                                "prediction", score(user.asText())));
+                    }
+                }
+                return json(Map.of("predictions", predictions));
+            }
+            if (path.startsWith("/predict")) {
+                String userId = request.getRequestUrl().queryParameter("user_id");
+                return json(Map.of("prediction", score(userId)));
+            }
+            return new MockResponse().setResponseCode(404);
+        } catch (IOException e) {
+            return new MockResponse().setResponseCode(500);
+        }
+    }
+
+    private MockResponse json(Object body) throws IOException {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(objectMapper.writeValueAsString(body));
+    }
+
+    private static double score(String userId) {
+        return userId.hashCode() % 2 == 0 ? 0.9 : 0.1;
+    }
+
+    private static List<String> users(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "user" + i).toList();
+    }
+
+    // casos de exito
+
+    @Test
+    void predictUsers_shouldMatchPerPairResults_withFarFewerRequests() {
+        List<String> userIds = users(60);
+
+        Map<String, Double> perPair = new HashMap<>();
+        for (String userId : userIds) {
+            perPair.put(userId, mlClient.predict(userId, 10L));
+        }
+        int perPairRequests = server.getRequestCount();
+
+        Map<String, Double> batch = mlClient.predictUsers(userIds, 10L);
+        int batchRequests = server.getRequestCount() - perPairRequests;
+
+        assertEquals(60, perPairRequests);
+        assertEquals(3, batchRequests);
+        assertEquals(perPair, batch);
+    }
+
+    @Test
+    void predictUsers_shouldChunkUsers_evenWithSingleUser() throws InterruptedException {
+        Map<String, Double> result = mlClient.predictUsers(List.of("user2"), 10L);
+
+        assertEquals(Map.of("user2", score("user2")), result);
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/predict/batch", request.getPath());
+    }
+
+    @Test
+    void predictUsers_shouldCallPerPair_whenBatchIsDisabled() throws InterruptedException {
+        ReflectionTestUtils.setField(mlClient, "batchEnabled", false);
+
+        Map<String, Double> result = mlClient.predictUsers(users(3), 10L);
+
+        assertEquals(3, result.size());
+        assertEquals(3, server.getRequestCount());
+        assertTrue(server.takeRequest().getPath().startsWith("/predict?"));
+    }
+
+    @Test
+    void predictProperties_shouldScoreManyPropertiesForOneUser() throws InterruptedException {
+        Map<Long, Double> result = mlClient.predictProperties("user2", List.of(1L, 2L, 3L));
+
+        assertEquals(Map.of(1L, score("user2"), 2L, score("user2"), 3L, score("user2")), result);
+        assertEquals(1, server.getRequestCount());
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("POST", request.getMethod());
+        assertEquals("/predict/batch", request.getPath());
+    }
+
+    // casos de error
+
+    @Test
+    void predictUsers_shouldReturnEmpty_whenModelNotTrained() {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"error\": \"Modelo no entrenado aún\"}");
+            }
+        });
+
+        assertTrue(mlClient.predictUsers(List.of("user1"), 10L).isEmpty());
+    }
+
+    @Test
+    void predictUsers_shouldGiveUp_whenApiDoesNotAnswerInTime() {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("{\"predictions\": []}")
+                        .setHeadersDelay(3, TimeUnit.SECONDS);
+            }
+        });
+
+        long start = System.nanoTime();
+        Map<String, Double> result = mlClient.predictUsers(List.of("user1"), 10L);
+
+        assertTrue(result.isEmpty());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2500);
+    }
+}
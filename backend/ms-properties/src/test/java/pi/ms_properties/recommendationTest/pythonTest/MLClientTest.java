@@ -3,7 +3,6 @@ package pi.ms_properties.recommendationTest.pythonTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -21,7 +20,6 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class MLClientTest {
 
-    @InjectMocks
     private MLClient mlClient;
 
     @Mock
@@ -29,6 +27,7 @@ class MLClientTest {
 
     @BeforeEach
     void setup() {
+        mlClient = new MLClient(2000, 5000);
         ReflectionTestUtils.setField(mlClient, "restTemplate", restTemplate);
         ReflectionTestUtils.setField(mlClient, "mlApiUrl", "http://localhost:5000");
     }
@@ -8,8 +8,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import pi.ms_properties.recommendation.python.MLClient;
 import pi.ms_properties.recommendation.recommender.CollaborativeRecommender;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +42,19 @@ class CollaborativeRecommenderTest {
         verify(mlClient, times(1)).predict(userId, propertyId);
     }
 
+    @Test
+    void predictInterests_shouldDelegateToBatchPrediction() {
+        List<String> userIds = List.of("user1", "user2");
+
+        when(mlClient.predictUsers(userIds, 10L)).thenReturn(Map.of("user1", 0.9, "user2", 0.1));
+
+        Map<String, Double> result = collaborativeRecommender.predictInterests(userIds, 10L);
+
+        assertEquals(0.9, result.get("user1"));
+        verify(mlClient, times(1)).predictUsers(userIds, 10L);
+        verify(mlClient, never()).predict(any(), any());
+    }
+
     // casos de error
     @Test
     void predictInterest_shouldThrowException_whenMLClientFails() {
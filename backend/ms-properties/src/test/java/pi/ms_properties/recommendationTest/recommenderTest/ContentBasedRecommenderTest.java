@@ -3,7 +3,6 @@ package pi.ms_properties.recommendationTest.recommenderTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pi.ms_properties.domain.Neighborhood;
@@ -11,13 +10,12 @@ import pi.ms_properties.domain.Operation;
 import pi.ms_properties.domain.Property;
 import pi.ms_properties.domain.Type;
 import pi.ms_properties.dto.feign.FavoriteDTO;
+import pi.ms_properties.recommendation.index.PropertyFeatureIndex;
 import pi.ms_properties.recommendation.recommender.ContentBasedRecommender;
-import pi.ms_properties.repository.INeighborhoodRepository;
 import pi.ms_properties.repository.IPropertyRepository;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
@@ -28,10 +26,8 @@ class ContentBasedRecommenderTest {
     @Mock
     private IPropertyRepository propertyRepository;
 
-    @Mock
-    private INeighborhoodRepository neighborhoodRepository;
+    private PropertyFeatureIndex featureIndex;
 
-    @InjectMocks
     private ContentBasedRecommender contentBasedRecommender;
 
     private Neighborhood neighborhoodNueva;
@@ -43,6 +39,9 @@ class ContentBasedRecommenderTest {
 
     @BeforeEach
     void setUp() {
+        featureIndex = new PropertyFeatureIndex(propertyRepository);
+        contentBasedRecommender = new ContentBasedRecommender(featureIndex);
+
         neighborhoodNueva = new Neighborhood();
         neighborhoodNueva.setId(1L);
         neighborhoodNueva.setLatitude(-34.6);
@@ -60,12 +59,14 @@ class ContentBasedRecommenderTest {
         type2.setId(2L);
 
         nueva = new Property();
+        nueva.setId(1L);
         nueva.setNeighborhood(neighborhoodNueva);
         nueva.setType(type1);
         nueva.setOperation(Operation.VENTA);
         nueva.setPrice(BigDecimal.valueOf(150000.0));
 
         favProperty = new Property();
+        favProperty.setId(10L);
         favProperty.setNeighborhood(neighborhoodFav);
         favProperty.setType(type1);
         favProperty.setOperation(Operation.VENTA);
@@ -78,71 +79,95 @@ class ContentBasedRecommenderTest {
         return dto;
     }
 
+    private Property property(Long id, Neighborhood neighborhood, Type type, Operation operation, double price) {
+        Property property = new Property();
+        property.setId(id);
+        property.setNeighborhood(neighborhood);
+        property.setType(type);
+        property.setOperation(operation);
+        property.setPrice(BigDecimal.valueOf(price));
+        return property;
+    }
+
     // casos de exito
 
     @Test
     void calculate_shouldReturnCorrectScore_whenAllDataExists() {
-        List<FavoriteDTO> favs = List.of(createFavoriteDTO());
+        featureIndex.put(nueva);
+        featureIndex.put(favProperty);
 
-        when(neighborhoodRepository.findById(1L)).thenReturn(Optional.of(neighborhoodNueva));
-        when(propertyRepository.findById(10L)).thenReturn(Optional.of(favProperty));
-        when(neighborhoodRepository.findById(2L)).thenReturn(Optional.of(neighborhoodFav));
-
-        double result = contentBasedRecommender.calculate(nueva, favs);
+        double result = contentBasedRecommender.calculate(nueva, List.of(createFavoriteDTO()));
 
         assertEquals(0.7, result, 0.0001);
-
-        verify(neighborhoodRepository).findById(1L);
-        verify(propertyRepository).findById(10L);
-        verify(neighborhoodRepository).findById(2L);
+        verifyNoInteractions(propertyRepository);
     }
 
-    // casos de error
-
     @Test
-    void calculate_shouldReturnZero_whenNeighborhoodNuevaNotFound() {
-        List<FavoriteDTO> favs = List.of(createFavoriteDTO());
+    void calculate_shouldReturnBestScoreAmongFavorites() {
+        featureIndex.put(nueva);
+        featureIndex.put(favProperty);
+        featureIndex.put(property(11L, neighborhoodFav, type2, Operation.VENTA, 150000.0));
 
-        when(neighborhoodRepository.findById(1L)).thenReturn(Optional.empty());
+        ContentBasedRecommender.Context context = contentBasedRecommender.prepare(nueva);
 
-        double result = contentBasedRecommender.calculate(nueva, favs);
+        FavoriteDTO second = new FavoriteDTO(2L, "user2", 11L);
+        assertEquals(0.7, contentBasedRecommender.calculate(context, List.of(createFavoriteDTO())), 0.0001);
+        assertEquals(0.8, contentBasedRecommender.calculate(context, List.of(second)), 0.0001);
+        assertEquals(0.8, contentBasedRecommender.calculate(context, List.of(createFavoriteDTO(), second)), 0.0001);
+    }
 
-        assertEquals(0.0, result);
+    @Test
+    void calculate_shouldMatchPriceBandBoundaries() {
+        featureIndex.put(nueva);
+        featureIndex.put(property(20L, neighborhoodFav, type2, Operation.ALQUILER, 125000.0));
+        featureIndex.put(property(21L, neighborhoodFav, type2, Operation.ALQUILER, 187500.0));
+        featureIndex.put(property(22L, neighborhoodFav, type2, Operation.ALQUILER, 187500.01));
 
-        verify(neighborhoodRepository).findById(1L);
-        verifyNoInteractions(propertyRepository);
+        ContentBasedRecommender.Context context = contentBasedRecommender.prepare(nueva);
+
+        assertEquals(0.8, contentBasedRecommender.calculate(context, List.of(new FavoriteDTO(1L, "u", 20L))), 0.0001);
+        assertEquals(0.8, contentBasedRecommender.calculate(context, List.of(new FavoriteDTO(2L, "u", 21L))), 0.0001);
+        assertEquals(0.5, contentBasedRecommender.calculate(context, List.of(new FavoriteDTO(3L, "u", 22L))), 0.0001);
     }
 
     @Test
-    void calculate_shouldSkipFavorite_whenPropertyNotFound() {
-        List<FavoriteDTO> favs = List.of(createFavoriteDTO());
+    void calculate_shouldUseNewCoordinates_whenNeighborhoodMoves() {
+        featureIndex.put(nueva);
+        featureIndex.put(favProperty);
 
-        when(neighborhoodRepository.findById(1L)).thenReturn(Optional.of(neighborhoodNueva));
-        when(propertyRepository.findById(10L)).thenReturn(Optional.empty());
+        featureIndex.updateNeighborhood(2L, -31.42, -64.19);
 
-        double result = contentBasedRecommender.calculate(nueva, favs);
+        assertEquals(0.2, contentBasedRecommender.calculate(nueva, List.of(createFavoriteDTO())), 0.0001);
+    }
 
-        assertEquals(0.0, result);
+    // casos de error
 
-        verify(neighborhoodRepository).findById(1L);
-        verify(propertyRepository).findById(10L);
-        verify(neighborhoodRepository, never()).findById(2L);
+    @Test
+    void calculate_shouldReturnZero_whenNuevaNotIndexed() {
+        featureIndex.put(favProperty);
+
+        double result = contentBasedRecommender.calculate(nueva, List.of(createFavoriteDTO()));
+
+        assertEquals(0.0, result);
     }
 
     @Test
-    void calculate_shouldSkipFavorite_whenNeighborhoodFavNotFound() {
-        List<FavoriteDTO> favs = List.of(createFavoriteDTO());
+    void calculate_shouldSkipFavorite_whenPropertyNotIndexed() {
+        featureIndex.put(nueva);
 
-        when(neighborhoodRepository.findById(1L)).thenReturn(Optional.of(neighborhoodNueva));
-        when(propertyRepository.findById(10L)).thenReturn(Optional.of(favProperty));
-        when(neighborhoodRepository.findById(2L)).thenReturn(Optional.empty());
-
-        double result = contentBasedRecommender.calculate(nueva, favs);
+        double result = contentBasedRecommender.calculate(nueva, List.of(createFavoriteDTO()));
 
         assertEquals(0.0, result);
+    }
+
+    @Test
+    void calculate_shouldSkipFavorite_whenPropertyRemoved() {
+        featureIndex.put(nueva);
+        featureIndex.put(favProperty);
+        featureIndex.remove(10L);
+
+        double result = contentBasedRecommender.calculate(nueva, List.of(createFavoriteDTO()));
 
-        verify(neighborhoodRepository).findById(1L);
-        verify(propertyRepository).findById(10L);
-        verify(neighborhoodRepository).findById(2L);
+        assertEquals(0.0, result);
     }
 }
@@ -3,7 +3,6 @@ package pi.ms_properties.recommendationTest.serviceTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pi.ms_properties.domain.Property;
@@ -15,9 +14,14 @@ import pi.ms_properties.recommendation.service.RecommendationService;
 import pi.ms_properties.repository.feign.FavoriteRepository;
 import pi.ms_properties.repository.feign.NotificationRepository;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,135 +39,183 @@ class RecommendationServiceTest {
     @Mock
     private FavoriteRepository favoriteRepository;
 
-    @InjectMocks
     private RecommendationService recommendationService;
 
+    private final List<Runnable> submitted = new ArrayList<>();
+
     private Property newProperty;
 
+    private ContentBasedRecommender.Context context;
+
     @BeforeEach
     void setUp() {
+        recommendationService = new RecommendationService(contentRecommender, collaborativeRecommender,
+                notificationRepository, favoriteRepository, submitted::add, Runnable::run);
+
         newProperty = new Property();
         newProperty.setId(100L);
+
+        context = new ContentBasedRecommender.Context(newProperty, null, -1);
     }
 
-    @Test
-    void evaluateNewProperty_shouldNotifyUsersWithScoreAboveThreshold() {
-        List<String> userIds = List.of("user1", "user2", "user3");
-        when(favoriteRepository.findAllUserIds()).thenReturn(userIds);
+    // casos de exito
 
-        List<FavoriteDTO> favsUser1 = List.of(new FavoriteDTO(10L, "user1", 100L));
-        List<FavoriteDTO> favsUser2 = List.of(new FavoriteDTO(20L, "user2", 100L));
-        List<FavoriteDTO> favsUser3 = List.of();
+    @Test
+    void evaluateNewProperty_shouldRunOffCallerThread() {
+        recommendationService.evaluateNewProperty(newProperty);
 
-        when(favoriteRepository.getFavorites("user1")).thenReturn(favsUser1);
-        when(favoriteRepository.getFavorites("user2")).thenReturn(favsUser2);
-        when(favoriteRepository.getFavorites("user3")).thenReturn(favsUser3);
+        assertEquals(1, submitted.size());
+        verifyNoInteractions(favoriteRepository, contentRecommender, collaborativeRecommender, notificationRepository);
 
-        when(contentRecommender.calculate(newProperty, favsUser1)).thenReturn(0.8);
-        when(collaborativeRecommender.predictInterest("user1", newProperty.getId())).thenReturn(0.6);
+        when(favoriteRepository.getAllFavoritesByUser()).thenReturn(Map.of());
+        submitted.getFirst().run();
 
-        when(contentRecommender.calculate(newProperty, favsUser2)).thenReturn(0.5);
-        when(collaborativeRecommender.predictInterest("user2", newProperty.getId())).thenReturn(0.4);
+        verify(favoriteRepository).getAllFavoritesByUser();
+    }
 
-        when(collaborativeRecommender.predictInterest("user3", newProperty.getId())).thenReturn(0.0);
+    @Test
+    void evaluateNewProperty_shouldSwallowErrorsInBackground() {
+        when(favoriteRepository.getAllFavoritesByUser()).thenThrow(new RuntimeException("Feign error"));
 
         recommendationService.evaluateNewProperty(newProperty);
 
-        verify(notificationRepository).createPropertyInterest("user1", NotificationType.PROPIEDADINTERES, newProperty.getId());
-        verify(notificationRepository, never()).createPropertyInterest(eq("user2"), any(), any());
-        verify(notificationRepository, never()).createPropertyInterest(eq("user3"), any(), any());
+        assertDoesNotThrow(() -> submitted.getFirst().run());
+        verifyNoInteractions(notificationRepository);
     }
 
     @Test
-    void evaluateNewProperty_shouldNotNotifySameUserTwice() {
-        List<String> userIds = List.of("user1", "user1");
-        when(favoriteRepository.findAllUserIds()).thenReturn(userIds);
+    void evaluate_shouldNotifyUsersWithScoreAboveThreshold() {
+        List<FavoriteDTO> favsUser1 = List.of(new FavoriteDTO(10L, "user1", 1L));
+        List<FavoriteDTO> favsUser2 = List.of(new FavoriteDTO(20L, "user2", 2L), new FavoriteDTO(21L, "user2", 1L));
+        Map<String, List<FavoriteDTO>> favorites = new LinkedHashMap<>();
+        favorites.put("user1", favsUser1);
+        favorites.put("user2", favsUser2);
 
-        List<FavoriteDTO> favs = List.of(new FavoriteDTO(10L, "user1", 100L));
+        when(favoriteRepository.getAllFavoritesByUser()).thenReturn(favorites);
+        when(contentRecommender.prepare(newProperty)).thenReturn(context);
 
-        when(favoriteRepository.getFavorites("user1")).thenReturn(favs);
-        when(contentRecommender.calculate(newProperty, favs)).thenReturn(0.8);
-        when(collaborativeRecommender.predictInterest("user1", newProperty.getId())).thenReturn(0.8);
+        when(collaborativeRecommender.predictInterests(favorites.keySet(), 100L))
+                .thenReturn(Map.of("user1", 0.6, "user2", 0.4));
 
-        recommendationService.evaluateNewProperty(newProperty);
+        when(contentRecommender.calculate(context, favsUser1)).thenReturn(0.8);
+        when(contentRecommender.calculate(context, favsUser2)).thenReturn(0.5);
+
+        recommendationService.evaluate(newProperty);
 
-        verify(notificationRepository, times(1))
-                .createPropertyInterest("user1", NotificationType.PROPIEDADINTERES, newProperty.getId());
+        verify(contentRecommender, times(1)).prepare(newProperty);
+        verify(collaborativeRecommender, times(1)).predictInterests(favorites.keySet(), 100L);
+        verify(collaborativeRecommender, never()).predictInterest(any(), any());
+        verify(notificationRepository).createPropertyInterest("user1", NotificationType.PROPIEDADINTERES, 100L);
+        verify(notificationRepository, never()).createPropertyInterest(eq("user2"), any(), any());
     }
 
-    // casos de error
+    @Test
+    void evaluate_shouldTreatInvalidMlScoreAsZero() {
+        List<FavoriteDTO> favs = List.of(new FavoriteDTO(10L, "user1", 1L));
+
+        when(favoriteRepository.getAllFavoritesByUser()).thenReturn(Map.of("user1", favs));
+        when(contentRecommender.prepare(newProperty)).thenReturn(context);
+        when(collaborativeRecommender.predictInterests(Set.of("user1"), 100L)).thenReturn(Map.of("user1", Double.NaN));
+        when(contentRecommender.calculate(context, favs)).thenReturn(1.0);
+
+        recommendationService.evaluate(newProperty);
+
+        verifyNoInteractions(notificationRepository);
+    }
 
     @Test
-    void evaluateNewProperty_shouldThrow_whenFavoriteRepositoryFails() {
-        when(favoriteRepository.findAllUserIds())
-                .thenThrow(new RuntimeException("DB error"));
+    void evaluate_shouldTreatMissingMlScoreAsZero() {
+        List<FavoriteDTO> favs = List.of(new FavoriteDTO(10L, "user1", 1L));
 
-        assertThrows(RuntimeException.class, () -> recommendationService.evaluateNewProperty(newProperty));
+        when(favoriteRepository.getAllFavoritesByUser()).thenReturn(Map.of("user1", favs));
+        when(contentRecommender.prepare(newProperty)).thenReturn(context);
+        when(collaborativeRecommender.predictInterests(Set.of("user1"), 100L)).thenReturn(Map.of());
+        when(contentRecommender.calculate(context, favs)).thenReturn(1.0);
 
-        verify(favoriteRepository).findAllUserIds();
-        verifyNoInteractions(contentRecommender, collaborativeRecommender, notificationRepository);
+        recommendationService.evaluate(newProperty);
+
+        verifyNoInteractions(notificationRepository);
     }
 
     @Test
-    void evaluateNewProperty_shouldThrow_whenContentRecommenderFails() {
-        List<String> userIds = List.of("user1");
-        when(favoriteRepository.findAllUserIds()).thenReturn(userIds);
+    void evaluate_shouldDoNothing_whenNoFavorites() {
+        when(favoriteRepository.getAllFavoritesByUser()).thenReturn(Map.of());
 
-        List<FavoriteDTO> favs = List.of(new FavoriteDTO(10L, "user1", 100L));
-        when(favoriteRepository.getFavorites("user1")).thenReturn(favs);
+        recommendationService.evaluate(newProperty);
 
-        when(contentRecommender.calculate(newProperty, favs))
-                .thenThrow(new RuntimeException("Content Recommender error"));
+        verifyNoInteractions(contentRecommender, collaborativeRecommender, notificationRepository);
+    }
 
-        assertThrows(RuntimeException.class, () -> recommendationService.evaluateNewProperty(newProperty));
+    // casos de error
+
+    @Test
+    void evaluateNewProperty_shouldThrow_whenExecutorRejects() {
+        recommendationService = new RecommendationService(contentRecommender, collaborativeRecommender,
+                notificationRepository, favoriteRepository,
+                task -> { throw new RejectedExecutionException("cola llena"); }, Runnable::run);
 
-        verify(favoriteRepository).findAllUserIds();
-        verify(favoriteRepository).getFavorites("user1");
-        verify(contentRecommender).calculate(newProperty, favs);
-        verifyNoInteractions(collaborativeRecommender, notificationRepository);
+        assertThrows(RejectedExecutionException.class, () -> recommendationService.evaluateNewProperty(newProperty));
     }
 
     @Test
-    void evaluateNewProperty_shouldThrow_whenCollaborativeRecommenderFails() {
-        List<String> userIds = List.of("user1");
-        when(favoriteRepository.findAllUserIds()).thenReturn(userIds);
+    void evaluate_shouldThrow_whenFavoriteRepositoryFails() {
+        when(favoriteRepository.getAllFavoritesByUser())
+                .thenThrow(new RuntimeException("DB error"));
 
-        List<FavoriteDTO> favs = List.of(new FavoriteDTO(10L, "user1", 100L));
-        when(favoriteRepository.getFavorites("user1")).thenReturn(favs);
+        assertThrows(RuntimeException.class, () -> recommendationService.evaluate(newProperty));
 
-        when(contentRecommender.calculate(newProperty, favs)).thenReturn(0.8);
-        when(collaborativeRecommender.predictInterest("user1", newProperty.getId()))
-                .thenThrow(new RuntimeException("Collaborative Recommender error"));
+        verifyNoInteractions(contentRecommender, collaborativeRecommender, notificationRepository);
+    }
+
+    @Test
+    void evaluate_shouldThrow_whenContentRecommenderFails() {
+        List<FavoriteDTO> favs = List.of(new FavoriteDTO(10L, "user1", 1L));
+        when(favoriteRepository.getAllFavoritesByUser()).thenReturn(Map.of("user1", favs));
+        when(contentRecommender.prepare(newProperty)).thenReturn(context);
+        when(collaborativeRecommender.predictInterests(Set.of("user1"), 100L)).thenReturn(Map.of("user1", 0.8));
+        when(contentRecommender.calculate(context, favs))
+                .thenThrow(new RuntimeException("Content Recommender error"));
 
-        assertThrows(RuntimeException.class, () -> recommendationService.evaluateNewProperty(newProperty));
+        assertThrows(RuntimeException.class, () -> recommendationService.evaluate(newProperty));
 
-        verify(favoriteRepository).findAllUserIds();
-        verify(favoriteRepository).getFavorites("user1");
-        verify(contentRecommender).calculate(newProperty, favs);
-        verify(collaborativeRecommender).predictInterest("user1", newProperty.getId());
         verifyNoInteractions(notificationRepository);
     }
 
     @Test
-    void evaluateNewProperty_shouldThrow_whenNotificationRepositoryFails() {
-        List<String> userIds = List.of("user1");
-        when(favoriteRepository.findAllUserIds()).thenReturn(userIds);
+    void evaluate_shouldKeepScoringOtherUsers_whenOneFails() {
+        List<FavoriteDTO> favsUser1 = List.of(new FavoriteDTO(10L, "user1", 1L));
+        List<FavoriteDTO> favsUser2 = List.of(new FavoriteDTO(20L, "user2", 1L));
+        Map<String, List<FavoriteDTO>> favorites = new LinkedHashMap<>();
+        favorites.put("user1", favsUser1);
+        favorites.put("user2", favsUser2);
+
+        when(favoriteRepository.getAllFavoritesByUser()).thenReturn(favorites);
+        when(contentRecommender.prepare(newProperty)).thenReturn(context);
+        when(collaborativeRecommender.predictInterests(favorites.keySet(), 100L))
+                .thenReturn(Map.of("user1", 0.8, "user2", 0.8));
+        when(contentRecommender.calculate(context, favsUser1))
+                .thenThrow(new RuntimeException("Content Recommender error"));
+        when(contentRecommender.calculate(context, favsUser2)).thenReturn(0.8);
 
-        List<FavoriteDTO> favs = List.of(new FavoriteDTO(10L, "user1", 100L));
-        when(favoriteRepository.getFavorites("user1")).thenReturn(favs);
+        assertThrows(RuntimeException.class, () -> recommendationService.evaluate(newProperty));
 
-        when(contentRecommender.calculate(newProperty, favs)).thenReturn(0.8);
-        when(collaborativeRecommender.predictInterest("user1", newProperty.getId())).thenReturn(0.8);
+        verify(notificationRepository).createPropertyInterest("user2", NotificationType.PROPIEDADINTERES, 100L);
+        verify(notificationRepository, never()).createPropertyInterest(eq("user1"), any(), any());
+    }
+
+    @Test
+    void evaluate_shouldThrow_whenNotificationRepositoryFails() {
+        List<FavoriteDTO> favs = List.of(new FavoriteDTO(10L, "user1", 1L));
+        when(favoriteRepository.getAllFavoritesByUser()).thenReturn(Map.of("user1", favs));
+        when(contentRecommender.prepare(newProperty)).thenReturn(context);
+        when(collaborativeRecommender.predictInterests(Set.of("user1"), 100L)).thenReturn(Map.of("user1", 0.8));
+        when(contentRecommender.calculate(context, favs)).thenReturn(0.8);
 
         doThrow(new RuntimeException("Notification error"))
-                .when(notificationRepository).createPropertyInterest("user1", NotificationType.PROPIEDADINTERES, newProperty.getId());
+                .when(notificationRepository).createPropertyInterest("user1", NotificationType.PROPIEDADINTERES, 100L);
 
-        assertThrows(RuntimeException.class, () -> recommendationService.evaluateNewProperty(newProperty));
+        assertThrows(RuntimeException.class, () -> recommendationService.evaluate(newProperty));
 
-        verify(favoriteRepository).findAllUserIds();
-        verify(favoriteRepository).getFavorites("user1");
-        verify(contentRecommender).calculate(newProperty, favs);
-        verify(collaborativeRecommender).predictInterest("user1", newProperty.getId());
-        verify(notificationRepository).createPropertyInterest("user1", NotificationType.PROPIEDADINTERES, newProperty.getId());
+        verify(notificationRepository).createPropertyInterest("user1", NotificationType.PROPIEDADINTERES, 100L);
     }
 }
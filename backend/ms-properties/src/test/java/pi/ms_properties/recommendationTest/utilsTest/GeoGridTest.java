@@ -0,0 +1,79 @@
+package pi.ms_properties.recommendationTest.utilsTest;
+
+import org.junit.jupiter.api.Test;
+import pi.ms_properties.recommendation.utils.GeoGrid;
+import pi.ms_properties.recommendation.utils.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeoGridTest {
+    @Test
+    public void testWithin_ShouldMatchBruteForce() {
+        Random random = new Random(7);
+        int size = 2000;
+        double[] lats = new double[size];
+        double[] lons = new double[size];
+        for (int i = 0; i < size; i++) {
+            lats[i] = -35 + random.nextDouble() * 1.5;
+            lons[i] = -59 + random.nextDouble() * 1.5;
+        }
+
+        GeoGrid grid = GeoGrid.build(lats, lons, size, 0.1);
+
+        for (double radius : new double[]{0.5, 5, 15, 80, 500}) {
+            List<Integer> esperado = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (GeoUtils.haversine(-34.6, -58.4, lats[i], lons[i]) <= radius) esperado.add(i);
+            }
+
+            int[] resultado = grid.within(-34.6, -58.4, radius);
+
+            assertEquals(esperado.size(), resultado.length, "Radio " + radius);
+            for (int slot : resultado) assertTrue(esperado.contains(slot));
+        }
+    }
+
+    @Test
+    public void testWithin_ShouldSortByDistance() {
+        double[] lats = {-34.70, -34.61, -34.65};
+        double[] lons = {-58.40, -58.40, -58.40};
+
+        GeoGrid grid = GeoGrid.build(lats, lons, 3, 0.1);
+
+        assertArrayEquals(new int[]{1, 2, 0}, grid.within(-34.6, -58.4, 20));
+    }
+
+    @Test
+    public void testWithin_ShouldIgnoreSlotsBeyondSize() {
+        double[] lats = {-34.6, -34.6};
+        double[] lons = {-58.4, -58.4};
+
+        GeoGrid grid = GeoGrid.build(lats, lons, 1, 0.1);
+
+        assertArrayEquals(new int[]{0}, grid.within(-34.6, -58.4, 1));
+        assertEquals(1, grid.cellCount());
+    }
+
+    @Test
+    public void testWithin_ShouldCrossCellBorders() {
+        // puntos a ambos lados del borde de celda en -34.6
+        double[] lats = {-34.599, -34.601};
+        double[] lons = {-58.4, -58.4};
+
+        GeoGrid grid = GeoGrid.build(lats, lons, 2, 0.1);
+
+        assertEquals(2, grid.cellCount());
+        assertEquals(2, grid.within(-34.599, -58.4, 1).length);
+    }
+
+    @Test
+    public void testWithin_EmptyGrid_ShouldReturnEmpty() {
+        GeoGrid grid = GeoGrid.build(new double[0], new double[0], 0, 0.1);
+
+        assertEquals(0, grid.within(-34.6, -58.4, 100).length);
+    }
+}
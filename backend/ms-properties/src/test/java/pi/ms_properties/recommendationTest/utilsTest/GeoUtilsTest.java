@@ -32,4 +32,21 @@ public class GeoUtilsTest {
 
         assertEquals(dist1, dist2, 0.0001, "La distancia debería ser simétrica");
     }
+
+    @Test
+    public void testWithinDistance_ShouldMatchHaversine() {
+        double[][] puntos = {
+                {-34.6037, -58.3816}, {-34.61, -58.41}, {-34.70, -58.50}, {-34.72, -58.26}, {-31.4201, -64.1888}
+        };
+
+        for (double[] a : puntos) {
+            for (double[] b : puntos) {
+                boolean esperado = GeoUtils.haversine(a[0], a[1], b[0], b[1]) <= 15.0;
+                boolean resultado = GeoUtils.withinDistance(
+                        Math.toRadians(a[0]), Math.toRadians(a[1]), Math.cos(Math.toRadians(a[0])),
+                        Math.toRadians(b[0]), Math.toRadians(b[1]), Math.cos(Math.toRadians(b[0])), 15.0);
+                assertEquals(esperado, resultado);
+            }
+        }
+    }
 }
@@ -10,9 +10,13 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import pi.ms_properties.comparer.service.FilterVocabulary;
 import pi.ms_properties.domain.Amenity;
 import pi.ms_properties.repository.IAmenityRepository;
 import pi.ms_properties.service.impl.AmenityService;
+import pi.ms_properties.service.impl.ChatFactsCache;
+import pi.ms_properties.service.impl.PropertyFacetIndex;
+import pi.ms_properties.service.impl.PropertyTextIndex;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,6 +33,18 @@ public class AmenityServiceTest {
     @Mock
     private IAmenityRepository amenityRepository;
 
+    @Mock
+    private PropertyTextIndex propertyTextIndex;
+
+    @Mock
+    private PropertyFacetIndex propertyFacetIndex;
+
+    @Mock
+    private FilterVocabulary filterVocabulary;
+
+    @Mock
+    private ChatFactsCache chatFactsCache;
+
     @InjectMocks
     private AmenityService amenityService;
 
@@ -43,6 +59,7 @@ public class AmenityServiceTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Se ha guardado correctamente el servicio: WiFi", response.getBody());
         verify(amenityRepository).save(any(Amenity.class));
+        verify(filterVocabulary).refreshAmenities();
     }
 
     @Test
@@ -55,6 +72,8 @@ public class AmenityServiceTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Se ha eliminado el servicio correctamente", response.getBody());
         verify(amenityRepository).deleteById(id);
+        verify(filterVocabulary).refreshAmenities();
+        verify(chatFactsCache).invalidateAll();
     }
 
     @Test
@@ -69,6 +88,10 @@ public class AmenityServiceTest {
         assertEquals("Pileta", result.getName());
         assertEquals(1L, result.getId());
         verify(amenityRepository).save(amenity);
+        verify(propertyTextIndex).updateAmenity(1L, "Pileta");
+        verify(propertyFacetIndex).rebuild();
+        verify(filterVocabulary).refreshAmenities();
+        verify(chatFactsCache).invalidateAll();
     }
 
     @Test
@@ -2,8 +2,11 @@ package pi.ms_properties.serviceTest;
 
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobClient;
-import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.models.BlobProperties;
 import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import com.azure.storage.blob.specialized.BlobInputStream;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -39,14 +42,19 @@ class AzureBlobStorageServiceTest {
         storage.setInputStream(new ByteArrayInputStream(new byte[0]));
 
         when(blobContainerClient.getBlobClient("folder/image.png")).thenReturn(blobClient);
-        when(blobClient.exists()).thenReturn(false);
         when(blobClient.getBlobUrl()).thenReturn("https://storageimages.blob.core.windows.net/images/folder/image.png");
 
         String url = azureBlobStorage.create(storage);
 
         assertEquals("https://storageimages.blob.core.windows.net/images/folder/image.png", url);
-        verify(blobClient).upload(any(), eq(123L), eq(false));
-        verify(blobClient).setHttpHeaders(any(BlobHttpHeaders.class));
+
+        // el content-type y la condicion de que no exista viajan en la misma llamada de subida
+        ArgumentCaptor<BlobParallelUploadOptions> captor = ArgumentCaptor.forClass(BlobParallelUploadOptions.class);
+        verify(blobClient).uploadWithResponse(captor.capture(), isNull(), any());
+        assertEquals("image/png", captor.getValue().getHeaders().getContentType());
+        assertEquals("*", captor.getValue().getRequestConditions().getIfNoneMatch());
+        verify(blobClient, never()).exists();
+        verify(blobClient, never()).setHttpHeaders(any());
     }
 
     @Test
@@ -69,16 +77,53 @@ class AzureBlobStorageServiceTest {
         assertEquals("https://storageimages.blob.core.windows.net/images/foto.png", url);
     }
 
+    @Test
+    void getImagePath_success() {
+        when(blobContainerClient.getBlobContainerUrl()).thenReturn("https://storageimages.blob.core.windows.net/images");
+
+        assertEquals("foto.png", azureBlobStorage.getImagePath("https://storageimages.blob.core.windows.net/images/foto.png"));
+        assertEquals("foto.png", azureBlobStorage.getImagePath("foto.png"));
+    }
+
+    @Test
+    void read_success() {
+        BlobProperties properties = mock(BlobProperties.class);
+        BlobInputStream inputStream = mock(BlobInputStream.class);
+        when(blobContainerClient.getBlobClient("foto.png")).thenReturn(blobClient);
+        when(blobClient.getProperties()).thenReturn(properties);
+        when(blobClient.openInputStream()).thenReturn(inputStream);
+        when(properties.getBlobSize()).thenReturn(42L);
+        when(properties.getContentType()).thenReturn("image/png");
+
+        Storage storage = azureBlobStorage.read("foto.png");
+
+        assertSame(inputStream, storage.getInputStream());
+        assertEquals(42L, storage.getSize());
+        assertEquals("image/png", storage.getContentType());
+    }
+
     // casos de error
 
+    @Test
+    void read_blobNotFound_throwsNotFound() {
+        BlobStorageException exception = mock(BlobStorageException.class);
+        when(exception.getStatusCode()).thenReturn(404);
+        when(blobContainerClient.getBlobClient("noexiste.png")).thenReturn(blobClient);
+        when(blobClient.getProperties()).thenThrow(exception);
+
+        assertThrows(EntityNotFoundException.class, () -> azureBlobStorage.read("noexiste.png"));
+        verify(blobClient, never()).openInputStream();
+    }
+
     @Test
     void create_alreadyExists_throwsException() {
         Storage storage = new Storage();
         storage.setPath("duplicate.png");
         storage.setInputStream(new ByteArrayInputStream(new byte[0]));
 
+        BlobStorageException conflict = mock(BlobStorageException.class);
         when(blobContainerClient.getBlobClient("duplicate.png")).thenReturn(blobClient);
-        when(blobClient.exists()).thenReturn(true);
+        when(blobClient.uploadWithResponse(any(BlobParallelUploadOptions.class), isNull(), any())).thenThrow(conflict);
 
         RuntimeException ex = assertThrows(RuntimeException.class, () -> azureBlobStorage.create(storage));
         assertTrue(ex.getMessage().contains("Error al cargar la imagen"));
@@ -93,8 +138,8 @@ class AzureBlobStorageServiceTest {
         storage.setInputStream(new ByteArrayInputStream(new byte[0]));
 
         when(blobContainerClient.getBlobClient("error.png")).thenReturn(blobClient);
-        when(blobClient.exists()).thenReturn(false);
-        doThrow(new RuntimeException("Falla en upload")).when(blobClient).upload(any(), eq(1L), eq(false));
+        when(blobClient.uploadWithResponse(any(BlobParallelUploadOptions.class), isNull(), any()))
+                .thenThrow(new RuntimeException("Falla en upload"));
 
         RuntimeException ex = assertThrows(RuntimeException.class, () -> azureBlobStorage.create(storage));
         assertTrue(ex.getMessage().contains("Error al cargar la imagen"));
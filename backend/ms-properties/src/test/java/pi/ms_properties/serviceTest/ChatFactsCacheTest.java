@@ -0,0 +1,156 @@
+package pi.ms_properties.serviceTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pi.ms_properties.domain.Currency;
+import pi.ms_properties.domain.NeighborhoodType;
+import pi.ms_properties.domain.Operation;
+import pi.ms_properties.repository.IPropertyRepository;
+import pi.ms_properties.service.impl.ChatFactsCache;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatFactsCacheTest {
+
+    @Mock
+    private IPropertyRepository propertyRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private ChatFactsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ChatFactsCache(propertyRepository, meterRegistry, 2);
+    }
+
+    private static List<Object[]> row(BigDecimal price) {
+        return Collections.singletonList(new Object[]{
+                price, Currency.USD, true, BigDecimal.valueOf(5000),
+                100f, 80f, 4f, 2f, 1f,
+                Operation.VENTA, "Córdoba", "Centro", NeighborhoodType.ABIERTO,
+                true, false});
+    }
+
+    private void stubProperty(Long id, BigDecimal price) {
+        when(propertyRepository.findChatFactsById(id)).thenReturn(row(price));
+        when(propertyRepository.findAmenityNamesById(id)).thenReturn(List.of("Cochera", "Pileta"));
+    }
+
+    // casos de exito
+
+    @Test
+    void get_shouldMapProjection() {
+        stubProperty(1L, BigDecimal.valueOf(100000));
+
+        ChatFactsCache.ChatFacts facts = cache.get(1L);
+
+        assertEquals(BigDecimal.valueOf(100000), facts.price());
+        assertEquals(Currency.USD, facts.currency());
+        assertEquals(80f, facts.coveredArea());
+        assertEquals(Operation.VENTA, facts.operation());
+        assertEquals("Centro", facts.neighborhood());
+        assertEquals(NeighborhoodType.ABIERTO, facts.neighborhoodType());
+        assertFalse(facts.credit());
+        assertEquals(List.of("Cochera", "Pileta"), facts.amenities());
+    }
+
+    @Test
+    void get_shouldQueryOnce_forRepeatedMessages() {
+        stubProperty(1L, BigDecimal.valueOf(100000));
+
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(1L);
+
+        verify(propertyRepository, times(1)).findChatFactsById(1L);
+        verify(propertyRepository, times(1)).findAmenityNamesById(1L);
+        verify(propertyRepository, never()).findById(any());
+        assertEquals(2, meterRegistry.get("chat.facts.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void invalidate_shouldReloadOnlyThatProperty() {
+        stubProperty(1L, BigDecimal.valueOf(100000));
+        stubProperty(2L, BigDecimal.valueOf(200000));
+        cache.get(1L);
+        cache.get(2L);
+
+        cache.invalidate(1L);
+        cache.get(1L);
+        cache.get(2L);
+
+        verify(propertyRepository, times(2)).findChatFactsById(1L);
+        verify(propertyRepository, times(1)).findChatFactsById(2L);
+    }
+
+    @Test
+    void invalidateAll_shouldReloadEveryProperty() {
+        stubProperty(1L, BigDecimal.valueOf(100000));
+        cache.get(1L);
+
+        cache.invalidateAll();
+
+        assertEquals(0, cache.size());
+        cache.get(1L);
+        verify(propertyRepository, times(2)).findChatFactsById(1L);
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsed() {
+        stubProperty(1L, BigDecimal.ONE);
+        stubProperty(2L, BigDecimal.TWO);
+        stubProperty(3L, BigDecimal.TEN);
+
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(1L);
+        cache.get(3L);
+
+        assertEquals(2, cache.size());
+        cache.get(1L);
+        verify(propertyRepository, times(1)).findChatFactsById(1L);
+        assertEquals(1, meterRegistry.get("chat.facts.cache.evictions").counter().count());
+    }
+
+    @Test
+    void get_shouldNotStore_whenInvalidatedWhileLoading() {
+        when(propertyRepository.findChatFactsById(1L)).thenAnswer(invocation -> {
+            // la propiedad se edita mientras se leian sus datos
+            cache.invalidate(1L);
+            return row(BigDecimal.ONE);
+        });
+        when(propertyRepository.findAmenityNamesById(1L)).thenReturn(List.of());
+
+        assertEquals(BigDecimal.ONE, cache.get(1L).price());
+
+        assertEquals(0, cache.size());
+    }
+
+    // casos de error
+
+    @Test
+    void get_shouldThrowNotFound_whenPropertyDoesNotExist() {
+        when(propertyRepository.findChatFactsById(9L)).thenReturn(List.of());
+
+        EntityNotFoundException ex = assertThrows(EntityNotFoundException.class, () -> cache.get(9L));
+
+        assertEquals("No se ha encontrado la propiedad.", ex.getMessage());
+        assertEquals(0, cache.size());
+        verify(propertyRepository, never()).findAmenityNamesById(any());
+    }
+}
@@ -6,12 +6,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import pi.ms_properties.domain.*;
 import pi.ms_properties.dto.feign.AgentChatDTO;
 import pi.ms_properties.repository.IAgentAssignmentRepository;
 import pi.ms_properties.repository.IChatSessionRepository;
-import pi.ms_properties.repository.IPropertyRepository;
 import pi.ms_properties.repository.feign.AgentChatRepository;
+import pi.ms_properties.service.impl.ChatFactsCache;
 import pi.ms_properties.service.impl.ChatService;
 import pi.ms_properties.service.interf.IAgentAssignService;
 import pi.ms_properties.service.interf.IChatDerivationService;
@@ -35,7 +36,7 @@ import static org.mockito.Mockito.*;
         private ChatService chatService;
 
         @Mock
-        private IPropertyRepository propertyRepository;
+        private ChatFactsCache chatFactsCache;
 
         @Mock
         private IChatDerivationService chatDerivationService;
@@ -91,22 +92,44 @@ import static org.mockito.Mockito.*;
             chatSession.setId(1L);
         }
 
+        // se arma en cada llamada para que los cambios a property dentro de un test se reflejen
+        private void stubFacts() {
+            when(chatFactsCache.get(1L)).thenAnswer(invocation -> new ChatFactsCache.ChatFacts(
+                    property.getPrice(), property.getCurrency(), property.getShowPrice(), property.getExpenses(),
+                    property.getArea(), property.getCoveredArea(), property.getRooms(), property.getBedrooms(),
+                    property.getBathrooms(), property.getOperation(), property.getNeighborhood().getCity(),
+                    property.getNeighborhood().getName(), property.getNeighborhood().getType(),
+                    property.getFinancing(), property.getCredit(),
+                    property.getAmenities().stream().map(Amenity::getName).sorted().toList()));
+        }
+
         // casos de exito
 
         @Test
         void testResponseToUserMessage_VerPrecio_Success() {
-            when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-            when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
-
+            stubFacts();
+    
             String response = chatService.responseToUserMessage(ChatOption.VER_PRECIO, 1L, 1L);
 
             assertTrue(response.contains("El precio de la propiedad es"));
             verify(chatMessageService).create(any(ChatMessage.class));
         }
+
+    @Test
+    void testResponseToUserMessage_InfoOption_ShouldNotReadSession() {
+        stubFacts();
+        when(chatSessionRepository.getReferenceById(1L)).thenReturn(chatSession);
+
+        chatService.responseToUserMessage(ChatOption.VER_AREA, 1L, 1L);
+
+        ArgumentCaptor<ChatMessage> captor = ArgumentCaptor.forClass(ChatMessage.class);
+        verify(chatMessageService).create(captor.capture());
+        assertSame(chatSession, captor.getValue().getChatSession());
+        verify(chatSessionRepository, never()).findById(any());
+    }
     @Test
     void testResponseToUserMessage_VerArea_Success() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         String response = chatService.responseToUserMessage(ChatOption.VER_AREA, 1L, 1L);
 
@@ -116,8 +139,7 @@ import static org.mockito.Mockito.*;
 
     @Test
     void testResponseToUserMessage_VerHabitaciones_Success() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         String response = chatService.responseToUserMessage(ChatOption.VER_HABITACIONES, 1L, 1L);
 
@@ -128,8 +150,7 @@ import static org.mockito.Mockito.*;
     @Test
     void testResponseToUserMessage_VerOperacion_Success() {
         property.setOperation(Operation.VENTA);
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         String response = chatService.responseToUserMessage(ChatOption.VER_OPERACION, 1L, 1L);
 
@@ -139,8 +160,7 @@ import static org.mockito.Mockito.*;
 
     @Test
     void testResponseToUserMessage_VerUbicacion_Success() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         String response = chatService.responseToUserMessage(ChatOption.VER_UBICACION, 1L, 1L);
 
@@ -150,8 +170,7 @@ import static org.mockito.Mockito.*;
 
     @Test
     void testResponseToUserMessage_VerFinanciacion_Success() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         String response = chatService.responseToUserMessage(ChatOption.VER_FINANCIACION, 1L, 1L);
 
@@ -161,8 +180,7 @@ import static org.mockito.Mockito.*;
 
     @Test
     void testResponseToUserMessage_VerCredito_Success() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         String response = chatService.responseToUserMessage(ChatOption.VER_CREDITO, 1L, 1L);
 
@@ -172,8 +190,7 @@ import static org.mockito.Mockito.*;
 
     @Test
     void testResponseToUserMessage_VerCaracteristicas_Success() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         String response = chatService.responseToUserMessage(ChatOption.VER_CARACTERISTICAS, 1L, 1L);
 
@@ -183,7 +200,7 @@ import static org.mockito.Mockito.*;
 
     @Test
     void testResponseToUserMessage_Derivar_Success() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        stubFacts();
         when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
 
         AgentChatDTO agent = new AgentChatDTO();
@@ -203,7 +220,7 @@ import static org.mockito.Mockito.*;
 
     @Test
     void testResponseToUserMessage_Cerrar_Success() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        stubFacts();
         when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
 
         String response = chatService.responseToUserMessage(ChatOption.CERRAR, 1L, 1L);
@@ -215,8 +232,7 @@ import static org.mockito.Mockito.*;
     @Test
     void testResponseToUserMessage_VerPrecio_ShowPriceFalse() {
         property.setShowPrice(false);
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         String response = chatService.responseToUserMessage(ChatOption.VER_PRECIO, 1L, 1L);
 
@@ -229,8 +245,7 @@ import static org.mockito.Mockito.*;
         property.setShowPrice(true);
 
         property.setExpenses(null);
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
         String response1 = chatService.responseToUserMessage(ChatOption.VER_PRECIO, 1L, 1L);
         assertTrue(response1.contains("El precio de la propiedad es"));
 
@@ -242,8 +257,7 @@ import static org.mockito.Mockito.*;
     @Test
     void testResponseToUserMessage_VerArea_CoveredAreaNullOrZero() {
         property.setCoveredArea(null);
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
         String response = chatService.responseToUserMessage(ChatOption.VER_AREA, 1L, 1L);
         assertTrue(response.contains("La superficie total es de"));
 
@@ -254,8 +268,7 @@ import static org.mockito.Mockito.*;
 
     @Test
     void testResponseToUserMessage_VerHabitaciones_VariousCases() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         property.setBedrooms(2f);
         property.setBathrooms(2f);
@@ -287,8 +300,7 @@ import static org.mockito.Mockito.*;
     void testResponseToUserMessage_VerFinanciacion_False() {
         property.setFinancing(false);
 
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         String response = chatService.responseToUserMessage(ChatOption.VER_FINANCIACION, 1L, 1L);
         assertEquals("Esta propiedad no ofrece financiación.", response);
@@ -298,8 +310,7 @@ import static org.mockito.Mockito.*;
     void testResponseToUserMessage_VerCredito_True() {
         property.setCredit(true);
 
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         String response = chatService.responseToUserMessage(ChatOption.VER_CREDITO, 1L, 1L);
         assertEquals("Esta propiedad es apta para crédito hipotecario.", response);
@@ -309,8 +320,7 @@ import static org.mockito.Mockito.*;
     void testResponseToUserMessage_VerCaracteristicas_EmptyAmenities() {
         property.setAmenities(Collections.emptySet());
 
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         String response = chatService.responseToUserMessage(ChatOption.VER_CARACTERISTICAS, 1L, 1L);
         assertEquals("Esta propiedad no tiene características adicionales registradas.", response);
@@ -318,7 +328,7 @@ import static org.mockito.Mockito.*;
 
     @Test
     void testResponseToUserMessage_Derivar_NoAgents_Throws() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        stubFacts();
         when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
         when(agentChatRepository.getAgents()).thenReturn(Collections.emptyList());
 
@@ -332,8 +342,7 @@ import static org.mockito.Mockito.*;
 
     @Test
     void responseToUserMessage_shouldThrowNullPointerException_whenChatOptionIsNull() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
+        stubFacts();
 
         NullPointerException exception = assertThrows(NullPointerException.class, () -> {
             chatService.responseToUserMessage(null, 1L, 1L);
@@ -346,19 +355,21 @@ import static org.mockito.Mockito.*;
 
     @Test
     void testResponseToUserMessage_PropiedadNoEncontrada() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.empty());
+        when(chatFactsCache.get(1L)).thenThrow(new EntityNotFoundException("No se ha encontrado la propiedad."));
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
                 chatService.responseToUserMessage(ChatOption.VER_PRECIO, 1L, 1L)
         );
 
         assertEquals("No se ha encontrado la propiedad.", exception.getMessage());
+        verify(chatMessageService, never()).create(any());
     }
 
     @Test
     void testResponseToUserMessage_SesionNoEncontrada() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(chatSessionRepository.findById(1L)).thenReturn(Optional.empty());
+        stubFacts();
+        doThrow(new DataIntegrityViolationException("session_id"))
+                .when(chatMessageService).create(any(ChatMessage.class));
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
                 chatService.responseToUserMessage(ChatOption.VER_PRECIO, 1L, 1L)
@@ -367,9 +378,22 @@ import static org.mockito.Mockito.*;
         assertEquals("No se ha encontrado la sesion.", exception.getMessage());
     }
 
+    @Test
+    void testResponseToUserMessage_Cerrar_SesionNoEncontrada() {
+        stubFacts();
+        when(chatSessionRepository.findById(1L)).thenReturn(Optional.empty());
+
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
+                chatService.responseToUserMessage(ChatOption.CERRAR, 1L, 1L)
+        );
+
+        assertEquals("No se ha encontrado la sesion.", exception.getMessage());
+        verify(chatMessageService, never()).create(any());
+    }
+
     @Test
     void testDerivar_NoAgentesDisponibles() {
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        stubFacts();
         when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(chatSession));
         when(agentChatRepository.getAgents()).thenReturn(List.of());
 
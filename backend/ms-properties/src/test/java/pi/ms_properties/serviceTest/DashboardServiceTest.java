@@ -0,0 +1,170 @@
+package pi.ms_properties.serviceTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import pi.ms_properties.dto.DashboardSnapshotDTO;
+import pi.ms_properties.service.impl.DashboardService;
+import pi.ms_properties.service.interf.IInquiryService;
+import pi.ms_properties.service.interf.ISurveyService;
+import pi.ms_properties.service.interf.IViewService;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @InjectMocks
+    private DashboardService dashboardService;
+
+    @Mock
+    private IViewService viewService;
+
+    @Mock
+    private IInquiryService inquiryService;
+
+    @Mock
+    private ISurveyService surveyService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private void stubStatistics(long views) {
+        when(viewService.getViewsByProperty()).thenReturn(ResponseEntity.ok(Map.of("Casa centro", views)));
+        when(viewService.getViewsByPropertyType()).thenReturn(ResponseEntity.ok(Map.of("Casa", views)));
+        when(viewService.getViewsByDay()).thenReturn(ResponseEntity.ok(Map.of("lunes", views)));
+        when(viewService.getViewsByMonth()).thenReturn(ResponseEntity.ok(Map.of("enero", views)));
+        when(viewService.getViewsByNeighborhood()).thenReturn(ResponseEntity.ok(Map.of("Centro", views)));
+        when(viewService.getViewsByNeighborhoodType()).thenReturn(ResponseEntity.ok(Map.of("ABIERTO", views)));
+        when(viewService.getViewsByStatus()).thenReturn(ResponseEntity.ok(Map.of("DISPONIBLE", views)));
+        when(viewService.getViewsByStatusAndType()).thenReturn(ResponseEntity.ok(Map.of("DISPONIBLE", Map.of("Casa", views))));
+        when(viewService.getViewsByOperation()).thenReturn(ResponseEntity.ok(Map.of("VENTA", views)));
+        when(viewService.getViewsByRooms()).thenReturn(ResponseEntity.ok(Map.of(3f, views)));
+        when(viewService.getViewsByAmenity()).thenReturn(ResponseEntity.ok(Map.of("Pileta", views)));
+
+        when(inquiryService.getInquiryStatusDistribution()).thenReturn(ResponseEntity.ok(Map.of("ABIERTA", 2L)));
+        when(inquiryService.getAverageInquiryResponseTime()).thenReturn(ResponseEntity.ok("1 días, 0 horas, 0 minutos, 0 segundos"));
+        when(inquiryService.getInquiriesGroupedByDayOfWeek()).thenReturn(ResponseEntity.ok(Map.of("lunes", 2L)));
+        when(inquiryService.getInquiriesGroupedByTimeRange()).thenReturn(ResponseEntity.ok(Map.of("Mañana", 2L)));
+        when(inquiryService.getInquiriesPerMonth()).thenReturn(ResponseEntity.ok(Map.of(YearMonth.of(2026, 1), 2L)));
+        when(inquiryService.getMostConsultedProperties()).thenReturn(ResponseEntity.ok(Map.of("Casa centro", 2L)));
+
+        when(surveyService.getAverageScore()).thenReturn(ResponseEntity.ok(4.5f));
+        when(surveyService.getScoreDistribution()).thenReturn(ResponseEntity.ok(Map.of(5, 1L)));
+        when(surveyService.getDailyAverageScore()).thenReturn(ResponseEntity.ok(Map.of("lunes", 4.5)));
+        when(surveyService.getMonthlyAverageScore()).thenReturn(ResponseEntity.ok(Map.of(YearMonth.of(2026, 1), 4.5)));
+    }
+
+    // casos de exito
+
+    @Test
+    void getSnapshot_shouldBuildOnFirstRequest() {
+        stubStatistics(10L);
+
+        ResponseEntity<DashboardSnapshotDTO> response = dashboardService.getSnapshot(null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getCacheControl().contains("no-cache"));
+        DashboardSnapshotDTO snapshot = response.getBody();
+        assertNotNull(snapshot.getUpdatedAt());
+        assertEquals(10L, snapshot.getViews().getByProperty().get("Casa centro"));
+        assertEquals(10L, snapshot.getViews().getByRooms().get(3f));
+        assertEquals("1 días, 0 horas, 0 minutos, 0 segundos", snapshot.getInquiries().getAverageResponseTime());
+        assertEquals(2L, snapshot.getInquiries().getByMonth().get(YearMonth.of(2026, 1)));
+        assertEquals(4.5f, snapshot.getSurveys().getAverageScore());
+    }
+
+    @Test
+    void getSnapshot_shouldServeFromMemory() {
+        stubStatistics(10L);
+
+        dashboardService.getSnapshot(null);
+        dashboardService.getSnapshot(null);
+        dashboardService.getSnapshot(null);
+
+        verify(viewService, times(1)).getViewsByProperty();
+        verify(inquiryService, times(1)).getAverageInquiryResponseTime();
+        verify(surveyService, times(1)).getMonthlyAverageScore();
+    }
+
+    @Test
+    void getSnapshot_shouldReturnNotModified_whenEtagMatches() {
+        stubStatistics(10L);
+        String etag = dashboardService.getSnapshot(null).getHeaders().getETag();
+
+        ResponseEntity<DashboardSnapshotDTO> response = dashboardService.getSnapshot("W/\"otra\", " + etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void refresh_shouldKeepSnapshot_whenDataDidNotChange() {
+        stubStatistics(10L);
+        ResponseEntity<DashboardSnapshotDTO> first = dashboardService.getSnapshot(null);
+
+        dashboardService.refresh();
+        ResponseEntity<DashboardSnapshotDTO> second = dashboardService.getSnapshot(null);
+
+        assertSame(first.getBody(), second.getBody());
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        verify(viewService, times(2)).getViewsByProperty();
+    }
+
+    @Test
+    void refresh_shouldPublishNewSnapshot_whenDataChanges() {
+        stubStatistics(10L);
+        String etag = dashboardService.getSnapshot(null).getHeaders().getETag();
+
+        stubStatistics(11L);
+        dashboardService.refresh();
+        ResponseEntity<DashboardSnapshotDTO> response = dashboardService.getSnapshot(etag);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(etag, response.getHeaders().getETag());
+        assertEquals(11L, response.getBody().getViews().getByProperty().get("Casa centro"));
+    }
+
+    @Test
+    void getSnapshot_shouldNotExposeMutableStatistics() {
+        stubStatistics(10L);
+
+        DashboardSnapshotDTO snapshot = dashboardService.getSnapshot(null).getBody();
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getViews().getByProperty().put("otra", 1L));
+    }
+
+    // casos de error
+
+    @Test
+    void refresh_shouldKeepPreviousSnapshot_whenStatisticsFail() {
+        stubStatistics(10L);
+        ResponseEntity<DashboardSnapshotDTO> first = dashboardService.getSnapshot(null);
+        when(viewService.getViewsByProperty()).thenThrow(new RuntimeException("sin conexion"));
+
+        assertDoesNotThrow(() -> dashboardService.refresh());
+
+        assertSame(first.getBody(), dashboardService.getSnapshot(null).getBody());
+    }
+
+    @Test
+    void getSnapshot_shouldThrow_whenFirstBuildFails() {
+        when(viewService.getViewsByProperty()).thenThrow(new RuntimeException("sin conexion"));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> dashboardService.getSnapshot(null));
+
+        assertEquals("sin conexion", ex.getMessage());
+    }
+}
@@ -0,0 +1,263 @@
+package pi.ms_properties.serviceTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import pi.ms_properties.domain.EmailOutbox;
+import pi.ms_properties.domain.EmailOutboxStatus;
+import pi.ms_properties.repository.IEmailOutboxRepository;
+import pi.ms_properties.service.impl.EmailOutboxDispatcher;
+
+import java.time.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 5, 1, 10, 0);
+
+    @Mock
+    private IEmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private JavaMailSender javaMailSender;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExecutorService executor;
+
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(2);
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        dispatcher = new EmailOutboxDispatcher(emailOutboxRepository, javaMailSender, meterRegistry, executor,
+                2, 50, 3, Duration.ofSeconds(30), Duration.ofMinutes(1), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    private EmailOutbox email(long id, int attempts) {
+        EmailOutbox email = new EmailOutbox();
+        email.setId(id);
+        email.setRecipient("cliente" + id + "@mail.com");
+        email.setSubject("Asunto " + id);
+        email.setBody("<html>" + id + "</html>");
+        email.setStatus(EmailOutboxStatus.PENDIENTE);
+        email.setAttempts(attempts);
+        email.setCreatedAt(NOW.minusMinutes(5));
+        email.setNextAttemptAt(NOW.minusMinutes(5));
+        return email;
+    }
+
+    private void stubDue(EmailOutbox... emails) {
+        when(emailOutboxRepository.findDue(eq(EmailOutboxStatus.PENDIENTE), eq(NOW), any(Pageable.class)))
+                .thenReturn(List.of(emails));
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+    }
+
+    // dispatch no espera a los workers: se espera a que terminen antes de verificar
+    private void dispatchAndWait() throws InterruptedException {
+        dispatcher.dispatch();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("email.outbox.messages").tag("result", result).counter().count();
+    }
+
+    // casos de exito
+
+    @Test
+    void dispatch_shouldSendDueEmails_reusingOneConnectionPerWorker() throws Exception {
+        EmailOutbox first = email(1L, 0);
+        EmailOutbox second = email(2L, 0);
+        EmailOutbox third = email(3L, 0);
+        stubDue(first, second, third);
+        when(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDIENTE)).thenReturn(0L);
+
+        dispatchAndWait();
+
+        // dos workers: un envio con dos mensajes y otro con uno
+        verify(javaMailSender, times(2)).send(any(MimeMessage[].class));
+        for (EmailOutbox email : List.of(first, second, third)) {
+            assertEquals(EmailOutboxStatus.ENVIADO, email.getStatus());
+            assertEquals(1, email.getAttempts());
+            assertEquals(NOW, email.getSentAt());
+        }
+        verify(emailOutboxRepository, times(2)).saveAll(any());
+        assertEquals(3, count("sent"));
+    }
+
+    @Test
+    void dispatch_shouldBuildMessageFromOutbox() throws Exception {
+        stubDue(email(1L, 0));
+        Map<String, Object> sent = new LinkedHashMap<>();
+        doAnswer(invocation -> {
+            MimeMessage message = ((MimeMessage[]) invocation.getRawArguments()[0])[0];
+            sent.put("to", message.getAllRecipients()[0].toString());
+            sent.put("subject", message.getSubject());
+            return null;
+        }).when(javaMailSender).send(any(MimeMessage[].class));
+
+        dispatchAndWait();
+
+        assertEquals("cliente1@mail.com", sent.get("to"));
+        assertEquals("Asunto 1", sent.get("subject"));
+    }
+
+    @Test
+    void dispatch_shouldDoNothing_whenNoEmailIsDue() throws Exception {
+        when(emailOutboxRepository.findDue(eq(EmailOutboxStatus.PENDIENTE), eq(NOW), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDIENTE)).thenReturn(4L);
+
+        dispatchAndWait();
+
+        verifyNoInteractions(javaMailSender);
+        verify(emailOutboxRepository, never()).saveAll(any());
+        assertEquals(4, meterRegistry.get("email.outbox.pending").gauge().value());
+    }
+
+    @Test
+    void dispatch_shouldNotWaitForWorkers_norResendEmailsInFlight() throws Exception {
+        EmailOutbox email = email(1L, 0);
+        stubDue(email);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(javaMailSender).send(any(MimeMessage[].class));
+
+        // el envio sigue bloqueado, pero el scheduler ya quedo libre
+        dispatcher.dispatch();
+        dispatcher.dispatch();
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        verify(javaMailSender, times(1)).send(any(MimeMessage[].class));
+        assertEquals(EmailOutboxStatus.ENVIADO, email.getStatus());
+    }
+
+    // casos de error
+
+    @Test
+    void dispatch_shouldRetryOnlyFailedMessages_withBackoff() throws Exception {
+        EmailOutbox ok = email(1L, 0);
+        EmailOutbox rejected = email(2L, 0);
+        stubDue(ok, rejected);
+        doAnswer(invocation -> {
+            MimeMessage[] messages = (MimeMessage[]) invocation.getRawArguments()[0];
+            for (MimeMessage message : messages) {
+                if (message.getSubject().equals("Asunto 2")) {
+                    throw new MailSendException(Map.<Object, Exception>of(message, new RuntimeException("buzon inexistente")));
+                }
+            }
+            return null;
+        }).when(javaMailSender).send(any(MimeMessage[].class));
+
+        dispatchAndWait();
+
+        assertEquals(EmailOutboxStatus.ENVIADO, ok.getStatus());
+        assertEquals(EmailOutboxStatus.PENDIENTE, rejected.getStatus());
+        assertEquals(1, rejected.getAttempts());
+        assertEquals(NOW.plusSeconds(30), rejected.getNextAttemptAt());
+        assertEquals("buzon inexistente", rejected.getLastError());
+        assertEquals(1, count("retried"));
+    }
+
+    @Test
+    void dispatch_shouldRetryWholeBatch_whenSmtpIsUnavailable() throws Exception {
+        EmailOutbox email = email(1L, 1);
+        stubDue(email);
+        doThrow(new MailAuthenticationException("credenciales invalidas"))
+                .when(javaMailSender).send(any(MimeMessage[].class));
+
+        dispatchAndWait();
+
+        assertEquals(EmailOutboxStatus.PENDIENTE, email.getStatus());
+        assertEquals(2, email.getAttempts());
+        // la espera se duplica pero no supera el maximo configurado
+        assertEquals(NOW.plusMinutes(1), email.getNextAttemptAt());
+        verify(emailOutboxRepository).saveAll(List.of(email));
+    }
+
+    @Test
+    void dispatch_shouldMarkFailed_afterMaxAttempts() throws Exception {
+        EmailOutbox email = email(1L, 2);
+        stubDue(email);
+        doThrow(new MailSendException("Mail server connection failed"))
+                .when(javaMailSender).send(any(MimeMessage[].class));
+
+        dispatchAndWait();
+
+        assertEquals(EmailOutboxStatus.FALLIDO, email.getStatus());
+        assertEquals(3, email.getAttempts());
+        assertEquals(1, count("failed"));
+        assertEquals(0, count("retried"));
+    }
+
+    @Test
+    void dispatch_shouldMarkFailedImmediately_whenAddressIsInvalid() throws Exception {
+        EmailOutbox email = email(1L, 0);
+        stubDue(email);
+        doAnswer(invocation -> {
+            MimeMessage message = ((MimeMessage[]) invocation.getRawArguments()[0])[0];
+            SendFailedException invalid = new SendFailedException("550 usuario inexistente", null, new Address[0],
+                    new Address[0], new Address[]{new InternetAddress("cliente1@mail.com")});
+            throw new MailSendException(Map.<Object, Exception>of(message, invalid));
+        }).when(javaMailSender).send(any(MimeMessage[].class));
+
+        dispatchAndWait();
+
+        assertEquals(EmailOutboxStatus.FALLIDO, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertEquals(1, count("failed"));
+        assertEquals(0, count("retried"));
+    }
+
+    @Test
+    void dispatch_shouldMarkFailedImmediately_whenRecipientIsMalformed() throws Exception {
+        EmailOutbox email = email(1L, 0);
+        email.setRecipient("cliente sin arroba");
+        stubDue(email);
+
+        dispatchAndWait();
+
+        verify(javaMailSender, never()).send(any(MimeMessage[].class));
+        assertEquals(EmailOutboxStatus.FALLIDO, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertEquals(1, count("failed"));
+    }
+}
@@ -1,6 +1,5 @@
 package pi.ms_properties.serviceTest;
 
-import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -11,15 +10,17 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.IContext;
 import pi.ms_properties.configuration.components.AppProperties;
 import pi.ms_properties.domain.ChatMessage;
 import pi.ms_properties.domain.ChatOption;
 import pi.ms_properties.domain.ChatSession;
+import pi.ms_properties.domain.EmailOutbox;
+import pi.ms_properties.domain.EmailOutboxStatus;
 import pi.ms_properties.domain.Property;
 import pi.ms_properties.dto.EmailDTO;
+import pi.ms_properties.repository.IEmailOutboxRepository;
 import pi.ms_properties.service.impl.EmailService;
 import pi.ms_properties.service.interf.IChatMessageService;
 
@@ -41,7 +42,7 @@ class EmailServiceTest {
     private EmailService emailService;
 
     @Mock
-    private JavaMailSender javaMailSender;
+    private IEmailOutboxRepository emailOutboxRepository;
 
     @Mock
     private TemplateEngine templateEngine;
@@ -49,9 +50,6 @@ class EmailServiceTest {
     @Mock
     private AppProperties appProperties;
 
-    @Mock
-    private MimeMessage mimeMessage;
-
     @Mock
     private IChatMessageService chatMessageService;
 
@@ -61,6 +59,9 @@ class EmailServiceTest {
     @Captor
     ArgumentCaptor<IContext> iContextCaptor;
 
+    @Captor
+    private ArgumentCaptor<EmailOutbox> outboxCaptor;
+
     // casos de exito
 
     @Test
@@ -74,12 +75,19 @@ class EmailServiceTest {
         dto.setDate(LocalDateTime.of(2024, 5, 22, 15, 30));
         dto.setPropertiesTitle(List.of("Casa en el centro", "Departamento en las afueras"));
 
-        when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
         when(templateEngine.process(eq("email_inquiry"), any(IContext.class))).thenReturn("<html>Email</html>");
 
         assertDoesNotThrow(() -> emailService.sendEmailInquiry(dto));
 
-        verify(javaMailSender).send(mimeMessage);
+        verify(emailOutboxRepository).save(outboxCaptor.capture());
+        EmailOutbox email = outboxCaptor.getValue();
+        assertEquals("desarrolloinmobertibusso@gmail.com", email.getRecipient());
+        assertEquals("Nueva consulta de propiedad", email.getSubject());
+        assertEquals("<html>Email</html>", email.getBody());
+        assertEquals(EmailOutboxStatus.PENDIENTE, email.getStatus());
+        assertEquals(0, email.getAttempts());
+        assertEquals(email.getCreatedAt(), email.getNextAttemptAt());
+
         verify(templateEngine).process(templateNameCaptor.capture(), iContextCaptor.capture());
 
         assertEquals("email_inquiry", templateNameCaptor.getValue());
@@ -104,12 +112,12 @@ class EmailServiceTest {
         dto.setDate(LocalDateTime.of(2024, 6, 1, 10, 15));
         dto.setPropertiesTitle(Collections.emptyList());
 
-        when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
         when(templateEngine.process(eq("email_inquiry_without_property"), any(IContext.class))).thenReturn("<html>Email sin propiedad</html>");
 
         assertDoesNotThrow(() -> emailService.sendEmailInquiry(dto));
 
-        verify(javaMailSender).send(mimeMessage);
+        verify(emailOutboxRepository).save(outboxCaptor.capture());
+        assertEquals("Nueva consulta", outboxCaptor.getValue().getSubject());
         verify(templateEngine).process(templateNameCaptor.capture(), iContextCaptor.capture());
 
         assertEquals("email_inquiry_without_property", templateNameCaptor.getValue());
@@ -128,7 +136,6 @@ class EmailServiceTest {
         Long inquiryId = 42L;
         String token = "ABC123TOKEN";
 
-        when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
         when(appProperties.getFrontendBaseUrl()).thenReturn("https://frontend.com");
         when(templateEngine.process(eq("email_survey"), any(IContext.class))).thenReturn("<html>Encuesta</html>");
 
@@ -137,7 +144,9 @@ class EmailServiceTest {
         ArgumentCaptor<String> templateNameCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<IContext> contextCaptor = ArgumentCaptor.forClass(IContext.class);
 
-        verify(javaMailSender).send(mimeMessage);
+        verify(emailOutboxRepository).save(outboxCaptor.capture());
+        assertEquals(emailTo, outboxCaptor.getValue().getRecipient());
+        assertEquals("<html>Encuesta</html>", outboxCaptor.getValue().getBody());
         verify(templateEngine).process(templateNameCaptor.capture(), contextCaptor.capture());
 
         assertEquals("email_survey", templateNameCaptor.getValue());
@@ -166,12 +175,12 @@ class EmailServiceTest {
 
         when(chatMessageService.getBySession(1L)).thenReturn(List.of(msg1, msg2));
 
-        when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
         when(templateEngine.process(eq("email_chat_summary"), any(IContext.class))).thenReturn("<html>Resumen</html>");
 
         emailService.sendChatSummaryEmail(chatSession, true, "Agente 1");
 
-        verify(javaMailSender).send(mimeMessage);
+        verify(emailOutboxRepository).save(outboxCaptor.capture());
+        assertEquals("Resumen de consulta por chat", outboxCaptor.getValue().getSubject());
         verify(templateEngine).process(templateNameCaptor.capture(), iContextCaptor.capture());
 
         assertEquals("email_chat_summary", templateNameCaptor.getValue());
@@ -250,19 +259,20 @@ class EmailServiceTest {
         dto.setDate(LocalDateTime.now());
         dto.setPropertiesTitle(List.of("Casa"));
 
-        when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
         when(templateEngine.process(eq("email_inquiry"), any(IContext.class)))
                 .thenThrow(new RuntimeException("Error al procesar plantilla"));
 
         RuntimeException ex = assertThrows(RuntimeException.class, () -> emailService.sendEmailInquiry(dto));
 
         assertTrue(ex.getMessage().contains("Error al enviar la consulta de propiedad"));
+        verify(emailOutboxRepository, never()).save(any());
     }
 
     @Test
-    void sendEmailSurvey_shouldThrow_whenJavaMailSenderFails() {
+    void sendEmailSurvey_shouldThrow_whenOutboxSaveFails() {
         when(appProperties.getFrontendBaseUrl()).thenReturn("http://localhost:3000");
-        when(javaMailSender.createMimeMessage()).thenThrow(new RuntimeException("Error al crear mensaje"));
+        when(templateEngine.process(eq("email_survey"), any(IContext.class))).thenReturn("<html>Encuesta</html>");
+        when(emailOutboxRepository.save(any(EmailOutbox.class))).thenThrow(new RuntimeException("Error al guardar"));
 
         String token = "ABC123TOKEN";
 
@@ -273,7 +283,7 @@ class EmailServiceTest {
     }
 
     @Test
-    void sendChatSummaryEmail_shouldThrowRuntimeException_whenJavaMailSenderFails() {
+    void sendChatSummaryEmail_shouldThrowRuntimeException_whenOutboxSaveFails() {
         ChatSession chatSession = new ChatSession();
         chatSession.setId(1L);
         chatSession.setFirstName("Juan");
@@ -286,9 +296,8 @@ class EmailServiceTest {
 
         when(chatMessageService.getBySession(1L)).thenReturn(List.of());
 
-        when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
         when(templateEngine.process(eq("email_chat_summary"), any(IContext.class))).thenReturn("<html>Resumen</html>");
-        doThrow(new RuntimeException("SMTP error")).when(javaMailSender).send(any(MimeMessage.class));
+        when(emailOutboxRepository.save(any(EmailOutbox.class))).thenThrow(new RuntimeException("Error al guardar"));
 
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
                 emailService.sendChatSummaryEmail(chatSession, false, "Agente X"));
@@ -0,0 +1,171 @@
+package pi.ms_properties.serviceTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import pi.ms_properties.domain.InquiryStatus;
+import pi.ms_properties.repository.ExportRepository;
+import pi.ms_properties.service.impl.ExportService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @InjectMocks
+    private ExportService exportService;
+
+    @Mock
+    private ExportRepository exportRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    // casos de exito
+
+    @Test
+    void exportViews_shouldWriteCsv() throws Exception {
+        LocalDateTime date = LocalDateTime.of(2025, 5, 1, 10, 30);
+        when(exportRepository.streamViews()).thenReturn(Stream.of(
+                new Object[]{1L, date, 10L, "Casa centro"},
+                new Object[]{2L, date, 11L, "Depto, 2 ambientes"}
+        ));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        exportService.exportViews("csv", response);
+
+        assertEquals("text/csv;charset=UTF-8", response.getContentType());
+        assertTrue(response.getHeader(HttpHeaders.CONTENT_DISPOSITION).contains("views.csv"));
+        assertEquals("id,date,propertyId,propertyTitle\r\n" +
+                        "1,2025-05-01T10:30,10,Casa centro\r\n" +
+                        "2,2025-05-01T10:30,11,\"Depto, 2 ambientes\"\r\n",
+                response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportSurveys_shouldEscapeCsvFields() throws Exception {
+        when(exportRepository.streamSurveys()).thenReturn(Stream.<Object[]>of(
+                new Object[]{1L, 5, "Dijo \"excelente\"\nvolveria", 3L, LocalDateTime.of(2025, 5, 1, 10, 0)},
+                new Object[]{2L, 1, "=HYPERLINK(\"x\")", 4L, LocalDateTime.of(2025, 5, 2, 10, 0)},
+                new Object[]{3L, 4, null, 5L, LocalDateTime.of(2025, 5, 3, 10, 0)}
+        ));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        exportService.exportSurveys("CSV", response);
+
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals("1,5,\"Dijo \"\"excelente\"\"\nvolveria\",3,2025-05-01T10:00", lines[1]);
+        assertEquals("2,1,\"'=HYPERLINK(\"\"x\"\")\",4,2025-05-02T10:00", lines[2]);
+        assertEquals("3,4,,5,2025-05-03T10:00", lines[3]);
+    }
+
+    @Test
+    void exportInquiries_shouldWriteNdjson() throws Exception {
+        when(exportRepository.streamInquiries()).thenReturn(Stream.<Object[]>of(
+                new Object[]{1L, LocalDateTime.of(2025, 5, 1, 10, 0), InquiryStatus.CERRADA, LocalDateTime.of(2025, 5, 2, 10, 0),
+                        null, "Juan", "Perez", "juan@mail.com", "123", "Consulta", "Quiero \"visitar\""},
+                new Object[]{2L, LocalDateTime.of(2025, 5, 3, 10, 0), InquiryStatus.ABIERTA, null,
+                        "user-1", "Ana", "Lopez", "ana@mail.com", "456", "Otra", "Hola"}
+        ));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        exportService.exportInquiries("ndjson", response);
+
+        assertEquals("application/x-ndjson", response.getContentType());
+        assertTrue(response.getHeader(HttpHeaders.CONTENT_DISPOSITION).contains("inquiries.ndjson"));
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("CERRADA", first.get("status").asText());
+        assertEquals("2025-05-02T10:00", first.get("dateClose").asText());
+        assertTrue(first.get("userId").isNull());
+        assertEquals("Quiero \"visitar\"", first.get("description").asText());
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertTrue(second.get("dateClose").isNull());
+        assertEquals("user-1", second.get("userId").asText());
+    }
+
+    @Test
+    void exportViews_shouldCloseCursor() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(exportRepository.streamViews()).thenReturn(Stream.<Object[]>of(
+                new Object[]{1L, LocalDateTime.of(2025, 5, 1, 10, 0), 10L, "Casa"}).onClose(() -> closed.set(true)));
+
+        exportService.exportViews("ndjson", new MockHttpServletResponse());
+
+        assertTrue(closed.get());
+    }
+
+    // casos de error
+
+    @Test
+    void export_shouldThrow_whenFormatIsInvalid() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> exportService.exportViews("xml", response));
+
+        assertEquals("Formato de exportacion invalido: xml", ex.getMessage());
+        verifyNoInteractions(exportRepository);
+        assertFalse(response.isCommitted());
+    }
+
+    @Test
+    void export_shouldStopAndCloseCursor_whenClientDisconnects() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicInteger produced = new AtomicInteger();
+        when(exportRepository.streamSurveys()).thenReturn(Stream.generate(() -> {
+            produced.incrementAndGet();
+            return new Object[]{1L, 5, "ok", 2L, LocalDateTime.of(2025, 5, 1, 10, 0)};
+        }).onClose(() -> closed.set(true)));
+        MockHttpServletResponse response = spy(new MockHttpServletResponse());
+        doReturn(new DisconnectingOutputStream(64 * 1024)).when(response).getOutputStream();
+
+        assertThrows(IOException.class, () -> exportService.exportSurveys("csv", response));
+
+        assertTrue(closed.get());
+        assertTrue(produced.get() < 10_000);
+    }
+
+    // simula un cliente que corta la conexion despues de recibir cierta cantidad de bytes
+    private static class DisconnectingOutputStream extends ServletOutputStream {
+        private final int limit;
+        private int written;
+
+        DisconnectingOutputStream(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (++written > limit) throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package pi.ms_properties.serviceTest;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pi.ms_properties.domain.Storage;
+import pi.ms_properties.service.impl.FileSystemBlobStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemBlobStorageTest {
+
+    @TempDir
+    private Path root;
+
+    private FileSystemBlobStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new FileSystemBlobStorage(root.toString(), "/image/raw/");
+    }
+
+    private static Storage file(String path, InputStream inputStream, long size) {
+        Storage file = new Storage();
+        file.setPath(path);
+        file.setInputStream(inputStream);
+        file.setSize(size);
+        file.setContentType("image/png");
+        return file;
+    }
+
+    // casos de exito
+
+    @Test
+    void create_shouldWriteFileAndReturnRawUrl() throws IOException {
+        byte[] content = "contenido de la imagen".getBytes();
+
+        String url = storage.create(file("foto.png", new ByteArrayInputStream(content), content.length));
+
+        assertEquals("/image/raw/foto.png", url);
+        assertArrayEquals(content, Files.readAllBytes(root.resolve("foto.png")));
+        try (var files = Files.list(root)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void create_shouldCopyFromFileChannel() throws IOException {
+        Path source = Files.createTempFile("origen", ".png");
+        byte[] content = new byte[3 * 1024 * 1024];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) i;
+        Files.write(source, content);
+
+        try (FileInputStream inputStream = new FileInputStream(source.toFile())) {
+            storage.create(file("grande.png", inputStream, content.length));
+        } finally {
+            Files.delete(source);
+        }
+
+        assertArrayEquals(content, Files.readAllBytes(root.resolve("grande.png")));
+    }
+
+    @Test
+    void create_shouldReadWholeStream_whenSizeIsUnknown() throws IOException {
+        byte[] content = new byte[(1 << 20) + 10];
+        content[content.length - 1] = 7;
+
+        storage.create(file("sin-tamano.png", new ByteArrayInputStream(content), 0));
+
+        assertArrayEquals(content, Files.readAllBytes(root.resolve("sin-tamano.png")));
+    }
+
+    @Test
+    void read_shouldReturnMappedContent() throws IOException {
+        byte[] content = "contenido de la imagen".getBytes();
+        Files.write(root.resolve("foto.jpg"), content);
+
+        Storage result = storage.read("foto.jpg");
+
+        assertEquals(content.length, result.getSize());
+        assertEquals("image/jpeg", result.getContentType());
+        try (InputStream inputStream = result.getInputStream()) {
+            assertArrayEquals(content, inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    void delete_shouldRemoveFile_andIgnoreMissing() throws IOException {
+        Files.write(root.resolve("borrar.png"), new byte[]{1});
+
+        storage.delete(file("borrar.png", null, 0));
+
+        assertFalse(Files.exists(root.resolve("borrar.png")));
+        assertDoesNotThrow(() -> storage.delete(file("borrar.png", null, 0)));
+    }
+
+    @Test
+    void urls_shouldPointToRawEndpoint() {
+        assertEquals("/image/raw/foto.png", storage.getImageUrl("foto.png"));
+        assertEquals("foto.png", storage.getImagePath("/image/raw/foto.png"));
+        assertEquals("foto.png", storage.getImagePath("foto.png"));
+    }
+
+    // casos de error
+
+    @Test
+    void create_shouldFail_whenNameAlreadyExists() throws IOException {
+        Files.write(root.resolve("repetida.png"), new byte[]{1});
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () ->
+                storage.create(file("repetida.png", new ByteArrayInputStream(new byte[]{2, 3}), 2)));
+
+        assertTrue(ex.getMessage().contains("Error al cargar la imagen"));
+        assertArrayEquals(new byte[]{1}, Files.readAllBytes(root.resolve("repetida.png")));
+        try (var files = Files.list(root)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void read_shouldThrowNotFound_whenFileDoesNotExist() {
+        assertThrows(EntityNotFoundException.class, () -> storage.read("noexiste.png"));
+    }
+
+    @Test
+    void shouldRejectNamesOutsideRoot() {
+        assertThrows(IllegalArgumentException.class, () -> storage.read("../secreto.png"));
+        assertThrows(IllegalArgumentException.class, () -> storage.read(".."));
+        assertThrows(IllegalArgumentException.class, () -> storage.delete(file("/etc/passwd", null, 0)));
+    }
+}
@@ -0,0 +1,247 @@
+package pi.ms_properties.serviceTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import pi.ms_properties.domain.Geocode;
+import pi.ms_properties.repository.IGeocodeRepository;
+import pi.ms_properties.service.impl.GeocodeCache;
+import pi.ms_properties.service.impl.GeocodingNeighborhoodService;
+
+import java.time.*;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeocodeCacheTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Mock
+    private IGeocodeRepository geocodeRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private MutableClock clock;
+
+    private GeocodeCache cache;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        cache = new GeocodeCache(geocodeRepository, meterRegistry, 2, Duration.ofDays(30), Duration.ofHours(1), clock);
+    }
+
+    private Supplier<JsonNode> google(String json) {
+        return () -> {
+            calls.incrementAndGet();
+            try {
+                return MAPPER.readTree(json);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static final String FOUND =
+            "{\"results\":[{\"geometry\":{\"location\":{\"lat\":-31.4,\"lng\":-64.2}}}],\"status\":\"OK\"}";
+
+    private static final String NOT_FOUND = "{\"results\":[],\"status\":\"ZERO_RESULTS\"}";
+
+    // casos de exito
+
+    @Test
+    void normalize_shouldIgnoreCaseAccentsAndSpacing() {
+        assertEquals("nueva cordoba, cordoba, argentina", GeocodeCache.normalize("  Nueva  Córdoba ,Córdoba,  ARGENTINA "));
+        assertEquals("", GeocodeCache.normalize(null));
+    }
+
+    @Test
+    void get_shouldAnswerFromMemory_afterFirstLookup() {
+        Optional<GeocodingNeighborhoodService.Coordinates> first = cache.get("Centro, Córdoba", google(FOUND));
+        Optional<GeocodingNeighborhoodService.Coordinates> second = cache.get("centro, cordoba", google(FOUND));
+
+        assertEquals(Optional.of(new GeocodingNeighborhoodService.Coordinates(-31.4, -64.2)), first);
+        assertEquals(first, second);
+        assertEquals(1, calls.get());
+        verify(geocodeRepository, times(1)).findById("centro, cordoba");
+        assertEquals(1, meterRegistry.get("geocoding.cache").tag("result", "memory").counter().count());
+    }
+
+    @Test
+    void get_shouldPersistResult_withNormalizedAddress() {
+        cache.get("Centro, Córdoba", google(FOUND));
+
+        ArgumentCaptor<Geocode> captor = ArgumentCaptor.forClass(Geocode.class);
+        verify(geocodeRepository).save(captor.capture());
+        assertEquals("centro, cordoba", captor.getValue().getAddress());
+        assertEquals(-31.4, captor.getValue().getLatitude());
+        assertEquals(-64.2, captor.getValue().getLongitude());
+        assertEquals(LocalDateTime.of(2026, 1, 1, 0, 0), captor.getValue().getUpdatedAt());
+    }
+
+    @Test
+    void get_shouldUseDatabase_withoutCallingApi() {
+        when(geocodeRepository.findById("centro, cordoba")).thenReturn(Optional.of(
+                new Geocode("centro, cordoba", -31.4, -64.2, LocalDateTime.of(2025, 12, 20, 0, 0))));
+
+        Optional<GeocodingNeighborhoodService.Coordinates> result = cache.get("Centro, Córdoba", google(FOUND));
+        cache.get("Centro, Córdoba", google(FOUND));
+
+        assertEquals(Optional.of(new GeocodingNeighborhoodService.Coordinates(-31.4, -64.2)), result);
+        assertEquals(0, calls.get());
+        verify(geocodeRepository, times(1)).findById(any());
+        verify(geocodeRepository, never()).save(any());
+        assertEquals(1, meterRegistry.get("geocoding.cache").tag("result", "database").counter().count());
+    }
+
+    @Test
+    void get_shouldCacheNotFound_forShorterTime() {
+        assertTrue(cache.get("Barrio Inexistente", google(NOT_FOUND)).isEmpty());
+        assertTrue(cache.get("Barrio Inexistente", google(NOT_FOUND)).isEmpty());
+        assertEquals(1, calls.get());
+
+        ArgumentCaptor<Geocode> captor = ArgumentCaptor.forClass(Geocode.class);
+        verify(geocodeRepository).save(captor.capture());
+        assertNull(captor.getValue().getLatitude());
+        assertNull(captor.getValue().getLongitude());
+
+        clock.advance(Duration.ofHours(2));
+        cache.get("Barrio Inexistente", google(NOT_FOUND));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void get_shouldReloadExpiredEntries() {
+        cache.get("Centro, Córdoba", google(FOUND));
+        clock.advance(Duration.ofDays(31));
+        when(geocodeRepository.findById("centro, cordoba")).thenReturn(Optional.of(
+                new Geocode("centro, cordoba", -31.4, -64.2, LocalDateTime.of(2026, 1, 1, 0, 0))));
+
+        cache.get("Centro, Córdoba", google(FOUND));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsed() {
+        cache.get("a", google(FOUND));
+        cache.get("b", google(FOUND));
+        cache.get("a", google(FOUND));
+        cache.get("c", google(FOUND));
+
+        assertEquals(2, cache.size());
+        cache.get("a", google(FOUND));
+        assertEquals(3, calls.get());
+        assertEquals(1, meterRegistry.get("geocoding.cache.evictions").counter().count());
+    }
+
+    @Test
+    void get_shouldShareLookupInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<JsonNode> slow = () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return google(FOUND).get();
+        };
+
+        CompletableFuture<Optional<GeocodingNeighborhoodService.Coordinates>> first =
+                CompletableFuture.supplyAsync(() -> cache.get("Centro", slow));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Optional<GeocodingNeighborhoodService.Coordinates>> second =
+                CompletableFuture.supplyAsync(() -> cache.get("Centro", google(FOUND)));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    // casos de error
+
+    @Test
+    void get_shouldNotCache_whenStatusIsNotDefinitive() {
+        String denied = "{\"results\":[],\"status\":\"OVER_QUERY_LIMIT\"}";
+
+        assertTrue(cache.get("Centro", google(denied)).isEmpty());
+        assertTrue(cache.get("Centro", google(denied)).isEmpty());
+        assertTrue(cache.get("Centro", () -> null).isEmpty());
+
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.size());
+        verify(geocodeRepository, never()).save(any());
+    }
+
+    @Test
+    void get_shouldNotCache_whenApiFails() {
+        assertThrows(IllegalStateException.class, () -> cache.get("Centro", () -> {
+            throw new IllegalStateException("timeout");
+        }));
+
+        cache.get("Centro", google(FOUND));
+
+        assertEquals(1, calls.get());
+        verify(geocodeRepository, times(2)).findById("centro");
+    }
+
+    @Test
+    void get_shouldKeepWorking_whenDatabaseFails() {
+        when(geocodeRepository.findById(any())).thenThrow(new DataAccessResourceFailureException("sin conexion"));
+        when(geocodeRepository.save(any())).thenThrow(new DataAccessResourceFailureException("sin conexion"));
+
+        Optional<GeocodingNeighborhoodService.Coordinates> first = cache.get("Centro", google(FOUND));
+        Optional<GeocodingNeighborhoodService.Coordinates> second = cache.get("Centro", google(FOUND));
+
+        assertTrue(first.isPresent());
+        assertEquals(first, second);
+        assertEquals(1, calls.get());
+    }
+}
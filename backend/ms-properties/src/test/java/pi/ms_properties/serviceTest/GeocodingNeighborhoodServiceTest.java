@@ -2,22 +2,27 @@ package pi.ms_properties.serviceTest;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.reactive.function.client.WebClient;
+import pi.ms_properties.repository.IGeocodeRepository;
+import pi.ms_properties.service.impl.GeocodeCache;
 import pi.ms_properties.service.impl.GeocodingNeighborhoodService;
 import reactor.core.publisher.Mono;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class GeocodingNeighborhoodServiceTest {
@@ -39,13 +44,18 @@ class GeocodingNeighborhoodServiceTest {
     @Mock
     private WebClient.ResponseSpec responseSpec;
 
+    @Mock
+    private IGeocodeRepository geocodeRepository;
+
     private GeocodingNeighborhoodService service;
 
     @BeforeEach
     void setup() {
         when(webClientBuilder.baseUrl(anyString())).thenReturn(webClientBuilder);
         when(webClientBuilder.build()).thenReturn(webClient);
-        service = new GeocodingNeighborhoodService(webClientBuilder, "test-api-key");
+        service = new GeocodingNeighborhoodService(webClientBuilder, "test-api-key",
+                new GeocodeCache(geocodeRepository, new SimpleMeterRegistry(), 100,
+                        Duration.ofDays(180), Duration.ofHours(24), Clock.systemUTC()));
     }
 
     // casos de exito
@@ -91,6 +101,24 @@ class GeocodingNeighborhoodServiceTest {
         assertEquals(-58.3816, result.get().longitude());
     }
 
+    @Test
+    void getCoordinates_sameNeighborhoodTwice_callsApiOnce() throws Exception {
+        JsonNode node = new ObjectMapper().readTree(
+                "{\"results\":[{\"geometry\":{\"location\":{\"lat\":-34.58,\"lng\":-58.42}}}],\"status\":\"OK\"}");
+
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(any(Function.class))).thenReturn(requestHeadersSpec);
+        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(JsonNode.class)).thenReturn(Mono.just(node));
+
+        Optional<GeocodingNeighborhoodService.Coordinates> first = service.getCoordinates("Palermo", "Buenos Aires");
+        Optional<GeocodingNeighborhoodService.Coordinates> second = service.getCoordinates("palermo ", "BUENOS AIRES");
+
+        assertEquals(first, second);
+        verify(webClient, times(1)).get();
+        verify(geocodeRepository).save(any());
+    }
+
     // casos de error
 
     @Test
@@ -0,0 +1,198 @@
+package pi.ms_properties.serviceTest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import pi.ms_properties.domain.ImageDerivative;
+import pi.ms_properties.domain.ImageVariant;
+import pi.ms_properties.domain.Storage;
+import pi.ms_properties.repository.IImageDerivativeRepository;
+import pi.ms_properties.service.impl.ImageDerivativeService;
+import pi.ms_properties.service.interf.IAzureBlobStorage;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageDerivativeServiceTest {
+
+    @Mock
+    private IAzureBlobStorage azureBlobStorage;
+
+    @Mock
+    private IImageDerivativeRepository imageDerivativeRepository;
+
+    private ExecutorService executor;
+
+    private ImageDerivativeService service;
+
+    // imagenes subidas por path, leidas de nuevo para revisar el formato y el tamaño
+    private final Map<String, BufferedImage> uploaded = new HashMap<>();
+
+    private final Map<String, String> contentTypes = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        service = new ImageDerivativeService(azureBlobStorage, imageDerivativeRepository, executor);
+    }
+
+    // generate no espera al pool, los tests esperan a que termine
+    private void awaitGeneration() throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private void captureUploads() {
+        when(azureBlobStorage.create(any(Storage.class))).thenAnswer(invocation -> {
+            Storage storage = invocation.getArgument(0);
+            uploaded.put(storage.getPath(), ImageIO.read(storage.getInputStream()));
+            contentTypes.put(storage.getPath(), storage.getContentType());
+            return storage.getPath();
+        });
+    }
+
+    private static MockMultipartFile png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return new MockMultipartFile("image", "foto.png", "image/png", output.toByteArray());
+    }
+
+    // casos de exito
+
+    @Test
+    void variantPath_shouldReplaceExtension() {
+        assertEquals("abc_thumb.jpg", ImageVariant.THUMBNAIL.path("abc.png"));
+        assertEquals("abc_card.jpg", ImageVariant.CARD.path("abc"));
+        assertEquals("carpeta.v2/abc_full.jpg", ImageVariant.FULL.path("carpeta.v2/abc"));
+    }
+
+    @Test
+    void generate_shouldUploadResizedJpegVariants() throws Exception {
+        captureUploads();
+
+        service.generate("abc.png", png(3200, 1600));
+        awaitGeneration();
+
+        assertEquals(3, uploaded.size());
+        assertEquals(320, uploaded.get("abc_thumb.jpg").getWidth());
+        assertEquals(160, uploaded.get("abc_thumb.jpg").getHeight());
+        assertEquals(800, uploaded.get("abc_card.jpg").getWidth());
+        assertEquals(400, uploaded.get("abc_card.jpg").getHeight());
+        assertEquals(1600, uploaded.get("abc_full.jpg").getWidth());
+        assertEquals(800, uploaded.get("abc_full.jpg").getHeight());
+        assertTrue(contentTypes.values().stream().allMatch("image/jpeg"::equals));
+        verify(imageDerivativeRepository).save(new ImageDerivative(null, "abc.png", ImageVariant.THUMBNAIL));
+        verify(imageDerivativeRepository).save(new ImageDerivative(null, "abc.png", ImageVariant.CARD));
+        verify(imageDerivativeRepository).save(new ImageDerivative(null, "abc.png", ImageVariant.FULL));
+    }
+
+    @Test
+    void generate_shouldReturnBeforeResizing() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(azureBlobStorage.create(any(Storage.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "ok";
+        });
+
+        service.generate("abc.png", png(100, 100));
+
+        verifyNoInteractions(imageDerivativeRepository);
+        release.countDown();
+        awaitGeneration();
+        verify(imageDerivativeRepository, times(3)).save(any(ImageDerivative.class));
+    }
+
+    @Test
+    void findGenerated_shouldGroupVariantsByImage() {
+        when(imageDerivativeRepository.findByNameIn(List.of("a.png", "b.png"))).thenReturn(List.of(
+                new ImageDerivative(1L, "a.png", ImageVariant.THUMBNAIL),
+                new ImageDerivative(2L, "a.png", ImageVariant.CARD)));
+
+        Map<String, Set<ImageVariant>> generated = service.findGenerated(Arrays.asList("a.png", null, "b.png", "a.png"));
+
+        assertEquals(Map.of("a.png", Set.of(ImageVariant.THUMBNAIL, ImageVariant.CARD)), generated);
+    }
+
+    @Test
+    void generate_shouldNotUpscaleSmallImages() throws Exception {
+        captureUploads();
+
+        service.generate("chica.png", png(500, 250));
+        awaitGeneration();
+
+        assertEquals(320, uploaded.get("chica_thumb.jpg").getWidth());
+        assertEquals(500, uploaded.get("chica_card.jpg").getWidth());
+        assertEquals(250, uploaded.get("chica_full.jpg").getHeight());
+    }
+
+    @Test
+    void delete_shouldRemoveEveryVariant() {
+        service.delete("abc.png");
+
+        verify(azureBlobStorage, times(3)).delete(argThat(storage ->
+                List.of("abc_thumb.jpg", "abc_card.jpg", "abc_full.jpg").contains(storage.getPath())));
+        verify(imageDerivativeRepository).deleteByName("abc.png");
+    }
+
+    // casos de error
+
+    @Test
+    void generate_shouldSkip_whenFileIsNotAnImage() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("image", "plano.pdf", "application/pdf", "%PDF".getBytes());
+
+        assertDoesNotThrow(() -> service.generate("plano.pdf", file));
+        awaitGeneration();
+
+        verifyNoInteractions(azureBlobStorage);
+        verifyNoInteractions(imageDerivativeRepository);
+    }
+
+    @Test
+    void generate_shouldRecordOnlyUploadedVariants_whenUploadFails() throws Exception {
+        when(azureBlobStorage.create(any(Storage.class)))
+                .thenReturn("abc_thumb.jpg")
+                .thenThrow(new RuntimeException("Error al cargar la imagen: "));
+
+        assertDoesNotThrow(() -> service.generate("abc.png", png(100, 100)));
+        awaitGeneration();
+
+        verify(azureBlobStorage, times(2)).create(any(Storage.class));
+        verify(imageDerivativeRepository).save(new ImageDerivative(null, "abc.png", ImageVariant.THUMBNAIL));
+        verifyNoMoreInteractions(imageDerivativeRepository);
+    }
+
+    @Test
+    void generate_shouldSkipVariants_whenQueueIsFull() throws Exception {
+        executor.shutdown();
+
+        assertDoesNotThrow(() -> service.generate("abc.png", png(100, 100)));
+
+        verifyNoInteractions(azureBlobStorage);
+    }
+}
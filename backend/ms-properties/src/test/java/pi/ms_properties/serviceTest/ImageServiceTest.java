@@ -1,6 +1,5 @@
 package pi.ms_properties.serviceTest;
 
-import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.models.BlobStorageException;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
@@ -9,23 +8,35 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 import pi.ms_properties.domain.Image;
 import pi.ms_properties.domain.Property;
 import pi.ms_properties.domain.Storage;
 import pi.ms_properties.repository.IImageRepository;
 import pi.ms_properties.repository.IPropertyRepository;
+import pi.ms_properties.repository.ImageBatchRepository;
+import pi.ms_properties.service.impl.ImageDerivativeService;
 import pi.ms_properties.service.impl.ImageService;
+import pi.ms_properties.service.impl.ImageUploadExecutor;
 import pi.ms_properties.service.interf.IAzureBlobStorage;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -47,7 +58,13 @@ class ImageServiceTest {
     private IPropertyRepository propertyRepository;
 
     @Mock
-    private BlobContainerClient blobContainerClient;
+    private ImageBatchRepository imageBatchRepository;
+
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    @Spy
+    private ImageUploadExecutor imageUploadExecutor = new ImageUploadExecutor(Executors.newFixedThreadPool(4, Thread.ofVirtual().factory()));
 
     @Mock
     private MultipartFile multipartFile;
@@ -58,6 +75,10 @@ class ImageServiceTest {
     @Captor
     private ArgumentCaptor<Image> imageCaptor;
 
+    private static MockMultipartFile image(String name) {
+        return new MockMultipartFile("images", name, "image/jpeg", name.getBytes());
+    }
+
     // casos de exito
 
     @Test
@@ -78,6 +99,7 @@ class ImageServiceTest {
 
         assertNotNull(result);
         verify(azureBlobStorage).create(any(Storage.class));
+        verify(imageDerivativeService).generate(result, multipartFile);
         verify(imageRepository).save(imageCaptor.capture());
 
         Image savedImage = imageCaptor.getValue();
@@ -108,16 +130,34 @@ class ImageServiceTest {
         image.setUrl("image-path.jpg");
 
         when(imageRepository.findById(imageId)).thenReturn(Optional.of(image));
-        when(blobContainerClient.getBlobContainerUrl()).thenReturn("https://blob.core.windows.net/container");
+        when(azureBlobStorage.getImagePath("image-path.jpg")).thenReturn("image-path.jpg");
 
         ResponseEntity<String> response = imageService.deleteImage(imageId);
 
         verify(azureBlobStorage).delete(any(Storage.class));
+        verify(imageDerivativeService).delete("image-path.jpg");
         verify(imageRepository).delete(image);
         assertEquals(HttpStatus.OK, ((response).getStatusCode()));
         assertEquals("Imagen eliminada correctamente", response.getBody());
     }
 
+    @Test
+    void getRawImage_shouldStreamStoredFile() throws IOException {
+        Storage storage = new Storage();
+        storage.setInputStream(new ByteArrayInputStream("imagen".getBytes()));
+        storage.setSize(6);
+        storage.setContentType("image/png");
+        when(azureBlobStorage.read("foto.png")).thenReturn(storage);
+
+        ResponseEntity<Resource> response = imageService.getRawImage("foto.png");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.IMAGE_PNG, response.getHeaders().getContentType());
+        assertEquals(6, response.getHeaders().getContentLength());
+        assertTrue(response.getHeaders().getCacheControl().contains("immutable"));
+        assertArrayEquals("imagen".getBytes(), response.getBody().getInputStream().readAllBytes());
+    }
+
     @Test
     void deleteImageByName_success() {
         String imageUrl = "image-path.jpg";
@@ -126,6 +166,7 @@ class ImageServiceTest {
 
         assertDoesNotThrow(() -> imageService.deleteImageByName(imageUrl));
         verify(azureBlobStorage).delete(argThat(storage -> storage.getPath().equals(imageUrl)));
+        verify(imageDerivativeService).delete(imageUrl);
     }
 
     @Test
@@ -167,6 +208,44 @@ class ImageServiceTest {
         verify(azureBlobStorage).create(any(Storage.class));
     }
 
+    @Test
+    void uploadPropertyImages_success_uploadsInParallelAndSavesInBatch() throws Exception {
+        // cada subida espera a que las otras tres hayan empezado: solo termina si corren en paralelo
+        CountDownLatch started = new CountDownLatch(4);
+        List<String> contentTypes = Collections.synchronizedList(new ArrayList<>());
+        when(azureBlobStorage.create(any(Storage.class))).thenAnswer(invocation -> {
+            Storage storage = invocation.getArgument(0);
+            contentTypes.add(storage.getContentType());
+            started.countDown();
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            return storage.getPath();
+        });
+
+        String main = imageService.uploadPropertyImages(1L, image("principal.png"),
+                List.of(image("a.jpg"), image("b.jpg"), image("c.jpg")));
+
+        assertTrue(main.endsWith(".png"));
+        assertEquals(List.of("image/jpeg", "image/jpeg", "image/jpeg", "image/jpeg"), contentTypes);
+
+        ArgumentCaptor<List<String>> urls = ArgumentCaptor.forClass(List.class);
+        verify(imageBatchRepository).saveAll(eq(1L), urls.capture());
+        assertEquals(3, urls.getValue().size());
+        assertTrue(urls.getValue().stream().allMatch(url -> url.endsWith(".jpg")));
+        assertFalse(urls.getValue().contains(main));
+        verify(imageDerivativeService).generate(eq(main), any());
+        verify(imageDerivativeService, times(4)).generate(anyString(), any());
+        verifyNoInteractions(propertyRepository, imageRepository);
+    }
+
+    @Test
+    void uploadPropertyImages_success_withoutExtraImages() {
+        String main = imageService.uploadPropertyImages(1L, image("principal.jpg"), null);
+
+        assertTrue(main.endsWith(".jpg"));
+        verify(azureBlobStorage).create(any(Storage.class));
+        verify(imageBatchRepository).saveAll(1L, List.of());
+    }
+
     @Test
     void getNoticeImageURL_success() {
         String imageName = "notice-image.jpg";
@@ -243,6 +322,39 @@ class ImageServiceTest {
         assertTrue(ex.getMessage().contains("Error al leer el archivo"));
     }
 
+    @Test
+    void uploadPropertyImages_shouldDeleteUploadedBlobs_whenAnUploadFails() {
+        when(azureBlobStorage.create(any(Storage.class))).thenAnswer(invocation -> {
+            Storage storage = invocation.getArgument(0);
+            if ("roto.jpg".equals(storage.getFileName())) {
+                throw new RuntimeException("Error al cargar la imagen: ");
+            }
+            return storage.getPath();
+        });
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> imageService.uploadPropertyImages(1L,
+                image("principal.jpg"), List.of(image("a.jpg"), image("roto.jpg"))));
+
+        assertEquals("No se han podido subir las imagenes de la propiedad", ex.getMessage());
+        verify(azureBlobStorage, times(2)).delete(any(Storage.class));
+        verify(imageDerivativeService, times(2)).delete(anyString());
+        verify(imageDerivativeService, never()).generate(anyString(), any());
+        verifyNoInteractions(imageBatchRepository);
+    }
+
+    @Test
+    void uploadPropertyImages_shouldDeleteUploadedBlobs_whenBatchInsertFails() {
+        doThrow(new RuntimeException("DB error")).when(imageBatchRepository).saveAll(eq(1L), any());
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> imageService.uploadPropertyImages(1L,
+                image("principal.jpg"), List.of(image("a.jpg"), image("b.jpg"))));
+
+        assertEquals("DB error", ex.getMessage());
+        verify(azureBlobStorage, times(3)).create(any(Storage.class));
+        verify(azureBlobStorage, times(3)).delete(any(Storage.class));
+        verify(imageDerivativeService, never()).generate(anyString(), any());
+    }
+
     @Test
     void deleteImage_notFound() {
         when(imageRepository.findById(anyLong())).thenReturn(Optional.empty());
@@ -304,7 +416,7 @@ class ImageServiceTest {
         image.setUrl("container/foto.jpg");
 
         when(imageRepository.findById(1L)).thenReturn(Optional.of(image));
-        when(blobContainerClient.getBlobContainerUrl()).thenReturn("container");
+        when(azureBlobStorage.getImagePath("container/foto.jpg")).thenReturn("foto.jpg");
         doThrow(new BlobStorageException("Error blob", null, null))
                 .when(azureBlobStorage).delete(any(Storage.class));
 
@@ -320,7 +432,7 @@ class ImageServiceTest {
         image.setUrl("container/foto.jpg");
 
         when(imageRepository.findById(1L)).thenReturn(Optional.of(image));
-        when(blobContainerClient.getBlobContainerUrl()).thenReturn("container");
+        when(azureBlobStorage.getImagePath("container/foto.jpg")).thenReturn("foto.jpg");
         doThrow(new RuntimeException("Error inesperado"))
                 .when(azureBlobStorage).delete(any(Storage.class));
 
@@ -330,6 +442,13 @@ class ImageServiceTest {
         assertEquals("Error inesperado", ex.getMessage());
     }
 
+    @Test
+    void getRawImage_shouldThrowNotFound_whenFileDoesNotExist() {
+        when(azureBlobStorage.read("nada.png")).thenThrow(new EntityNotFoundException("Imagen no encontrada"));
+
+        assertThrows(EntityNotFoundException.class, () -> imageService.getRawImage("nada.png"));
+    }
+
     @Test
     void getAllByPropertyId_shouldThrow_whenException() {
         when(propertyRepository.findById(1L)).thenThrow(new RuntimeException("Error inesperado"));
@@ -6,6 +6,7 @@ import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -18,6 +19,7 @@ import org.springframework.security.access.AccessDeniedException;
 import pi.ms_properties.domain.Inquiry;
 import pi.ms_properties.domain.InquiryStatus;
 import pi.ms_properties.domain.Property;
+import pi.ms_properties.dto.EmailDTO;
 import pi.ms_properties.dto.InquiryGetDTO;
 import pi.ms_properties.dto.InquirySaveDTO;
 import pi.ms_properties.dto.feign.UserDTO;
@@ -77,6 +79,14 @@ class InquiryServiceTest {
         return property;
     }
 
+    private List<Object[]> titleRows(Property... properties) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Property property : properties) {
+            rows.add(new Object[]{property.getId(), property.getTitle()});
+        }
+        return rows;
+    }
+
     private Inquiry getSampleInquiry() {
         Inquiry i = new Inquiry();
         i.setId(1L);
@@ -107,8 +117,7 @@ class InquiryServiceTest {
         userDTO.setFirstName("John");
         userDTO.setLastName("Doe");
 
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(propertyRepository.findAllById(List.of(1L))).thenReturn(List.of(property));
+        when(propertyRepository.findTitlesByIdIn(Set.of(1L))).thenReturn(titleRows(property));
         when(userRepository.exist("user123")).thenReturn(true);
         when(userRepository.findById("user123")).thenReturn(userDTO);
 
@@ -117,6 +126,43 @@ class InquiryServiceTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(emailService).sendEmailInquiry(any());
         verify(inquiryRepository).save(any());
+        verify(propertyRepository).linkInquiry(any(), eq(Set.of(1L)));
+        verify(propertyRepository, never()).findById(any());
+        verify(propertyRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void create_shouldResolveAllPropertiesInOneQuery() {
+        InquirySaveDTO dto = getSampleDTO();
+        dto.setUserId(null);
+        dto.setPropertyIds(List.of(2L, 1L, 2L));
+        Property first = getSampleProperty();
+        Property second = getSampleProperty();
+        second.setId(2L);
+        second.setTitle("Propiedad 2");
+
+        when(propertyRepository.findTitlesByIdIn(Set.of(1L, 2L))).thenReturn(titleRows(first, second));
+
+        inquiryService.create(dto);
+
+        verify(propertyRepository, times(1)).findTitlesByIdIn(any());
+        verify(propertyRepository).linkInquiry(any(), eq(Set.of(1L, 2L)));
+        ArgumentCaptor<EmailDTO> captor = ArgumentCaptor.forClass(EmailDTO.class);
+        verify(emailService).sendEmailInquiry(captor.capture());
+        assertEquals(List.of("Propiedad 2", "Propiedad 1"), captor.getValue().getPropertiesTitle());
+    }
+
+    @Test
+    void create_withoutProperties_shouldNotQueryProperties() {
+        InquirySaveDTO dto = getSampleDTO();
+        dto.setUserId(null);
+        dto.setPropertyIds(List.of());
+
+        ResponseEntity<String> response = inquiryService.create(dto);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(propertyRepository, never()).findTitlesByIdIn(any());
+        verify(propertyRepository, never()).linkInquiry(any(), any());
     }
 
     @Test
@@ -130,8 +176,7 @@ class InquiryServiceTest {
 
         Property property = getSampleProperty();
 
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
-        when(propertyRepository.findAllById(List.of(1L))).thenReturn(List.of(property));
+        when(propertyRepository.findTitlesByIdIn(Set.of(1L))).thenReturn(titleRows(property));
 
         ResponseEntity<String> response = inquiryService.create(dto);
 
@@ -329,52 +374,64 @@ class InquiryServiceTest {
 
     @Test
     void getAverageInquiryResponseTime_success() {
-        Inquiry inquiry = getSampleInquiry();
-        when(inquiryRepository.getByStatus(InquiryStatus.CERRADA)).thenReturn(List.of(inquiry));
+        // 2 consultas cerradas que suman 1 dia, 2 horas, 3 minutos y 4 segundos cada una
+        when(inquiryRepository.sumResponseSeconds(InquiryStatus.CERRADA))
+                .thenReturn(Collections.singletonList(new Object[]{2L, 2 * 93784L}));
 
         ResponseEntity<String> response = inquiryService.getAverageInquiryResponseTime();
 
-        assertTrue(response.getBody().contains("horas"));
+        assertEquals("1 días, 2 horas, 3 minutos, 4 segundos", response.getBody());
+        verify(inquiryRepository, never()).getByStatus(any());
     }
 
     @Test
-    void getInquiriesGroupedByDayOfWeek_success() {
-        Inquiry inquiry1 = new Inquiry();
-        inquiry1.setDate(LocalDateTime.of(2024, 5, 20, 10, 0));
+    void getAverageInquiryResponseTime_shouldReturnZero_whenNoClosedInquiries() {
+        when(inquiryRepository.sumResponseSeconds(InquiryStatus.CERRADA))
+                .thenReturn(Collections.singletonList(new Object[]{0L, null}));
 
-        Inquiry inquiry2 = new Inquiry();
-        inquiry2.setDate(LocalDateTime.of(2024, 5, 21, 15, 0));
+        ResponseEntity<String> response = inquiryService.getAverageInquiryResponseTime();
+
+        assertEquals("0 segundos", response.getBody());
+    }
 
-        when(inquiryRepository.findAll()).thenReturn(List.of(inquiry1, inquiry2));
+    @Test
+    void getInquiriesGroupedByDayOfWeek_success() {
+        // la base numera los dias desde el domingo
+        when(inquiryRepository.countByDayOfWeek()).thenReturn(List.of(
+                new Object[]{1, 4L},
+                new Object[]{2, 1L},
+                new Object[]{7, 3L}
+        ));
 
         ResponseEntity<Map<String, Long>> response = inquiryService.getInquiriesGroupedByDayOfWeek();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(2, response.getBody().size());
-        assertTrue(response.getBody().containsKey("lunes"));
-        assertTrue(response.getBody().containsKey("martes"));
+        assertEquals(3, response.getBody().size());
+        assertEquals(4L, response.getBody().get("domingo"));
+        assertEquals(1L, response.getBody().get("lunes"));
+        assertEquals(3L, response.getBody().get("sábado"));
+        verify(inquiryRepository, never()).findAll();
     }
 
     @Test
     void getInquiriesGroupedByTimeRange_success() {
-        Inquiry morning = new Inquiry();
-        morning.setDate(LocalDateTime.of(2024, 5, 20, 10, 0));
-
-        Inquiry afternoon = new Inquiry();
-        afternoon.setDate(LocalDateTime.of(2024, 5, 20, 15, 0));
-
-        Inquiry night = new Inquiry();
-        night.setDate(LocalDateTime.of(2024, 5, 20, 20, 0));
-
-        when(inquiryRepository.findAll()).thenReturn(List.of(morning, afternoon, night));
+        when(inquiryRepository.countByHour()).thenReturn(List.of(
+                new Object[]{0, 1L},
+                new Object[]{11, 2L},
+                new Object[]{12, 3L},
+                new Object[]{17, 1L},
+                new Object[]{18, 5L},
+                new Object[]{23, 1L}
+        ));
 
         ResponseEntity<Map<String, Long>> response = inquiryService.getInquiriesGroupedByTimeRange();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(3, response.getBody().size());
-        assertEquals(1L, response.getBody().get("Mañana"));
-        assertEquals(1L, response.getBody().get("Tarde"));
-        assertEquals(1L, response.getBody().get("Noche"));
+        assertEquals(3L, response.getBody().get("Mañana"));
+        assertEquals(4L, response.getBody().get("Tarde"));
+        assertEquals(6L, response.getBody().get("Noche"));
+        verify(inquiryRepository, never()).findAll();
     }
 
     @Test
@@ -410,18 +467,32 @@ class InquiryServiceTest {
     @Test
     void create_propertyNotFound() {
         InquirySaveDTO dto = getSampleDTO();
-        when(propertyRepository.findById(1L)).thenReturn(Optional.empty());
+        when(propertyRepository.findTitlesByIdIn(Set.of(1L))).thenReturn(List.of());
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> inquiryService.create(dto));
 
         assertEquals("No se ha encontrado la propiedad con id 1", exception.getMessage());
+        verify(inquiryRepository, never()).save(any());
+    }
+
+    @Test
+    void create_shouldReportMissingProperty_whenOnlySomeExist() {
+        InquirySaveDTO dto = getSampleDTO();
+        dto.setPropertyIds(List.of(1L, 2L));
+        when(propertyRepository.findTitlesByIdIn(Set.of(1L, 2L))).thenReturn(titleRows(getSampleProperty()));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> inquiryService.create(dto));
+
+        assertEquals("No se ha encontrado la propiedad con id 2", exception.getMessage());
+        verify(propertyRepository, never()).linkInquiry(any(), any());
     }
 
     @Test
     void create_genericException() {
         InquirySaveDTO dto = getSampleDTO();
-        when(propertyRepository.findById(1L)).thenThrow(new RuntimeException("Error inesperado"));
+        when(propertyRepository.findTitlesByIdIn(Set.of(1L))).thenThrow(new RuntimeException("Error inesperado"));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> inquiryService.create(dto));
@@ -632,7 +703,7 @@ class InquiryServiceTest {
     void create_shouldThrowIllegalArgumentException_whenUserDoesNotExist() {
         InquirySaveDTO dto = getSampleDTO();
 
-        when(propertyRepository.findById(1L)).thenReturn(Optional.of(new Property()));
+        when(propertyRepository.findTitlesByIdIn(Set.of(1L))).thenReturn(titleRows(getSampleProperty()));
 
         when(userRepository.exist(dto.getUserId())).thenReturn(false);;
 
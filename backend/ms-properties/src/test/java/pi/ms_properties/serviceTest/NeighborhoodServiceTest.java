@@ -12,13 +12,18 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import pi.ms_properties.comparer.service.FilterVocabulary;
 import pi.ms_properties.domain.Neighborhood;
 import pi.ms_properties.domain.NeighborhoodType;
 import pi.ms_properties.dto.NeighborhoodDTO;
 import pi.ms_properties.dto.NeighborhoodGetDTO;
+import pi.ms_properties.recommendation.index.PropertyFeatureIndex;
 import pi.ms_properties.repository.INeighborhoodRepository;
+import pi.ms_properties.service.impl.ChatFactsCache;
 import pi.ms_properties.service.impl.GeocodingNeighborhoodService;
 import pi.ms_properties.service.impl.NeighborhoodService;
+import pi.ms_properties.service.impl.PropertyFacetIndex;
+import pi.ms_properties.service.impl.PropertyTextIndex;
 
 import java.util.Collections;
 import java.util.List;
@@ -44,6 +49,21 @@ class NeighborhoodServiceTest {
     @Mock
     private GeocodingNeighborhoodService geocodingNeighborhoodService;
 
+    @Mock
+    private PropertyFeatureIndex propertyFeatureIndex;
+
+    @Mock
+    private PropertyTextIndex propertyTextIndex;
+
+    @Mock
+    private PropertyFacetIndex propertyFacetIndex;
+
+    @Mock
+    private FilterVocabulary filterVocabulary;
+
+    @Mock
+    private ChatFactsCache chatFactsCache;
+
     // casos de exito
 
     @Test
@@ -59,6 +79,7 @@ class NeighborhoodServiceTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Se ha guardado el barrio: Barrio Norte", response.getBody());
         verify(repository).save(any(Neighborhood.class));
+        verify(filterVocabulary).refreshNeighborhoods();
     }
 
     @Test
@@ -72,6 +93,7 @@ class NeighborhoodServiceTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Se ha eliminado el barrio", response.getBody());
         verify(repository).deleteById(1L);
+        verify(filterVocabulary).refreshNeighborhoods();
     }
 
     @Test
@@ -92,6 +114,29 @@ class NeighborhoodServiceTest {
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Palermo", response.getBody().getName());
+        verify(propertyFeatureIndex).updateNeighborhood(1L, -89.9, 87.90);
+        verify(propertyTextIndex).updateNeighborhood(1L, "Palermo", "CABA");
+        verify(propertyFacetIndex).rebuild();
+        verify(filterVocabulary).refreshNeighborhoods();
+        verify(chatFactsCache).invalidateAll();
+    }
+
+    @Test
+    void updateNeighborhood_sameLocation_shouldKeepCoordinatesWithoutGeocoding() {
+        NeighborhoodDTO dto = new NeighborhoodDTO(null, "palermo", "CERRADO", "caba");
+        Neighborhood old = new Neighborhood(1L, "Palermo", NeighborhoodType.ABIERTO, "CABA", -34.58, -58.42);
+
+        when(repository.findById(1L)).thenReturn(Optional.of(old));
+        when(repository.save(any())).thenReturn(old);
+        when(mapper.convertValue(any(), eq(NeighborhoodGetDTO.class)))
+                .thenReturn(new NeighborhoodGetDTO(1L, "palermo", "CERRADO", "caba", -34.58, -58.42));
+
+        ResponseEntity<NeighborhoodGetDTO> response = service.updateNeighborhood(1L, dto);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(NeighborhoodType.CERRADO, old.getType());
+        verify(propertyFeatureIndex).updateNeighborhood(1L, -34.58, -58.42);
+        verifyNoInteractions(geocodingNeighborhoodService);
     }
 
     @Test
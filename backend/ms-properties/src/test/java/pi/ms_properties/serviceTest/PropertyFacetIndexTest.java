@@ -0,0 +1,206 @@
+package pi.ms_properties.serviceTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pi.ms_properties.domain.*;
+import pi.ms_properties.repository.IPropertyRepository;
+import pi.ms_properties.service.impl.PropertyFacetIndex;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyFacetIndexTest {
+
+    @Mock
+    private IPropertyRepository propertyRepository;
+
+    private PropertyFacetIndex index;
+
+    private final Neighborhood palermo = new Neighborhood(1L, "Palermo", NeighborhoodType.ABIERTO, "CABA", -34.58, -58.42);
+
+    private final Neighborhood centro = new Neighborhood(2L, "Centro", NeighborhoodType.ABIERTO, "Córdoba", -31.4, -64.18);
+
+    private final Type casa = new Type(1L, "Casa", true, true, true, true);
+
+    private final Type departamento = new Type(2L, "Departamento", true, true, true, true);
+
+    private final Amenity pileta = new Amenity(1L, "Pileta", new ArrayList<>());
+
+    private final Amenity quincho = new Amenity(2L, "Quincho", new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertyFacetIndex(propertyRepository);
+        index.put(property(1L, casa, palermo, 3f, Operation.VENTA, Currency.USD, pileta, quincho));
+        index.put(property(2L, casa, centro, 2f, Operation.VENTA, Currency.ARS, pileta));
+        index.put(property(3L, departamento, palermo, 2f, Operation.ALQUILER, Currency.ARS));
+        index.put(property(4L, departamento, centro, 1.5f, Operation.VENTA, Currency.USD, quincho));
+    }
+
+    private Property property(Long id, Type type, Neighborhood neighborhood, Float rooms,
+                              Operation operation, Currency currency, Amenity... amenities) {
+        Property property = new Property();
+        property.setId(id);
+        property.setType(type);
+        property.setNeighborhood(neighborhood);
+        property.setRooms(rooms);
+        property.setOperation(operation);
+        property.setCurrency(currency);
+        property.setStatus(Status.DISPONIBLE);
+        property.setAmenities(new HashSet<>(List.of(amenities)));
+        return property;
+    }
+
+    // casos de exito
+
+    @Test
+    void search_withoutFilters_shouldCountEverything() {
+        PropertyFacetIndex.Result result = index.search(Map.of());
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), result.ids());
+        assertEquals(Map.of("Casa", 2, "Departamento", 2), result.counts().get(PropertyFacetIndex.TYPES));
+        assertEquals(Map.of("CABA", 2, "Córdoba", 2), result.counts().get(PropertyFacetIndex.CITIES));
+        assertEquals(Map.of("2", 2, "3", 1, "1.5", 1), result.counts().get(PropertyFacetIndex.ROOMS));
+        assertEquals(Map.of("VENTA", 3, "ALQUILER", 1), result.counts().get(PropertyFacetIndex.OPERATIONS));
+        assertEquals(List.of("VENTA", "ALQUILER"), List.copyOf(result.counts().get(PropertyFacetIndex.OPERATIONS).keySet()));
+    }
+
+    @Test
+    void search_shouldOrValuesWithinFacetAndAndAcrossFacets() {
+        PropertyFacetIndex.Result result = index.search(Map.of(
+                PropertyFacetIndex.NEIGHBORHOODS, List.of("palermo", "CENTRO"),
+                PropertyFacetIndex.TYPES, List.of("casa")));
+
+        assertEquals(List.of(1L, 2L), result.ids());
+    }
+
+    @Test
+    void search_shouldRequireAllAmenities() {
+        PropertyFacetIndex.Result result = index.search(Map.of(
+                PropertyFacetIndex.AMENITIES, List.of("Pileta", "Quincho")));
+
+        assertEquals(List.of(1L), result.ids());
+        assertEquals(Map.of("Pileta", 1, "Quincho", 1), result.counts().get(PropertyFacetIndex.AMENITIES));
+    }
+
+    @Test
+    void search_shouldCountFacetIgnoringItsOwnSelection() {
+        PropertyFacetIndex.Result result = index.search(Map.of(
+                PropertyFacetIndex.TYPES, List.of("Casa"),
+                PropertyFacetIndex.CURRENCIES, List.of("USD")));
+
+        assertEquals(List.of(1L), result.ids());
+        // los tipos se cuentan solo con el filtro de moneda
+        assertEquals(Map.of("Casa", 1, "Departamento", 1), result.counts().get(PropertyFacetIndex.TYPES));
+        // las monedas se cuentan solo con el filtro de tipo
+        assertEquals(Map.of("USD", 1, "ARS", 1), result.counts().get(PropertyFacetIndex.CURRENCIES));
+        assertEquals(Map.of("Palermo", 1), result.counts().get(PropertyFacetIndex.NEIGHBORHOODS));
+    }
+
+    @Test
+    void put_shouldDropPropertyWhenNoLongerAvailable() {
+        Property sold = property(1L, casa, palermo, 3f, Operation.VENTA, Currency.USD, pileta, quincho);
+        sold.setStatus(Status.VENDIDA);
+
+        index.put(sold);
+
+        assertEquals(3, index.size());
+        assertEquals(List.of(2L), index.search(Map.of(PropertyFacetIndex.AMENITIES, List.of("Pileta"))).ids());
+    }
+
+    @Test
+    void remove_shouldReuseOrdinalsAndDropEmptyValues() {
+        index.remove(3L);
+        index.put(property(5L, casa, palermo, 4f, Operation.VENTA, Currency.USD));
+
+        PropertyFacetIndex.Result result = index.search(Map.of());
+        assertEquals(List.of(1L, 2L, 4L, 5L), result.ids());
+        assertFalse(result.counts().get(PropertyFacetIndex.OPERATIONS).containsKey("ALQUILER"));
+        assertEquals(1, result.counts().get(PropertyFacetIndex.ROOMS).get("4"));
+    }
+
+    @Test
+    void remove_shouldWaitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(3L);
+            assertEquals(4, index.size());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(1L, 2L, 4L), index.search(Map.of()).ids());
+    }
+
+    @Test
+    void refresh_shouldReloadFromRepository() {
+        Property sold = property(2L, casa, centro, 2f, Operation.VENTA, Currency.ARS, pileta);
+        sold.setStatus(Status.VENDIDA);
+        when(propertyRepository.findListingByIdIn(List.of(2L))).thenReturn(List.of(sold));
+        when(propertyRepository.findListingByIdIn(List.of(4L))).thenReturn(List.of());
+
+        index.refresh(2L);
+        index.refresh(4L);
+
+        assertEquals(List.of(1L, 3L), index.search(Map.of()).ids());
+    }
+
+    @Test
+    void rebuild_shouldReplaceContents() {
+        when(propertyRepository.findSearchableByStatus(Status.DISPONIBLE)).thenReturn(List.of(
+                property(7L, casa, palermo, 3f, Operation.VENTA, Currency.USD)));
+
+        index.rebuild();
+
+        assertEquals(List.of(7L), index.search(Map.of()).ids());
+        assertEquals(Map.of("Casa", 1), index.search(Map.of()).counts().get(PropertyFacetIndex.TYPES));
+    }
+
+    // casos de error
+
+    @Test
+    void search_shouldReturnEmpty_whenValueIsUnknown() {
+        PropertyFacetIndex.Result result = index.search(Map.of(PropertyFacetIndex.TYPES, List.of("Castillo")));
+
+        assertTrue(result.ids().isEmpty());
+        assertEquals(Map.of("Casa", 2, "Departamento", 2), result.counts().get(PropertyFacetIndex.TYPES));
+        assertTrue(result.counts().get(PropertyFacetIndex.CITIES).isEmpty());
+    }
+
+    @Test
+    void put_shouldIgnorePropertyWithoutId() {
+        index.put(property(null, casa, palermo, 3f, Operation.VENTA, Currency.USD));
+
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void remove_shouldKeepCounts_whenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(3L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        PropertyFacetIndex.Result result = index.search(Map.of());
+        assertEquals(List.of(1L, 2L, 3L, 4L), result.ids());
+        assertEquals(Map.of("VENTA", 3, "ALQUILER", 1), result.counts().get(PropertyFacetIndex.OPERATIONS));
+    }
+}
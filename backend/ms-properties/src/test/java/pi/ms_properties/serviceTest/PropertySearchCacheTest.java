@@ -0,0 +1,166 @@
+package pi.ms_properties.serviceTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pi.ms_properties.domain.Currency;
+import pi.ms_properties.domain.Status;
+import pi.ms_properties.service.impl.PropertySearchCache;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PropertySearchCacheTest {
+
+    private MeterRegistry meterRegistry;
+
+    private MutableClock clock;
+
+    private PropertySearchCache cache;
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-05-19T10:00:00Z");
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        cache = new PropertySearchCache(meterRegistry, 2, 60, clock);
+    }
+
+    private PropertySearchCache.Key key(String operation, List<String> types) {
+        return PropertySearchCache.key(BigDecimal.ZERO, BigDecimal.ZERO, 0f, 0f, 0f, 0f,
+                null, operation, types, null, null, null, null, null, null, null, null);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("property.search.cache").tag("result", result).counter().count();
+    }
+
+    // casos de exito
+
+    @Test
+    void key_shouldNormalizeEquivalentFilters() {
+        PropertySearchCache.Key a = PropertySearchCache.key(new BigDecimal("1000.00"), BigDecimal.ZERO, 0f, 0f, 0f, 0f,
+                Arrays.asList(3f, null, 0f, 2f), "VENTA", List.of("Casa", "depto"), List.of("Pileta"),
+                null, List.of(), List.of(" Abierto "), true, null, Currency.USD, Status.DISPONIBLE);
+        PropertySearchCache.Key b = PropertySearchCache.key(new BigDecimal("1E+3"), BigDecimal.ZERO, 0f, 0f, 0f, 0f,
+                List.of(2f, 3f), "venta", List.of("DEPTO", "casa"), List.of("pileta"),
+                List.of(), null, List.of("abierto"), true, null, Currency.USD, Status.DISPONIBLE);
+
+        assertEquals(a, b);
+        assertNotEquals(a, key("venta", List.of("casa")));
+    }
+
+    @Test
+    void get_shouldCountHitsAndMisses() {
+        PropertySearchCache.Key key = key("venta", List.of());
+
+        assertTrue(cache.get(key).isEmpty());
+        cache.put(key, List.of(3L, 1L), cache.generation());
+
+        assertEquals(Optional.of(List.of(3L, 1L)), cache.get(key));
+        assertEquals(1.0, count("hit"));
+        assertEquals(1.0, count("miss"));
+    }
+
+    @Test
+    void get_shouldExpireAfterTtl() {
+        PropertySearchCache.Key key = key("venta", List.of());
+        cache.put(key, List.of(1L), cache.generation());
+
+        clock.advance(Duration.ofSeconds(61));
+
+        assertTrue(cache.get(key).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsed() {
+        PropertySearchCache.Key venta = key("venta", List.of());
+        PropertySearchCache.Key alquiler = key("alquiler", List.of());
+        PropertySearchCache.Key casa = key("", List.of("casa"));
+
+        cache.put(venta, List.of(1L), cache.generation());
+        cache.put(alquiler, List.of(2L), cache.generation());
+        cache.get(venta);
+        cache.put(casa, List.of(3L), cache.generation());
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get(venta).isPresent());
+        assertTrue(cache.get(alquiler).isEmpty());
+        assertEquals(1.0, meterRegistry.get("property.search.cache.evictions").counter().count());
+    }
+
+    @Test
+    void invalidate_shouldClearEntries() {
+        PropertySearchCache.Key key = key("venta", List.of());
+        cache.put(key, List.of(1L), cache.generation());
+
+        cache.invalidate();
+
+        assertTrue(cache.get(key).isEmpty());
+        assertEquals(0.0, meterRegistry.get("property.search.cache.size").gauge().value());
+    }
+
+    @Test
+    void invalidate_shouldClearAgainAfterCommit() {
+        PropertySearchCache.Key key = key("venta", List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate();
+            // una busqueda concurrente que leyo antes del commit
+            cache.put(key, List.of(1L), cache.generation());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(cache.get(key).isEmpty());
+    }
+
+    // casos de error
+
+    @Test
+    void put_shouldIgnoreResultsReadBeforeInvalidation() {
+        PropertySearchCache.Key key = key("venta", List.of());
+        long generation = cache.generation();
+
+        cache.invalidate();
+        cache.put(key, List.of(1L), generation);
+
+        assertTrue(cache.get(key).isEmpty());
+    }
+}
@@ -10,6 +10,8 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,18 +20,25 @@ import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import pi.ms_properties.comparer.service.ComparisonCache;
 import pi.ms_properties.domain.*;
 import pi.ms_properties.domain.Currency;
 import pi.ms_properties.dto.*;
 import pi.ms_properties.dto.feign.ContractDTO;
 import pi.ms_properties.dto.feign.NotificationDTO;
+import pi.ms_properties.recommendation.index.PropertyFeatureIndex;
 import pi.ms_properties.recommendation.service.RecommendationService;
 import pi.ms_properties.repository.*;
 import pi.ms_properties.repository.feign.ContractRepository;
 import pi.ms_properties.repository.feign.NotificationRepository;
-import pi.ms_properties.service.impl.AzureBlobStorage;
+import pi.ms_properties.service.impl.ChatFactsCache;
+import pi.ms_properties.service.impl.ImageDerivativeService;
 import pi.ms_properties.service.impl.ImageService;
+import pi.ms_properties.service.impl.PropertySearchCache;
 import pi.ms_properties.service.impl.PropertyService;
+import pi.ms_properties.service.impl.PropertyFacetIndex;
+import pi.ms_properties.service.impl.PropertyTextIndex;
+import pi.ms_properties.service.interf.IAzureBlobStorage;
 import pi.ms_properties.service.interf.IViewService;
 
 import java.math.BigDecimal;
@@ -73,7 +82,7 @@ public class PropertyServiceTest {
     private ObjectMapper mapper;
 
     @Mock
-    private AzureBlobStorage azureBlobStorage;
+    private IAzureBlobStorage azureBlobStorage;
 
     @Mock
     private IViewService viewService;
@@ -96,6 +105,30 @@ public class PropertyServiceTest {
     @Mock
     private IViewRepository viewRepository;
 
+    @Mock
+    private IViewCountRepository viewCountRepository;
+
+    @Mock
+    private PropertyFeatureIndex propertyFeatureIndex;
+
+    @Mock
+    private PropertySearchCache propertySearchCache;
+
+    @Mock
+    private PropertyTextIndex propertyTextIndex;
+
+    @Mock
+    private PropertyFacetIndex propertyFacetIndex;
+
+    @Mock
+    private ComparisonCache comparisonCache;
+
+    @Mock
+    private ChatFactsCache chatFactsCache;
+
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
     @InjectMocks
     private PropertyService propertyService;
 
@@ -334,18 +367,9 @@ public class PropertyServiceTest {
 
         when(propertyRepository.save(ArgumentMatchers.any())).thenReturn(property);
 
-        when(imageService.uploadImageToProperty(
-                any(MultipartFile.class),
-                any(),
-                eq(true)))
+        when(imageService.uploadPropertyImages(any(), eq(propertySaveDTO.getMainImage()), eq(propertySaveDTO.getImages())))
                 .thenReturn("https://example.com/mainImage.jpg");
 
-        when(imageService.uploadImageToProperty(
-                any(MultipartFile.class),
-                any(),
-                eq(false)))
-                .thenReturn("https://example.com/extra.jpg");
-
         doNothing().when(notificationRepository)
                 .createNotification(any(NotificationDTO.class), any());
 
@@ -353,6 +377,10 @@ public class PropertyServiceTest {
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("La propiedad se ha guardado correctamente.", response.getBody());
+        verify(propertyFeatureIndex).put(property);
+        verify(propertyTextIndex).put(property);
+        verify(propertyFacetIndex).put(property);
+        verify(propertySearchCache).invalidate();
     }
 
     @Test
@@ -424,6 +452,12 @@ public class PropertyServiceTest {
         assertNotNull(response.getBody());
 
         verify(imageService, never()).deleteImageByName(anyString());
+        verify(propertyFeatureIndex).put(argThat(p -> id.equals(p.getId())));
+        verify(propertyTextIndex).put(argThat(p -> id.equals(p.getId())));
+        verify(propertyFacetIndex).put(argThat(p -> id.equals(p.getId())));
+        verify(propertySearchCache).invalidate();
+        verify(comparisonCache).invalidate("Hermosa casa en venta");
+        verify(chatFactsCache).invalidate(id);
     }
 
     @Test
@@ -444,6 +478,8 @@ public class PropertyServiceTest {
         assertEquals(newStatus, property.getStatus());
         verify(propertyRepository).findById(id);
         verify(propertyRepository).save(property);
+        verify(propertyFacetIndex).refresh(id);
+        verify(propertySearchCache).invalidate();
     }
 
     @Test
@@ -464,6 +500,7 @@ public class PropertyServiceTest {
 
         verify(propertyRepository).findById(id);
         verify(propertyRepository).save(property);
+        verify(propertySearchCache).invalidate();
     }
 
     @Test
@@ -559,20 +596,91 @@ public class PropertyServiceTest {
                 true,
                 false,
                 null,
-                null
+                null,
+                null, null, null
         );
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().size());
         assertEquals(propertyDTO.getTitle(), response.getBody().getFirst().getTitle());
+        verify(propertySearchCache).put(any(PropertySearchCache.Key.class), anyList(), anyLong());
+    }
+
+    @Test
+    void testFindBy_cacheHitSkipsSpecificationQuery() {
+        property.setId(1L);
+        PropertySearchCache.Key key = PropertySearchCache.key(BigDecimal.ZERO, BigDecimal.ZERO, 0f, 0f, 0f, 0f,
+                null, "venta", List.of("casa"), null, null, null, null, null, null, null, null);
+
+        when(propertySearchCache.get(key)).thenReturn(Optional.of(List.of(1L)));
+        when(propertyRepository.findListingByIdIn(List.of(1L))).thenReturn(List.of(property));
+
+        ResponseEntity<List<PropertyDTO>> response = propertyService.findBy(
+                BigDecimal.valueOf(0.00), BigDecimal.ZERO, 0f, 0f, 0f, 0f,
+                null, "VENTA", List.of("Casa"), null, null, null, null, null, null, null, null,
+                null, null, null
+        );
+
+        assertEquals(List.of(1L), response.getBody().stream().map(PropertyDTO::getId).toList());
+        verify(propertyRepository, never()).findAll(any(Specification.class));
+        verify(propertySearchCache, never()).put(any(), anyList(), anyLong());
+    }
+
+    @Test
+    void testFindBy_nearFilterKeepsIndexOrder() {
+        property.setId(1L);
+        Property far = new Property();
+        far.setId(2L);
+        far.setTitle("Lejana");
+        far.setNeighborhood(property.getNeighborhood());
+        far.setType(property.getType());
+        far.setAmenities(property.getAmenities());
+        far.setStatus(Status.DISPONIBLE);
+        far.setOperation(Operation.VENTA);
+        far.setCurrency(Currency.USD);
+
+        when(propertyFeatureIndex.findWithin(-31.4, -64.18, 5.0)).thenReturn(List.of(1L, 2L));
+        when(propertyRepository.findAll(ArgumentMatchers.<Specification<Property>>any())).thenReturn(List.of(far, property));
+
+        ResponseEntity<List<PropertyDTO>> response = propertyService.findBy(
+                BigDecimal.ZERO, BigDecimal.ZERO, 0f, 0f, 0f, 0f,
+                null, "", null, null, null, null, null, null, null, null, null,
+                -31.4, -64.18, 5.0
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(1L, 2L), response.getBody().stream().map(PropertyDTO::getId).toList());
+        verify(propertyFeatureIndex).findWithin(-31.4, -64.18, 5.0);
+        verify(propertySearchCache, never()).get(any());
+        verify(propertySearchCache, never()).put(any(), anyList(), anyLong());
+    }
+
+    @Test
+    void testGetFacets_success() {
+        PropertyFacetIndex.Result result = new PropertyFacetIndex.Result(List.of(1L),
+                Map.of(PropertyFacetIndex.TYPES, Map.of("Casa", 1)));
+        when(propertyFacetIndex.search(argThat(selected ->
+                List.of("Casa").equals(selected.get(PropertyFacetIndex.TYPES))
+                        && List.of("2.5", "3").equals(selected.get(PropertyFacetIndex.ROOMS))
+                        && List.of("USD").equals(selected.get(PropertyFacetIndex.CURRENCIES))
+                        && selected.get(PropertyFacetIndex.AMENITIES) == null)))
+                .thenReturn(result);
+
+        ResponseEntity<PropertyFacetsDTO> response = propertyService.getFacets(List.of("Casa"), null, null, null,
+                List.of(2.5f, 3f), null, List.of(Currency.USD));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(1L), response.getBody().getIds());
+        assertEquals(1, response.getBody().getFacets().get(PropertyFacetIndex.TYPES).get("Casa"));
     }
 
     @Test
     void testFindByTitleDescription_success() {
-        List<Property> propertyList = List.of(property);
+        property.setId(1L);
 
-        when(propertyRepository.findAll(ArgumentMatchers.<Specification<Property>>any())).thenReturn(propertyList);
+        when(propertyTextIndex.search("moderno")).thenReturn(List.of(1L));
+        when(propertyRepository.findListingByIdIn(List.of(1L))).thenReturn(List.of(property));
         when(mapper.convertValue(property.getNeighborhood(), NeighborhoodDTO.class))
                 .thenReturn(propertyDTO.getNeighborhood());
 
@@ -582,6 +690,44 @@ public class PropertyServiceTest {
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().size());
         assertEquals(propertyDTO.getTitle(), response.getBody().getFirst().getTitle());
+        verify(propertyRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    void testFindByTitleDescription_keepsRelevanceOrder() {
+        Property other = new Property();
+        other.setId(2L);
+        other.setStatus(Status.DISPONIBLE);
+        other.setOperation(Operation.VENTA);
+        other.setCurrency(Currency.USD);
+        property.setId(1L);
+
+        when(propertyTextIndex.search("pileta")).thenReturn(List.of(2L, 1L));
+        when(propertyRepository.findListingByIdIn(List.of(2L, 1L))).thenReturn(List.of(property, other));
+
+        ResponseEntity<List<PropertyDTO>> response = propertyService.findByTitleDescription("pileta");
+
+        assertEquals(List.of(2L, 1L), response.getBody().stream().map(PropertyDTO::getId).toList());
+    }
+
+    @Test
+    void testFindByTitleDescription_blankReturnsAll() {
+        when(propertyRepository.findAll()).thenReturn(List.of(property));
+
+        ResponseEntity<List<PropertyDTO>> response = propertyService.findByTitleDescription(" ");
+
+        assertEquals(1, response.getBody().size());
+        verifyNoInteractions(propertyTextIndex);
+    }
+
+    @Test
+    void testFindByTitleDescription_noMatches() {
+        when(propertyTextIndex.search("castillo")).thenReturn(List.of());
+
+        ResponseEntity<List<PropertyDTO>> response = propertyService.findByTitleDescription("castillo");
+
+        assertTrue(response.getBody().isEmpty());
+        verify(propertyRepository, never()).findListingByIdIn(any());
     }
 
     @Test
@@ -608,6 +754,35 @@ public class PropertyServiceTest {
         assertEquals(property.getType().getName(), dto.getType());
     }
 
+    @Test
+    void testGetSimpleById_shouldExposeImageVariants() {
+        property.setMainImage("principal.png");
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        when(azureBlobStorage.getImageUrl(anyString())).thenAnswer(invocation -> "https://storage/" + invocation.getArgument(0));
+        when(imageDerivativeService.findGenerated(List.of("principal.png")))
+                .thenReturn(Map.of("principal.png", Set.of(ImageVariant.THUMBNAIL, ImageVariant.CARD)));
+
+        PropertySimpleDTO dto = propertyService.getSimpleById(1L).getBody();
+
+        assertEquals("https://storage/principal.png", dto.getMainImage());
+        assertEquals("https://storage/principal_thumb.jpg", dto.getMainImageVariants().getThumbnail());
+        assertEquals("https://storage/principal_card.jpg", dto.getMainImageVariants().getCard());
+        // la version full no se genero, se sirve el original
+        assertEquals("https://storage/principal.png", dto.getMainImageVariants().getFull());
+    }
+
+    @Test
+    void testGetSimpleById_shouldFallBackToOriginal_whenNoVariantWasGenerated() {
+        property.setMainImage("vieja.png");
+        when(propertyRepository.findById(1L)).thenReturn(Optional.of(property));
+        when(azureBlobStorage.getImageUrl(anyString())).thenAnswer(invocation -> "https://storage/" + invocation.getArgument(0));
+
+        PropertySimpleDTO dto = propertyService.getSimpleById(1L).getBody();
+
+        assertEquals(new ImageVariantsDTO("https://storage/vieja.png", "https://storage/vieja.png", "https://storage/vieja.png"),
+                dto.getMainImageVariants());
+    }
+
     @Test
     void deleteProperty_success_withChat() {
         Long propertyId = 1L;
@@ -628,7 +803,14 @@ public class PropertyServiceTest {
         verify(chatMessageRepository).deleteAllBySessionIds(sessionIds);
         verify(chatDerivationRepository).deleteAllBySessionIds(sessionIds);
         verify(chatSessionRepository).deleteAllByPropertyId(propertyId);
+        verify(viewCountRepository).deleteAllByPropertyId(propertyId);
         verify(propertyRepository).delete(property);
+        verify(propertyFeatureIndex).remove(propertyId);
+        verify(propertyTextIndex).remove(propertyId);
+        verify(propertyFacetIndex).remove(propertyId);
+        verify(propertySearchCache).invalidate();
+        verify(comparisonCache).invalidate(property.getTitle());
+        verify(chatFactsCache).invalidate(propertyId);
     }
 
     @Test
@@ -676,6 +858,61 @@ public class PropertyServiceTest {
         assertEquals("https://example.com/mainImage.jpg", dto.getMainImage());
     }
 
+    @Test
+    void testGetAllUsersPage_firstPage_returnsNextCursor() {
+        property.setId(1L);
+        Window<Property> window = Window.from(List.of(property), i -> ScrollPosition.keyset(), true);
+
+        doReturn(window).when(propertyRepository).findBy(any(Specification.class), any());
+        when(propertyRepository.findListingByIdIn(List.of(1L))).thenReturn(List.of(property));
+        when(mapper.convertValue(property.getNeighborhood(), NeighborhoodDTO.class))
+                .thenReturn(propertyDTO.getNeighborhood());
+
+        ResponseEntity<PropertyPageDTO> response = propertyService.getAllUsersPage(null, 1, "date", "desc");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().getContent().size());
+        assertEquals(property.getTitle(), response.getBody().getContent().getFirst().getTitle());
+        assertTrue(response.getBody().getHasNext());
+        assertNotNull(response.getBody().getNextCursor());
+    }
+
+    @Test
+    void testGetAllPage_withCursor_lastPage() {
+        property.setId(2L);
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("PRICE|ASC|150000|1".getBytes());
+        Window<Property> window = Window.from(List.of(property), i -> ScrollPosition.keyset(), false);
+
+        doReturn(window).when(propertyRepository).findBy(any(Specification.class), any());
+        when(propertyRepository.findListingByIdIn(List.of(2L))).thenReturn(List.of(property));
+        when(mapper.convertValue(property.getNeighborhood(), NeighborhoodDTO.class))
+                .thenReturn(propertyDTO.getNeighborhood());
+
+        ResponseEntity<PropertyPageDTO> response = propertyService.getAllPage(cursor, 20, "date", "desc");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().getContent().size());
+        assertFalse(response.getBody().getHasNext());
+        assertNull(response.getBody().getNextCursor());
+    }
+
+    @Test
+    void testGetAllPage_emptyWindow() {
+        Window<Property> window = Window.from(List.of(), i -> ScrollPosition.keyset(), false);
+
+        doReturn(window).when(propertyRepository).findBy(any(Specification.class), any());
+
+        ResponseEntity<PropertyPageDTO> response = propertyService.getAllPage(null, 10, "id", "asc");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertTrue(response.getBody().getContent().isEmpty());
+        verify(propertyRepository, never()).findListingByIdIn(any());
+    }
+
     // casos de error
 
     @Test
@@ -714,7 +951,7 @@ public class PropertyServiceTest {
         property.setId(1L);
         when(propertyRepository.save(any(Property.class))).thenReturn(property);
 
-        when(imageService.uploadImageToProperty(eq(propertySaveDTO.getMainImage()), anyLong(), eq(true)))
+        when(imageService.uploadPropertyImages(anyLong(), eq(propertySaveDTO.getMainImage()), any()))
                 .thenThrow(new RuntimeException("Falló subida imagen principal"));
 
         RuntimeException ex = assertThrows(RuntimeException.class,
@@ -874,15 +1111,30 @@ public class PropertyServiceTest {
                         true,
                         false,
                         null,
-                        null
+                        null,
+                        null, null, null
                 ));
 
         assertEquals("DB error", ex.getMessage());
     }
 
+    @Test
+    void testFindBy_nearFilterWithoutCoordinates() {
+        assertThrows(IllegalArgumentException.class,
+                () -> propertyService.findBy(
+                        BigDecimal.ZERO, BigDecimal.ZERO, 0f, 0f, 0f, 0f,
+                        null, "", null, null, null, null, null, null, null, null, null,
+                        null, null, 5.0
+                ));
+
+        verifyNoInteractions(propertyFeatureIndex);
+        verify(propertyRepository, never()).findAll(any(Specification.class));
+    }
+
     @Test
     void testFindByTitleDescription_internalServerError() {
-        when(propertyRepository.findAll(any(Specification.class))).thenThrow(new RuntimeException("DB error"));
+        when(propertyTextIndex.search("moderno")).thenReturn(List.of(1L));
+        when(propertyRepository.findListingByIdIn(List.of(1L))).thenThrow(new RuntimeException("DB error"));
 
         RuntimeException ex = assertThrows(RuntimeException.class,
                 () -> propertyService.findByTitleDescription("moderno"));
@@ -911,7 +1163,8 @@ public class PropertyServiceTest {
                             true,
                             false,
                             null,
-                            Status.DISPONIBLE
+                            Status.DISPONIBLE,
+                            null, null, null
                     ));
 
             assertEquals(HttpStatus.FORBIDDEN, ex.getStatusCode());
@@ -1007,4 +1260,21 @@ public class PropertyServiceTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAllPage_invalidCursor_throwsBadRequest() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> propertyService.getAllPage("no-es-un-cursor", 10, "date", "desc"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verify(propertyRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void testGetAllUsersPage_invalidSort_throwsBadRequest() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> propertyService.getAllUsersPage(null, 10, "rooms", "desc"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+}
@@ -0,0 +1,232 @@
+package pi.ms_properties.serviceTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pi.ms_properties.domain.Amenity;
+import pi.ms_properties.domain.Neighborhood;
+import pi.ms_properties.domain.NeighborhoodType;
+import pi.ms_properties.domain.Property;
+import pi.ms_properties.domain.Type;
+import pi.ms_properties.repository.IPropertyRepository;
+import pi.ms_properties.service.impl.PropertyTextIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyTextIndexTest {
+
+    @Mock
+    private IPropertyRepository propertyRepository;
+
+    private PropertyTextIndex index;
+
+    private final Neighborhood palermo = new Neighborhood(1L, "Palermo", NeighborhoodType.ABIERTO, "CABA", -34.58, -58.42);
+
+    private final Type casa = new Type(1L, "Casa", true, true, true, true);
+
+    private final Type departamento = new Type(2L, "Departamento", true, true, true, true);
+
+    private final Amenity pileta = new Amenity(1L, "Pileta", new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        index = new PropertyTextIndex(propertyRepository);
+    }
+
+    private Property property(Long id, String title, String description, Type type, Set<Amenity> amenities) {
+        Property property = new Property();
+        property.setId(id);
+        property.setTitle(title);
+        property.setDescription(description);
+        property.setNeighborhood(palermo);
+        property.setType(type);
+        property.setAmenities(amenities);
+        return property;
+    }
+
+    // casos de exito
+
+    @Test
+    void tokenize_shouldRemoveAccentsAndStopwords() {
+        assertEquals(List.of("bano", "suite", "jardin", "2"), PropertyTextIndex.tokenize("Baño en suite y jardín, 2 "));
+        assertEquals(List.of("nandu"), PropertyTextIndex.tokenize("ÑANDÚ"));
+    }
+
+    @Test
+    void search_shouldIgnoreAccents() {
+        index.put(property(1L, "Casa con baño", null, casa, Set.of()));
+
+        assertEquals(List.of(1L), index.search("bano"));
+        assertEquals(List.of(1L), index.search("BAÑO"));
+    }
+
+    @Test
+    void search_shouldMatchPrefixes() {
+        index.put(property(1L, "Casa con pileta", null, casa, Set.of()));
+
+        assertEquals(List.of(1L), index.search("pil"));
+        assertEquals(List.of(1L), index.search("ca pi"));
+        assertTrue(index.search("pileton").isEmpty());
+    }
+
+    @Test
+    void search_shouldRequireEveryWord() {
+        index.put(property(1L, "Casa con pileta", null, casa, Set.of()));
+        index.put(property(2L, "Casa con quincho", null, casa, Set.of()));
+
+        assertEquals(List.of(1L), index.search("casa pileta"));
+    }
+
+    @Test
+    void search_shouldRankTitleAboveDescriptionAndExactAbovePrefix() {
+        index.put(property(1L, "Departamento luminoso", "Tiene pileta", departamento, Set.of()));
+        index.put(property(2L, "Pileta climatizada", null, departamento, Set.of()));
+        index.put(property(3L, "Casa", "Zona de piletas", casa, Set.of()));
+
+        assertEquals(List.of(2L, 1L, 3L), index.search("pileta"));
+    }
+
+    @Test
+    void search_shouldIndexNeighborhoodTypeAndAmenities() {
+        index.put(property(1L, "Oportunidad", null, departamento, Set.of(pileta)));
+
+        assertEquals(List.of(1L), index.search("palermo"));
+        assertEquals(List.of(1L), index.search("caba"));
+        assertEquals(List.of(1L), index.search("departamento"));
+        assertEquals(List.of(1L), index.search("pileta"));
+    }
+
+    @Test
+    void put_shouldReplacePreviousText() {
+        index.put(property(1L, "Casa con pileta", null, casa, Set.of()));
+        index.put(property(1L, "Casa con quincho", null, casa, Set.of()));
+
+        assertTrue(index.search("pileta").isEmpty());
+        assertEquals(List.of(1L), index.search("quincho"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void remove_shouldDropProperty() {
+        index.put(property(1L, "Casa con pileta", null, casa, Set.of()));
+
+        index.remove(1L);
+
+        assertTrue(index.search("pileta").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void remove_shouldWaitForCommit() {
+        index.put(property(1L, "Casa con pileta", null, casa, Set.of()));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(1L);
+            assertEquals(List.of(1L), index.search("pileta"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(index.search("pileta").isEmpty());
+    }
+
+    @Test
+    void score_shouldAddMatchingWordsOnlyForRequestedIds() {
+        index.put(property(1L, "Casa con pileta", null, casa, Set.of()));
+        index.put(property(2L, "Casa con pileta y quincho", null, casa, Set.of()));
+        index.put(property(3L, "Casa con quincho", null, casa, Set.of()));
+
+        Map<Long, Float> scores = index.score("pileta quincho", List.of(1L, 2L, 3L));
+
+        assertEquals(Set.of(1L, 2L, 3L), scores.keySet());
+        assertTrue(scores.get(2L) > scores.get(1L));
+        assertEquals(scores.get(1L), scores.get(3L), 1e-6);
+        assertEquals(Set.of(1L), index.score("pileta quincho", List.of(1L)).keySet());
+    }
+
+    @Test
+    void updateNeighborhoodTypeAndAmenity_shouldReindexAffectedProperties() {
+        index.put(property(1L, "Oportunidad", null, casa, Set.of(pileta)));
+        index.put(property(2L, "Oportunidad", null, departamento, Set.of()));
+
+        index.updateNeighborhood(1L, "Belgrano", "CABA");
+        index.updateType(1L, "Chalet");
+        index.updateAmenity(1L, "Piscina");
+
+        assertTrue(index.search("palermo").isEmpty());
+        assertEquals(List.of(1L, 2L), index.search("belgrano"));
+        assertEquals(List.of(1L), index.search("chalet"));
+        assertEquals(List.of(1L), index.search("piscina"));
+        assertTrue(index.search("pileta").isEmpty());
+    }
+
+    @Test
+    void rebuild_shouldLoadAllProperties() {
+        when(propertyRepository.findAllForTextIndex()).thenReturn(List.of(
+                property(1L, "Casa con pileta", null, casa, Set.of()),
+                property(2L, "Departamento", null, departamento, Set.of())));
+        index.put(property(9L, "Vieja", null, casa, Set.of()));
+
+        index.rebuild();
+
+        assertEquals(2, index.size());
+        assertTrue(index.search("vieja").isEmpty());
+        assertEquals(List.of(1L), index.search("pileta"));
+    }
+
+    // casos de error
+
+    @Test
+    void search_shouldReturnEmpty_whenQueryHasOnlyStopwords() {
+        index.put(property(1L, "Casa de campo", null, casa, Set.of()));
+
+        assertTrue(index.search("de la").isEmpty());
+        assertTrue(index.search(null).isEmpty());
+    }
+
+    @Test
+    void put_shouldIgnorePropertyWithoutId() {
+        index.put(property(null, "Casa", null, casa, Set.of()));
+
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void remove_shouldKeepProperty_whenTransactionRollsBack() {
+        index.put(property(1L, "Casa con pileta", null, casa, Set.of()));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(1L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(1L), index.search("pileta"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void score_shouldReturnEmpty_whenNothingMatches() {
+        index.put(property(1L, "Casa con pileta", null, casa, Set.of()));
+
+        assertTrue(index.score("castillo", List.of(1L)).isEmpty());
+        assertTrue(index.score("", List.of(1L)).isEmpty());
+        assertTrue(index.score("pileta", List.of()).isEmpty());
+    }
+}
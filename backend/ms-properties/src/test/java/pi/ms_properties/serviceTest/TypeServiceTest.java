@@ -10,8 +10,11 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import pi.ms_properties.comparer.service.FilterVocabulary;
 import pi.ms_properties.domain.Type;
 import pi.ms_properties.repository.ITypeRepository;
+import pi.ms_properties.service.impl.PropertyFacetIndex;
+import pi.ms_properties.service.impl.PropertyTextIndex;
 import pi.ms_properties.service.impl.TypeService;
 
 import java.util.Collections;
@@ -31,6 +34,15 @@ class TypeServiceTest {
     @Mock
     private ITypeRepository typeRepository;
 
+    @Mock
+    private PropertyTextIndex propertyTextIndex;
+
+    @Mock
+    private PropertyFacetIndex propertyFacetIndex;
+
+    @Mock
+    private FilterVocabulary filterVocabulary;
+
     // casos de exito
 
     @Test
@@ -45,6 +57,7 @@ class TypeServiceTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Se ha guardado el tipo de propiedad: Casa", response.getBody());
         verify(typeRepository).save(type);
+        verify(filterVocabulary).refreshTypes();
     }
 
     @Test
@@ -60,6 +73,7 @@ class TypeServiceTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Se ha eliminado el tipo de propiedad", response.getBody());
         verify(typeRepository).delete(type);
+        verify(filterVocabulary).refreshTypes();
     }
 
     @Test
@@ -76,6 +90,9 @@ class TypeServiceTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(type, response.getBody());
         verify(typeRepository).save(type);
+        verify(propertyTextIndex).updateType(1L, "Departamento");
+        verify(propertyFacetIndex).rebuild();
+        verify(filterVocabulary).refreshTypes();
     }
 
     @Test
@@ -0,0 +1,156 @@
+package pi.ms_properties.serviceTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pi.ms_properties.dto.ViewEventDTO;
+import pi.ms_properties.repository.ViewBatchRepository;
+import pi.ms_properties.service.impl.ViewEventBuffer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViewEventBufferTest {
+
+    @Mock
+    private ViewBatchRepository viewBatchRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private final LocalDateTime date = LocalDateTime.of(2025, 5, 19, 10, 30);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private double events(String result) {
+        return meterRegistry.get("views.buffer.events").tag("result", result).counter().count();
+    }
+
+    // casos de exito
+
+    @Test
+    void enqueue_doesNotWriteOnCallerThread() {
+        ViewEventBuffer buffer = new ViewEventBuffer(viewBatchRepository, meterRegistry, 10, 5, ViewEventBuffer.OverflowPolicy.DROP);
+
+        buffer.enqueue(1L, date);
+        buffer.enqueue(2L, date);
+
+        assertEquals(2, buffer.size());
+        assertEquals(2.0, meterRegistry.get("views.buffer.depth").gauge().value());
+        verifyNoInteractions(viewBatchRepository);
+    }
+
+    @Test
+    void flush_writesInBatchesOfConfiguredSize() {
+        ViewEventBuffer buffer = new ViewEventBuffer(viewBatchRepository, meterRegistry, 10, 2, ViewEventBuffer.OverflowPolicy.DROP);
+        for (long id = 1; id <= 5; id++) {
+            buffer.enqueue(id, date);
+        }
+
+        buffer.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ViewEventDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(viewBatchRepository, times(3)).saveAll(captor.capture());
+        assertEquals(List.of(2, 2, 1), captor.getAllValues().stream().map(List::size).toList());
+        assertEquals(1L, captor.getAllValues().getFirst().getFirst().getPropertyId());
+        assertEquals(0, buffer.size());
+        assertEquals(5.0, events("written"));
+        assertEquals(3, meterRegistry.get("views.buffer.flush").timer().count());
+    }
+
+    @Test
+    void flush_emptyQueue_doesNothing() {
+        ViewEventBuffer buffer = new ViewEventBuffer(viewBatchRepository, meterRegistry, 10, 2, ViewEventBuffer.OverflowPolicy.DROP);
+
+        buffer.flush();
+
+        verifyNoInteractions(viewBatchRepository);
+    }
+
+    @Test
+    void shutdown_drainsPendingEvents() {
+        ViewEventBuffer buffer = new ViewEventBuffer(viewBatchRepository, meterRegistry, 10, 5, ViewEventBuffer.OverflowPolicy.DROP);
+        buffer.enqueue(1L, date);
+
+        buffer.shutdown();
+
+        verify(viewBatchRepository).saveAll(List.of(new ViewEventDTO(1L, date)));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void enqueue_fullBufferWithCallerRuns_writesSynchronously() {
+        ViewEventBuffer buffer = new ViewEventBuffer(viewBatchRepository, meterRegistry, 1, 5, ViewEventBuffer.OverflowPolicy.CALLER_RUNS);
+        buffer.enqueue(1L, date);
+
+        buffer.enqueue(2L, date);
+
+        verify(viewBatchRepository).saveAll(List.of(new ViewEventDTO(2L, date)));
+        assertEquals(1, buffer.size());
+    }
+
+    // casos de error
+
+    @Test
+    void enqueue_fullBufferWithDrop_discardsEvent() {
+        ViewEventBuffer buffer = new ViewEventBuffer(viewBatchRepository, meterRegistry, 1, 5, ViewEventBuffer.OverflowPolicy.DROP);
+        buffer.enqueue(1L, date);
+
+        buffer.enqueue(2L, date);
+
+        assertEquals(1, buffer.size());
+        assertEquals(1.0, events("dropped"));
+        verifyNoInteractions(viewBatchRepository);
+    }
+
+    @Test
+    void flush_repositoryFailure_requeuesBatchAndRetriesOnNextFlush() {
+        ViewEventBuffer buffer = new ViewEventBuffer(viewBatchRepository, meterRegistry, 10, 1, ViewEventBuffer.OverflowPolicy.DROP);
+        buffer.enqueue(1L, date);
+        buffer.enqueue(2L, date);
+        doThrow(new RuntimeException("DB caida")).doNothing().when(viewBatchRepository).saveAll(anyList());
+
+        assertDoesNotThrow(buffer::flush);
+
+        // el lote fallido vuelve al buffer y el flush se corta hasta la proxima ejecucion
+        verify(viewBatchRepository, times(1)).saveAll(anyList());
+        assertEquals(2, buffer.size());
+        assertEquals(0.0, events("failed"));
+
+        buffer.flush();
+
+        verify(viewBatchRepository, times(3)).saveAll(anyList());
+        assertEquals(0, buffer.size());
+        assertEquals(2.0, events("written"));
+    }
+
+    @Test
+    void flush_repositoryFailure_dropsOnlyEventsThatDoNotFit() {
+        ViewEventBuffer buffer = new ViewEventBuffer(viewBatchRepository, meterRegistry, 2, 2, ViewEventBuffer.OverflowPolicy.DROP);
+        buffer.enqueue(1L, date);
+        buffer.enqueue(2L, date);
+        doAnswer(invocation -> {
+            // mientras se escribia el lote llego otra vista
+            buffer.enqueue(3L, date);
+            throw new RuntimeException("DB caida");
+        }).when(viewBatchRepository).saveAll(anyList());
+
+        buffer.flush();
+
+        assertEquals(2, buffer.size());
+        assertEquals(1.0, events("failed"));
+    }
+}
@@ -2,7 +2,6 @@ package pi.ms_properties.serviceTest;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -10,16 +9,15 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import pi.ms_properties.domain.*;
 import pi.ms_properties.repository.IPropertyRepository;
-import pi.ms_properties.repository.IViewRepository;
+import pi.ms_properties.repository.IViewCountRepository;
+import pi.ms_properties.service.impl.ViewEventBuffer;
 import pi.ms_properties.service.impl.ViewService;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 
@@ -30,66 +28,35 @@ class ViewServiceTest {
     private ViewService viewService;
 
     @Mock
-    private IViewRepository viewRepository;
+    private ViewEventBuffer viewEventBuffer;
 
     @Mock
-    private IPropertyRepository propertyRepository;
-
-    private View makeView(String title, String typeName, String neighborhoodName,
-                          NeighborhoodType neighborhoodType, LocalDateTime date, Operation operation, Float rooms) {
-        View view = new View();
-        view.setDate(date);
-
-        Property property = new Property();
-        property.setTitle(title);
+    private IViewCountRepository viewCountRepository;
 
-        Type type = new Type();
-        type.setName(typeName);
-        property.setType(type);
-
-        Neighborhood neighborhood = new Neighborhood();
-        neighborhood.setName(neighborhoodName);
-        neighborhood.setType(neighborhoodType);
-        property.setNeighborhood(neighborhood);
-
-        property.setOperation(operation);
-        property.setRooms(rooms);
+    @Mock
+    private IPropertyRepository propertyRepository;
 
-        view.setProperty(property);
-        return view;
+    private Object[] row(Object key, long total) {
+        return new Object[]{key, total};
     }
 
     // casos de exito
 
     @Test
-    void createView_savesView() {
+    void createView_enqueuesEvent() {
         Property property = new Property();
-        LocalDateTime date = LocalDateTime.now();
-
-        View savedView = new View();
-        savedView.setDate(date);
-        savedView.setProperty(property);
-
-        when(viewRepository.save(any(View.class))).thenReturn(savedView);
+        property.setId(7L);
+        LocalDateTime date = LocalDateTime.of(2025, 5, 19, 10, 42, 13);
 
         viewService.createView(property, date);
 
-        ArgumentCaptor<View> captor = ArgumentCaptor.forClass(View.class);
-        verify(viewRepository).save(captor.capture());
-        View captured = captor.getValue();
-
-        assertEquals(property, captured.getProperty());
-        assertEquals(date, captured.getDate());
+        verify(viewEventBuffer).enqueue(7L, date);
     }
 
     @Test
     void getViewsByProperty_returnsCounts() {
-        List<View> views = List.of(
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.ABIERTO, LocalDateTime.now(), Operation.VENTA, 3f),
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.CERRADO, LocalDateTime.now(), Operation.VENTA, 3f),
-                makeView("Depto Verde", "Departamento", "Palermo", NeighborhoodType.SEMICERRADO, LocalDateTime.now(), Operation.ALQUILER, 2f)
-        );
-        when(viewRepository.findAll()).thenReturn(views);
+        when(viewCountRepository.sumByPropertyTitle())
+                .thenReturn(List.of(row("Casa Azul", 2L), row("Depto Verde", 1L)));
 
         ResponseEntity<Map<String, Long>> response = viewService.getViewsByProperty();
 
@@ -101,12 +68,8 @@ class ViewServiceTest {
 
     @Test
     void getViewsByPropertyType_returnsCounts() {
-        List<View> views = List.of(
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.ABIERTO, LocalDateTime.now(), Operation.VENTA, 3f),
-                makeView("Depto Verde", "Departamento", "Palermo", NeighborhoodType.CERRADO, LocalDateTime.now(), Operation.ALQUILER, 2f),
-                makeView("Depto Verde", "Departamento", "Palermo", NeighborhoodType.CERRADO, LocalDateTime.now(), Operation.ALQUILER, 2f)
-        );
-        when(viewRepository.findAll()).thenReturn(views);
+        when(viewCountRepository.sumByPropertyType())
+                .thenReturn(List.of(row("Casa", 1L), row("Departamento", 2L)));
 
         ResponseEntity<Map<String, Long>> response = viewService.getViewsByPropertyType();
 
@@ -117,15 +80,12 @@ class ViewServiceTest {
     }
 
     @Test
-    void getViewsByDay_returnsCounts() {
+    void getViewsByDay_sumsHourBuckets() {
         LocalDateTime monday = LocalDateTime.of(2025, 5, 19, 10, 0); // lunes
+        LocalDateTime mondayLater = LocalDateTime.of(2025, 5, 19, 18, 0);
         LocalDateTime tuesday = LocalDateTime.of(2025, 5, 20, 10, 0); // martes
-        List<View> views = List.of(
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.ABIERTO, monday, Operation.VENTA, 3f),
-                makeView("Depto Verde", "Departamento", "Palermo", NeighborhoodType.CERRADO, tuesday, Operation.ALQUILER, 2f),
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.ABIERTO, monday, Operation.VENTA, 3f)
-        );
-        when(viewRepository.findAll()).thenReturn(views);
+        when(viewCountRepository.sumByBucket())
+                .thenReturn(List.of(row(monday, 1L), row(mondayLater, 1L), row(tuesday, 1L)));
 
         ResponseEntity<Map<String, Long>> response = viewService.getViewsByDay();
 
@@ -137,15 +97,12 @@ class ViewServiceTest {
     }
 
     @Test
-    void getViewsByMonth_returnsCounts() {
+    void getViewsByMonth_sumsHourBuckets() {
         LocalDateTime may = LocalDateTime.of(2025, 5, 10, 10, 0);
+        LocalDateTime mayLater = LocalDateTime.of(2025, 5, 21, 9, 0);
         LocalDateTime june = LocalDateTime.of(2025, 6, 10, 10, 0);
-        List<View> views = List.of(
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.ABIERTO, may, Operation.VENTA, 3f),
-                makeView("Depto Verde", "Departamento", "Palermo", NeighborhoodType.CERRADO, june, Operation.ALQUILER, 2f),
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.ABIERTO, may, Operation.VENTA, 3f)
-        );
-        when(viewRepository.findAll()).thenReturn(views);
+        when(viewCountRepository.sumByBucket())
+                .thenReturn(List.of(row(may, 1L), row(june, 1L), row(mayLater, 1L)));
 
         ResponseEntity<Map<String, Long>> response = viewService.getViewsByMonth();
 
@@ -158,12 +115,8 @@ class ViewServiceTest {
 
     @Test
     void getViewsByNeighborhood_returnsCounts() {
-        List<View> views = List.of(
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.CERRADO, LocalDateTime.now(), Operation.VENTA, 3f),
-                makeView("Depto Verde", "Departamento", "Palermo", NeighborhoodType.ABIERTO, LocalDateTime.now(), Operation.ALQUILER, 2f),
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.CERRADO, LocalDateTime.now(), Operation.VENTA, 3f)
-        );
-        when(viewRepository.findAll()).thenReturn(views);
+        when(viewCountRepository.sumByNeighborhood())
+                .thenReturn(List.of(row("Barrio Norte", 2L), row("Palermo", 1L)));
 
         ResponseEntity<Map<String, Long>> response = viewService.getViewsByNeighborhood();
 
@@ -176,12 +129,8 @@ class ViewServiceTest {
 
     @Test
     void getViewsByNeighborhoodType_returnsCounts() {
-        List<View> views = List.of(
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.CERRADO, LocalDateTime.now(), Operation.VENTA, 3f),
-                makeView("Depto Verde", "Departamento", "Palermo", NeighborhoodType.ABIERTO, LocalDateTime.now(), Operation.ALQUILER, 2f),
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.CERRADO, LocalDateTime.now(), Operation.VENTA, 3f)
-        );
-        when(viewRepository.findAll()).thenReturn(views);
+        when(viewCountRepository.sumByNeighborhoodType())
+                .thenReturn(List.of(row(NeighborhoodType.CERRADO, 2L), row(NeighborhoodType.ABIERTO, 1L)));
 
         ResponseEntity<Map<String, Long>> response = viewService.getViewsByNeighborhoodType();
 
@@ -194,14 +143,8 @@ class ViewServiceTest {
 
     @Test
     void getViewsByStatus_returnsCounts() {
-        Property p1 = new Property();
-        p1.setStatus(Status.DISPONIBLE);
-        Property p2 = new Property();
-        p2.setStatus(Status.VENDIDA);
-        Property p3 = new Property();
-        p3.setStatus(Status.DISPONIBLE);
-
-        when(propertyRepository.findAll()).thenReturn(List.of(p1, p2, p3));
+        when(propertyRepository.countByStatus())
+                .thenReturn(List.of(row(Status.DISPONIBLE, 2L), row(Status.VENDIDA, 1L)));
 
         ResponseEntity<Map<String, Long>> response = viewService.getViewsByStatus();
 
@@ -210,28 +153,16 @@ class ViewServiceTest {
 
         assertEquals(2L, map.get("DISPONIBLE"));
         assertEquals(1L, map.get("VENDIDA"));
+        verify(propertyRepository, never()).findAll();
     }
 
     @Test
     void getViewsByStatusAndType_returnsCounts() {
-        Type type1 = new Type();
-        type1.setName("Casa");
-        Type type2 = new Type();
-        type2.setName("Departamento");
-
-        Property p1 = new Property();
-        p1.setStatus(Status.DISPONIBLE);
-        p1.setType(type1);
-
-        Property p2 = new Property();
-        p2.setStatus(Status.DISPONIBLE);
-        p2.setType(type2);
-
-        Property p3 = new Property();
-        p3.setStatus(Status.VENDIDA);
-        p3.setType(type1);
-
-        when(propertyRepository.findAll()).thenReturn(List.of(p1, p2, p3));
+        when(propertyRepository.countByStatusAndType()).thenReturn(List.of(
+                new Object[]{Status.DISPONIBLE, "Casa", 1L},
+                new Object[]{Status.DISPONIBLE, "Departamento", 1L},
+                new Object[]{Status.VENDIDA, "Casa", 1L}
+        ));
 
         ResponseEntity<Map<String, Map<String, Long>>> response = viewService.getViewsByStatusAndType();
 
@@ -247,12 +178,8 @@ class ViewServiceTest {
 
     @Test
     void getViewsByOperation_returnsCounts() {
-        List<View> views = List.of(
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.CERRADO, LocalDateTime.now(), Operation.VENTA, 3f),
-                makeView("Depto Verde", "Departamento", "Palermo", NeighborhoodType.ABIERTO, LocalDateTime.now(), Operation.ALQUILER, 2f),
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.CERRADO, LocalDateTime.now(), Operation.VENTA, 3f)
-        );
-        when(viewRepository.findAll()).thenReturn(views);
+        when(viewCountRepository.sumByOperation())
+                .thenReturn(List.of(row(Operation.VENTA, 2L), row(Operation.ALQUILER, 1L)));
 
         ResponseEntity<Map<String, Long>> response = viewService.getViewsByOperation();
 
@@ -265,12 +192,8 @@ class ViewServiceTest {
 
     @Test
     void getViewsByRooms_returnsCounts() {
-        List<View> views = List.of(
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.ABIERTO, LocalDateTime.now(), Operation.VENTA, 3f),
-                makeView("Depto Verde", "Departamento", "Palermo", NeighborhoodType.CERRADO, LocalDateTime.now(), Operation.ALQUILER, 2f),
-                makeView("Casa Azul", "Casa", "Barrio Norte", NeighborhoodType.ABIERTO, LocalDateTime.now(), Operation.VENTA, 3f)
-        );
-        when(viewRepository.findAll()).thenReturn(views);
+        when(viewCountRepository.sumByRooms())
+                .thenReturn(List.of(row(3f, 2L), row(2f, 1L)));
 
         ResponseEntity<Map<Float, Long>> response = viewService.getViewsByRooms();
 
@@ -283,26 +206,8 @@ class ViewServiceTest {
 
     @Test
     void getViewsByAmenity_returnsCounts() {
-        Amenity a1 = new Amenity();
-        a1.setName("Piscina");
-        Amenity a2 = new Amenity();
-        a2.setName("Gimnasio");
-
-        Property p1 = new Property();
-        p1.setAmenities(Set.of(a1, a2));
-
-        Property p2 = new Property();
-        p2.setAmenities(Set.of(a1));
-
-        View v1 = new View();
-        v1.setProperty(p1);
-        v1.setDate(LocalDateTime.now());
-
-        View v2 = new View();
-        v2.setProperty(p2);
-        v2.setDate(LocalDateTime.now());
-
-        when(viewRepository.findAll()).thenReturn(List.of(v1, v2));
+        when(viewCountRepository.sumByAmenity())
+                .thenReturn(List.of(row("Piscina", 2L), row("Gimnasio", 1L)));
 
         ResponseEntity<Map<String, Long>> response = viewService.getViewsByAmenity();
 
@@ -312,4 +217,14 @@ class ViewServiceTest {
         assertEquals(2L, map.get("Piscina"));
         assertEquals(1L, map.get("Gimnasio"));
     }
+
+    @Test
+    void getViewsByProperty_noRollups_returnsEmptyMap() {
+        when(viewCountRepository.sumByPropertyTitle()).thenReturn(List.of());
+
+        ResponseEntity<Map<String, Long>> response = viewService.getViewsByProperty();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().isEmpty());
+    }
 }
@@ -1,5 +1,6 @@
 package pi.ms_properties.specificationTest;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -147,11 +148,21 @@ class PropertySpecificationTest {
     }
 
     @Test
-    void whenSearchByText_shouldReturnProperty() {
-        Specification<Property> spec = PropertySpecification.textSearch("pileta");
-        List<Property> result = propertyRepository.findAll(spec);
+    void whenSearchByIdIn_shouldFilterByIds() {
+        assertThat(propertyRepository.findAll(PropertySpecification.hasIdIn(List.of(testProperty.getId())))).contains(testProperty);
+        assertThat(propertyRepository.findAll(PropertySpecification.hasIdIn(List.of()))).isEmpty();
+        assertThat(propertyRepository.findAll(PropertySpecification.hasIdIn(null))).contains(testProperty);
+    }
 
-        assertThat(result).isNotEmpty();
+    @Test
+    void whenLoadingTextIndexRows_shouldFetchSearchableAssociations() {
+        entityManager.clear();
+
+        List<Property> result = propertyRepository.findAllForTextIndex();
+
+        assertThat(result).hasSize(1);
+        assertThat(Hibernate.isInitialized(result.getFirst().getAmenities())).isTrue();
+        assertThat(result.getFirst().getNeighborhood().getName()).isNotBlank();
     }
 
     @Test
@@ -429,14 +440,6 @@ class PropertySpecificationTest {
         assertThat(result).isEmpty();
     }
 
-    @Test
-    void whenTextSearchFails_shouldReturnEmpty() {
-        Specification<Property> spec = PropertySpecification.textSearch("inexistente");
-        List<Property> result = propertyRepository.findAll(spec);
-
-        assertThat(result).isEmpty();
-    }
-
     @Test
     void whenCoveredAreaOutOfRange_shouldReturnEmpty() {
         Specification<Property> spec = PropertySpecification.hasCoveredAreaTo(50f);
@@ -2,6 +2,7 @@ package pi.ms_users.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -9,7 +10,9 @@ import pi.ms_users.domain.CommissionPaymentType;
 import pi.ms_users.domain.CommissionStatus;
 import pi.ms_users.domain.PaymentCurrency;
 import pi.ms_users.dto.CommissionDTO;
+import pi.ms_users.dto.CommissionDashboardDTO;
 import pi.ms_users.dto.CommissionGetDTO;
+import pi.ms_users.service.interf.ICommissionDashboardService;
 import pi.ms_users.service.interf.ICommissionService;
 
 import java.math.BigDecimal;
@@ -25,6 +28,8 @@ public class CommissionController {
 
     private final ICommissionService commissionService;
 
+    private final ICommissionDashboardService commissionDashboardService;
+
     @PreAuthorize("hasRole('admin')")
     @PostMapping("/create")
     public ResponseEntity<String> create(@RequestBody CommissionDTO dto) {
@@ -126,5 +131,10 @@ public class CommissionController {
     public ResponseEntity<BigDecimal> getPartialCommissionsRemainingAmount() {
         return commissionService.getPartialCommissionsRemainingAmount();
     }
-}
 
+    @PreAuthorize("hasRole('admin')")
+    @GetMapping("/dashboard")
+    public ResponseEntity<CommissionDashboardDTO> getDashboard(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return commissionDashboardService.getSnapshot(ifNoneMatch);
+    }
+}
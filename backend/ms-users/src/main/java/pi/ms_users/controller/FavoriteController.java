@@ -40,6 +40,12 @@ public class FavoriteController {
         return favoriteService.findAllUsers();
     }
 
+    @PreAuthorize("hasRole('admin')")
+    @GetMapping("/internal/all")
+    public List<Favorite> getAll() {
+        return favoriteService.findAll();
+    }
+
     @PreAuthorize("hasRole('admin')")
     @GetMapping("/property/{propertyId}")
     public ResponseEntity<List<Favorite>> getByPropertyId(@PathVariable Long propertyId) {
@@ -0,0 +1,21 @@
+package pi.ms_users.dto;
+
+import lombok.Value;
+import pi.ms_users.domain.CommissionStatus;
+import pi.ms_users.domain.PaymentCurrency;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+
+// estadisticas de comisiones del panel de administracion calculadas juntas; no se modifica una vez armado
+@Value
+public class CommissionDashboardDTO {
+    // ultima vez que cambiaron los datos
+    LocalDateTime updatedAt;
+    int year;
+    Map<PaymentCurrency, Map<YearMonth, BigDecimal>> monthlyTotals;
+    Map<CommissionStatus, Long> byStatus;
+    BigDecimal partialRemainingAmount;
+}
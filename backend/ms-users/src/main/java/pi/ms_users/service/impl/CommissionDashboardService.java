@@ -0,0 +1,127 @@
+package pi.ms_users.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import pi.ms_users.domain.CommissionStatus;
+import pi.ms_users.domain.PaymentCurrency;
+import pi.ms_users.dto.CommissionDashboardDTO;
+import pi.ms_users.service.interf.ICommissionDashboardService;
+import pi.ms_users.service.interf.ICommissionService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+// el panel lee una sola foto de las estadisticas de comisiones guardada en memoria; una tarea programada
+// la recalcula cada dashboard.refresh-interval-ms, asi el costo en la base no depende de cuantas veces se abra el panel
+@Service
+@RequiredArgsConstructor
+public class CommissionDashboardService implements ICommissionDashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(CommissionDashboardService.class);
+
+    private static final ZoneId ZONE = ZoneId.of("America/Argentina/Buenos_Aires");
+
+    private record Snapshot(CommissionDashboardDTO body, String etag) {
+    }
+
+    private final ICommissionService commissionService;
+
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    @Override
+    public ResponseEntity<CommissionDashboardDTO> getSnapshot(String ifNoneMatch) {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            snapshot = initialize();
+        }
+
+        if (matches(ifNoneMatch, snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(snapshot.body());
+    }
+
+    @Scheduled(fixedDelayString = "${dashboard.refresh-interval-ms:300000}",
+            initialDelayString = "${dashboard.initial-delay-ms:30000}")
+    @Override
+    public void refresh() {
+        try {
+            current.set(build(current.get()));
+        } catch (RuntimeException e) {
+            // se sigue sirviendo la foto anterior
+            log.warn("No se pudo actualizar el panel de comisiones: {}", e.getMessage());
+        }
+    }
+
+    // el primer pedido antes de la tarea programada calcula la foto una sola vez
+    private synchronized Snapshot initialize() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            snapshot = build(null);
+            current.set(snapshot);
+        }
+        return snapshot;
+    }
+
+    private Snapshot build(Snapshot previous) {
+        int year = LocalDateTime.now(ZONE).getYear();
+
+        Map<PaymentCurrency, Map<YearMonth, BigDecimal>> monthlyTotals = new EnumMap<>(PaymentCurrency.class);
+        for (PaymentCurrency currency : PaymentCurrency.values()) {
+            monthlyTotals.put(currency, copy(commissionService.getYearMonthlyTotals(year, currency).getBody()));
+        }
+        Map<CommissionStatus, Long> byStatus = copy(commissionService.countByStatus().getBody());
+        BigDecimal partialRemainingAmount = commissionService.getPartialCommissionsRemainingAmount().getBody();
+
+        String etag = etag(year, monthlyTotals, byStatus, partialRemainingAmount);
+        // si los datos no cambiaron se conserva la foto anterior y los clientes siguen recibiendo 304
+        if (previous != null && previous.etag().equals(etag)) {
+            return previous;
+        }
+
+        CommissionDashboardDTO body = new CommissionDashboardDTO(LocalDateTime.now(ZONE), year,
+                Collections.unmodifiableMap(monthlyTotals), byStatus, partialRemainingAmount);
+        return new Snapshot(body, etag);
+    }
+
+    private String etag(Object... parts) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(Arrays.asList(parts))) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el panel de comisiones", e);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) value = value.substring(2);
+            if (value.equals("*") || value.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private static <K, V> Map<K, V> copy(Map<K, V> body) {
+        return body == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(body));
+    }
+}
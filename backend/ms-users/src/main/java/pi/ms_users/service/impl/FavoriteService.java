@@ -80,4 +80,9 @@ public class FavoriteService implements IFavoriteService {
     public List<String> findAllUsers() {
         return favoriteRepository.findAllUsers();
     }
+
+    @Override
+    public List<Favorite> findAll() {
+        return favoriteRepository.findAll();
+    }
 }
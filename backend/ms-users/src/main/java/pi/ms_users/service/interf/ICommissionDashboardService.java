@@ -0,0 +1,10 @@
+package pi.ms_users.service.interf;
+
+import org.springframework.http.ResponseEntity;
+import pi.ms_users.dto.CommissionDashboardDTO;
+
+public interface ICommissionDashboardService {
+    ResponseEntity<CommissionDashboardDTO> getSnapshot(String ifNoneMatch);
+
+    void refresh();
+}
@@ -15,4 +15,6 @@ public interface IFavoriteService {
     ResponseEntity<List<Favorite>> findByPropertyId(Long propertyId);
 
     List<String> findAllUsers();
+
+    List<Favorite> findAll();
 }
\ No newline at end of file
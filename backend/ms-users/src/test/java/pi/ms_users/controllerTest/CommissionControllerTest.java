@@ -9,6 +9,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -18,13 +20,16 @@ import pi.ms_users.domain.CommissionPaymentType;
 import pi.ms_users.domain.CommissionStatus;
 import pi.ms_users.domain.PaymentCurrency;
 import pi.ms_users.dto.CommissionDTO;
+import pi.ms_users.dto.CommissionDashboardDTO;
 import pi.ms_users.dto.CommissionGetDTO;
 import pi.ms_users.security.WebSecurityConfig;
 import pi.ms_users.service.impl.CommissionService;
+import pi.ms_users.service.interf.ICommissionDashboardService;
 import pi.ms_users.service.interf.ICommissionService;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
@@ -44,12 +49,20 @@ class CommissionControllerTest {
     @Autowired
     private ICommissionService commissionService;
 
+    @Autowired
+    private ICommissionDashboardService commissionDashboardService;
+
     @TestConfiguration
     static class Config {
         @Bean
         public ICommissionService commissionService() {
             return Mockito.mock(ICommissionService.class);
         }
+
+        @Bean
+        public ICommissionDashboardService commissionDashboardService() {
+            return Mockito.mock(ICommissionDashboardService.class);
+        }
     }
 
     private final ObjectMapper objectMapper = new ObjectMapper()
@@ -179,8 +192,41 @@ class CommissionControllerTest {
                 .andExpect(jsonPath("$.['2025-01']").value(2000));
     }
 
+    @Test
+    @WithMockUser(roles = "admin")
+    void getDashboard_shouldReturnOk() throws Exception {
+        CommissionDashboardDTO dashboard = new CommissionDashboardDTO(LocalDateTime.of(2025, 1, 1, 10, 0), 2025,
+                Map.of(PaymentCurrency.ARS, Map.of(YearMonth.of(2025, 1), BigDecimal.valueOf(2000))),
+                Map.of(CommissionStatus.PENDIENTE, 3L), BigDecimal.TEN);
+        when(commissionDashboardService.getSnapshot(null))
+                .thenReturn(ResponseEntity.ok().eTag("\"abc\"").body(dashboard));
+
+        mockMvc.perform(get("/commissions/dashboard"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(jsonPath("$.byStatus.PENDIENTE").value(3))
+                .andExpect(jsonPath("$.monthlyTotals.ARS.['2025-01']").value(2000));
+    }
+
+    @Test
+    @WithMockUser(roles = "admin")
+    void getDashboard_shouldReturnNotModified_whenEtagMatches() throws Exception {
+        when(commissionDashboardService.getSnapshot("\"abc\""))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"abc\"").build());
+
+        mockMvc.perform(get("/commissions/dashboard").header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified());
+    }
+
     // casos de error
 
+    @Test
+    @WithMockUser(roles = "tenant")
+    void getDashboard_shouldReturnForbidden_whenNotAdmin() throws Exception {
+        mockMvc.perform(get("/commissions/dashboard"))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @WithMockUser(roles = "tenant")
     void createCommission_shouldReturnForbidden_whenNotAdmin() throws Exception {
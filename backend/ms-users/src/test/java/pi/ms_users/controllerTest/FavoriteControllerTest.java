@@ -123,6 +123,22 @@ public class FavoriteControllerTest {
                 .andExpect(jsonPath("$[1]").value("user2"));
     }
 
+    @Test
+    void getAll_withAdminRole_shouldReturnAllFavorites() throws Exception {
+        Favorite favorite = new Favorite();
+        favorite.setId(1L);
+        favorite.setUserId("user1");
+        favorite.setPropertyId(100L);
+
+        when(favoriteService.findAll()).thenReturn(List.of(favorite));
+
+        mockMvc.perform(get("/favorites/internal/all")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_admin"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].userId").value("user1"))
+                .andExpect(jsonPath("$[0].propertyId").value(100));
+    }
+
     // casos de error
 
     @Test
@@ -0,0 +1,141 @@
+package pi.ms_users.serviceTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import pi.ms_users.domain.CommissionStatus;
+import pi.ms_users.domain.PaymentCurrency;
+import pi.ms_users.dto.CommissionDashboardDTO;
+import pi.ms_users.service.impl.CommissionDashboardService;
+import pi.ms_users.service.interf.ICommissionService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommissionDashboardServiceTest {
+
+    @InjectMocks
+    private CommissionDashboardService commissionDashboardService;
+
+    @Mock
+    private ICommissionService commissionService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private void stubStatistics(long pending) {
+        when(commissionService.getYearMonthlyTotals(anyInt(), eq(PaymentCurrency.ARS)))
+                .thenReturn(ResponseEntity.ok(Map.of(YearMonth.of(2025, 1), BigDecimal.valueOf(2000))));
+        when(commissionService.getYearMonthlyTotals(anyInt(), eq(PaymentCurrency.USD)))
+                .thenReturn(ResponseEntity.ok(Map.of(YearMonth.of(2025, 1), BigDecimal.valueOf(100))));
+        when(commissionService.countByStatus()).thenReturn(ResponseEntity.ok(Map.of(CommissionStatus.PENDIENTE, pending)));
+        when(commissionService.getPartialCommissionsRemainingAmount()).thenReturn(ResponseEntity.ok(BigDecimal.TEN));
+    }
+
+    // casos de exito
+
+    @Test
+    void getSnapshot_shouldBuildOnFirstRequest() {
+        stubStatistics(3L);
+
+        ResponseEntity<CommissionDashboardDTO> response = commissionDashboardService.getSnapshot(null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getCacheControl().contains("no-cache"));
+        CommissionDashboardDTO dashboard = response.getBody();
+        int year = LocalDate.now(ZoneId.of("America/Argentina/Buenos_Aires")).getYear();
+        assertEquals(year, dashboard.getYear());
+        assertEquals(BigDecimal.valueOf(2000), dashboard.getMonthlyTotals().get(PaymentCurrency.ARS).get(YearMonth.of(2025, 1)));
+        assertEquals(BigDecimal.valueOf(100), dashboard.getMonthlyTotals().get(PaymentCurrency.USD).get(YearMonth.of(2025, 1)));
+        assertEquals(3L, dashboard.getByStatus().get(CommissionStatus.PENDIENTE));
+        assertEquals(BigDecimal.TEN, dashboard.getPartialRemainingAmount());
+        verify(commissionService).getYearMonthlyTotals(year, PaymentCurrency.ARS);
+    }
+
+    @Test
+    void getSnapshot_shouldServeFromMemory() {
+        stubStatistics(3L);
+
+        commissionDashboardService.getSnapshot(null);
+        commissionDashboardService.getSnapshot(null);
+        commissionDashboardService.getSnapshot(null);
+
+        verify(commissionService, times(1)).countByStatus();
+        verify(commissionService, times(1)).getPartialCommissionsRemainingAmount();
+    }
+
+    @Test
+    void getSnapshot_shouldReturnNotModified_whenEtagMatches() {
+        stubStatistics(3L);
+        String etag = commissionDashboardService.getSnapshot(null).getHeaders().getETag();
+
+        ResponseEntity<CommissionDashboardDTO> response = commissionDashboardService.getSnapshot("W/" + etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void refresh_shouldKeepSnapshot_whenDataDidNotChange() {
+        stubStatistics(3L);
+        ResponseEntity<CommissionDashboardDTO> first = commissionDashboardService.getSnapshot(null);
+
+        commissionDashboardService.refresh();
+
+        assertSame(first.getBody(), commissionDashboardService.getSnapshot(null).getBody());
+        verify(commissionService, times(2)).countByStatus();
+    }
+
+    @Test
+    void refresh_shouldPublishNewSnapshot_whenDataChanges() {
+        stubStatistics(3L);
+        String etag = commissionDashboardService.getSnapshot(null).getHeaders().getETag();
+
+        stubStatistics(4L);
+        commissionDashboardService.refresh();
+        ResponseEntity<CommissionDashboardDTO> response = commissionDashboardService.getSnapshot(etag);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(etag, response.getHeaders().getETag());
+        assertEquals(4L, response.getBody().getByStatus().get(CommissionStatus.PENDIENTE));
+    }
+
+    // casos de error
+
+    @Test
+    void refresh_shouldKeepPreviousSnapshot_whenStatisticsFail() {
+        stubStatistics(3L);
+        ResponseEntity<CommissionDashboardDTO> first = commissionDashboardService.getSnapshot(null);
+        when(commissionService.countByStatus()).thenThrow(new RuntimeException("sin conexion"));
+
+        assertDoesNotThrow(() -> commissionDashboardService.refresh());
+
+        assertSame(first.getBody(), commissionDashboardService.getSnapshot(null).getBody());
+    }
+
+    @Test
+    void getSnapshot_shouldThrow_whenFirstBuildFails() {
+        when(commissionService.getYearMonthlyTotals(anyInt(), any())).thenThrow(new RuntimeException("sin conexion"));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> commissionDashboardService.getSnapshot(null));
+
+        assertEquals("sin conexion", ex.getMessage());
+    }
+}
@@ -139,6 +139,17 @@ class FavoriteServiceTest {
         verify(favoriteRepository).findAllUsers();
     }
 
+    @Test
+    void findAll_success_shouldReturnAllFavorites() {
+        when(favoriteRepository.findAll()).thenReturn(List.of(favorite));
+
+        List<Favorite> result = favoriteService.findAll();
+
+        assertEquals(1, result.size());
+        assertEquals(favorite, result.getFirst());
+        verify(favoriteRepository).findAll();
+    }
+
     @Test
     void create_asAdmin_success() {
         when(userRepository.findById("user123")).thenReturn(Optional.of(user));
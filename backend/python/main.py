@@ -1,4 +1,5 @@
 from fastapi import FastAPI, Query
+from pydantic import BaseModel
 import joblib
 from train_utils import entrenar_modelo
 
@@ -22,6 +23,28 @@ def predict(user_id: str = Query(...), property_id: int = Query(...)):
         return {"error": f"Error al predecir: {str(e)}"}
 
 
+class BatchPredictRequest(BaseModel):
+    user_ids: list[str]
+    property_ids: list[int]
+
+
+# puntua todos los pares usuario x propiedad en una sola llamada
+@app.post("/predict/batch")
+def predict_batch(request: BatchPredictRequest):
+    if not model:
+        return {"error": "Modelo no entrenado aún"}
+    try:
+        predictions = [
+            {"user_id": user_id, "property_id": property_id,
+             "prediction": round(model.predict(user_id, property_id).est, 3)}
+            for user_id in request.user_ids
+            for property_id in request.property_ids
+        ]
+        return {"predictions": predictions}
+    except Exception as e:
+        return {"error": f"Error al predecir: {str(e)}"}
+
+
 @app.post("/train")
 def train_model():
     global model
@@ -88,6 +88,20 @@ CREATE TABLE View (
     FOREIGN KEY (property_id) REFERENCES Property(id) ON DELETE CASCADE
 );
 
+CREATE TABLE View_Count (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    property_id BIGINT NOT NULL,
+    bucket DATETIME NOT NULL,
+    total BIGINT NOT NULL DEFAULT 0,
+    UNIQUE (property_id, bucket),
+    FOREIGN KEY (property_id) REFERENCES Property(id) ON DELETE CASCADE
+);
+
+INSERT INTO View_Count (property_id, bucket, total)
+SELECT property_id, DATE_FORMAT(date, '%Y-%m-%d %H:00:00'), COUNT(*)
+FROM View
+GROUP BY property_id, DATE_FORMAT(date, '%Y-%m-%d %H:00:00');
+
 CREATE TABLE User_View (
 	id BIGINT PRIMARY KEY AUTO_INCREMENT,
     user_id VARCHAR(100) NOT NULL,
@@ -353,4 +367,32 @@ CREATE TABLE Suggestion (
 	id INT PRIMARY KEY AUTO_INCREMENT,
     description VARCHAR(2000),
     date DATETIME NOT NULL
-);
\ No newline at end of file
+);
+
+CREATE TABLE Geocode (
+    address VARCHAR(500) PRIMARY KEY,
+    latitude DOUBLE,
+    longitude DOUBLE,
+    updated_at DATETIME NOT NULL
+);
+
+CREATE TABLE Email_Outbox (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    status ENUM('PENDIENTE', 'ENVIADO', 'FALLIDO') NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    created_at DATETIME NOT NULL,
+    next_attempt_at DATETIME NOT NULL,
+    sent_at DATETIME,
+    last_error VARCHAR(500),
+    INDEX idx_email_outbox_due (status, next_attempt_at)
+);
+
+CREATE TABLE Image_Derivative (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    variant ENUM('THUMBNAIL', 'CARD', 'FULL') NOT NULL,
+    UNIQUE (name, variant)
+);